@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.jmh;
+
+import com.ibm.wala.core.jmh.Subjects.CallGraphKind;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building 0-CFA and 0-1-CFA call graphs of test subjects. Each call graph is built with a fresh
+ * analysis cache, so the time includes building the IR of every reachable method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CallGraphBenchmark {
+
+  @Param public CallGraphKind kind;
+
+  @Param({"Lhello/Hello", "Lstring/SimpleStringOps", "Lrecurse/NList", "Lslice/Slice1"})
+  public String mainClass;
+
+  private AnalysisScope scope;
+
+  private IClassHierarchy cha;
+
+  @Setup
+  public void setUp() throws IOException, ClassHierarchyException {
+    scope = Subjects.makeScope();
+    cha = ClassHierarchyFactory.make(scope);
+  }
+
+  @Benchmark
+  public CallGraph build() throws CancelException {
+    return Subjects.makeCallGraph(scope, cha, mainClass, kind);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.jmh;
+
+import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.MutableIntSetFactory;
+import com.ibm.wala.util.intset.MutableSharedBitVectorIntSetFactory;
+import com.ibm.wala.util.intset.MutableSparseIntSetFactory;
+import com.ibm.wala.util.intset.SemiSparseMutableIntSetFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Unions of int sets, as done when propagating points-to sets: a set is repeatedly merged with sets
+ * of the given size, drawn from a universe of the given density.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntSetUnionBenchmark {
+
+  private static final int SETS = 64;
+
+  /** Which kind of set */
+  public enum Kind {
+    SHARED_BIT_VECTOR(new MutableSharedBitVectorIntSetFactory()),
+    SPARSE(new MutableSparseIntSetFactory()),
+    SEMI_SPARSE(new SemiSparseMutableIntSetFactory());
+
+    final MutableIntSetFactory<?> factory;
+
+    Kind(MutableIntSetFactory<?> factory) {
+      this.factory = factory;
+    }
+  }
+
+  @Param public Kind kind;
+
+  /** number of elements in each set */
+  @Param({"16", "1024"})
+  public int size;
+
+  /** fraction of the universe the elements of a set are drawn from */
+  @Param({"0.01", "0.5"})
+  public double density;
+
+  private MutableIntSet[] sets;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    int universe = (int) (size / density);
+    sets = new MutableIntSet[SETS];
+    for (int i = 0; i < SETS; i++) {
+      sets[i] = kind.factory.make();
+      while (sets[i].size() < size) {
+        sets[i].add(random.nextInt(universe));
+      }
+    }
+  }
+
+  /** Merge every set into a copy of the first one. */
+  @Benchmark
+  public MutableIntSet addAll() {
+    MutableIntSet result = kind.factory.makeCopy(sets[0]);
+    for (int i = 1; i < SETS; i++) {
+      result.addAll(sets[i]);
+    }
+    return result;
+  }
+
+  /** Merge each set into a copy of the one before it, as when a new node is reached. */
+  @Benchmark
+  public int addAllPairs() {
+    int changed = 0;
+    for (int i = 1; i < SETS; i++) {
+      MutableIntSet s = kind.factory.makeCopy(sets[i - 1]);
+      if (s.addAll(sets[i])) {
+        changed++;
+      }
+    }
+    return changed;
+  }
+}
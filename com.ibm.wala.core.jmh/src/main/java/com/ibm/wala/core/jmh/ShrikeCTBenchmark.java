@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.jmh;
+
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.shrikeBT.Decoder.InvalidBytecodeException;
+import com.ibm.wala.shrikeBT.shrikeCT.CTDecoder;
+import com.ibm.wala.shrikeCT.ClassReader;
+import com.ibm.wala.shrikeCT.CodeReader;
+import com.ibm.wala.shrikeCT.InvalidClassFileException;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.io.FileUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Parsing the class files of the test subjects with ShrikeCT, and decoding their bytecode. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShrikeCTBenchmark {
+
+  /** the contents of every class file of the application loader */
+  private List<byte[]> classFiles;
+
+  @Setup
+  public void setUp() throws IOException {
+    AnalysisScope scope = Subjects.makeScope();
+    classFiles = new ArrayList<>();
+    for (Module m : scope.getModules(ClassLoaderReference.Application)) {
+      for (ModuleEntry e : Iterator2Iterable.make(m.getEntries())) {
+        if (e.isClassFile()) {
+          try (InputStream s = e.getInputStream()) {
+            classFiles.add(FileUtil.readBytes(s));
+          }
+        }
+      }
+    }
+  }
+
+  /** Read the header, fields and method table of each class. */
+  @Benchmark
+  public void parse(Blackhole bh) throws InvalidClassFileException {
+    for (byte[] bytes : classFiles) {
+      ClassReader reader = new ClassReader(bytes);
+      bh.consume(reader.getName());
+      bh.consume(reader.getSuperName());
+      bh.consume(reader.getInterfaceNames());
+      for (int f = 0; f < reader.getFieldCount(); f++) {
+        bh.consume(reader.getFieldName(f));
+        bh.consume(reader.getFieldType(f));
+      }
+      for (int m = 0; m < reader.getMethodCount(); m++) {
+        bh.consume(reader.getMethodName(m));
+        bh.consume(reader.getMethodType(m));
+      }
+    }
+  }
+
+  /** Parse each class and decode the bytecode of all its methods. */
+  @Benchmark
+  public void decode(Blackhole bh) throws InvalidClassFileException, InvalidBytecodeException {
+    ClassReader.AttrIterator iter = new ClassReader.AttrIterator();
+    for (byte[] bytes : classFiles) {
+      ClassReader reader = new ClassReader(bytes);
+      for (int m = 0; m < reader.getMethodCount(); m++) {
+        for (reader.initMethodAttributeIterator(m, iter); iter.isValid(); iter.advance()) {
+          if (iter.getName().equals("Code")) {
+            CTDecoder decoder = new CTDecoder(new CodeReader(iter));
+            decoder.decode();
+            bh.consume(decoder.getInstructions());
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.jmh;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+
+/**
+ * The programs the benchmarks analyze: the classes of the core test subjects, with the Java
+ * standard library and the regression exclusions used by the core tests.
+ */
+final class Subjects {
+
+  /** scope file listing the standard library and the test subjects jar */
+  static final String SCOPE = "wala.benchmarks.txt";
+
+  private Subjects() {}
+
+  static AnalysisScope makeScope() throws IOException {
+    return CallGraphTestUtil.makeJ2SEAnalysisScope(
+        SCOPE, CallGraphTestUtil.REGRESSION_EXCLUSIONS, Subjects.class.getClassLoader());
+  }
+
+  /** Which call graph to build */
+  enum CallGraphKind {
+    ZERO_CFA,
+    ZERO_ONE_CFA
+  }
+
+  /** Build a call graph rooted at the main method of mainClass. */
+  static CallGraph makeCallGraph(
+      AnalysisScope scope, IClassHierarchy cha, String mainClass, CallGraphKind kind)
+      throws CancelException {
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(scope, cha, mainClass);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    CallGraphBuilder<InstanceKey> builder;
+    switch (kind) {
+      case ZERO_CFA:
+        builder =
+            Util.makeZeroCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+        break;
+      case ZERO_ONE_CFA:
+        builder =
+            Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+        break;
+      default:
+        throw new IllegalArgumentException("unknown call graph kind " + kind);
+    }
+    return builder.makeCallGraph(options, null);
+  }
+}
@@ -172,6 +172,11 @@ public class ClassFactoryContextInterpreter implements SSAContextInterpreter {
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    cache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     return EmptyIterator.instance();
@@ -210,6 +210,11 @@ public class ClassNewInstanceContextInterpreter extends AbstractReflectionInterp
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    cache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     return EmptyIterator.instance();
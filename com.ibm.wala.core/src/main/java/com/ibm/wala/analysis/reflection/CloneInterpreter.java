@@ -230,6 +230,11 @@ public class CloneInterpreter implements SSAContextInterpreter {
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    IRCache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     SSAInstruction[] statements = getIR(node).getInstructions();
@@ -225,6 +225,12 @@ public class FactoryBypassInterpreter extends AbstractReflectionInterpreter {
         node.getMethod().getClassHierarchy(), node.getContext(), klass.getReference());
   }
 
+  @Override
+  public void clearCaches() {
+    map.clear();
+    syntheticMethodCache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     if (node == null) {
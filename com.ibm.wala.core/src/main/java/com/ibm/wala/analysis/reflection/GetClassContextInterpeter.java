@@ -145,6 +145,11 @@ public class GetClassContextInterpeter implements SSAContextInterpreter {
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    cache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     return EmptyIterator.instance();
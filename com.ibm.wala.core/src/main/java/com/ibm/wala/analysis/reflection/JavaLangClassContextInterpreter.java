@@ -519,6 +519,11 @@ public class JavaLangClassContextInterpreter implements SSAContextInterpreter {
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    cache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     return EmptyIterator.instance();
@@ -296,6 +296,11 @@ public class ReflectiveInvocationInterpreter extends AbstractReflectionInterpret
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    cache.clear();
+  }
+
   @Override
   public Iterator<FieldReference> iterateFieldsRead(CGNode node) {
     return EmptyIterator.instance();
@@ -377,6 +377,11 @@ public class MethodHandles {
       return false;
     }
 
+    @Override
+    public void clearCaches() {
+      irs.clear();
+    }
+
     @Override
     public Iterator<CallSiteReference> iterateCallSites(CGNode node) {
       return getIR(node).iterateCallSites();
@@ -13,8 +13,7 @@ package com.ibm.wala.classLoader;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.types.TypeName;
 import com.ibm.wala.types.TypeReference;
-import com.ibm.wala.util.collections.HashMapFactory;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Pseudo-classloader for all array classes; all other IClassLoader implementations should delegate
@@ -24,8 +23,12 @@ public class ArrayClassLoader {
 
   private static final boolean DEBUG = false;
 
-  /** map: TypeReference -&gt; ArrayClass */
-  private final HashMap<TypeReference, ArrayClass> arrayClasses = HashMapFactory.make();
+  /**
+   * map: TypeReference -&gt; ArrayClass. Concurrent, since array classes are created on demand by
+   * the threads that build IR too; the first ArrayClass stored for a type is the one returned.
+   */
+  private final ConcurrentHashMap<TypeReference, ArrayClass> arrayClasses =
+      new ConcurrentHashMap<>();
 
   /**
    * @param className name of the array class
@@ -48,7 +51,7 @@ public class ArrayClassLoader {
       arrayClass = arrayClasses.get(aRef);
       IClassLoader primordial = getRootClassLoader(delegator);
       if (arrayClass == null) {
-        arrayClasses.put(aRef, arrayClass = new ArrayClass(aRef, primordial, cha));
+        arrayClass = putIfAbsent(aRef, new ArrayClass(aRef, primordial, cha));
       }
     } else {
       arrayClass = arrayClasses.get(type);
@@ -65,12 +68,18 @@ public class ArrayClassLoader {
         if (arrayClass == null) {
           arrayClass = new ArrayClass(realType, elementCls.getClassLoader(), cha);
         }
+        arrayClass = putIfAbsent(type, arrayClass);
       }
-      arrayClasses.put(type, arrayClass);
     }
     return arrayClass;
   }
 
+  /** @return the array class stored for type, storing c if there is none */
+  private ArrayClass putIfAbsent(TypeReference type, ArrayClass c) {
+    ArrayClass old = arrayClasses.putIfAbsent(type, c);
+    return old == null ? c : old;
+  }
+
   private static IClassLoader getRootClassLoader(IClassLoader l) {
     while (l.getParent() != null) {
       l = l.getParent();
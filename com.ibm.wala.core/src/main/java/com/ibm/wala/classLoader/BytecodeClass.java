@@ -82,8 +82,8 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
   /** superclass */
   protected IClass superClass;
 
-  /** Compute the superclass lazily. */
-  protected boolean superclassComputed = false;
+  /** Compute the superclass lazily. Volatile, and written after {@link #superClass}. */
+  protected volatile boolean superclassComputed = false;
 
   /**
    * The IClasses that represent all interfaces this class implements (if it's a class) or extends
@@ -91,8 +91,11 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
    */
   protected Collection<IClass> allInterfaces = null;
 
-  /** The instance fields declared in this class. */
-  protected IField[] instanceFields;
+  /**
+   * The instance fields declared in this class. Volatile, and written after the static fields, so
+   * that a thread that sees the fields computed on another thread also sees the static fields.
+   */
+  protected volatile IField[] instanceFields;
 
   /** The static fields declared in this class. */
   protected IField[] staticFields;
@@ -253,16 +256,14 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
   }
 
   private void computeSuperclass() {
-    superclassComputed = true;
-
     if (superName == null) {
       if (!getReference().equals(loader.getLanguage().getRootType())) {
         superClass = loader.lookupClass(loader.getLanguage().getRootType().getName());
       }
-      return;
+    } else {
+      superClass = loader.lookupClass(TypeName.findOrCreate(superName));
     }
-
-    superClass = loader.lookupClass(TypeName.findOrCreate(superName));
+    superclassComputed = true;
   }
 
   @Override
@@ -284,6 +285,18 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
     return superClass;
   }
 
+  /**
+   * Forget the superclass, interfaces, and inherited members cached by this class, so that they are
+   * looked up again after some of its supertypes were replaced in the class hierarchy.
+   */
+  public synchronized void clearSupertypeCaches() {
+    superclassComputed = false;
+    superClass = null;
+    allInterfaces = null;
+    inheritCache = null;
+    fieldMap.clear();
+  }
+
   public TypeName getSuperName() {
     return TypeName.findOrCreate(superName);
   }
@@ -316,6 +329,7 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
    */
   @Override
   public Collection<IField> getDeclaredInstanceFields() {
+    computeFieldsIfNeeded();
     if (instanceFields == null) {
       return Collections.emptySet();
     } else {
@@ -328,6 +342,7 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
    */
   @Override
   public Collection<IField> getDeclaredStaticFields() {
+    computeFieldsIfNeeded();
     return Collections.unmodifiableList(Arrays.asList(staticFields));
   }
 
@@ -421,11 +436,9 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
     if (result != null) {
       return result;
     }
-    if (inheritCache != null) {
-      result = inheritCache.get(selector);
-      if (result != null) {
-        return result;
-      }
+    result = getInherited(selector);
+    if (result != null) {
+      return result;
     }
 
     // check parent, caching if found
@@ -435,10 +448,7 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
       if (superclass != null) {
         IMethod inherit = superclass.getMethod(selector);
         if (inherit != null) {
-          if (inheritCache == null) {
-            inheritCache = new BimodalMap<>(5);
-          }
-          inheritCache.put(selector, inherit);
+          cacheInherited(selector, inherit);
           return inherit;
         }
       }
@@ -449,22 +459,30 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
     for (IClass iface : getAllImplementedInterfaces()) {
       for (IMethod m : iface.getDeclaredMethods()) {
         if (!m.isAbstract() && m.getSelector().equals(selector)) {
-          if (inheritCache == null) {
-            inheritCache = new BimodalMap<>(5);
-          }
-          inheritCache.put(selector, m);
-
+          cacheInherited(selector, m);
           return m;
         }
       }
     }
 
     // no method found
+    cacheInherited(selector, null);
+    return null;
+  }
+
+  /**
+   * @return the method cached for selector by {@link #getMethod(Selector)}, or null. The cache is
+   *     locked, since methods are resolved on the threads that build IR as well.
+   */
+  private synchronized IMethod getInherited(Selector selector) {
+    return inheritCache == null ? null : inheritCache.get(selector);
+  }
+
+  private synchronized void cacheInherited(Selector selector, IMethod m) {
     if (inheritCache == null) {
       inheritCache = new BimodalMap<>(5);
     }
-    inheritCache.put(selector, null);
-    return null;
+    inheritCache.put(selector, m);
   }
 
   /** @return Collection of IClasses, representing the interfaces this class implements. */
@@ -518,6 +536,7 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
   }
 
   protected List<IField> findDeclaredField(Atom name) {
+    computeFieldsIfNeeded();
 
     List<IField> result = new ArrayList<>(1);
 
@@ -560,6 +579,12 @@ public abstract class BytecodeClass<T extends IClassLoader> implements IClass {
     L.add(f);
   }
 
+  /**
+   * set up {@link #instanceFields} and {@link #staticFields}, for subclasses that do not do so when
+   * they are created
+   */
+  protected void computeFieldsIfNeeded() {}
+
   /** set up the methodMap mapping */
   protected void computeMethodMapIfNeeded() throws InvalidClassFileException {
     if (methodMap == null) {
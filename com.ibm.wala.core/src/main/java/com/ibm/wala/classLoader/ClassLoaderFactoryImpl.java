@@ -20,6 +20,7 @@ import com.ibm.wala.util.warnings.Warnings;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.util.HashMap;
+import java.util.Map;
 
 /** An implementation of the class loader factory that produces ClassLoaderImpls */
 public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
@@ -33,6 +34,13 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
   /** A Mapping from ClassLoaderReference to IClassLoader */
   private final HashMap<ClassLoaderReference, IClassLoader> map = HashMapFactory.make(3);
 
+  /** number of threads each {@link ClassLoaderImpl} uses to read and parse class files */
+  private int loadingThreads = 1;
+
+  /** headers of classes to create without reading their class files, for each loader */
+  private final Map<ClassLoaderReference, Map<String, ShrikeClass.Header>> classHeaders =
+      HashMapFactory.make();
+
   /** @param exclusions A set of classes that class loaders should pretend don't exist. */
   public ClassLoaderFactoryImpl(SetOfClasses exclusions) {
     this.exclusions = exclusions;
@@ -128,6 +136,10 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
                   classLoaderReference, scope.getArrayClassLoader(), parent, exclusions, cha);
         }
       }
+    if (cl instanceof ClassLoaderImpl) {
+      ((ClassLoaderImpl) cl).setLoadingThreads(loadingThreads);
+      ((ClassLoaderImpl) cl).setClassHeaders(classHeaders.get(classLoaderReference));
+    }
     cl.init(scope.getModules(classLoaderReference));
     return cl;
   }
@@ -152,6 +164,38 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
     }
   }
 
+  /** @return the number of threads class loaders use to read and parse class files */
+  public int getLoadingThreads() {
+    return loadingThreads;
+  }
+
+  /**
+   * @param n the number of threads class loaders use to read and parse class files; 1 selects
+   *     sequential loading
+   * @throws IllegalArgumentException if n &lt; 1
+   * @see ClassLoaderImpl#setLoadingThreads(int)
+   */
+  public void setLoadingThreads(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("invalid number of loading threads: " + n);
+    }
+    loadingThreads = n;
+  }
+
+  /**
+   * Set the headers of the classes the given loader creates without reading their class files. This
+   * must be done before the loader is created.
+   *
+   * @see ClassLoaderImpl#setClassHeaders(Map)
+   */
+  public void setClassHeaders(
+      ClassLoaderReference loader, Map<String, ShrikeClass.Header> headers) {
+    if (loader == null) {
+      throw new IllegalArgumentException("null loader");
+    }
+    classHeaders.put(loader, headers);
+  }
+
   /** @return the set of classes that will be ignored. */
   public SetOfClasses getExclusions() {
     return exclusions;
@@ -16,6 +16,8 @@ import com.ibm.wala.shrikeCT.InvalidClassFileException;
 import com.ibm.wala.ssa.SSAInstructionFactory;
 import com.ibm.wala.types.ClassLoaderReference;
 import com.ibm.wala.types.TypeName;
+import com.ibm.wala.util.AnalysisSession;
+import com.ibm.wala.util.WalaRuntimeException;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
@@ -35,12 +37,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
@@ -72,6 +79,12 @@ public class ClassLoaderImpl implements IClassLoader {
   /** an object to delegate to for loading of array classes */
   private final ArrayClassLoader arrayClassLoader;
 
+  /** number of threads used to read and parse class files in {@link #init(List)} */
+  private int loadingThreads = 1;
+
+  /** entry key -&gt; header of the class to create from that entry without reading it */
+  private Map<String, ShrikeClass.Header> classHeaders = null;
+
   /**
    * @param loader class loader reference identifying this loader
    * @param parent parent loader for delegation
@@ -100,6 +113,65 @@ public class ClassLoaderImpl implements IClassLoader {
     }
   }
 
+  /** @return the number of threads used to read and parse class files */
+  public int getLoadingThreads() {
+    return loadingThreads;
+  }
+
+  /**
+   * Class files are read and parsed sequentially by default. With more than one thread, the
+   * reading, decompression and parsing of the class files of each module is spread over a thread
+   * pool, while the parsed classes are still added one at a time in the original order, so the
+   * loaded classes and the warnings for duplicate or invalid class files are the same either way.
+   * This must be set before {@link #init(List)}.
+   *
+   * @param n number of threads used to read and parse class files; 1 selects sequential loading
+   * @throws IllegalArgumentException if n &lt; 1
+   */
+  public void setLoadingThreads(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("invalid number of loading threads: " + n);
+    }
+    loadingThreads = n;
+  }
+
+  /**
+   * Have {@link #init(List)} create the classes with these headers without reading their class
+   * files, which are then only read when the fields or methods of a class are needed. The headers
+   * must have been taken from classes loaded from the same modules, as a class loaded from an entry
+   * with a header is trusted to have that name, superclass and interfaces.
+   *
+   * @param headers map from {@link #getEntryKey(ModuleEntry)} to the header of the class loaded
+   *     from that entry; null to read every class file
+   */
+  public void setClassHeaders(Map<String, ShrikeClass.Header> headers) {
+    classHeaders = headers;
+  }
+
+  /**
+   * @return a string identifying the class file held by entry across runs, or null if there is
+   *     none; entries with no key are always read
+   */
+  public static String getEntryKey(ModuleEntry entry) {
+    if (entry instanceof JarFileEntry) {
+      return entry.toString();
+    } else if (entry instanceof FileModule) {
+      return ((FileModule) entry).getAbsolutePath();
+    } else {
+      return null;
+    }
+  }
+
+  /** @return the header given for the class file in entry, if it names className */
+  private ShrikeClass.Header getHeader(ModuleEntry entry, String className) {
+    if (classHeaders == null) {
+      return null;
+    }
+    String key = getEntryKey(entry);
+    ShrikeClass.Header header = key == null ? null : classHeaders.get(key);
+    return header != null && header.getName().toString().equals(className) ? header : null;
+  }
+
   /**
    * Return the Set of (ModuleEntry) source files found in a module.
    *
@@ -205,25 +277,27 @@ public class ClassLoaderImpl implements IClassLoader {
     }
   }
 
-  /** Set up the set of classes loaded by this object. */
+  /**
+   * Set up the set of classes loaded by this object.
+   *
+   * @param pool if non-null, the class files are read and parsed on this pool, and the results are
+   *     then added in the iteration order of moduleEntries, just as the sequential loop would.
+   */
   @SuppressWarnings("unused")
   private void loadAllClasses(
-      Collection<ModuleEntry> moduleEntries, Map<String, Object> fileContents, boolean isJMODType) {
+      Collection<ModuleEntry> moduleEntries,
+      Map<String, Object> fileContents,
+      boolean isJMODType,
+      ExecutorService pool) {
+    List<ModuleEntry> entries = new ArrayList<>(moduleEntries.size());
+    List<String> classNames = new ArrayList<>(moduleEntries.size());
+    List<ShrikeClass.Header> headers = new ArrayList<>(moduleEntries.size());
     for (ModuleEntry entry : moduleEntries) {
-      // java11 support for jmod files
-      if (!entry.isClassFile()
-          || (isJMODType && entry.getClassName().startsWith("classes/module-info"))) {
+      String className = getClassName(entry, isJMODType);
+      if (className == null) {
         continue;
       }
 
-      @SuppressWarnings("NonConstantStringShouldBeStringBuffer")
-      String className = entry.getClassName().replace('.', '/');
-
-      // java11 support for jmod files
-      if (isJMODType && className.startsWith("classes/")) {
-        className = className.replace("classes/", "");
-      }
-
       if (DEBUG_LEVEL > 0) {
         System.err.println("Consider " + className);
       }
@@ -235,45 +309,142 @@ public class ClassLoaderImpl implements IClassLoader {
         continue;
       }
 
-      ShrikeClassReaderHandle entryReader = new ShrikeClassReaderHandle(entry);
-
       className = 'L' + className;
+      entries.add(entry);
+      classNames.add(className);
+      headers.add(getHeader(entry, className));
+    }
+
+    // entry index -> the parse of its class file on the pool, or null to parse it on demand
+    List<Future<ShrikeClass>> parsed = null;
+    if (pool != null) {
+      parsed = new ArrayList<>(entries.size());
+      // each class is reserved by the first entry that names it, and only that entry is parsed
+      // ahead; the others are only parsed if it turns out to be invalid
+      Set<String> reserved = HashSetFactory.make();
+      AnalysisSession session = AnalysisSession.current();
+      for (int i = 0; i < entries.size(); i++) {
+        ModuleEntry entry = entries.get(i);
+        String className = classNames.get(i);
+        if (headers.get(i) == null
+            && !isLoaded(TypeName.string2TypeName(className))
+            && reserved.add(className)) {
+          parsed.add(pool.submit(session.bind(() -> parseClass(entry, fileContents))));
+        } else {
+          parsed.add(null);
+        }
+      }
+    }
+
+    for (int i = 0; i < entries.size(); i++) {
+      String className = classNames.get(i);
       if (DEBUG_LEVEL > 0) {
         System.err.println("Load class " + className);
       }
-      try {
-        TypeName T = TypeName.string2TypeName(className);
-        if (loadedClasses.get(T) != null) {
-          Warnings.add(MultipleImplementationsWarning.create(className));
-        } else if (parent != null && parent.lookupClass(T) != null) {
-          Warnings.add(MultipleImplementationsWarning.create(className));
+      TypeName T = TypeName.string2TypeName(className);
+      if (loadedClasses.get(T) != null) {
+        Warnings.add(MultipleImplementationsWarning.create(className));
+      } else if (parent != null && parent.lookupClass(T) != null) {
+        Warnings.add(MultipleImplementationsWarning.create(className));
+      } else {
+        ShrikeClass klass;
+        if (headers.get(i) != null) {
+          klass =
+              new ShrikeClass(
+                  new ShrikeClassReaderHandle(entries.get(i)), this, cha, headers.get(i));
+        } else if (parsed != null && parsed.get(i) != null) {
+          klass = getParsed(parsed.get(i));
         } else {
-          // try to read from memory
-          ShrikeClassReaderHandle reader = entryReader;
-          if (fileContents != null) {
-            final Object contents = fileContents.get(entry.getName());
-            if (contents != null) {
-              // reader that uses the in-memory bytes
-              reader = new ByteArrayReaderHandle(entry, (byte[]) contents);
-            }
+          klass = parseClass(entries.get(i), fileContents);
+        }
+        if (klass == null) {
+          if (DEBUG_LEVEL > 0) {
+            System.err.println(
+                "Ignoring class " + className + " due to InvalidClassFileException");
           }
-          ShrikeClass tmpKlass = new ShrikeClass(reader, this, cha);
-          if (tmpKlass.getReference().getName().equals(T)) {
-            // always used the reader based on the entry after this point,
-            // so we can null out and re-read class file contents
-            loadedClasses.put(T, new ShrikeClass(entryReader, this, cha));
-            if (DEBUG_LEVEL > 1) {
-              System.err.println("put " + T + ' ');
-            }
-          } else {
-            Warnings.add(InvalidClassFile.create(className));
+          Warnings.add(InvalidClassFile.create(className));
+        } else if (klass.getReference().getName().equals(T)) {
+          loadedClasses.put(T, klass);
+          if (DEBUG_LEVEL > 1) {
+            System.err.println("put " + T + ' ');
           }
+        } else {
+          Warnings.add(InvalidClassFile.create(className));
         }
-      } catch (InvalidClassFileException e) {
-        if (DEBUG_LEVEL > 0) {
-          System.err.println("Ignoring class " + className + " due to InvalidClassFileException");
+      }
+    }
+  }
+
+  /** @return true iff a class named T has been loaded by this loader or its parent */
+  private boolean isLoaded(TypeName T) {
+    return loadedClasses.get(T) != null || (parent != null && parent.lookupClass(T) != null);
+  }
+
+  /**
+   * @return the slash-separated name of the class held by entry, or null if the entry holds no
+   *     class to load
+   */
+  private static String getClassName(ModuleEntry entry, boolean isJMODType) {
+    // java11 support for jmod files
+    if (!entry.isClassFile()
+        || (isJMODType && entry.getClassName().startsWith("classes/module-info"))) {
+      return null;
+    }
+
+    @SuppressWarnings("NonConstantStringShouldBeStringBuffer")
+    String className = entry.getClassName().replace('.', '/');
+
+    // java11 support for jmod files
+    if (isJMODType && className.startsWith("classes/")) {
+      className = className.replace("classes/", "");
+    }
+    return className;
+  }
+
+  /**
+   * Read and parse the class file held by entry. This touches no state of this loader, so it may
+   * run on several entries at once.
+   *
+   * @return the class, or null if the class file is invalid
+   */
+  private ShrikeClass parseClass(ModuleEntry entry, Map<String, Object> fileContents) {
+    ShrikeClassReaderHandle entryReader = new ShrikeClassReaderHandle(entry);
+    try {
+      // try to read from memory
+      ShrikeClassReaderHandle reader = entryReader;
+      if (fileContents != null) {
+        final Object contents = fileContents.get(entry.getName());
+        if (contents != null) {
+          // reader that uses the in-memory bytes
+          reader = new ByteArrayReaderHandle(entry, (byte[]) contents);
         }
-        Warnings.add(InvalidClassFile.create(className));
+      }
+      ShrikeClass klass = new ShrikeClass(reader, this, cha);
+      if (reader != entryReader) {
+        // always used the reader based on the entry after this point,
+        // so we can null out and re-read class file contents
+        klass = new ShrikeClass(entryReader, this, cha);
+      }
+      return klass;
+    } catch (InvalidClassFileException e) {
+      return null;
+    }
+  }
+
+  private static ShrikeClass getParsed(Future<ShrikeClass> f) {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WalaRuntimeException("interrupted while loading classes", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new WalaRuntimeException("failed to load class", cause);
       }
     }
   }
@@ -447,7 +618,6 @@ public class ClassLoaderImpl implements IClassLoader {
    *
    * @throws IllegalArgumentException if modules is null
    */
-  @SuppressWarnings("unused")
   @Override
   public void init(List<Module> modules) throws IOException {
 
@@ -455,6 +625,23 @@ public class ClassLoaderImpl implements IClassLoader {
       throw new IllegalArgumentException("modules is null");
     }
 
+    ExecutorService pool = loadingThreads > 1 ? Executors.newFixedThreadPool(loadingThreads) : null;
+    try {
+      loadModules(modules, pool);
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Load the classes and sources of modules.
+   *
+   * @param pool if non-null, the class files are read and parsed on this pool
+   */
+  @SuppressWarnings("unused")
+  private void loadModules(List<Module> modules, ExecutorService pool) throws IOException {
     // module are loaded according to the given order (same as in Java VM)
     Set<ModuleEntry> classModuleEntries = HashSetFactory.make();
     Set<ModuleEntry> sourceModuleEntries = HashSetFactory.make();
@@ -502,7 +689,7 @@ public class ClassLoaderImpl implements IClassLoader {
         // }
         // jarFileContents = null;
       }
-      loadAllClasses(classFiles, allClassAndSourceFileContents, isJMODType);
+      loadAllClasses(classFiles, allClassAndSourceFileContents, isJMODType, pool);
       loadAllSources(sourceFiles);
       classModuleEntries.addAll(classFiles);
       sourceModuleEntries.addAll(sourceFiles);
@@ -674,6 +861,22 @@ public class ClassLoaderImpl implements IClassLoader {
     toRemove.stream().map(IClass::getName).peek(loadedClasses::remove).forEach(sourceMap::remove);
   }
 
+  /**
+   * Make {@code klass} the class this loader returns for its name, replacing any class previously
+   * loaded under that name.
+   *
+   * @see com.ibm.wala.ipa.cha.ClassHierarchy#updateClasses
+   */
+  public void replaceClass(IClass klass) {
+    if (klass == null) {
+      throw new IllegalArgumentException("klass is null");
+    }
+    if (klass.getClassLoader() != this) {
+      throw new IllegalArgumentException(klass + " is not loaded by " + this);
+    }
+    loadedClasses.put(klass.getName(), klass);
+  }
+
   @Override
   public SSAInstructionFactory getInstructionFactory() {
     return getLanguage().instructionFactory();
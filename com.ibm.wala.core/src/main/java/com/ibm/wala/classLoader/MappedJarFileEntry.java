@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.classLoader;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/** An entry in a jar file that is read from the memory mapping of a {@link MappedJarFileModule}. */
+public class MappedJarFileEntry extends JarFileEntry {
+
+  private final MappedJarFileModule module;
+
+  protected MappedJarFileEntry(String entryName, MappedJarFileModule module) {
+    super(entryName, module);
+    this.module = module;
+  }
+
+  /*
+   * @see com.ibm.wala.classLoader.ModuleEntry#getInputStream()
+   */
+  @Override
+  public InputStream getInputStream() {
+    return module.getInputStream(getName());
+  }
+
+  /**
+   * @return a read-only view of the mapping for a stored entry, or a buffer wrapping its inflated
+   *     contents for a compressed one
+   */
+  @Override
+  public ByteBuffer getByteBuffer() {
+    return module.getByteBuffer(getName());
+  }
+
+  @Override
+  public long getSize() {
+    return module.getSize(getName());
+  }
+
+  /** @return the contents of this entry, in a fresh array of exactly its size */
+  public byte[] getBytes() {
+    return module.getBytes(getName());
+  }
+
+  @Override
+  public MappedJarFileModule getContainer() {
+    return module;
+  }
+}
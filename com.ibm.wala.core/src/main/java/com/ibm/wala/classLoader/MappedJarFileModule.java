@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.classLoader;
+
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.debug.Assertions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * A {@link JarFileModule} that maps the jar file into memory and reads entries straight out of the
+ * mapping, rather than through the streams of {@link JarFile}.
+ *
+ * <p>The central directory is parsed once, when the module is created. After that, a stored
+ * (uncompressed) entry is read by copying it out of the mapping once, into an array of its exact
+ * size, and a compressed entry is inflated straight into such an array; {@link
+ * com.ibm.wala.util.shrike.ShrikeClassReaderHandle} hands that array to the class reader as is.
+ * Streams over stored entries read the mapping directly.
+ *
+ * <p>Entries this class cannot handle, such as zip64 or encrypted entries, and jar files too large
+ * to map, are read through the {@link JarFile} as before. The mapping stays valid until it is
+ * garbage collected, even after the {@link JarFile} is closed; on some platforms this keeps the
+ * file from being deleted in the meantime.
+ */
+public class MappedJarFileModule extends JarFileModule {
+
+  private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+  private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+
+  private static final int LOCAL_HEADER = 0x04034b50;
+
+  private static final int LOCAL_HEADER_SIZE = 30;
+
+  private static final int ZIP64_MARKER = 0xffffffff;
+
+  private static final int ENCRYPTED = 1;
+
+  /** where an entry lies in the mapping */
+  private static final class Record {
+    final int method;
+
+    final int offset;
+
+    final int compressedSize;
+
+    final int size;
+
+    Record(int method, int offset, int compressedSize, int size) {
+      this.method = method;
+      this.offset = offset;
+      this.compressedSize = compressedSize;
+      this.size = size;
+    }
+  }
+
+  /** the whole jar file; null if it could not be mapped. Only read through duplicates. */
+  private final ByteBuffer mapping;
+
+  /** entry name -&gt; Record, for the entries read from the mapping */
+  private final Map<String, Record> records = HashMapFactory.make();
+
+  /**
+   * @param f the jar file to map
+   * @throws IOException if the jar file cannot be mapped
+   * @throws IllegalArgumentException if f is null
+   */
+  public MappedJarFileModule(JarFile f) throws IOException {
+    super(f);
+    try (RandomAccessFile raf = new RandomAccessFile(f.getName(), "r");
+        FileChannel channel = raf.getChannel()) {
+      long length = channel.size();
+      if (length > Integer.MAX_VALUE) {
+        mapping = null;
+        return;
+      }
+      MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      b.order(ByteOrder.LITTLE_ENDIAN);
+      mapping = b;
+    }
+    readCentralDirectory();
+  }
+
+  /** Fill {@link #records} from the central directory at the end of the mapping. */
+  private void readCentralDirectory() {
+    int end = -1;
+    int limit = Math.max(0, mapping.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - 0xffff);
+    for (int i = mapping.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; i >= limit; i--) {
+      if (mapping.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+        end = i;
+        break;
+      }
+    }
+    if (end < 0) {
+      return;
+    }
+    int count = mapping.getShort(end + 10) & 0xffff;
+    int pos = mapping.getInt(end + 16);
+    if (count == 0xffff || pos < 0) {
+      // zip64; leave everything to the JarFile
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      if (pos + CENTRAL_DIRECTORY_HEADER_SIZE > end
+          || mapping.getInt(pos) != CENTRAL_DIRECTORY_HEADER) {
+        return;
+      }
+      int flags = mapping.getShort(pos + 8) & 0xffff;
+      int method = mapping.getShort(pos + 10) & 0xffff;
+      int compressedSize = mapping.getInt(pos + 20);
+      int size = mapping.getInt(pos + 24);
+      int nameLength = mapping.getShort(pos + 28) & 0xffff;
+      int extraLength = mapping.getShort(pos + 30) & 0xffff;
+      int commentLength = mapping.getShort(pos + 32) & 0xffff;
+      int local = mapping.getInt(pos + 42);
+      byte[] name = new byte[nameLength];
+      ByteBuffer d = mapping.duplicate();
+      d.position(pos + CENTRAL_DIRECTORY_HEADER_SIZE);
+      d.get(name);
+      pos += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+
+      if ((flags & ENCRYPTED) != 0
+          || (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+          || compressedSize == ZIP64_MARKER
+          || size == ZIP64_MARKER
+          || local == ZIP64_MARKER
+          || compressedSize < 0
+          || size < 0
+          || local < 0
+          || local + LOCAL_HEADER_SIZE > end
+          || mapping.getInt(local) != LOCAL_HEADER) {
+        continue;
+      }
+      int offset =
+          local
+              + LOCAL_HEADER_SIZE
+              + (mapping.getShort(local + 26) & 0xffff)
+              + (mapping.getShort(local + 28) & 0xffff);
+      if (offset + (long) compressedSize > end) {
+        continue;
+      }
+      records.put(
+          new String(name, StandardCharsets.UTF_8),
+          new Record(method, offset, compressedSize, size));
+    }
+  }
+
+  /**
+   * @param extra number of bytes past the end of the data to include
+   * @return a view of the (possibly compressed) data of r
+   */
+  private ByteBuffer getData(Record r, int extra) {
+    ByteBuffer d = mapping.duplicate();
+    d.position(r.offset);
+    d.limit(r.offset + r.compressedSize + extra);
+    return d.slice();
+  }
+
+  /** @return true iff the entry with the given name is read from the mapping */
+  boolean isMapped(String name) {
+    return records.containsKey(name);
+  }
+
+  /** @return the uncompressed size of the mapped entry with the given name */
+  long getSize(String name) {
+    return records.get(name).size;
+  }
+
+  /**
+   * @return the contents of the mapped entry with the given name, in an array of exactly its size
+   */
+  byte[] getBytes(String name) {
+    Record r = records.get(name);
+    byte[] result = new byte[r.size];
+    if (r.method == ZipEntry.STORED) {
+      getData(r, 0).get(result);
+    } else {
+      byte[] compressed = new byte[r.compressedSize];
+      getData(r, 0).get(compressed);
+      Inflater inflater = new Inflater(true);
+      try {
+        inflater.setInput(compressed);
+        int n = 0;
+        while (n < result.length && !inflater.finished()) {
+          int k = inflater.inflate(result, n, result.length - n);
+          if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            break;
+          }
+          n += k;
+        }
+        if (n != result.length) {
+          Assertions.UNREACHABLE("truncated entry " + name + " in " + getAbsolutePath());
+        }
+      } catch (DataFormatException e) {
+        e.printStackTrace();
+        Assertions.UNREACHABLE();
+      } finally {
+        inflater.end();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the contents of the mapped entry with the given name: a read-only view of the mapping
+   *     if it is stored, or else a buffer wrapping its inflated contents
+   */
+  ByteBuffer getByteBuffer(String name) {
+    Record r = records.get(name);
+    if (r.method == ZipEntry.STORED) {
+      return getData(r, 0).asReadOnlyBuffer();
+    } else {
+      return ByteBuffer.wrap(getBytes(name));
+    }
+  }
+
+  /** @return a stream over the contents of the mapped entry with the given name */
+  InputStream getInputStream(String name) {
+    Record r = records.get(name);
+    if (r.method == ZipEntry.STORED) {
+      return new ByteBufferInputStream(getData(r, 0));
+    } else {
+      // as in ZipFile, the inflater may want one byte past the compressed data; there always is
+      // one,
+      // since the central directory follows
+      return new InflaterInputStream(new ByteBufferInputStream(getData(r, 1)), new Inflater(true));
+    }
+  }
+
+  @Override
+  protected ModuleEntry createEntry(ZipEntry z) {
+    return isMapped(z.getName()) ? new MappedJarFileEntry(z.getName(), this) : super.createEntry(z);
+  }
+
+  @Override
+  public byte[] getContents(ZipEntry entry) {
+    return isMapped(entry.getName()) ? getBytes(entry.getName()) : super.getContents(entry);
+  }
+
+  @Override
+  public String toString() {
+    return "MappedJarFileModule:" + getAbsolutePath();
+  }
+
+  /** An input stream reading a buffer from its position to its limit */
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public long skip(long n) {
+      int k = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + k);
+      return k;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
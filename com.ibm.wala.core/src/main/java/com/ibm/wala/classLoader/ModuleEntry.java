@@ -12,6 +12,7 @@
 package com.ibm.wala.classLoader;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /** A ModuleEntry represents a wrapper around a file representation in a {@link Module}. */
 public interface ModuleEntry {
@@ -28,6 +29,15 @@ public interface ModuleEntry {
   /** @return an InputStream which provides the contents of this logical file. */
   InputStream getInputStream();
 
+  /**
+   * @return a buffer holding the contents of this logical file between its position and its limit,
+   *     or null if they can only be read through {@link #getInputStream()}. The buffer may be
+   *     read-only, and may be a view of memory shared with other entries.
+   */
+  default ByteBuffer getByteBuffer() {
+    return null;
+  }
+
   /**
    * @return true iff this module entry (file) represents a module in its own right. e.g., a jar
    *     file which is an entry in another jar file.
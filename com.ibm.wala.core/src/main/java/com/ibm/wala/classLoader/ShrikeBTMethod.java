@@ -63,7 +63,12 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
 
   // break these out to save some space; they're computed lazily.
   protected static class BytecodeInfo {
-    Decoder decoder;
+    /** The decoded instructions, or null if the method has no code. */
+    IInstruction[] instructions;
+
+    ExceptionHandler[][] handlers;
+
+    boolean containsSubroutines;
 
     CallSiteReference[] callSites;
 
@@ -85,6 +90,17 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
 
     /** Mapping from instruction index to program counter. */
     private int[] pcMap;
+
+    /** Exception types this method might throw. Computed on demand. */
+    private TypeReference[] exceptionTypes;
+  }
+
+  /**
+   * Source-level information about the method statements. This is bulky (several tables indexed
+   * by bytecode offset) and not needed to build IR or call graphs, so it is read separately from
+   * the code, and only when asked for.
+   */
+  protected static class DebugInfo {
     /* BEGIN Custom change: precise positions */
 
     /** Cached map representing position information for bytecode instruction at given index */
@@ -108,26 +124,47 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
      * information for that local variable at that offset
      */
     protected int[][] localVariableMap;
-
-    /** Exception types this method might throw. Computed on demand. */
-    private TypeReference[] exceptionTypes;
   }
 
-  /** Cache the information about the method statements. */
-  private SoftReference<BytecodeInfo> bcInfo;
+  /**
+   * Cache the information about the method statements. This is decoded once and then shared by
+   * all clients of the method, such as the class hierarchy, call graph builders and IR
+   * construction, until {@link #clearCaches()} is called under memory pressure.
+   */
+  private volatile BytecodeInfo bcInfo;
+
+  /** Cache the source-level information about the method statements. */
+  private SoftReference<DebugInfo> debugInfo;
 
   public ShrikeBTMethod(IClass klass) {
     this.declaringClass = klass;
   }
 
-  protected synchronized BytecodeInfo getBCInfo() throws InvalidClassFileException {
-    BytecodeInfo result = null;
-    if (bcInfo != null) {
-      result = bcInfo.get();
+  protected BytecodeInfo getBCInfo() throws InvalidClassFileException {
+    BytecodeInfo result = bcInfo;
+    if (result == null) {
+      synchronized (this) {
+        result = bcInfo;
+        if (result == null) {
+          result = computeBCInfo();
+          bcInfo = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  protected synchronized DebugInfo getDebugInfo() throws InvalidClassFileException {
+    DebugInfo result = null;
+    if (debugInfo != null) {
+      result = debugInfo.get();
     }
     if (result == null) {
-      result = computeBCInfo();
-      bcInfo = new SoftReference<>(result);
+      result = new DebugInfo();
+      if (!isNative() && getBCInfo().instructions != null) {
+        processDebugInfo(result);
+      }
+      debugInfo = new SoftReference<>(result);
     }
     return result;
   }
@@ -150,7 +187,7 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
     }
 
     final BytecodeInfo info = getBCInfo();
-    if (info.decoder.containsSubroutines()) return -1;
+    if (info.containsSubroutines) return -1;
 
     final int[] pcMap = info.pcMap;
     assert isSorted(pcMap);
@@ -410,26 +447,28 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
    */
   protected abstract Decoder makeDecoder();
 
-  /** Walk through the bytecodes and collect trivial information. */
-  protected abstract void processDebugInfo(BytecodeInfo bcInfo) throws InvalidClassFileException;
+  /** Read the source-level information for the bytecodes. */
+  protected abstract void processDebugInfo(DebugInfo debugInfo) throws InvalidClassFileException;
 
   private void processBytecodesWithShrikeBT(BytecodeInfo info) throws InvalidClassFileException {
-    info.decoder = makeDecoder();
-    if (!isAbstract() && info.decoder == null) {
+    Decoder decoder = makeDecoder();
+    if (!isAbstract() && decoder == null) {
       throw new InvalidClassFileException(
           -1, "non-abstract method " + getReference() + " has no bytecodes");
     }
-    if (info.decoder == null) {
+    if (decoder == null) {
       return;
     }
-    info.pcMap = info.decoder.getInstructionsToBytecodes();
-
-    processDebugInfo(info);
+    // keep only the decoded results: the decoder itself holds on to the raw code
+    info.instructions = decoder.getInstructions();
+    info.handlers = decoder.getHandlers();
+    info.containsSubroutines = decoder.containsSubroutines();
+    info.pcMap = decoder.getInstructionsToBytecodes();
 
     SimpleVisitor simpleVisitor = new SimpleVisitor(info);
 
     BytecodeLanguage lang = (BytecodeLanguage) getDeclaringClass().getClassLoader().getLanguage();
-    IInstruction[] instructions = info.decoder.getInstructions();
+    IInstruction[] instructions = info.instructions;
     for (int i = 0; i < instructions.length; i++) {
       simpleVisitor.setInstructionIndex(i);
       instructions[i].visit(simpleVisitor);
@@ -667,19 +706,11 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
 
   /** */
   public IInstruction[] getInstructions() throws InvalidClassFileException {
-    if (getBCInfo().decoder == null) {
-      return null;
-    } else {
-      return getBCInfo().decoder.getInstructions();
-    }
+    return getBCInfo().instructions;
   }
 
   public ExceptionHandler[][] getHandlers() throws InvalidClassFileException {
-    if (getBCInfo().decoder == null) {
-      return null;
-    } else {
-      return getBCInfo().decoder.getHandlers();
-    }
+    return getBCInfo().handlers;
   }
 
   /** By convention, for a non-static method, getParameterType(0) is the this pointer */
@@ -751,7 +782,8 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
    */
   @Override
   public SourcePosition getSourcePosition(int bcIndex) throws InvalidClassFileException {
-    return (getBCInfo().positionMap == null) ? null : getBCInfo().positionMap[bcIndex];
+    SourcePosition[] positionMap = getDebugInfo().positionMap;
+    return (positionMap == null) ? null : positionMap[bcIndex];
   }
 
   /*
@@ -759,7 +791,8 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
    */
   @Override
   public SourcePosition getParameterSourcePosition(int paramNum) throws InvalidClassFileException {
-    return (getBCInfo().paramPositionMap == null) ? null : getBCInfo().paramPositionMap[paramNum];
+    SourcePosition[] paramPositionMap = getDebugInfo().paramPositionMap;
+    return (paramPositionMap == null) ? null : paramPositionMap[paramNum];
   }
   /* END Custom change: precise bytecode positions */
 
@@ -769,7 +802,8 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
   @Override
   public int getLineNumber(int bcIndex) {
     try {
-      return (getBCInfo().lineNumberMap == null) ? -1 : getBCInfo().lineNumberMap[bcIndex];
+      int[] lineNumberMap = getDebugInfo().lineNumberMap;
+      return (lineNumberMap == null) ? -1 : lineNumberMap[bcIndex];
     } catch (InvalidClassFileException e) {
       return -1;
     }
@@ -827,7 +861,8 @@ public abstract class ShrikeBTMethod implements IMethod, BytecodeConstants {
   public abstract boolean hasLocalVariableTable();
 
   /** Clear all optional cached data associated with this class. */
-  public void clearCaches() {
+  public synchronized void clearCaches() {
     bcInfo = null;
+    debugInfo = null;
   }
 }
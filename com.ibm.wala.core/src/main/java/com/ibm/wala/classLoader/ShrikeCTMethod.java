@@ -216,10 +216,10 @@ public final class ShrikeCTMethod extends ShrikeBTMethod implements IBytecodeMet
   }
   /* END Custom change: precise positions */
   @Override
-  protected void processDebugInfo(BytecodeInfo bcInfo) throws InvalidClassFileException {
+  protected void processDebugInfo(DebugInfo debugInfo) throws InvalidClassFileException {
     CodeReader cr = getCodeReader();
-    bcInfo.lineNumberMap = LineNumberTableReader.makeBytecodeToSourceMap(cr);
-    bcInfo.localVariableMap = LocalVariableTableReader.makeVarMap(cr);
+    debugInfo.lineNumberMap = LineNumberTableReader.makeBytecodeToSourceMap(cr);
+    debugInfo.localVariableMap = LocalVariableTableReader.makeVarMap(cr);
     /* BEGIN Custom change: precise bytecode positions */
     Position param = null;
     try {
@@ -228,13 +228,13 @@ public final class ShrikeCTMethod extends ShrikeBTMethod implements IBytecodeMet
       e.printStackTrace();
     }
 
-    bcInfo.paramPositionMap = new SPos[getNumberOfParameters()];
+    debugInfo.paramPositionMap = new SPos[getNumberOfParameters()];
     if (param != null) {
       String fileName = ((ShrikeClass) getDeclaringClass()).getSourceFileReader().getSourceFile();
       SPos paramPos =
           new SPos(fileName, param.firstLine, param.lastLine, param.firstCol, param.lastCol);
       for (int i = 0; i < getNumberOfParameters(); i++) {
-        bcInfo.paramPositionMap[i] = paramPos;
+        debugInfo.paramPositionMap[i] = paramPos;
       }
     }
 
@@ -245,8 +245,8 @@ public final class ShrikeCTMethod extends ShrikeBTMethod implements IBytecodeMet
       e.printStackTrace();
     }
 
-    if (pos == null && bcInfo.lineNumberMap != null) {
-      pos = SourcePositionTableReader.makeLineNumberToPositionMap(bcInfo.lineNumberMap);
+    if (pos == null && debugInfo.lineNumberMap != null) {
+      pos = SourcePositionTableReader.makeLineNumberToPositionMap(debugInfo.lineNumberMap);
     }
 
     if (pos != null) {
@@ -255,10 +255,10 @@ public final class ShrikeCTMethod extends ShrikeBTMethod implements IBytecodeMet
       if (reader != null) {
         sourceFile = reader.getSourceFile();
       }
-      bcInfo.positionMap = new SPos[pos.length];
+      debugInfo.positionMap = new SPos[pos.length];
       for (int i = 0; i < pos.length; i++) {
         Position p = pos[i];
-        bcInfo.positionMap[i] =
+        debugInfo.positionMap[i] =
             new SPos(sourceFile, p.firstLine, p.lastLine, p.firstCol, p.lastCol);
       }
     }
@@ -269,7 +269,7 @@ public final class ShrikeCTMethod extends ShrikeBTMethod implements IBytecodeMet
   public String getLocalVariableName(int bcIndex, int localNumber) {
     int[][] map = null;
     try {
-      map = getBCInfo().localVariableMap;
+      map = getDebugInfo().localVariableMap;
     } catch (InvalidClassFileException e1) {
       return null;
     }
@@ -34,6 +34,9 @@ import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.shrike.ShrikeClassReaderHandle;
 import com.ibm.wala.util.strings.Atom;
 import com.ibm.wala.util.strings.ImmutableByteArray;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -65,6 +68,106 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
     computeFields();
   }
 
+  /**
+   * Create a class from a header saved earlier with {@link #getHeader()}, without reading the class
+   * file; it is read when the fields or methods of this class are first needed.
+   *
+   * @throws IllegalArgumentException if reader or header is null
+   */
+  public ShrikeClass(
+      ShrikeClassReaderHandle reader, IClassLoader loader, IClassHierarchy cha, Header header) {
+    super(loader, cha);
+    if (reader == null) {
+      throw new IllegalArgumentException("reader is null");
+    }
+    if (header == null) {
+      throw new IllegalArgumentException("header is null");
+    }
+    this.reader = reader;
+    this.typeReference = TypeReference.findOrCreate(loader.getReference(), header.name);
+    this.hashCode = 2161 * getReference().hashCode();
+    this.superName = header.superName;
+    this.modifiers = header.modifiers;
+    this.interfaceNames = header.interfaceNames;
+  }
+
+  /**
+   * What {@link ShrikeClass} reads from the class file when it is created: the name, modifiers,
+   * superclass and interfaces.
+   */
+  public static final class Header {
+    private final TypeName name;
+
+    private final int modifiers;
+
+    /** null for java.lang.Object */
+    private final ImmutableByteArray superName;
+
+    private final ImmutableByteArray[] interfaceNames;
+
+    private Header(
+        TypeName name,
+        int modifiers,
+        ImmutableByteArray superName,
+        ImmutableByteArray[] interfaceNames) {
+      this.name = name;
+      this.modifiers = modifiers;
+      this.superName = superName;
+      this.interfaceNames = interfaceNames;
+    }
+
+    public TypeName getName() {
+      return name;
+    }
+
+    public void write(DataOutput out) throws IOException {
+      out.writeUTF(name.toString());
+      out.writeInt(modifiers);
+      out.writeUTF(superName == null ? "" : superName.toString());
+      out.writeShort(interfaceNames.length);
+      for (ImmutableByteArray i : interfaceNames) {
+        out.writeUTF(i.toString());
+      }
+    }
+
+    public static Header read(DataInput in) throws IOException {
+      TypeName name = TypeName.string2TypeName(in.readUTF());
+      int modifiers = in.readInt();
+      String superName = in.readUTF();
+      ImmutableByteArray[] interfaceNames = new ImmutableByteArray[in.readUnsignedShort()];
+      for (int i = 0; i < interfaceNames.length; i++) {
+        interfaceNames[i] = ImmutableByteArray.make(in.readUTF());
+      }
+      return new Header(
+          name,
+          modifiers,
+          superName.isEmpty() ? null : ImmutableByteArray.make(superName),
+          interfaceNames);
+    }
+  }
+
+  /** @return the header of this class, from which it can be created again */
+  public Header getHeader() {
+    return new Header(getName(), modifiers, superName, interfaceNames);
+  }
+
+  /** The fields of a class created from a {@link Header} are read on first use. */
+  @Override
+  protected void computeFieldsIfNeeded() {
+    if (instanceFields == null) {
+      synchronized (this) {
+        if (instanceFields == null) {
+          try {
+            computeFields();
+          } catch (InvalidClassFileException e) {
+            e.printStackTrace();
+            Assertions.UNREACHABLE();
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Compute the fields declared by this class
    *
@@ -105,8 +208,10 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
           addFieldToList(staticList, name, b, accessFlags, annotations, typeAnnotations, sig);
         }
       }
-      instanceFields = instanceList.toArray(new IField[0]);
+      // instanceFields last: it is volatile, and computeFieldsIfNeeded() checks it, so its write
+      // publishes staticFields as well
       staticFields = staticList.toArray(new IField[0]);
+      instanceFields = instanceList.toArray(new IField[0]);
 
     } catch (InvalidClassFileException e) {
       e.printStackTrace();
@@ -88,24 +88,7 @@ public class ShrikeIRFactory implements IRFactory<IBytecodeMethod<IInstruction>>
                 isSafe &= (isNonNegativeConstant(vLength) || isDefdByArrayLength(vLength, du));
               }
               if (isSafe) {
-                // newInstr is either obtained from
-                //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
-                // NewSiteReference site, int[] params)
-                // or
-                //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
-                // NewSiteReference site)
-                // , both provide anonymous subclasses of SSANewInstruction which differ
-                // from SSANewInstruction only in the implementation of getExceptionTypes().
-                // Hence, it is OK to just defining a new anonymous subclasses of SSANewInstruction,
-                // overriding getExceptionTypes().
-                newInstrs[i] =
-                    new SSANewInstruction(
-                        newInstr.iIndex(), newInstr.getDef(), newInstr.getNewSite(), params) {
-                      @Override
-                      public Collection<TypeReference> getExceptionTypes() {
-                        return JavaLanguage.getNewSafeArrayExceptions();
-                      }
-                    };
+                newInstrs[i] = makeSafeArrayNew(newInstr, params);
               }
             }
           }
@@ -122,18 +105,7 @@ public class ShrikeIRFactory implements IRFactory<IBytecodeMethod<IInstruction>>
 
       @Override
       protected String instructionPosition(int instructionIndex) {
-        try {
-          int bcIndex = method.getBytecodeIndex(instructionIndex);
-          int lineNumber = method.getLineNumber(bcIndex);
-
-          if (lineNumber == -1) {
-            return "";
-          } else {
-            return "(line " + lineNumber + ')';
-          }
-        } catch (InvalidClassFileException e) {
-          return "";
-        }
+        return ShrikeIRFactory.instructionPosition(method, instructionIndex);
       }
 
       @Override
@@ -171,6 +143,50 @@ public class ShrikeIRFactory implements IRFactory<IBytecodeMethod<IInstruction>>
     };
   }
 
+  /**
+   * @return a copy of an array allocation whose lengths are known to be non-negative, and which
+   *     therefore cannot throw a NegativeArraySizeException
+   */
+  public static SSANewInstruction makeSafeArrayNew(SSANewInstruction newInstr, int[] params) {
+    // newInstr is either obtained from
+    //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
+    // NewSiteReference site, int[] params)
+    // or
+    //   JavaLanguage.JavaInstructionFactory#NewInstruction(int iindex, int result,
+    // NewSiteReference site)
+    // , both provide anonymous subclasses of SSANewInstruction which differ
+    // from SSANewInstruction only in the implementation of getExceptionTypes().
+    // Hence, it is OK to just defining a new anonymous subclasses of SSANewInstruction,
+    // overriding getExceptionTypes().
+    return new SSANewInstruction(
+        newInstr.iIndex(), newInstr.getDef(), newInstr.getNewSite(), params) {
+      @Override
+      public Collection<TypeReference> getExceptionTypes() {
+        return JavaLanguage.getNewSafeArrayExceptions();
+      }
+    };
+  }
+
+  /**
+   * @return a readable representation of the source position of an instruction in the IR of a
+   *     bytecode method
+   */
+  public static String instructionPosition(
+      IBytecodeMethod<IInstruction> method, int instructionIndex) {
+    try {
+      int bcIndex = method.getBytecodeIndex(instructionIndex);
+      int lineNumber = method.getLineNumber(bcIndex);
+
+      if (lineNumber == -1) {
+        return "";
+      } else {
+        return "(line " + lineNumber + ')';
+      }
+    } catch (InvalidClassFileException e) {
+      return "";
+    }
+  }
+
   @Override
   public boolean contextIsIrrelevant(IBytecodeMethod<IInstruction> method) {
     // this factory always returns the same IR for a method
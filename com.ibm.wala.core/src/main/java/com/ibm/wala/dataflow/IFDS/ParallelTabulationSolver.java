@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.AnalysisSession;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.CancelRuntimeException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link TabulationSolver} that processes path edges from several threads at once.
+ *
+ * <p>Each path edge is processed as a separate task in a work-stealing pool, and the path edges,
+ * summary edges and call flow edges are kept in synchronized tables, so the result is the same as
+ * that of the sequential solver. Since the order in which path edges are processed is not fixed,
+ * problems with a merge function are not supported, and the priorities of the domain are ignored.
+ *
+ * <p>The supergraph, the flow functions and the domain of the problem are used from several threads
+ * at once, so they must be safe for concurrent reads; in particular, flow functions must not add
+ * facts to the domain unless it is thread-safe. Supergraphs built lazily, like {@link
+ * ICFGSupergraph}, are fully expanded on the calling thread before tabulation starts, so that the
+ * workers only read them. Likewise, the hooks {@link #newNormalExplodedEdge}, {@link
+ * #newCallExplodedEdge}, {@link #newSummaryEdge} and {@link #recordCall} may be called
+ * concurrently, and {@link #getCurPathEdge()} and {@link #getCurSummaryEdge()} refer to the current
+ * thread.
+ *
+ * @param <T> type of node in the supergraph
+ * @param <P> type of a procedure (like a box in an RSM)
+ * @param <F> type of factoids propagated when solving this problem
+ */
+public class ParallelTabulationSolver<T, P, F> extends TabulationSolver<T, P, F> {
+
+  /** number of threads processing path edges */
+  private final int threads;
+
+  /** the pool processing path edges, or null if tabulation is not currently running */
+  private volatile ForkJoinPool pool;
+
+  /** the session of the thread running {@link #solve()}; the workers process path edges in it */
+  private volatile AnalysisSession session;
+
+  /** number of path edges submitted to {@link #pool} and not yet processed */
+  private final AtomicInteger pending = new AtomicInteger();
+
+  /** the first exception thrown while processing a path edge, or null */
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * path edges discovered while tabulation was not running, or not processed because it was
+   * canceled; they are processed by the next call to {@link #solve()}.
+   */
+  private final Queue<PathEdge<T>> deferred = new ConcurrentLinkedQueue<>();
+
+  private final ThreadLocal<PathEdge<T>> curPathEdge = new ThreadLocal<>();
+
+  private final ThreadLocal<PathEdge<T>> curSummaryEdge = new ThreadLocal<>();
+
+  /**
+   * @param p a description of the dataflow problem to solve
+   * @param threads number of threads processing path edges
+   * @throws IllegalArgumentException if p is null, has a merge function, or threads is not positive
+   */
+  protected ParallelTabulationSolver(
+      TabulationProblem<T, P, F> p, int threads, IProgressMonitor monitor) {
+    super(p, monitor, true);
+    if (p.getMergeFunction() != null) {
+      throw new IllegalArgumentException("merge functions are not supported: " + p);
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("invalid threads: " + threads);
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * @param p a description of the dataflow problem to solve
+   * @param threads number of threads processing path edges
+   * @throws IllegalArgumentException if p is null, has a merge function, or threads is not positive
+   */
+  public static <T, P, F> ParallelTabulationSolver<T, P, F> make(
+      TabulationProblem<T, P, F> p, int threads, IProgressMonitor monitor) {
+    return new ParallelTabulationSolver<>(p, threads, monitor);
+  }
+
+  /** @return number of threads processing path edges */
+  public int getNumberOfThreads() {
+    return threads;
+  }
+
+  @Override
+  public TabulationResult<T, P, F> solve() throws CancelException {
+    expandSupergraph();
+    ForkJoinPool p = new ForkJoinPool(threads);
+    session = AnalysisSession.current();
+    pool = p;
+    try {
+      for (PathEdge<T> edge; (edge = deferred.poll()) != null; ) {
+        submit(p, edge);
+      }
+      initialize();
+      awaitPathEdges();
+      return new Result();
+    } catch (CancelException | CancelRuntimeException e) {
+      // store a partially-tabulated result in the thrown exception; the path edges not yet
+      // processed are deferred to the next call to solve().
+      Result r = new Result();
+      throw new TabulationCancelException(e, r);
+    } finally {
+      pool = null;
+      p.shutdown();
+    }
+  }
+
+  /**
+   * Query every node of the supergraph once, so that a supergraph which adds nodes and edges on
+   * demand has added all of them before the workers start reading it.
+   */
+  private void expandSupergraph() {
+    Collection<T> nodes = Iterator2Collection.toList(supergraph.iterator());
+    for (T n : nodes) {
+      supergraph.getNumber(n);
+      Iterator2Collection.toList(supergraph.getSuccNodes(n));
+      Iterator2Collection.toList(supergraph.getPredNodes(n));
+      if (supergraph.isCall(n)) {
+        for (T callee : Iterator2Iterable.make(supergraph.getCalledNodes(n))) {
+          Iterator2Collection.toList(supergraph.getReturnSites(n, supergraph.getProcOf(callee)));
+        }
+        Iterator2Collection.toList(supergraph.getReturnSites(n, null));
+      }
+    }
+    for (T n : nodes) {
+      P proc = supergraph.getProcOf(n);
+      supergraph.getEntriesForProcedure(proc);
+      supergraph.getExitsForProcedure(proc);
+    }
+  }
+
+  /**
+   * Wait until every submitted path edge has been processed.
+   *
+   * @throws CancelException if tabulation was canceled
+   */
+  private void awaitPathEdges() throws CancelException {
+    boolean interrupted = false;
+    synchronized (pending) {
+      while (pending.get() > 0) {
+        try {
+          pending.wait();
+        } catch (InterruptedException e) {
+          // stop processing path edges, but wait for the workers to let go of them
+          interrupted = true;
+          failure.compareAndSet(null, new CancelException(e));
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    Throwable t = failure.getAndSet(null);
+    if (t instanceof CancelException) {
+      throw (CancelException) t;
+    } else if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    } else if (t != null) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  private void submit(ForkJoinPool p, PathEdge<T> edge) {
+    pending.incrementAndGet();
+    p.execute(session.bind(() -> run(edge)));
+  }
+
+  /** Process a path edge on a worker thread. */
+  @SuppressWarnings("unused")
+  private void run(PathEdge<T> edge) {
+    try {
+      if (failure.get() == null) {
+        try {
+          MonitorUtil.throwExceptionIfCanceled(progressMonitor);
+        } catch (CancelException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+      if (failure.get() != null) {
+        deferred.add(edge);
+        return;
+      }
+      if (DEBUG_LEVEL > 0) {
+        System.err.println("TABULATE " + edge);
+      }
+      processPathEdge(edge);
+    } catch (Throwable t) {
+      failure.compareAndSet(null, t);
+      setCurPathEdge(null);
+      setCurSummaryEdge(null);
+    } finally {
+      if (pending.decrementAndGet() == 0) {
+        synchronized (pending) {
+          pending.notifyAll();
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void addToWorkList(T s_p, int i, T n, int j) {
+    PathEdge<T> edge = PathEdge.createPathEdge(s_p, i, n, j);
+    ForkJoinPool p = pool;
+    if (p == null) {
+      deferred.add(edge);
+    } else {
+      submit(p, edge);
+    }
+  }
+
+  /** Like {@link TabulationSolver#propagate}, but records the path edge atomically. */
+  @SuppressWarnings("unused")
+  @Override
+  protected boolean propagate(T s_p, int i, T n, int j) {
+    int number = supergraph.getLocalBlockNumber(n);
+    assert number >= 0;
+    assert j >= 0;
+
+    LocalPathEdges pLocal = findOrCreateLocalPathEdges(s_p);
+    synchronized (pLocal) {
+      if (pLocal.contains(i, number, j)) {
+        return false;
+      }
+      if (DEBUG_LEVEL > 0) {
+        System.err.println("propagate " + s_p + "  " + i + ' ' + number + ' ' + j);
+      }
+      pLocal.addPathEdge(i, number, j);
+    }
+    addToWorkList(s_p, i, n, j);
+    return true;
+  }
+
+  @Override
+  public synchronized void addSeed(PathEdge<T> seed) {
+    super.addSeed(seed);
+  }
+
+  /** Clearing soft caches would make the workers recompute what they share, so we don't. */
+  @Override
+  protected void tendToSoftCaches() {}
+
+  @Override
+  protected PathEdge<T> getCurPathEdge() {
+    return curPathEdge.get();
+  }
+
+  @Override
+  protected void setCurPathEdge(PathEdge<T> edge) {
+    curPathEdge.set(edge);
+  }
+
+  @Override
+  protected PathEdge<T> getCurSummaryEdge() {
+    return curSummaryEdge.get();
+  }
+
+  @Override
+  protected void setCurSummaryEdge(PathEdge<T> edge) {
+    curSummaryEdge.set(edge);
+  }
+
+  @Override
+  protected LocalPathEdges makeLocalPathEdges() {
+    return new SynchronizedLocalPathEdges();
+  }
+
+  @Override
+  protected LocalSummaryEdges makeLocalSummaryEdges() {
+    return new SynchronizedLocalSummaryEdges();
+  }
+
+  @Override
+  protected CallFlowEdges makeCallFlowEdges() {
+    return new SynchronizedCallFlowEdges();
+  }
+
+  /** @return a copy of s, which may be updated by another thread, or null if s is null */
+  private static IntSet copy(IntSet s) {
+    return s == null ? null : MutableSparseIntSet.make(s);
+  }
+
+  /** {@link LocalPathEdges} which may be read and updated from several threads at once */
+  private static final class SynchronizedLocalPathEdges extends LocalPathEdges {
+
+    SynchronizedLocalPathEdges() {
+      super(false);
+    }
+
+    @Override
+    public synchronized void addPathEdge(int i, int n, int j) {
+      super.addPathEdge(i, n, j);
+    }
+
+    @Override
+    public synchronized IntSet getInverse(int n, int d2) {
+      return copy(super.getInverse(n, d2));
+    }
+
+    @Override
+    public synchronized boolean contains(int i, int n, int j) {
+      return super.contains(i, n, j);
+    }
+
+    @Override
+    public synchronized IntSet getReachable(int n, int d1) {
+      return copy(super.getReachable(n, d1));
+    }
+
+    @Override
+    public synchronized IntSet getReachable(int n) {
+      return super.getReachable(n);
+    }
+
+    @Override
+    public synchronized IntSet getReachedNodeNumbers() {
+      return super.getReachedNodeNumbers();
+    }
+  }
+
+  /** {@link LocalSummaryEdges} which may be read and updated from several threads at once */
+  private static final class SynchronizedLocalSummaryEdges extends LocalSummaryEdges {
+
+    @Override
+    public synchronized void insertSummaryEdge(int s_p, int x, int d1, int d2) {
+      super.insertSummaryEdge(s_p, x, d1, d2);
+    }
+
+    @Override
+    public synchronized boolean contains(int s_p, int x, int d1, int d2) {
+      return super.contains(s_p, x, d1, d2);
+    }
+
+    @Override
+    public synchronized IntSet getSummaryEdges(int s_p, int x, int d1) {
+      return copy(super.getSummaryEdges(s_p, x, d1));
+    }
+
+    @Override
+    public synchronized IntSet getInvertedSummaryEdgesForTarget(int s_p, int x, int d2) {
+      return super.getInvertedSummaryEdgesForTarget(s_p, x, d2);
+    }
+  }
+
+  /** {@link CallFlowEdges} which may be read and updated from several threads at once */
+  private static final class SynchronizedCallFlowEdges extends CallFlowEdges {
+
+    @Override
+    public synchronized void addCallEdge(int c, int d1, int d2) {
+      super.addCallEdge(c, d1, d2);
+    }
+
+    @Override
+    public synchronized IntSet getCallFlowSources(int c, int d2) {
+      return copy(super.getCallFlowSources(c, d2));
+    }
+
+    @Override
+    public synchronized IntSet getCallFlowSourceNodes(int d2) {
+      return copy(super.getCallFlowSourceNodes(d2));
+    }
+  }
+}
@@ -38,6 +38,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A precise interprocedural tabulation solver.
@@ -109,7 +110,7 @@ public class TabulationSolver<T, P, F> {
    * <p>Logically, this represents a set of edges (s_p,d_i) -&gt; (n, d_j). The data structure is
    * chosen to attempt to save space over representing each edge explicitly.
    */
-  private final Map<T, LocalPathEdges> pathEdges = HashMapFactory.make();
+  private final Map<T, LocalPathEdges> pathEdges;
 
   /**
    * A map from Object (entry node in supergraph) -&gt; CallFlowEdges.
@@ -117,10 +118,10 @@ public class TabulationSolver<T, P, F> {
    * <p>Logically, this represents a set of edges (c,d_i) -&gt; (s_p, d_j). The data structure is
    * chosen to attempt to save space over representing each edge explicitly.
    */
-  private final Map<T, CallFlowEdges> callFlowEdges = HashMapFactory.make();
+  private final Map<T, CallFlowEdges> callFlowEdges;
 
   /** A map from Object (procedure) -&gt; LocalSummaryEdges. */
-  protected final Map<P, LocalSummaryEdges> summaryEdges = HashMapFactory.make();
+  protected final Map<P, LocalSummaryEdges> summaryEdges;
 
   /**
    * the set of all {@link PathEdge}s that were used as seeds during the tabulation, grouped by
@@ -138,11 +139,10 @@ public class TabulationSolver<T, P, F> {
   protected final IProgressMonitor progressMonitor;
 
   /**
-   * the path edge currently being processed in the main loop of {@link #forwardTabulateSLRPs()};
-   * {@code null} if {@link #forwardTabulateSLRPs()} is not currently running. Note that if we are
-   * applying a summary edge in {@link #processExit(PathEdge)}, curPathEdge is modified to be the
-   * path edge terminating at the call node in the caller, to match the behavior in {@link
-   * #processCall(PathEdge)}.
+   * the path edge currently being processed by {@link #processPathEdge(PathEdge)}; {@code null} if
+   * no path edge is currently being processed. Note that if we are applying a summary edge in
+   * {@link #processExit(PathEdge)}, curPathEdge is modified to be the path edge terminating at the
+   * call node in the caller, to match the behavior in {@link #processCall(PathEdge)}.
    */
   private PathEdge<T> curPathEdge;
 
@@ -157,6 +157,17 @@ public class TabulationSolver<T, P, F> {
    * @throws IllegalArgumentException if p is null
    */
   protected TabulationSolver(TabulationProblem<T, P, F> p, IProgressMonitor monitor) {
+    this(p, monitor, false);
+  }
+
+  /**
+   * @param p a description of the dataflow problem to solve
+   * @param concurrent if true, the maps from entries and procedures to their edges may be read and
+   *     updated from several threads at once
+   * @throws IllegalArgumentException if p is null
+   */
+  protected TabulationSolver(
+      TabulationProblem<T, P, F> p, IProgressMonitor monitor, boolean concurrent) {
     if (p == null) {
       throw new IllegalArgumentException("p is null");
     }
@@ -164,6 +175,15 @@ public class TabulationSolver<T, P, F> {
     this.flowFunctionMap = p.getFunctionMap();
     this.problem = p;
     this.progressMonitor = monitor;
+    if (concurrent) {
+      this.pathEdges = new ConcurrentHashMap<>();
+      this.callFlowEdges = new ConcurrentHashMap<>();
+      this.summaryEdges = new ConcurrentHashMap<>();
+    } else {
+      this.pathEdges = HashMapFactory.make();
+      this.callFlowEdges = HashMapFactory.make();
+      this.summaryEdges = HashMapFactory.make();
+    }
   }
 
   /** Subclasses can override this to plug in a different worklist implementation. */
@@ -179,6 +199,24 @@ public class TabulationSolver<T, P, F> {
     return new TabulationSolver<>(p, null);
   }
 
+  /**
+   * @param p a description of the dataflow problem to solve
+   * @param threads number of threads processing path edges. If greater than one and p has no merge
+   *     function, the result is a {@link ParallelTabulationSolver}; see there for what p must
+   *     provide.
+   * @throws IllegalArgumentException if p is null or threads is not positive
+   */
+  public static <T, P, F> TabulationSolver<T, P, F> make(
+      TabulationProblem<T, P, F> p, int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("invalid threads: " + threads);
+    }
+    if (threads > 1 && p != null && p.getMergeFunction() == null) {
+      return ParallelTabulationSolver.make(p, threads, null);
+    }
+    return new TabulationSolver<>(p, null);
+  }
+
   /**
    * Solve the dataflow problem.
    *
@@ -216,7 +254,6 @@ public class TabulationSolver<T, P, F> {
   /** See POPL 95 paper for this algorithm, Figure 3 */
   @SuppressWarnings("unused")
   private void forwardTabulateSLRPs() throws CancelException {
-    assert curPathEdge == null : "curPathEdge should not be non-null here";
     if (worklist == null) {
       worklist = makeWorklist();
     }
@@ -233,35 +270,41 @@ public class TabulationSolver<T, P, F> {
       if (DEBUG_LEVEL > 0) {
         System.err.println("TABULATE " + edge);
       }
-      curPathEdge = edge;
-      int j = merge(edge.entry, edge.d1, edge.target, edge.d2);
-      if (j == -1 && DEBUG_LEVEL > 0) {
-        System.err.println("merge -1: DROPPING");
-      }
-      if (j != -1) {
-        if (j != edge.d2) {
-          // this means that we don't want to push the edge. instead,
-          // we'll push the merged fact. a little tricky, but i think should
-          // work.
-          if (DEBUG_LEVEL > 0) {
-            System.err.println("propagating merged fact " + j);
-          }
-          propagate(edge.entry, edge.d1, edge.target, j);
+      processPathEdge(edge);
+    }
+  }
+
+  /** Handle lines [11 - 37] of the algorithm for a path edge taken from the worklist */
+  @SuppressWarnings("unused")
+  protected void processPathEdge(final PathEdge<T> edge) {
+    setCurPathEdge(edge);
+    int j = merge(edge.entry, edge.d1, edge.target, edge.d2);
+    if (j == -1 && DEBUG_LEVEL > 0) {
+      System.err.println("merge -1: DROPPING");
+    }
+    if (j != -1) {
+      if (j != edge.d2) {
+        // this means that we don't want to push the edge. instead,
+        // we'll push the merged fact. a little tricky, but i think should
+        // work.
+        if (DEBUG_LEVEL > 0) {
+          System.err.println("propagating merged fact " + j);
+        }
+        propagate(edge.entry, edge.d1, edge.target, j);
+      } else {
+        if (supergraph.isCall(edge.target)) {
+          // [13]
+          processCall(edge);
+        } else if (supergraph.isExit(edge.target)) {
+          // [21]
+          processExit(edge);
         } else {
-          if (supergraph.isCall(edge.target)) {
-            // [13]
-            processCall(edge);
-          } else if (supergraph.isExit(edge.target)) {
-            // [21]
-            processExit(edge);
-          } else {
-            // [33]
-            processNormal(edge);
-          }
+          // [33]
+          processNormal(edge);
         }
       }
     }
-    curPathEdge = null;
+    setCurPathEdge(null);
   }
 
   /**
@@ -337,8 +380,8 @@ public class TabulationSolver<T, P, F> {
     if (!summaries.contains(s_p_n, x, edge.d1, edge.d2)) {
       summaries.insertSummaryEdge(s_p_n, x, edge.d1, edge.d2);
     }
-    assert curSummaryEdge == null : "curSummaryEdge should be null here";
-    curSummaryEdge = edge;
+    assert getCurSummaryEdge() == null : "curSummaryEdge should be null here";
+    setCurSummaryEdge(edge);
 
     final CallFlowEdges callFlow = findOrCreateCallFlowEdges(edge.entry);
 
@@ -354,7 +397,7 @@ public class TabulationSolver<T, P, F> {
         propagateToReturnSites(edge, supergraph.getNode(globalC), D4);
       }
     }
-    curSummaryEdge = null;
+    setCurSummaryEdge(null);
   }
 
   /**
@@ -478,8 +521,9 @@ public class TabulationSolver<T, P, F> {
                     d3 -> {
                       // set curPathEdge to be consistent with its setting in processCall() when
                       // applying a summary edge
-                      curPathEdge = PathEdge.createPathEdge(s_p, d3, c, d4);
-                      newSummaryEdge(curPathEdge, edge, retSite, d5);
+                      PathEdge<T> toCall = PathEdge.createPathEdge(s_p, d3, c, d4);
+                      setCurPathEdge(toCall);
+                      newSummaryEdge(toCall, edge, retSite, d5);
                       propagate(s_p, d3, retSite, d5);
                     });
               }
@@ -617,7 +661,7 @@ public class TabulationSolver<T, P, F> {
       System.err.println(" reached: " + reached);
     }
     if (reached != null) {
-      final LocalSummaryEdges summaries = summaryEdges.get(supergraph.getProcOf(calleeEntry));
+      final P callee = supergraph.getProcOf(calleeEntry);
       final CallFlowEdges callFlow = findOrCreateCallFlowEdges(calleeEntry);
       final int s_p_num = supergraph.getLocalBlockNumber(calleeEntry);
 
@@ -631,11 +675,13 @@ public class TabulationSolver<T, P, F> {
             // call flow
             callFlow.addCallEdge(callNodeNum, edge.d2, d1);
             // handle summary edges now as well. this is different from the PoPL
-            // 95 paper.
+            // 95 paper. look them up only after recording the call flow, so that
+            // a summary edge recorded concurrently is either found here or finds
+            // the call flow in processExit().
+            final LocalSummaryEdges summaries = summaryEdges.get(callee);
             if (summaries != null) {
               // for each exit from the callee
-              P p = supergraph.getProcOf(calleeEntry);
-              T[] exits = supergraph.getExitsForProcedure(p);
+              T[] exits = supergraph.getExitsForProcedure(callee);
               for (final T exit : exits) {
                 if (DEBUG_LEVEL > 0) {
                   assert supergraph.containsNode(exit);
@@ -653,15 +699,18 @@ public class TabulationSolver<T, P, F> {
                           flowFunctionMap.getReturnFlowFunction(edge.target, exit, returnSite);
                       reachedBySummary.foreach(
                           d2 -> {
-                            assert curSummaryEdge == null : "curSummaryEdge should be null here";
-                            curSummaryEdge = PathEdge.createPathEdge(calleeEntry, d1, exit, d2);
+                            assert getCurSummaryEdge() == null
+                                : "curSummaryEdge should be null here";
+                            final PathEdge<T> summary =
+                                PathEdge.createPathEdge(calleeEntry, d1, exit, d2);
+                            setCurSummaryEdge(summary);
                             if (retf instanceof IBinaryReturnFlowFunction) {
                               final IntSet D51 =
                                   computeBinaryFlow(edge.d2, d2, (IBinaryReturnFlowFunction) retf);
                               if (D51 != null) {
                                 D51.foreach(
                                     d5 -> {
-                                      newSummaryEdge(edge, curSummaryEdge, returnSite, d5);
+                                      newSummaryEdge(edge, summary, returnSite, d5);
                                       propagate(edge.entry, edge.d1, returnSite, d5);
                                     });
                               }
@@ -670,12 +719,12 @@ public class TabulationSolver<T, P, F> {
                               if (D52 != null) {
                                 D52.foreach(
                                     d5 -> {
-                                      newSummaryEdge(edge, curSummaryEdge, returnSite, d5);
+                                      newSummaryEdge(edge, summary, returnSite, d5);
                                       propagate(edge.entry, edge.d1, returnSite, d5);
                                     });
                               }
                             }
-                            curSummaryEdge = null;
+                            setCurSummaryEdge(null);
                           });
                     }
                   }
@@ -821,13 +870,12 @@ public class TabulationSolver<T, P, F> {
   protected LocalPathEdges findOrCreateLocalPathEdges(T s_p) {
     LocalPathEdges result = pathEdges.get(s_p);
     if (result == null) {
-      result = makeLocalPathEdges();
-      pathEdges.put(s_p, result);
+      result = pathEdges.computeIfAbsent(s_p, k -> makeLocalPathEdges());
     }
     return result;
   }
 
-  private LocalPathEdges makeLocalPathEdges() {
+  protected LocalPathEdges makeLocalPathEdges() {
     return problem.getMergeFunction() == null
         ? new LocalPathEdges(false)
         : new LocalPathEdges(true);
@@ -836,21 +884,27 @@ public class TabulationSolver<T, P, F> {
   protected LocalSummaryEdges findOrCreateLocalSummaryEdges(P proc) {
     LocalSummaryEdges result = summaryEdges.get(proc);
     if (result == null) {
-      result = new LocalSummaryEdges();
-      summaryEdges.put(proc, result);
+      result = summaryEdges.computeIfAbsent(proc, k -> makeLocalSummaryEdges());
     }
     return result;
   }
 
+  protected LocalSummaryEdges makeLocalSummaryEdges() {
+    return new LocalSummaryEdges();
+  }
+
   protected CallFlowEdges findOrCreateCallFlowEdges(T s_p) {
     CallFlowEdges result = callFlowEdges.get(s_p);
     if (result == null) {
-      result = new CallFlowEdges();
-      callFlowEdges.put(s_p, result);
+      result = callFlowEdges.computeIfAbsent(s_p, k -> makeCallFlowEdges());
     }
     return result;
   }
 
+  protected CallFlowEdges makeCallFlowEdges() {
+    return new CallFlowEdges();
+  }
+
   /**
    * get the bitvector of facts that hold at the entry to a given node
    *
@@ -1019,10 +1073,18 @@ public class TabulationSolver<T, P, F> {
     return curPathEdge;
   }
 
+  protected void setCurPathEdge(PathEdge<T> edge) {
+    curPathEdge = edge;
+  }
+
   protected PathEdge<T> getCurSummaryEdge() {
     return curSummaryEdge;
   }
 
+  protected void setCurSummaryEdge(PathEdge<T> edge) {
+    curSummaryEdge = edge;
+  }
+
   /**
    * Indicates that due to a path edge &lt;s_p, d1&gt; -&gt; &lt;n, d2&gt; (the 'edge' parameter)
    * and a normal flow function application, a new path edge &lt;s_p, d1&gt; -&gt; &lt;m, d3&gt; was
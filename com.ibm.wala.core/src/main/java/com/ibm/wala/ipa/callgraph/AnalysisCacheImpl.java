@@ -11,17 +11,33 @@
 package com.ibm.wala.ipa.callgraph;
 
 import com.ibm.wala.classLoader.IMethod;
-import com.ibm.wala.ssa.AuxiliaryCache;
+import com.ibm.wala.ssa.ConcurrentAuxiliaryCache;
 import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IAuxiliaryCache;
 import com.ibm.wala.ssa.IRFactory;
 import com.ibm.wala.ssa.SSACache;
 import com.ibm.wala.ssa.SSAOptions;
 
 public class AnalysisCacheImpl extends AnalysisCache {
 
+  /**
+   * @param irCache holds the IRs built by irFactory
+   * @param duCache holds the {@link com.ibm.wala.ssa.DefUse}s computed from them; must be a
+   *     different object from irCache
+   */
+  public AnalysisCacheImpl(
+      IRFactory<IMethod> irFactory,
+      SSAOptions ssaOptions,
+      IAuxiliaryCache irCache,
+      IAuxiliaryCache duCache) {
+    super(irFactory, ssaOptions, new SSACache(irFactory, irCache, duCache));
+    if (irCache == duCache) {
+      throw new IllegalArgumentException("IRs and DefUses need separate caches");
+    }
+  }
+
   public AnalysisCacheImpl(IRFactory<IMethod> irFactory, SSAOptions ssaOptions) {
-    super(
-        irFactory, ssaOptions, new SSACache(irFactory, new AuxiliaryCache(), new AuxiliaryCache()));
+    this(irFactory, ssaOptions, new ConcurrentAuxiliaryCache(), new ConcurrentAuxiliaryCache());
   }
 
   public AnalysisCacheImpl(SSAOptions ssaOptions) {
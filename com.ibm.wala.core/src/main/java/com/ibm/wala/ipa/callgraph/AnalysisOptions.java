@@ -15,6 +15,7 @@ import com.ibm.wala.analysis.reflection.ReflectionContextSelector;
 import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.ReflectionHandler;
 import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.util.AnalysisSession;
 
 /**
  * Basic interface for options that control call graph generation.
@@ -54,6 +55,43 @@ public class AnalysisOptions {
    */
   private int maxEvalBetweenTopo = 1000000000;
 
+  /**
+   * A tuning parameter: how many threads may the pointer analysis solver use to evaluate
+   * independent constraints concurrently? A value of 1 selects the sequential solver.
+   */
+  private int solverThreads = 1;
+
+  /**
+   * A tuning parameter: how many threads may prefetch the IR of newly discovered call graph nodes,
+   * while the calling thread generates constraints and solves? Constraints are still generated on
+   * the calling thread only. A value of 1 builds each IR on demand on the calling thread.
+   */
+  private int irPrefetchThreads = 1;
+
+  /**
+   * A tuning parameter: should the pointer analysis solver make equal points-to sets share one
+   * representation after each pass, to save space at the cost of some time?
+   */
+  private boolean hashConsPointsToSets = false;
+
+  /**
+   * A tuning parameter: should the pointer analysis solver collapse cycles of assignments as they
+   * appear, so that points-to sets flow around each cycle once?
+   */
+  private boolean cycleElimination = false;
+
+  /**
+   * A tuning parameter: should the sequential pointer analysis solver propagate only the elements
+   * added to a points-to set since it was last propagated, instead of the whole set?
+   */
+  private boolean differencePropagation = false;
+
+  /**
+   * Should call graph construction record which node or side effect added each constraint, so that
+   * the call graph can later be updated in place for a code change?
+   */
+  private boolean incrementalUpdates = false;
+
   /** options for handling reflection during call graph construction */
   public static enum ReflectionOptions {
     FULL("full", Integer.MAX_VALUE, false, false, false),
@@ -188,6 +226,15 @@ public class AnalysisOptions {
   /** Should call graph construction handle arrays of zero-length differently? */
   private boolean handleZeroLengthArray = true;
 
+  /**
+   * The session call graphs are built in with these options; if null, the session of the thread
+   * building them
+   */
+  private AnalysisSession session;
+
+  /** Receives measurements taken while call graphs are built with these options, or null */
+  private CallGraphBuildListener buildListener;
+
   // SJF: I'm not sure these factories and caches belong here.
   // TODO: figure out how to clean this up.
 
@@ -293,6 +340,127 @@ public class AnalysisOptions {
     topologicalGrowthFactor = d;
   }
 
+  /**
+   * @return the number of threads the pointer analysis solver may use to evaluate independent
+   *     constraints concurrently
+   */
+  public int getSolverThreads() {
+    return solverThreads;
+  }
+
+  /**
+   * @param n the number of threads the pointer analysis solver may use to evaluate independent
+   *     constraints concurrently; 1 selects the sequential solver
+   * @throws IllegalArgumentException if n &lt; 1
+   */
+  public void setSolverThreads(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("invalid number of solver threads: " + n);
+    }
+    solverThreads = n;
+  }
+
+  /**
+   * @return the number of threads that may prefetch the IR of newly discovered call graph nodes
+   *     ahead of constraint generation
+   */
+  public int getIRPrefetchThreads() {
+    return irPrefetchThreads;
+  }
+
+  /**
+   * @param n the number of threads that may prefetch the IR of newly discovered call graph nodes
+   *     ahead of constraint generation; 1 builds each IR on demand on the calling thread
+   * @throws IllegalArgumentException if n &lt; 1
+   */
+  public void setIRPrefetchThreads(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("invalid number of IR prefetch threads: " + n);
+    }
+    irPrefetchThreads = n;
+  }
+
+  /** @return true iff the sequential pointer analysis solver propagates differences */
+  public boolean getDifferencePropagation() {
+    return differencePropagation;
+  }
+
+  /**
+   * @param differencePropagation should the sequential pointer analysis solver propagate only the
+   *     elements added to a points-to set since it was last propagated?
+   */
+  public void setDifferencePropagation(boolean differencePropagation) {
+    this.differencePropagation = differencePropagation;
+  }
+
+  /** @return true iff call graph construction records what it needs for incremental updates */
+  public boolean getIncrementalUpdates() {
+    return incrementalUpdates;
+  }
+
+  /**
+   * @param incrementalUpdates should call graph construction record which node or side effect added
+   *     each constraint, so that the call graph can be updated in place for a code change?
+   * @see com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder#updateCallGraph
+   */
+  public void setIncrementalUpdates(boolean incrementalUpdates) {
+    this.incrementalUpdates = incrementalUpdates;
+  }
+
+  /** @return true iff the pointer analysis solver collapses cycles of assignments */
+  public boolean getCycleElimination() {
+    return cycleElimination;
+  }
+
+  /** @param cycleElimination should the pointer analysis solver collapse cycles of assignments? */
+  public void setCycleElimination(boolean cycleElimination) {
+    this.cycleElimination = cycleElimination;
+  }
+
+  /** @return true iff equal points-to sets share one representation after each solver pass */
+  public boolean getHashConsPointsToSets() {
+    return hashConsPointsToSets;
+  }
+
+  /** @param hashConsPointsToSets should equal points-to sets share one representation? */
+  public void setHashConsPointsToSets(boolean hashConsPointsToSets) {
+    this.hashConsPointsToSets = hashConsPointsToSets;
+  }
+
+  /**
+   * @return the session in which call graphs are built with these options, or null if they are
+   *     built in the session of the calling thread
+   */
+  public AnalysisSession getSession() {
+    return session;
+  }
+
+  /**
+   * Build call graphs with these options in the given session, keeping their warnings, int set
+   * factory and caches apart from those of analyses running in other sessions.
+   *
+   * @param session the session, or null to use the session of the calling thread
+   */
+  public void setSession(AnalysisSession session) {
+    this.session = session;
+  }
+
+  /**
+   * @return the listener receiving measurements taken while call graphs are built with these
+   *     options, or null
+   */
+  public CallGraphBuildListener getBuildListener() {
+    return buildListener;
+  }
+
+  /**
+   * @param buildListener the listener to receive measurements taken while call graphs are built
+   *     with these options, such as a {@link CallGraphBuildMetrics}; null to measure nothing
+   */
+  public void setBuildListener(CallGraphBuildListener buildListener) {
+    this.buildListener = buildListener;
+  }
+
   /** @return options governing SSA construction */
   public SSAOptions getSSAOptions() {
     return ssaOptions;
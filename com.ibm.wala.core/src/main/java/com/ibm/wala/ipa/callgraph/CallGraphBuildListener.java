@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ipa.callgraph;
+
+/**
+ * Receives measurements taken while a call graph is built with {@link
+ * AnalysisOptions#setBuildListener(CallGraphBuildListener) these options}.
+ *
+ * <p>Callbacks happen on the thread doing the measured work. Phases may nest: for example, the IR
+ * construction for a node is measured within its constraint generation.
+ *
+ * @see CallGraphBuildMetrics
+ */
+@SuppressWarnings("unused")
+public interface CallGraphBuildListener {
+
+  /** The phases of call graph construction that are measured */
+  enum Phase {
+    /** building the class hierarchy; measured by clients with a {@link PhaseTimer} */
+    CLASS_HIERARCHY,
+    /** fetching or building the IR of a node */
+    IR_CONSTRUCTION,
+    /** generating the constraints of a node, including its IR construction */
+    CONSTRAINT_GENERATION,
+    /** one pass of the fixed point solver over its work list */
+    SOLVING,
+    /** renumbering the constraints in topological order */
+    TOPOLOGICAL_REORDER,
+    /** unifying points-to sets */
+    UNIFICATION,
+    /** making equal points-to sets share one representation */
+    HASH_CONSING,
+    /** looking for cycles of assignments to collapse, not including their unification */
+    CYCLE_DETECTION
+  }
+
+  /**
+   * One run of a phase has finished.
+   *
+   * @param nanos elapsed time
+   * @param allocatedBytes bytes allocated by the current thread during the phase, or -1 if the
+   *     virtual machine does not report them
+   */
+  default void phaseCompleted(Phase phase, long nanos, long allocatedBytes) {}
+
+  /** Constraints have been generated for node, taking nanos. */
+  default void nodeProcessed(CGNode node, long nanos) {}
+
+  /**
+   * A pass of the fixed point solver has finished.
+   *
+   * @param workListSize number of statements on the work list when the pass started
+   * @param evaluations number of statements evaluated during the pass
+   */
+  default void solverPassCompleted(int workListSize, int evaluations) {}
+
+  /**
+   * Call graph construction has finished.
+   *
+   * @param histogram histogram[0] is the number of empty points-to sets, and histogram[i] for i
+   *     &gt; 0 the number of points-to sets whose size is at least 2<sup>i-1</sup> and less than
+   *     2<sup>i</sup>
+   */
+  default void pointsToSetSizes(int[] histogram) {}
+
+  /**
+   * Equal points-to sets have been made to share one representation.
+   *
+   * @param sets number of non-empty points-to sets
+   * @param distinct number of distinct values among them
+   */
+  default void pointsToSetsHashConsed(int sets, int distinct) {}
+
+  /**
+   * Cycles of assignments have been collapsed after a pass of the solver.
+   *
+   * @param cycles number of cycles found
+   * @param variables number of points-to set variables on them
+   */
+  default void cyclesCollapsed(int cycles, int variables) {}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ipa.callgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link CallGraphBuildListener} that totals what it is told, to find out what dominates a slow
+ * call graph build. {@link #toString()} gives a report.
+ */
+public class CallGraphBuildMetrics implements CallGraphBuildListener {
+
+  /** default number of slowest nodes remembered */
+  public static final int DEFAULT_SLOWEST_NODES = 10;
+
+  private final int maxSlowestNodes;
+
+  /** number of runs of each phase, indexed by ordinal */
+  private final long[] runs = new long[Phase.values().length];
+
+  /** elapsed time of each phase, indexed by ordinal */
+  private final long[] nanos = new long[Phase.values().length];
+
+  /** bytes allocated during each phase, indexed by ordinal; -1 if unknown */
+  private final long[] bytes = new long[Phase.values().length];
+
+  /** the nodes whose constraint generation took longest, slowest first */
+  private final List<CGNode> slowestNodes = new ArrayList<>();
+
+  /** constraint generation times of {@link #slowestNodes} */
+  private final List<Long> slowestNodeNanos = new ArrayList<>();
+
+  private int nodes;
+
+  private int solverPasses;
+
+  private long evaluations;
+
+  private int maxWorkListSize;
+
+  private int[] pointsToSetSizes = new int[0];
+
+  private int hashConsedSets;
+
+  private int distinctHashConsedSets;
+
+  private int collapsedCycles;
+
+  private int collapsedVariables;
+
+  public CallGraphBuildMetrics() {
+    this(DEFAULT_SLOWEST_NODES);
+  }
+
+  /**
+   * @param maxSlowestNodes number of nodes with the slowest constraint generation to remember
+   * @throws IllegalArgumentException if maxSlowestNodes is negative
+   */
+  public CallGraphBuildMetrics(int maxSlowestNodes) {
+    if (maxSlowestNodes < 0) {
+      throw new IllegalArgumentException("invalid maxSlowestNodes: " + maxSlowestNodes);
+    }
+    this.maxSlowestNodes = maxSlowestNodes;
+  }
+
+  @Override
+  public synchronized void phaseCompleted(Phase phase, long nanos, long allocatedBytes) {
+    int i = phase.ordinal();
+    runs[i]++;
+    this.nanos[i] += nanos;
+    if (allocatedBytes < 0 || bytes[i] < 0) {
+      bytes[i] = -1;
+    } else {
+      bytes[i] += allocatedBytes;
+    }
+  }
+
+  @Override
+  public synchronized void nodeProcessed(CGNode node, long nanos) {
+    nodes++;
+    int i = slowestNodes.size();
+    while (i > 0 && slowestNodeNanos.get(i - 1) < nanos) {
+      i--;
+    }
+    if (i < maxSlowestNodes) {
+      slowestNodes.add(i, node);
+      slowestNodeNanos.add(i, nanos);
+      if (slowestNodes.size() > maxSlowestNodes) {
+        slowestNodes.remove(maxSlowestNodes);
+        slowestNodeNanos.remove(maxSlowestNodes);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void solverPassCompleted(int workListSize, int evaluations) {
+    solverPasses++;
+    this.evaluations += evaluations;
+    maxWorkListSize = Math.max(maxWorkListSize, workListSize);
+  }
+
+  @Override
+  public synchronized void pointsToSetSizes(int[] histogram) {
+    pointsToSetSizes = histogram.clone();
+  }
+
+  @Override
+  public synchronized void pointsToSetsHashConsed(int sets, int distinct) {
+    hashConsedSets = sets;
+    distinctHashConsedSets = distinct;
+  }
+
+  /** @return number of runs of phase */
+  public synchronized long getRuns(Phase phase) {
+    return runs[phase.ordinal()];
+  }
+
+  /** @return total time spent in phase, in nanoseconds */
+  public synchronized long getNanos(Phase phase) {
+    return nanos[phase.ordinal()];
+  }
+
+  /** @return total bytes allocated during phase, or -1 if unknown */
+  public synchronized long getAllocatedBytes(Phase phase) {
+    return bytes[phase.ordinal()];
+  }
+
+  /** @return number of nodes constraints were generated for */
+  public synchronized int getNumberOfNodes() {
+    return nodes;
+  }
+
+  /** @return the nodes whose constraint generation took longest, slowest first */
+  public synchronized List<CGNode> getSlowestNodes() {
+    return new ArrayList<>(slowestNodes);
+  }
+
+  /** @return number of passes of the fixed point solver */
+  public synchronized int getSolverPasses() {
+    return solverPasses;
+  }
+
+  /** @return number of statements evaluated by the fixed point solver */
+  public synchronized long getEvaluations() {
+    return evaluations;
+  }
+
+  /** @return the largest work list a solver pass started with */
+  public synchronized int getMaxWorkListSize() {
+    return maxWorkListSize;
+  }
+
+  /**
+   * @return the histogram of points-to set sizes at the end of the build, as described in {@link
+   *     CallGraphBuildListener#pointsToSetSizes(int[])}
+   */
+  public synchronized int[] getPointsToSetSizes() {
+    return pointsToSetSizes.clone();
+  }
+
+  @Override
+  public synchronized void cyclesCollapsed(int cycles, int variables) {
+    collapsedCycles += cycles;
+    collapsedVariables += variables;
+  }
+
+  /** @return number of cycles of assignments collapsed */
+  public synchronized int getCollapsedCycles() {
+    return collapsedCycles;
+  }
+
+  /** @return number of points-to set variables on the collapsed cycles */
+  public synchronized int getCollapsedVariables() {
+    return collapsedVariables;
+  }
+
+  /** @return number of non-empty points-to sets when they were last hash-consed */
+  public synchronized int getHashConsedSets() {
+    return hashConsedSets;
+  }
+
+  /** @return number of distinct values among them */
+  public synchronized int getDistinctHashConsedSets() {
+    return distinctHashConsedSets;
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder result = new StringBuilder();
+    for (Phase p : Phase.values()) {
+      int i = p.ordinal();
+      if (runs[i] > 0) {
+        result.append(p).append(": ").append(nanos[i] / 1000000).append(" ms");
+        result.append(", runs: ").append(runs[i]);
+        if (bytes[i] >= 0) {
+          result.append(", allocated: ").append(bytes[i] / (1024 * 1024)).append(" MB");
+        }
+        result.append('\n');
+      }
+    }
+    result.append("nodes: ").append(nodes).append('\n');
+    for (int i = 0; i < slowestNodes.size(); i++) {
+      result.append("  ").append(slowestNodeNanos.get(i) / 1000000).append(" ms ");
+      result.append(slowestNodes.get(i)).append('\n');
+    }
+    result.append("solver passes: ").append(solverPasses);
+    result.append(", evaluations: ").append(evaluations);
+    result.append(", max work list: ").append(maxWorkListSize).append('\n');
+    result.append("points-to set sizes: ").append(Arrays.toString(pointsToSetSizes)).append('\n');
+    if (collapsedCycles > 0) {
+      result.append("collapsed cycles: ").append(collapsedCycles);
+      result.append(", variables: ").append(collapsedVariables).append('\n');
+    }
+    if (hashConsedSets > 0) {
+      result.append("hash-consed points-to sets: ").append(hashConsedSets);
+      result.append(", distinct: ").append(distinctHashConsedSets);
+      result.append(
+          String.format(", dedup ratio: %.2f", (double) hashConsedSets / distinctHashConsedSets));
+      result.append('\n');
+    }
+    return result.toString();
+  }
+}
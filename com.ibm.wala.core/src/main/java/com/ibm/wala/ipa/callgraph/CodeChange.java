@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.ipa.callgraph;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashSetFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The classes of an analyzed program that were added, changed or removed since a call graph was
+ * built for it. Added and changed classes are given as the classes of the new program; removed
+ * classes by their type.
+ *
+ * @see com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder#getAffectedNodes
+ * @see com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder#updateCallGraph
+ */
+public class CodeChange {
+
+  /** classes new to the program */
+  private final Set<IClass> added;
+
+  /** the new versions of classes whose code changed */
+  private final Set<IClass> changed;
+
+  /** classes no longer in the program */
+  private final Set<TypeReference> removed;
+
+  public CodeChange(
+      Collection<? extends IClass> added,
+      Collection<? extends IClass> changed,
+      Collection<TypeReference> removed) {
+    if (added == null) {
+      throw new IllegalArgumentException("added is null");
+    }
+    if (changed == null) {
+      throw new IllegalArgumentException("changed is null");
+    }
+    if (removed == null) {
+      throw new IllegalArgumentException("removed is null");
+    }
+    this.added = Collections.unmodifiableSet(HashSetFactory.make(added));
+    this.changed = Collections.unmodifiableSet(HashSetFactory.make(changed));
+    this.removed = Collections.unmodifiableSet(HashSetFactory.make(removed));
+  }
+
+  /** @return a change that only adds the given classes */
+  public static CodeChange added(Collection<? extends IClass> classes) {
+    return new CodeChange(classes, Collections.emptySet(), Collections.emptySet());
+  }
+
+  public Set<IClass> getAddedClasses() {
+    return added;
+  }
+
+  public Set<IClass> getChangedClasses() {
+    return changed;
+  }
+
+  /** @return the types of the changed and removed classes */
+  public Set<TypeReference> getChangedAndRemovedTypes() {
+    Set<TypeReference> result = HashSetFactory.make(removed);
+    for (IClass klass : changed) {
+      result.add(klass.getReference());
+    }
+    return result;
+  }
+
+  public Set<TypeReference> getRemovedClasses() {
+    return removed;
+  }
+
+  /** @return true iff this change only adds classes */
+  public boolean isAdditive() {
+    return changed.isEmpty() && removed.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "added: " + added + ", changed: " + changed + ", removed: " + removed;
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ipa.callgraph;
+
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener.Phase;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures one run of a {@link Phase} for a {@link CallGraphBuildListener}, as in
+ *
+ * <pre>
+ * PhaseTimer t = PhaseTimer.start(listener, Phase.CLASS_HIERARCHY);
+ * IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+ * t.stop();
+ * </pre>
+ *
+ * Without a listener, nothing is measured.
+ */
+public final class PhaseTimer {
+
+  /** the timer returned when there is no listener */
+  private static final PhaseTimer NONE = new PhaseTimer(null, null, 0, 0);
+
+  /** reports the bytes allocated by a thread, or null if the virtual machine does not */
+  private static final com.sun.management.ThreadMXBean threads = allocationCountingThreadBean();
+
+  private final CallGraphBuildListener listener;
+
+  private final Phase phase;
+
+  private final long startNanos;
+
+  private final long startBytes;
+
+  private PhaseTimer(
+      CallGraphBuildListener listener, Phase phase, long startNanos, long startBytes) {
+    this.listener = listener;
+    this.phase = phase;
+    this.startNanos = startNanos;
+    this.startBytes = startBytes;
+  }
+
+  private static com.sun.management.ThreadMXBean allocationCountingThreadBean() {
+    try {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean result = (com.sun.management.ThreadMXBean) bean;
+        if (result.isThreadAllocatedMemorySupported()) {
+          result.setThreadAllocatedMemoryEnabled(true);
+          return result;
+        }
+      }
+    } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+      // allocation is not reported on this virtual machine
+    }
+    return null;
+  }
+
+  /** @return bytes allocated so far by the current thread, or -1 if unknown */
+  private static long allocatedBytes() {
+    return threads == null ? -1 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Start measuring a run of phase.
+   *
+   * @param listener the listener to report to when the timer is stopped; may be null
+   */
+  public static PhaseTimer start(CallGraphBuildListener listener, Phase phase) {
+    if (listener == null) {
+      return NONE;
+    }
+    if (phase == null) {
+      throw new IllegalArgumentException("null phase");
+    }
+    return new PhaseTimer(listener, phase, System.nanoTime(), allocatedBytes());
+  }
+
+  /**
+   * Report the run of the phase to the listener.
+   *
+   * @return the elapsed time in nanoseconds, or 0 if there is no listener
+   */
+  public long stop() {
+    if (listener == null) {
+      return 0;
+    }
+    long nanos = System.nanoTime() - startNanos;
+    long bytes = startBytes < 0 ? -1 : allocatedBytes() - startBytes;
+    listener.phaseCompleted(phase, nanos, bytes);
+    return nanos;
+  }
+}
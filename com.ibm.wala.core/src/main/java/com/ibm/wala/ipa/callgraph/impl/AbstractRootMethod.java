@@ -272,6 +272,22 @@ public abstract class AbstractRootMethod extends SyntheticMethod {
     return result;
   }
 
+  /**
+   * Replace the statements in [from, to) by null, so they no longer contribute to the IR. The
+   * indices of the remaining statements, and hence their call and allocation sites, are unchanged.
+   *
+   * @throws IllegalArgumentException if [from, to) is not a range of statement indices
+   */
+  public void removeStatements(int from, int to) {
+    if (from < 0 || to > statements.size() || from > to) {
+      throw new IllegalArgumentException("bad range [" + from + ", " + to + ')');
+    }
+    for (int i = from; i < to; i++) {
+      statements.set(i, null);
+    }
+    cache.invalidate(this, Everywhere.EVERYWHERE);
+  }
+
   public int getValueNumberForIntConstant(int c) {
     ConstantValue v = new ConstantValue(c);
     Integer result = constant2ValueNumber.get(v);
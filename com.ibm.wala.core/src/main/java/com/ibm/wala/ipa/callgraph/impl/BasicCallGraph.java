@@ -28,8 +28,6 @@ import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.NonNullSingletonIterator;
-import com.ibm.wala.util.debug.Assertions;
-import com.ibm.wala.util.debug.UnimplementedError;
 import com.ibm.wala.util.graph.AbstractNumberedGraph;
 import com.ibm.wala.util.graph.NumberedNodeManager;
 import com.ibm.wala.util.graph.impl.DelegatingNumberedNodeManager;
@@ -152,6 +150,11 @@ public abstract class BasicCallGraph<T> extends AbstractNumberedGraph<CGNode> im
     entrypointNodes.add(node);
   }
 
+  /** record that a node is no longer an entrypoint */
+  public void unregisterEntrypoint(CGNode node) {
+    entrypointNodes.remove(node);
+  }
+
   /** Note: not all successors of the root node are entrypoints */
   @Override
   public Collection<CGNode> getEntrypointNodes() {
@@ -237,9 +240,30 @@ public abstract class BasicCallGraph<T> extends AbstractNumberedGraph<CGNode> im
     return result.toString();
   }
 
+  /**
+   * Remove a node and the edges to and from it. Callers that still hold constraints or call sites
+   * for the node must discard them; the fake root and fake world clinit nodes cannot be removed.
+   *
+   * @throws IllegalArgumentException if N is the fake root or fake world clinit node
+   */
   @Override
-  public void removeNodeAndEdges(CGNode N) throws UnimplementedError {
-    Assertions.UNREACHABLE();
+  public void removeNodeAndEdges(CGNode N) {
+    if (N == null) {
+      throw new IllegalArgumentException("N is null");
+    }
+    if (N.equals(fakeRoot) || N.equals(fakeWorldClinit)) {
+      throw new IllegalArgumentException("cannot remove " + N);
+    }
+    super.removeNodeAndEdges(N);
+    nodes.remove(new Key(N.getMethod(), N.getContext()));
+    Set<CGNode> s = mr2Nodes.get(N.getMethod().getReference());
+    if (s != null) {
+      s.remove(N);
+      if (s.isEmpty()) {
+        mr2Nodes.remove(N.getMethod().getReference());
+      }
+    }
+    entrypointNodes.remove(N);
   }
 
   /** @return NodeImpl, or null if none found */
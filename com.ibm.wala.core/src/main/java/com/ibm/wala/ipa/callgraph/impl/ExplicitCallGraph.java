@@ -31,7 +31,6 @@ import com.ibm.wala.util.collections.FilterIterator;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.IntMapIterator;
 import com.ibm.wala.util.collections.SparseVector;
-import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.graph.NumberedEdgeManager;
 import com.ibm.wala.util.intset.BasicNaturalRelation;
 import com.ibm.wala.util.intset.IBinaryNaturalRelation;
@@ -411,6 +410,7 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
     public void removeEdge(CGNode src, CGNode dst) {
       int x = getNumber(src);
       int y = getNumber(dst);
+      ((ExplicitNode) src).removeTarget(dst);
       predecessors.remove(y, x);
     }
 
@@ -421,17 +421,30 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
 
     @Override
     public void removeAllIncidentEdges(CGNode node) {
-      Assertions.UNREACHABLE();
+      removeIncomingEdges(node);
+      removeOutgoingEdges(node);
     }
 
     @Override
     public void removeIncomingEdges(CGNode node) {
-      Assertions.UNREACHABLE();
+      int y = getNumber(node);
+      IntSet preds = predecessors.getRelated(y);
+      if (preds != null) {
+        for (IntIterator it = preds.intIterator(); it.hasNext(); ) {
+          ((ExplicitNode) getNode(it.next())).removeTarget(node);
+        }
+        predecessors.removeAll(y);
+      }
     }
 
     @Override
     public void removeOutgoingEdges(CGNode node) {
-      Assertions.UNREACHABLE();
+      ExplicitNode n = (ExplicitNode) node;
+      int x = getNumber(n);
+      for (IntIterator it = n.getAllTargetNumbers().intIterator(); it.hasNext(); ) {
+        predecessors.remove(it.next(), x);
+      }
+      n.clearAllTargets();
     }
 
     @Override
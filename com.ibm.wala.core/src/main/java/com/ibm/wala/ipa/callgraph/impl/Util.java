@@ -30,6 +30,7 @@ import com.ibm.wala.ipa.callgraph.propagation.cfa.ZeroXInstanceKeys;
 import com.ibm.wala.ipa.callgraph.propagation.cfa.nCFABuilder;
 import com.ibm.wala.ipa.callgraph.propagation.rta.BasicRTABuilder;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.summaries.BinaryMethodSummaryReader;
 import com.ibm.wala.ipa.summaries.BypassClassTargetSelector;
 import com.ibm.wala.ipa.summaries.BypassMethodTargetSelector;
 import com.ibm.wala.ipa.summaries.LambdaMethodTargetSelector;
@@ -44,6 +45,7 @@ import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.graph.Graph;
 import com.ibm.wala.util.strings.Atom;
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -109,11 +111,15 @@ public class Util {
       throw new IllegalArgumentException("cha cannot be null");
     }
 
-    try (final InputStream s = cl.getResourceAsStream(xmlFile)) {
-      XMLMethodSummaryReader summary = new XMLMethodSummaryReader(s, scope);
+    // prefer an up-to-date compiled version of the summaries, which are then built on demand
+    try (final InputStream xml = cl.getResourceAsStream(xmlFile);
+        final InputStream compiled =
+            cl.getResourceAsStream(xmlFile + BinaryMethodSummaryReader.SUFFIX)) {
+      XMLMethodSummaryReader summary =
+          BinaryMethodSummaryReader.read(xmlFile, xml, compiled, scope);
       addBypassLogic(options, scope, cl, summary, cha);
     } catch (IOException e) {
-      System.err.println("Could not close XML method summary reader: " + e.getLocalizedMessage());
+      System.err.println("Could not read XML method summaries: " + e.getLocalizedMessage());
       e.printStackTrace();
     }
   }
@@ -645,13 +651,23 @@ public class Util {
   public static void addDefaultBypassLogic(
       AnalysisOptions options, AnalysisScope scope, ClassLoader cl, IClassHierarchy cha) {
     if (nativeSpec == null) return;
-    if (cl.getResourceAsStream(nativeSpec) != null) {
+    if (cl.getResource(nativeSpec) != null
+        || cl.getResource(nativeSpec + BinaryMethodSummaryReader.SUFFIX) != null) {
       addBypassLogic(options, scope, cl, nativeSpec, cha);
     } else {
       // try to load from filesystem
-      try (final BufferedInputStream bIn =
-          new BufferedInputStream(new FileInputStream(nativeSpec))) {
-        XMLMethodSummaryReader reader = new XMLMethodSummaryReader(bIn, scope);
+      File xmlFile = new File(nativeSpec);
+      File compiledFile = new File(nativeSpec + BinaryMethodSummaryReader.SUFFIX);
+      try (final InputStream compiled =
+              compiledFile.exists()
+                  ? new BufferedInputStream(new FileInputStream(compiledFile))
+                  : null;
+          final InputStream xml =
+              xmlFile.exists() || compiled == null
+                  ? new BufferedInputStream(new FileInputStream(xmlFile))
+                  : null) {
+        XMLMethodSummaryReader reader =
+            BinaryMethodSummaryReader.read(nativeSpec, xml, compiled, scope);
         addBypassLogic(options, scope, cl, reader, cha);
       } catch (FileNotFoundException e) {
         System.err.println("Could not load natives xml file from: " + nativeSpec);
@@ -0,0 +1,1254 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.ipa.callgraph.propagation;
+
+import com.ibm.wala.analysis.reflection.InstanceKeyWithNode;
+import com.ibm.wala.analysis.typeInference.TypeAbstraction;
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.SyntheticMethod;
+import com.ibm.wala.fixpoint.AbstractOperator;
+import com.ibm.wala.fixpoint.AbstractStatement;
+import com.ibm.wala.fixpoint.IFixedPointSystem;
+import com.ibm.wala.fixpoint.IVariable;
+import com.ibm.wala.fixpoint.UnaryOperator;
+import com.ibm.wala.fixpoint.UnaryStatement;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CodeChange;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.callgraph.ContextItem;
+import com.ibm.wala.ipa.callgraph.ContextKey;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.FilteredPointerKey.MultipleClassesFilter;
+import com.ibm.wala.ipa.callgraph.propagation.FilteredPointerKey.SingleClassFilter;
+import com.ibm.wala.ipa.callgraph.propagation.FilteredPointerKey.SingleInstanceFilter;
+import com.ibm.wala.ipa.callgraph.propagation.FilteredPointerKey.TargetMethodFilter;
+import com.ibm.wala.ipa.callgraph.propagation.FilteredPointerKey.TypeFilter;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.ArrayLoadOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.ArrayStoreOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.FilterOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.GetFieldOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.InstanceArrayStoreOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.InstancePutFieldOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.PutFieldOperator;
+import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.TypedPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder.DispatchOperator;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.CallString;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.CallStringContextSelector;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.types.FieldReference;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.collections.MapUtil;
+import com.ibm.wala.util.collections.Pair;
+import com.ibm.wala.util.graph.INodeWithNumber;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Deletes from the call graph and constraint system of a {@link SSAPropagationCallGraphBuilder}
+ * whatever may depend on a {@link CodeChange}, and prepares the solver to derive it again for the
+ * changed program.
+ *
+ * <p>The nodes of methods of changed and removed classes die, and so do the nodes whose IR names a
+ * class that is added or affected (see {@link PropagationCallGraphBuilder#getAffectedNodes}),
+ * factory nodes, and nodes whose context mentions an affected class; a class is affected if it is
+ * changed or removed, or extends or implements such a class. Instance keys and pointer keys of
+ * affected classes die too. A dead node takes its pointer keys, its instance keys, the nodes whose
+ * context refers to it, and its edges with it; a live caller that loses a target is regenerated.
+ *
+ * <p>Then the instance keys that may have reached a points-to set only through something dead are
+ * taken out of it, and out of every set they flowed to from there, together with the constraints
+ * that field accesses and calls created for them. Nodes that are no longer reachable from the fake
+ * root die as well, and so do the class initializers and finalizers that no live node needs any
+ * more. Finally the dead keys, statements, and nodes are removed, and the solver is seeded to add
+ * back whatever the remaining constraints still derive.
+ */
+final class IncrementalUpdate {
+
+  /** context keys whose items may refer to classes, instance keys, or nodes */
+  private static final List<ContextKey> CONTEXT_KEYS = new ArrayList<>();
+
+  static {
+    CONTEXT_KEYS.add(ContextKey.RECEIVER);
+    CONTEXT_KEYS.add(ContextKey.CALLER);
+    CONTEXT_KEYS.add(ContextKey.CALLSITE);
+    CONTEXT_KEYS.add(ContextKey.TARGET);
+    CONTEXT_KEYS.add(ContextKey.NAME);
+    CONTEXT_KEYS.add(CallStringContextSelector.CALL_STRING);
+    Collections.addAll(CONTEXT_KEYS, ContextKey.PARAMETERS);
+  }
+
+  private final SSAPropagationCallGraphBuilder builder;
+
+  private final PropagationSystem system;
+
+  private final ExplicitCallGraph cg;
+
+  private final CodeChange change;
+
+  private final CGNode fakeRoot;
+
+  private final CGNode fakeWorldClinit;
+
+  /** types of changed and removed classes, and of the classes that extend or implement them */
+  private final Set<TypeReference> affectedTypes = HashSetFactory.make();
+
+  /** affected types, and the types of added classes */
+  private final Set<TypeReference> named = HashSetFactory.make();
+
+  /** the names by which reflection finds the named types */
+  private Set<String> names;
+
+  /** the old versions of changed and removed classes */
+  private final List<IClass> staleClasses = new ArrayList<>();
+
+  /** instance keys added directly to points-to sets, by source; see PropagationSystem */
+  private final Map<Object, Map<PointerKey, MutableIntSet>> records;
+
+  private final Map<PointerKey, Set<Object>> sourcesByKey = HashMapFactory.make();
+
+  private final Map<CGNode, List<PointerKey>> keysByNode = HashMapFactory.make();
+
+  private final Map<InstanceKey, List<PointerKey>> keysByInstance = HashMapFactory.make();
+
+  private final Map<CGNode, List<InstanceKey>> instancesByNode = HashMapFactory.make();
+
+  private final Map<CGNode, List<CGNode>> nodesByContextNode = HashMapFactory.make();
+
+  private final Map<InstanceKey, List<CGNode>> nodesByContextInstance = HashMapFactory.make();
+
+  /** the statement of each side effect */
+  private final Map<AbstractOperator<?>, AbstractStatement> statementOf = new IdentityHashMap<>();
+
+  private final Map<CGNode, List<DispatchOperator>> dispatchByNode = HashMapFactory.make();
+
+  private final Map<PointsToSetVariable, List<UnarySideEffect>> sideEffectsByFixedSet =
+      HashMapFactory.make();
+
+  /** side effects that use an instance key as a constant */
+  private final Map<InstanceKey, List<AbstractOperator<?>>> operatorsByInstance =
+      HashMapFactory.make();
+
+  /** for each class whose initializer was processed, the targets of its call */
+  private final Map<IClass, Set<CGNode>> clinitTargets = HashMapFactory.make();
+
+  /** for each class whose initializer was processed, the processed classes that extend it */
+  private final Map<IClass, Set<IClass>> clinitSubclasses = HashMapFactory.make();
+
+  /** nodes to delete regardless of the change */
+  private final Collection<CGNode> garbage;
+
+  private final Set<CGNode> deadNodes = HashSetFactory.make();
+
+  private final Set<InstanceKey> deadInstances = HashSetFactory.make();
+
+  /** indices of dead instance keys not yet removed from the recorded direct additions */
+  private final MutableIntSet newlyDeadInstances = IntSetUtil.make();
+
+  private final Set<PointerKey> deadKeys = HashSetFactory.make();
+
+  private final Set<PointsToSetVariable> deadVariables = HashSetFactory.make();
+
+  private final Set<AbstractStatement> deletedStatements = HashSetFactory.make();
+
+  /** for each points-to set, the instance keys that are taken out of it */
+  private final Map<PointsToSetVariable, MutableIntSet> removed = HashMapFactory.make();
+
+  /** points-to sets, and instance keys taken out of them whose consequences are pending */
+  private final ArrayDeque<Pair<PointsToSetVariable, IntSet>> worklist = new ArrayDeque<>();
+
+  /** live nodes whose constraints must be added again */
+  private final Set<CGNode> regenerate = HashSetFactory.make();
+
+  /** side effects that must be evaluated again */
+  private final Set<AbstractOperator<?>> reevaluate =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * @param change the change to the program
+   * @param garbage nodes to delete as well, as they are no longer reachable
+   */
+  IncrementalUpdate(
+      SSAPropagationCallGraphBuilder builder, CodeChange change, Collection<CGNode> garbage) {
+    this.builder = builder;
+    this.system = builder.system;
+    this.cg = builder.getCallGraph();
+    this.change = change;
+    this.garbage = garbage;
+    this.fakeRoot = cg.getFakeRootNode();
+    this.fakeWorldClinit = cg.getFakeWorldClinitNode();
+    this.records = system.getDirectAdditions();
+  }
+
+  /**
+   * Delete whatever may depend on the change, update the class hierarchy, and seed the solver.
+   *
+   * @throws IllegalStateException if the update is not supported; nothing is changed then
+   */
+  void run() {
+    check();
+
+    Set<TypeReference> changedAndRemoved = change.getChangedAndRemovedTypes();
+    for (TypeReference t : changedAndRemoved) {
+      IClass klass = builder.cha.lookupClass(t);
+      if (klass != null) {
+        staleClasses.add(klass);
+      }
+    }
+    affectedTypes.addAll(changedAndRemoved);
+    for (IClass klass : builder.cha) {
+      if (extendsAny(klass, changedAndRemoved)) {
+        affectedTypes.add(klass.getReference());
+      }
+    }
+    named.addAll(affectedTypes);
+    Set<TypeReference> supertypes = HashSetFactory.make();
+    for (TypeReference t : affectedTypes) {
+      IClass klass = builder.cha.lookupClass(t);
+      if (klass != null) {
+        PropagationCallGraphBuilder.addSupertypes(klass, supertypes);
+      }
+    }
+    for (IClass klass : change.getAddedClasses()) {
+      named.add(klass.getReference());
+      PropagationCallGraphBuilder.addSupertypes(klass, supertypes);
+    }
+    names = PropagationCallGraphBuilder.getClassNames(named);
+
+    indexStatements();
+    List<PointerKey> affectedKeys = indexPointerKeys();
+    List<InstanceKey> affectedInstances = indexInstanceKeys();
+    indexRecords();
+    indexClassInitializers();
+
+    List<CGNode> affectedNodes = new ArrayList<>(garbage);
+    for (CGNode n : cg) {
+      if (n.equals(fakeRoot) || n.equals(fakeWorldClinit)) {
+        continue;
+      }
+      IMethod m = n.getMethod();
+      if (indexContext(n, n.getContext())) {
+        affectedNodes.add(n);
+      } else if (!named.isEmpty()
+          && (changedAndRemoved.contains(m.getDeclaringClass().getReference())
+              || (m instanceof SyntheticMethod && ((SyntheticMethod) m).isFactoryMethod())
+              || builder.namesAffectedType(n, named, names, supertypes))) {
+        affectedNodes.add(n);
+      }
+    }
+
+    if (!named.isEmpty()) {
+      List<IClass> classes = new ArrayList<>(change.getChangedClasses());
+      classes.addAll(change.getAddedClasses());
+      ((ClassHierarchy) builder.cha).updateClasses(classes, change.getRemovedClasses());
+    }
+
+    for (CGNode n : cg) {
+      IClass declaring = n.getMethod().getDeclaringClass();
+      if (isAffected(declaring) && builder.cha.lookupClass(declaring.getReference()) == null) {
+        // a class whose superclass was removed is gone too
+        affectedNodes.add(n);
+      }
+    }
+    regenerate(fakeRoot);
+    for (CGNode n : affectedNodes) {
+      killNode(n);
+    }
+    for (InstanceKey I : affectedInstances) {
+      killInstance(I);
+    }
+    for (PointerKey k : affectedKeys) {
+      killKey(k);
+    }
+    close();
+    apply();
+    rederive();
+  }
+
+  /** @throws IllegalStateException if the update is not supported */
+  private void check() {
+    if (system.isCycleElimination() || system.isHashConsing()) {
+      throw new IllegalStateException(
+          "cannot update a call graph built with cycle elimination or hash consing");
+    }
+    int flowToCastIterations = builder.getOptions().getReflectionOptions().getNumFlowToCastIterations();
+    if (flowToCastIterations != 0 && flowToCastIterations != Integer.MAX_VALUE) {
+      throw new IllegalStateException(
+          "bounded flow-to-cast iterations need a new build: "
+              + builder.getOptions().getReflectionOptions());
+    }
+    if (!(builder.cha instanceof ClassHierarchy)) {
+      throw new IllegalStateException("cannot update class hierarchy " + builder.cha);
+    }
+    Set<TypeReference> removedTypes = change.getRemovedClasses();
+    for (Entrypoint E : builder.getEntrypoints()) {
+      if (removedTypes.contains(E.getMethod().getDeclaringClass().getReference())) {
+        throw new IllegalStateException("cannot remove the class of entrypoint " + E);
+      }
+      for (int i = 0; i < E.getNumberOfParameters(); i++) {
+        for (TypeReference t : E.getParameterTypes(i)) {
+          if (removedTypes.contains(t.getInnermostElementType())) {
+            throw new IllegalStateException("cannot remove a parameter type of entrypoint " + E);
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean extendsAny(IClass klass, Set<TypeReference> types) {
+    for (IClass s = klass.getSuperclass(); s != null; s = s.getSuperclass()) {
+      if (types.contains(s.getReference())) {
+        return true;
+      }
+    }
+    for (IClass i : klass.getAllImplementedInterfaces()) {
+      if (types.contains(i.getReference())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isAffected(TypeReference t) {
+    return t != null && affectedTypes.contains(t.getInnermostElementType());
+  }
+
+  private boolean isAffected(IClass klass) {
+    return klass != null && isAffected(klass.getReference());
+  }
+
+  private boolean isAffected(InstanceKey I) {
+    if (isAffected(I.getConcreteType())) {
+      return true;
+    }
+    if (I instanceof AllocationSite) {
+      return isAffected(((AllocationSite) I).getMethod().getDeclaringClass());
+    }
+    if (I instanceof ConstantKey) {
+      return isAffected(((ConstantKey<?>) I).getValue(), false);
+    }
+    return false;
+  }
+
+  /**
+   * @param byName if true, a string is affected if it names a named type
+   * @return true iff value is, or belongs to, an affected class
+   */
+  private boolean isAffected(Object value, boolean byName) {
+    if (value instanceof IClass) {
+      return isAffected((IClass) value);
+    } else if (value instanceof TypeReference) {
+      return isAffected((TypeReference) value);
+    } else if (value instanceof IMethod) {
+      return isAffected(((IMethod) value).getDeclaringClass());
+    } else if (value instanceof IField) {
+      return isAffected(((IField) value).getDeclaringClass());
+    } else if (value instanceof MethodReference) {
+      return isAffected(((MethodReference) value).getDeclaringClass());
+    } else if (value instanceof FieldReference) {
+      return isAffected(((FieldReference) value).getDeclaringClass());
+    } else {
+      return byName && value instanceof String && names.contains(value);
+    }
+  }
+
+  private boolean isAffected(TypeFilter filter) {
+    if (filter instanceof SingleClassFilter) {
+      return isAffected(((SingleClassFilter) filter).getConcreteType());
+    } else if (filter instanceof MultipleClassesFilter) {
+      for (IClass klass : ((MultipleClassesFilter) filter).getConcreteTypes()) {
+        if (isAffected(klass)) {
+          return true;
+        }
+      }
+      return false;
+    } else if (filter instanceof SingleInstanceFilter) {
+      return isAffected(((SingleInstanceFilter) filter).getInstance());
+    } else if (filter instanceof TargetMethodFilter) {
+      return isAffected(((TargetMethodFilter) filter).getMethod().getDeclaringClass());
+    } else {
+      throw new IllegalStateException("cannot update type filter " + filter);
+    }
+  }
+
+  /**
+   * @return the node or instance key that a pointer key belongs to, or null for a static field
+   * @throws IllegalStateException for an unknown kind of pointer key
+   */
+  private static Object getOwner(PointerKey key) {
+    if (key instanceof TypedPointerKey) {
+      return getOwner(((TypedPointerKey) key).getBase());
+    } else if (key instanceof AbstractLocalPointerKey) {
+      return ((AbstractLocalPointerKey) key).getNode();
+    } else if (key instanceof AbstractFieldPointerKey) {
+      return ((AbstractFieldPointerKey) key).getInstanceKey();
+    } else if (key instanceof StaticFieldKey) {
+      return null;
+    } else {
+      throw new IllegalStateException("cannot update pointer key " + key);
+    }
+  }
+
+  private static boolean isKnownSideEffect(AbstractOperator<?> op) {
+    Class<?> c = op.getClass();
+    return c == GetFieldOperator.class
+        || c == PutFieldOperator.class
+        || c == ArrayLoadOperator.class
+        || c == ArrayStoreOperator.class
+        || c == InstancePutFieldOperator.class
+        || c == InstanceArrayStoreOperator.class
+        || c == DispatchOperator.class;
+  }
+
+  private void indexStatements() {
+    for (INodeWithNumber nwn :
+        Iterator2Iterable.make(system.getFixedPointSystem().getStatements())) {
+      AbstractStatement s = (AbstractStatement) nwn;
+      AbstractOperator<?> op = s.getOperator();
+      if (op instanceof AssignOperator || op instanceof FilterOperator) {
+        continue;
+      }
+      if (s.getLHS() != null || !isKnownSideEffect(op)) {
+        throw new IllegalStateException("cannot update constraint " + s);
+      }
+      statementOf.put(op, s);
+      if (op instanceof UnarySideEffect) {
+        MapUtil.findOrCreateList(sideEffectsByFixedSet, ((UnarySideEffect) op).getFixedSet())
+            .add((UnarySideEffect) op);
+      } else if (op instanceof InstancePutFieldOperator) {
+        MapUtil.findOrCreateList(
+                operatorsByInstance, ((InstancePutFieldOperator) op).getInstance())
+            .add(op);
+      } else if (op instanceof InstanceArrayStoreOperator) {
+        MapUtil.findOrCreateList(
+                operatorsByInstance, ((InstanceArrayStoreOperator) op).getInstance())
+            .add(op);
+      } else {
+        DispatchOperator dispatch = (DispatchOperator) op;
+        MapUtil.findOrCreateList(dispatchByNode, dispatch.getNode()).add(dispatch);
+        InstanceKey[][] constParams = dispatch.getConstParams();
+        if (constParams != null) {
+          for (InstanceKey[] keys : constParams) {
+            if (keys != null) {
+              for (InstanceKey I : keys) {
+                MapUtil.findOrCreateList(operatorsByInstance, I).add(op);
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /** @return the pointer keys whose type filter or field belongs to an affected class */
+  private List<PointerKey> indexPointerKeys() {
+    List<PointerKey> affected = new ArrayList<>();
+    for (PointerKey k : Iterator2Iterable.make(system.iteratePointerKeys())) {
+      Object owner = getOwner(k);
+      if (owner instanceof CGNode) {
+        MapUtil.findOrCreateList(keysByNode, (CGNode) owner).add(k);
+      } else if (owner instanceof InstanceKey) {
+        MapUtil.findOrCreateList(keysByInstance, (InstanceKey) owner).add(k);
+      }
+      if (k instanceof FilteredPointerKey) {
+        TypeFilter filter = ((FilteredPointerKey) k).getTypeFilter();
+        if (filter instanceof SingleInstanceFilter) {
+          MapUtil.findOrCreateList(keysByInstance, ((SingleInstanceFilter) filter).getInstance())
+              .add(k);
+        }
+        if (isAffected(filter)) {
+          affected.add(k);
+          continue;
+        }
+      }
+      if (k instanceof InstanceFieldKey) {
+        if (isAffected(((InstanceFieldKey) k).getField().getDeclaringClass())) {
+          affected.add(k);
+        }
+      } else if (k instanceof StaticFieldKey) {
+        if (isAffected(((StaticFieldKey) k).getField().getDeclaringClass())) {
+          affected.add(k);
+        }
+      }
+    }
+    return affected;
+  }
+
+  /** @return the instance keys that belong to an affected class */
+  private List<InstanceKey> indexInstanceKeys() {
+    List<InstanceKey> affected = new ArrayList<>();
+    for (InstanceKey I : system.instanceKeys) {
+      if (I instanceof InstanceKeyWithNode) {
+        MapUtil.findOrCreateList(instancesByNode, ((InstanceKeyWithNode) I).getNode()).add(I);
+      }
+      if (isAffected(I)) {
+        affected.add(I);
+      }
+    }
+    return affected;
+  }
+
+  private void indexRecords() {
+    for (Map.Entry<Object, Map<PointerKey, MutableIntSet>> e : records.entrySet()) {
+      for (PointerKey k : e.getValue().keySet()) {
+        sourcesOf(k).add(e.getKey());
+      }
+    }
+  }
+
+  private Set<Object> sourcesOf(PointerKey k) {
+    Set<Object> result = sourcesByKey.get(k);
+    if (result == null) {
+      result = Collections.newSetFromMap(new IdentityHashMap<>());
+      sourcesByKey.put(k, result);
+    }
+    return result;
+  }
+
+  private void indexClassInitializers() {
+    for (IClass klass : builder.clinitVisited) {
+      SSAAbstractInvokeInstruction call = builder.clinitCalls.get(klass);
+      if (call != null) {
+        clinitTargets.put(
+            klass, HashSetFactory.make(cg.getPossibleTargets(fakeWorldClinit, call.getCallSite())));
+      }
+      for (IClass s = klass; s != null; s = s.getSuperclass()) {
+        MapUtil.findOrCreateSet(clinitSubclasses, s).add(klass);
+      }
+    }
+  }
+
+  /**
+   * Record which nodes and instance keys the context of n refers to.
+   *
+   * @return true iff the context refers to an affected class
+   */
+  private boolean indexContext(CGNode n, Context context) {
+    boolean result = false;
+    for (ContextKey key : CONTEXT_KEYS) {
+      ContextItem item = context.get(key);
+      if (item instanceof InstanceKey) {
+        MapUtil.findOrCreateList(nodesByContextInstance, (InstanceKey) item).add(n);
+        result |= isAffected((InstanceKey) item);
+      } else if (item instanceof CGNode) {
+        MapUtil.findOrCreateList(nodesByContextNode, (CGNode) item).add(n);
+      } else if (item instanceof TypeAbstraction) {
+        result |= isAffected(((TypeAbstraction) item).getTypeReference());
+      } else if (item instanceof TypeFilter) {
+        if (item instanceof SingleInstanceFilter) {
+          MapUtil.findOrCreateList(
+                  nodesByContextInstance, ((SingleInstanceFilter) item).getInstance())
+              .add(n);
+        }
+        result |= isAffected((TypeFilter) item);
+      } else if (item instanceof CallString) {
+        for (IMethod m : ((CallString) item).getMethods()) {
+          result |= isAffected(m.getDeclaringClass());
+        }
+      } else if (item instanceof ContextItem.Value) {
+        result |= isAffected(((ContextItem.Value<?>) item).getValue(), true);
+      } else if (item != null) {
+        result |= isAffected(item, true);
+      }
+    }
+    ContextItem base = context.get(CallStringContextSelector.BASE);
+    if (base instanceof Context) {
+      result |= indexContext(n, (Context) base);
+    }
+    return result;
+  }
+
+  private PointsToSetVariable getVariable(PointerKey k) {
+    return k == null ? null : system.getPointsToSetIfPresent(k);
+  }
+
+  private void regenerate(CGNode n) {
+    if (!n.equals(fakeWorldClinit)) {
+      regenerate.add(n);
+    }
+  }
+
+  /** Take the instance keys in S out of v, and pursue the consequences. */
+  private void remove(PointsToSetVariable v, IntSet S) {
+    if (v == null || S == null || deadVariables.contains(v)) {
+      return;
+    }
+    IntSet value = v.getValue();
+    if (value == null) {
+      return;
+    }
+    MutableIntSet prior = removed.get(v);
+    MutableIntSet fresh = IntSetUtil.make();
+    S.foreach(
+        i -> {
+          if (value.contains(i) && (prior == null || !prior.contains(i))) {
+            fresh.add(i);
+          }
+        });
+    if (fresh.isEmpty()) {
+      return;
+    }
+    if (prior == null) {
+      removed.put(v, IntSetUtil.makeMutableCopy(fresh));
+    } else {
+      prior.addAll(fresh);
+    }
+    worklist.add(Pair.make(v, fresh));
+  }
+
+  /** Mark a statement deleted. @return true iff it is in the system and was not deleted before */
+  @SuppressWarnings("unchecked")
+  private boolean delete(AbstractStatement s) {
+    IFixedPointSystem<PointsToSetVariable> fps = system.getFixedPointSystem();
+    if (deletedStatements.contains(s) || !fps.containsStatement(s)) {
+      return false;
+    }
+    deletedStatements.add(s);
+    return true;
+  }
+
+  private void dropRecords(Object source) {
+    Map<PointerKey, MutableIntSet> m = records.remove(source);
+    if (m != null) {
+      for (Map.Entry<PointerKey, MutableIntSet> e : m.entrySet()) {
+        sourcesOf(e.getKey()).remove(source);
+        remove(getVariable(e.getKey()), e.getValue());
+      }
+    }
+  }
+
+  private void dropRecord(Object source, PointerKey k) {
+    Map<PointerKey, MutableIntSet> m = records.get(source);
+    MutableIntSet s = m == null ? null : m.remove(k);
+    if (s != null) {
+      if (m.isEmpty()) {
+        records.remove(source);
+      }
+      sourcesOf(k).remove(source);
+      remove(getVariable(k), s);
+    }
+  }
+
+  private void killNode(CGNode n) {
+    if (n.equals(fakeRoot) || n.equals(fakeWorldClinit) || !deadNodes.add(n)) {
+      return;
+    }
+    for (CGNode m : nodesByContextNode.getOrDefault(n, Collections.emptyList())) {
+      killNode(m);
+    }
+    for (CGNode caller : Iterator2Collection.toList(cg.getPredNodes(n))) {
+      if (caller.equals(fakeWorldClinit)) {
+        cg.removeEdge(caller, n);
+      } else if (!deadNodes.contains(caller)) {
+        deleteEdge(caller, n);
+      }
+    }
+    cg.removeAllIncidentEdges(n);
+    for (PointerKey k : keysByNode.getOrDefault(n, Collections.emptyList())) {
+      killKey(k);
+    }
+    for (InstanceKey I : instancesByNode.getOrDefault(n, Collections.emptyList())) {
+      killInstance(I);
+    }
+    dropRecords(n);
+  }
+
+  private void killInstance(InstanceKey I) {
+    if (!deadInstances.add(I)) {
+      return;
+    }
+    int index = system.getInstanceIndex(I);
+    if (index != -1) {
+      newlyDeadInstances.add(index);
+    }
+    for (PointerKey k : keysByInstance.getOrDefault(I, Collections.emptyList())) {
+      killKey(k);
+    }
+    for (CGNode n : nodesByContextInstance.getOrDefault(I, Collections.emptyList())) {
+      killNode(n);
+    }
+    for (AbstractOperator<?> op : operatorsByInstance.getOrDefault(I, Collections.emptyList())) {
+      AbstractStatement s = statementOf.get(op);
+      if (!deletedStatements.add(s)) {
+        continue;
+      }
+      if (op instanceof DispatchOperator) {
+        CGNode caller = ((DispatchOperator) op).getNode();
+        if (!deadNodes.contains(caller)) {
+          for (CGNode t :
+              new ArrayList<>(
+                  cg.getPossibleTargets(caller, ((DispatchOperator) op).getCallSite()))) {
+            deleteEdge(caller, t);
+          }
+        }
+      } else {
+        dropRecords(op);
+        Object owner = getOwner(((PointsToSetVariable) s.getRHS()[0]).getPointerKey());
+        if (owner instanceof CGNode) {
+          regenerate((CGNode) owner);
+        }
+      }
+    }
+  }
+
+  private void killKey(PointerKey k) {
+    if (!deadKeys.add(k)) {
+      return;
+    }
+    Set<Object> sources = sourcesByKey.remove(k);
+    if (sources != null) {
+      for (Object source : sources) {
+        Map<PointerKey, MutableIntSet> m = records.get(source);
+        m.remove(k);
+        if (m.isEmpty()) {
+          records.remove(source);
+        }
+      }
+    }
+    Object owner = getOwner(k);
+    if (owner instanceof CGNode) {
+      regenerate((CGNode) owner);
+    }
+    PointsToSetVariable v = getVariable(k);
+    if (v == null) {
+      return;
+    }
+    deadVariables.add(v);
+    if (v.getValue() != null) {
+      worklist.add(Pair.make(v, v.getValue()));
+    }
+    for (AbstractStatement s : Iterator2Iterable.make(system.getStatementsThatUse(v))) {
+      AbstractOperator<?> op = s.getOperator();
+      if (op instanceof InstancePutFieldOperator || op instanceof InstanceArrayStoreOperator) {
+        deletedStatements.add(s);
+        dropRecords(op);
+      }
+    }
+    for (UnarySideEffect op : sideEffectsByFixedSet.getOrDefault(v, Collections.emptyList())) {
+      deletedStatements.add(statementOf.get(op));
+    }
+  }
+
+  /**
+   * Delete the edges from caller to callee, and the constraints that pass values between them.
+   * The caller is regenerated, and its dispatches to callee start over, so that calls that remain
+   * are found again.
+   */
+  private void deleteEdge(CGNode caller, CGNode callee) {
+    for (DispatchOperator op : dispatchByNode.getOrDefault(caller, Collections.emptyList())) {
+      if (cg.getPossibleTargets(caller, op.getCallSite()).contains(callee)) {
+        op.reset();
+        reevaluate.add(op);
+      }
+    }
+    cg.removeEdge(caller, callee);
+    for (PointerKey k : keysByNode.getOrDefault(callee, Collections.emptyList())) {
+      PointsToSetVariable v = getVariable(k);
+      if (v == null) {
+        continue;
+      }
+      if (k instanceof ReturnValueKey) {
+        // the return values and exceptions of callee flow to the caller
+        for (AbstractStatement s : Iterator2Iterable.make(system.getStatementsThatUse(v))) {
+          if (s instanceof UnaryStatement) {
+            PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+            if (lhs != null && caller.equals(getOwner(lhs.getPointerKey())) && delete(s)) {
+              remove(lhs, v.getValue());
+            }
+          }
+        }
+      } else if (k instanceof LocalPointerKey && ((LocalPointerKey) k).isParameter()) {
+        // the actual parameters of the caller flow to the formals of callee
+        for (AbstractStatement s : Iterator2Iterable.make(system.getStatementsThatDef(v))) {
+          if (s instanceof UnaryStatement) {
+            PointsToSetVariable rhs =
+                (PointsToSetVariable) ((UnaryStatement) s).getRightHandSide();
+            if (caller.equals(getOwner(rhs.getPointerKey())) && delete(s)) {
+              remove(v, rhs.getValue());
+            }
+          }
+        }
+        if (records.containsKey(caller)) {
+          dropRecord(caller, k);
+        }
+      }
+    }
+    regenerate(caller);
+  }
+
+  /** Pursue the consequences of taking the instance keys in S out of v. */
+  private void propagate(PointsToSetVariable v, IntSet S) {
+    for (AbstractStatement s : Iterator2Iterable.make(system.getStatementsThatUse(v))) {
+      AbstractOperator<?> op = s.getOperator();
+      if (op instanceof AssignOperator || op instanceof FilterOperator) {
+        remove((PointsToSetVariable) s.getLHS(), S);
+      } else if (op instanceof GetFieldOperator) {
+        IField f = ((GetFieldOperator) op).getField();
+        load((UnarySideEffect) op, S, I -> getPointerKeyForInstanceField(I, f));
+      } else if (op instanceof ArrayLoadOperator) {
+        load((UnarySideEffect) op, S, this::getPointerKeyForArrayContents);
+      } else if (op instanceof PutFieldOperator) {
+        PutFieldOperator put = (PutFieldOperator) op;
+        store(
+            put,
+            S,
+            I -> getPointerKeyForInstanceField(I, put.getField()),
+            Collections.singletonList(put.getPutAssignmentOperator()));
+      } else if (op instanceof ArrayStoreOperator) {
+        store(
+            (UnarySideEffect) op,
+            S,
+            this::getPointerKeyForArrayContents,
+            List.of(PropagationCallGraphBuilder.assignOperator, builder.filterOperator));
+      } else if (op instanceof InstancePutFieldOperator) {
+        InstancePutFieldOperator put = (InstancePutFieldOperator) op;
+        instanceStore(
+            put, S, I -> getPointerKeyForInstanceField(I, put.getField()), put.priorInstances);
+      } else if (op instanceof InstanceArrayStoreOperator) {
+        InstanceArrayStoreOperator store = (InstanceArrayStoreOperator) op;
+        instanceStore(store, S, this::getPointerKeyForArrayContents, store.priorInstances);
+      } else if (op instanceof DispatchOperator) {
+        dispatch(s, v, S);
+      }
+    }
+  }
+
+  private PointerKey getPointerKeyForInstanceField(InstanceKey I, IField f) {
+    if (deadInstances.contains(I) || PropagationCallGraphBuilder.representsNullType(I)) {
+      return null;
+    }
+    return builder.getPointerKeyForInstanceField(I, f);
+  }
+
+  private PointerKey getPointerKeyForArrayContents(InstanceKey I) {
+    if (deadInstances.contains(I)
+        || !I.getConcreteType().isArrayClass()
+        || I.getConcreteType().getReference().getArrayElementType().isPrimitiveType()) {
+      return null;
+    }
+    return builder.getPointerKeyForArrayContents(I);
+  }
+
+  /** @return the instance keys a field or array side effect has already processed, or null */
+  private static MutableIntSet getPriorInstances(UnarySideEffect op) {
+    if (op instanceof GetFieldOperator) {
+      return ((GetFieldOperator) op).priorInstances;
+    } else if (op instanceof PutFieldOperator) {
+      return ((PutFieldOperator) op).priorInstances;
+    } else if (op instanceof ArrayLoadOperator) {
+      return ((ArrayLoadOperator) op).priorInstances;
+    } else {
+      return null;
+    }
+  }
+
+  /** @return true iff op and other access the same field, or both access arrays, the same way */
+  private static boolean isSameAccess(UnarySideEffect op, UnarySideEffect other) {
+    if (op.getClass() != other.getClass()) {
+      return false;
+    } else if (op instanceof GetFieldOperator) {
+      return ((GetFieldOperator) op).getField().equals(((GetFieldOperator) other).getField());
+    } else if (op instanceof PutFieldOperator) {
+      return ((PutFieldOperator) op).getField().equals(((PutFieldOperator) other).getField());
+    } else {
+      return true;
+    }
+  }
+
+  /**
+   * The side effects that access the same field the same way with the same fixed set as op share
+   * the assignments they create: let them forget S and evaluate them again.
+   */
+  private void forget(UnarySideEffect op, IntSet S) {
+    for (UnarySideEffect other :
+        sideEffectsByFixedSet.getOrDefault(op.getFixedSet(), Collections.emptyList())) {
+      if (isSameAccess(op, other)) {
+        MutableIntSet prior = getPriorInstances(other);
+        if (prior != null) {
+          S.foreach(prior::remove);
+        }
+        reevaluate.add(other);
+      }
+    }
+  }
+
+  /** Delete the assignments d := I.f that a load created for I in S. */
+  private void load(UnarySideEffect op, IntSet S, Function<InstanceKey, PointerKey> field) {
+    PointsToSetVariable d = op.getFixedSet();
+    S.foreach(
+        i -> {
+          PointsToSetVariable p = getVariable(field.apply(system.getInstanceKey(i)));
+          if (p != null
+              && delete(PropagationCallGraphBuilder.assignOperator.makeEquation(d, p))) {
+            remove(d, p.getValue());
+          }
+        });
+    forget(op, S);
+  }
+
+  /** Delete the assignments I.f := val that a store created for I in S. */
+  private void store(
+      UnarySideEffect op,
+      IntSet S,
+      Function<InstanceKey, PointerKey> field,
+      List<? extends UnaryOperator<PointsToSetVariable>> assignments) {
+    PointsToSetVariable val = op.getFixedSet();
+    S.foreach(
+        i -> {
+          PointsToSetVariable p = getVariable(field.apply(system.getInstanceKey(i)));
+          if (p != null) {
+            for (UnaryOperator<PointsToSetVariable> assign : assignments) {
+              if (delete(assign.makeEquation(p, val))) {
+                remove(p, val.getValue());
+              }
+            }
+          }
+        });
+    forget(op, S);
+  }
+
+  /** Retract the instance that a store of a constant added to I.f for I in S. */
+  private void instanceStore(
+      AbstractOperator<?> op,
+      IntSet S,
+      Function<InstanceKey, PointerKey> field,
+      MutableIntSet priorInstances) {
+    S.foreach(
+        i -> {
+          PointerKey p = field.apply(system.getInstanceKey(i));
+          if (p != null) {
+            dropRecord(op, p);
+          }
+        });
+    if (priorInstances != null) {
+      S.foreach(priorInstances::remove);
+    }
+    reevaluate.add(op);
+  }
+
+  /**
+   * Forget that a dispatch processed the instance keys in S, and delete the edges to the targets
+   * that no remaining receiver justifies.
+   */
+  private void dispatch(AbstractStatement s, PointsToSetVariable v, IntSet S) {
+    DispatchOperator op = (DispatchOperator) s.getOperator();
+    CGNode caller = op.getNode();
+    if (deadNodes.contains(caller)) {
+      return;
+    }
+    IVariable<?>[] rhs = s.getRHS();
+    for (int y = 0; y < rhs.length; y++) {
+      if (rhs[y] == v) {
+        op.forget(y, S);
+      }
+    }
+    reevaluate.add(op);
+    Set<CGNode> unjustified = HashSetFactory.make(cg.getPossibleTargets(caller, op.getCallSite()));
+    if (op.dispatchesOnReceiverOnly()) {
+      MutableIntSet gone = removed.get(v);
+      for (IntIterator it = v.getValue().intIterator(); it.hasNext() && !unjustified.isEmpty(); ) {
+        int i = it.next();
+        if (gone == null || !gone.contains(i)) {
+          unjustified.remove(getTarget(op, system.getInstanceKey(i)));
+        }
+      }
+    }
+    for (CGNode callee : unjustified) {
+      deleteEdge(caller, callee);
+    }
+  }
+
+  /** @return the node a dispatch on receiver I reaches, or null if there is none yet */
+  private CGNode getTarget(DispatchOperator op, InstanceKey I) {
+    if (deadInstances.contains(I) || isAffected(I)) {
+      return null;
+    }
+    CGNode caller = op.getNode();
+    CallSiteReference site = op.getCallSite();
+    IClass recv = site.isDispatch() ? I.getConcreteType() : null;
+    IMethod target =
+        builder.getOptions().getMethodTargetSelector().getCalleeTarget(caller, site, recv);
+    if (target == null || target.isAbstract()) {
+      return null;
+    }
+    Context context =
+        builder.getContextSelector().getCalleeTarget(caller, site, target, new InstanceKey[] {I});
+    return context == null ? null : cg.getNode(target, context);
+  }
+
+  /** Pursue all consequences of the deletions so far. */
+  private void close() {
+    while (true) {
+      while (!worklist.isEmpty()) {
+        Pair<PointsToSetVariable, IntSet> p = worklist.poll();
+        propagate(p.fst, p.snd);
+      }
+      if (!newlyDeadInstances.isEmpty()) {
+        removeDeadInstancesFromRecords();
+      } else if (!resetClassInitializers() && !resetFinalizers()) {
+        return;
+      }
+    }
+  }
+
+  /** Take the dead instance keys out of what their sources added directly. */
+  private void removeDeadInstancesFromRecords() {
+    IntSet dead = IntSetUtil.makeMutableCopy(newlyDeadInstances);
+    newlyDeadInstances.clear();
+    for (Iterator<Map.Entry<Object, Map<PointerKey, MutableIntSet>>> it =
+            records.entrySet().iterator();
+        it.hasNext(); ) {
+      Map.Entry<Object, Map<PointerKey, MutableIntSet>> e = it.next();
+      boolean changed = false;
+      for (Iterator<Map.Entry<PointerKey, MutableIntSet>> jt = e.getValue().entrySet().iterator();
+          jt.hasNext(); ) {
+        Map.Entry<PointerKey, MutableIntSet> r = jt.next();
+        MutableIntSet s = r.getValue();
+        if (s.containsAny(dead)) {
+          IntSet gone = s.intersection(dead);
+          gone.foreach(s::remove);
+          remove(getVariable(r.getKey()), gone);
+          changed = true;
+          if (s.isEmpty()) {
+            jt.remove();
+            sourcesOf(r.getKey()).remove(e.getKey());
+          }
+        }
+      }
+      if (e.getValue().isEmpty()) {
+        it.remove();
+      }
+      if (changed && e.getKey() instanceof CGNode && !deadNodes.contains(e.getKey())) {
+        regenerate((CGNode) e.getKey());
+      }
+    }
+  }
+
+  private boolean hasLiveOwner(Set<CGNode> owners) {
+    if (owners != null) {
+      for (CGNode n : owners) {
+        if (!deadNodes.contains(n)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Undo the processing of the class initializers that belong to an affected class, that died, or
+   * that no live node needs any more, either directly or for a subclass. The processed subclasses
+   * of such a class are undone too, so that processing them again reaches it.
+   *
+   * @return true iff something was undone
+   */
+  private boolean resetClassInitializers() {
+    Set<IClass> reset = HashSetFactory.make();
+    for (IClass klass : builder.clinitVisited) {
+      boolean needed = false;
+      for (IClass sub : clinitSubclasses.getOrDefault(klass, Collections.emptySet())) {
+        needed |= hasLiveOwner(builder.clinitOwners.get(sub));
+      }
+      boolean dead = false;
+      for (CGNode t : clinitTargets.getOrDefault(klass, Collections.emptySet())) {
+        dead |= deadNodes.contains(t);
+      }
+      if (!needed || dead || isAffected(klass)) {
+        reset.add(klass);
+        reset.addAll(clinitSubclasses.getOrDefault(klass, Collections.emptySet()));
+      }
+    }
+    reset.retainAll(builder.clinitVisited);
+    AbstractRootMethod fakeWorldClinitMethod = (AbstractRootMethod) fakeWorldClinit.getMethod();
+    for (IClass klass : reset) {
+      SSAAbstractInvokeInstruction call = builder.clinitCalls.remove(klass);
+      if (call != null) {
+        fakeWorldClinitMethod.removeStatements(call.iIndex(), call.iIndex() + 1);
+        for (int i = 0; i < call.getNumberOfDefs(); i++) {
+          killKey(builder.getPointerKeyForLocal(fakeWorldClinit, call.getDef(i)));
+        }
+        for (CGNode t : clinitTargets.getOrDefault(klass, Collections.emptySet())) {
+          killNode(t);
+        }
+      }
+      builder.clinitVisited.remove(klass);
+      Set<CGNode> owners = builder.clinitOwners.remove(klass);
+      if (owners != null) {
+        owners.forEach(this::regenerate);
+      }
+    }
+    return !reset.isEmpty();
+  }
+
+  /**
+   * Undo the processing of the finalizers that belong to an affected class, or that no live node
+   * needs any more.
+   *
+   * @return true iff something was undone
+   */
+  private boolean resetFinalizers() {
+    List<IClass> reset = new ArrayList<>();
+    for (IClass klass : builder.finalizeVisited) {
+      if (isAffected(klass) || !hasLiveOwner(builder.finalizeOwners.get(klass))) {
+        reset.add(klass);
+      }
+    }
+    AbstractRootMethod fakeRootMethod = (AbstractRootMethod) fakeRoot.getMethod();
+    for (IClass klass : reset) {
+      int[] range = builder.finalizeCalls.remove(klass);
+      if (range != null) {
+        for (int i = range[0]; i < range[1]; i++) {
+          SSAInstruction s = fakeRootMethod.statements.get(i);
+          if (s == null) {
+            continue;
+          }
+          for (int j = 0; j < s.getNumberOfDefs(); j++) {
+            killKey(builder.getPointerKeyForLocal(fakeRoot, s.getDef(j)));
+          }
+          if (s instanceof SSAAbstractInvokeInstruction) {
+            CallSiteReference site = ((SSAAbstractInvokeInstruction) s).getCallSite();
+            for (CGNode t : new ArrayList<>(cg.getPossibleTargets(fakeRoot, site))) {
+              deleteEdge(fakeRoot, t);
+            }
+          }
+        }
+        for (InstanceKey I : instancesByNode.getOrDefault(fakeRoot, Collections.emptyList())) {
+          if (I instanceof AllocationSiteInNode) {
+            int pc = ((AllocationSiteInNode) I).getSite().getProgramCounter();
+            if (range[0] <= pc && pc < range[1]) {
+              killInstance(I);
+            }
+          }
+        }
+        fakeRootMethod.removeStatements(range[0], range[1]);
+      }
+      builder.finalizeVisited.remove(klass);
+      Set<CGNode> owners = builder.finalizeOwners.remove(klass);
+      if (owners != null) {
+        owners.forEach(this::regenerate);
+      }
+    }
+    return !reset.isEmpty();
+  }
+
+  /** Remove what is dead from the constraint system, the call graph, and the caches. */
+  @SuppressWarnings("unchecked")
+  private void apply() {
+    Set<AbstractStatement> statements = HashSetFactory.make(deletedStatements);
+    for (PointsToSetVariable v : deadVariables) {
+      statements.addAll(Iterator2Collection.toSet(system.getStatementsThatUse(v)));
+      statements.addAll(Iterator2Collection.toSet(system.getStatementsThatDef(v)));
+    }
+    IFixedPointSystem<PointsToSetVariable> fps = system.getFixedPointSystem();
+    for (AbstractStatement s : statements) {
+      if (fps.containsStatement(s)) {
+        system.removeStatement(s);
+      }
+    }
+    for (PointerKey k : deadKeys) {
+      system.removePointerKey(k);
+    }
+    for (Map.Entry<PointsToSetVariable, MutableIntSet> e : removed.entrySet()) {
+      if (!deadVariables.contains(e.getKey())) {
+        e.getValue().foreach(e.getKey()::remove);
+      }
+    }
+    system.removeInstanceKeys(deadInstances, this::isAffected);
+
+    for (CGNode n : deadNodes) {
+      cg.removeNodeAndEdges(n);
+      builder.forgetNode(n);
+    }
+    for (Set<CGNode> owners : builder.clinitOwners.values()) {
+      owners.removeAll(deadNodes);
+    }
+    for (Set<CGNode> owners : builder.finalizeOwners.values()) {
+      owners.removeAll(deadNodes);
+    }
+
+    builder.getContextInterpreter().clearCaches();
+    for (CGNode n : deadNodes) {
+      builder.getAnalysisCache().invalidate(n.getMethod(), n.getContext());
+    }
+    for (IClass klass : staleClasses) {
+      for (IMethod m : klass.getDeclaredMethods()) {
+        builder.getAnalysisCache().invalidate(m, Everywhere.EVERYWHERE);
+      }
+    }
+  }
+
+  /** Seed the solver to derive again what the remaining constraints still derive. */
+  @SuppressWarnings("unchecked")
+  private void rederive() {
+    for (Map.Entry<PointerKey, Set<Object>> e : sourcesByKey.entrySet()) {
+      PointsToSetVariable v = getVariable(e.getKey());
+      MutableIntSet gone = v == null ? null : removed.get(v);
+      if (gone == null || deadVariables.contains(v)) {
+        continue;
+      }
+      for (Object source : e.getValue()) {
+        records
+            .get(source)
+            .get(e.getKey())
+            .foreach(
+                i -> {
+                  if (gone.contains(i)) {
+                    v.add(i);
+                  }
+                });
+      }
+      system.changedVariable(v);
+    }
+    for (PointsToSetVariable v : removed.keySet()) {
+      if (!deadVariables.contains(v)) {
+        for (AbstractStatement s : Iterator2Iterable.make(system.getStatementsThatDef(v))) {
+          system.addToWorkList(s);
+        }
+      }
+    }
+    IFixedPointSystem<PointsToSetVariable> fps = system.getFixedPointSystem();
+    for (AbstractOperator<?> op : reevaluate) {
+      AbstractStatement s = statementOf.get(op);
+      if (s != null && fps.containsStatement(s)) {
+        system.addToWorkList(s);
+      }
+    }
+    for (CGNode n : regenerate) {
+      if (!deadNodes.contains(n)) {
+        builder.markChanged(n);
+      }
+    }
+  }
+}
@@ -124,6 +124,16 @@ public class PointsToMap {
     return result;
   }
 
+  /** forget a pointer key and the representation of its points-to set */
+  void remove(PointerKey key) {
+    int i = pointerKeys.getMappedIndex(key);
+    if (i != -1) {
+      pointsToSets.set(i, null);
+      transitiveRoots.clear(i);
+      pointerKeys.deleteMappedObject(key);
+    }
+  }
+
   /** record that a particular points-to-set has been unioned with another */
   public void recordUnified(PointerKey key) {
     if (key == null) {
@@ -17,6 +17,7 @@ import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ssa.IR;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.AnalysisSession;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.MutableMapping;
@@ -36,10 +37,36 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
   public static final boolean PARANOID = false;
 
   /**
-   * used only for paranoid checking. a bit ugly, but avoids adding an instance field just for
-   * debugging
+   * the instance key numbering of the analysis in the current {@link AnalysisSession}; used only
+   * for paranoid checking. a bit ugly, but avoids adding an instance field just for debugging
    */
-  public static MutableMapping<InstanceKey> instanceKeys = null;
+  public static final AnalysisSession.Key<MutableMapping<InstanceKey>> INSTANCE_KEYS =
+      new AnalysisSession.Key<>("PointsToSetVariable.instanceKeys");
+
+  /**
+   * @deprecated the mapping is kept per {@link AnalysisSession}, under {@link #INSTANCE_KEYS}; use
+   *     {@link #getInstanceKeys()}. This field is still set by the last system created with
+   *     paranoid checking, and is used if the current session has no mapping.
+   */
+  @Deprecated public static MutableMapping<InstanceKey> instanceKeys = null;
+
+  /**
+   * @return the instance key numbering used for paranoid checking in the current {@link
+   *     AnalysisSession}
+   */
+  public static MutableMapping<InstanceKey> getInstanceKeys() {
+    MutableMapping<InstanceKey> result = AnalysisSession.current().get(INSTANCE_KEYS);
+    return result == null ? instanceKeys : result;
+  }
+
+  /**
+   * @deprecated set {@link #INSTANCE_KEYS} in an {@link AnalysisSession} instead; this sets it in
+   *     the current one
+   */
+  @Deprecated
+  public static void setInstanceKeys(MutableMapping<InstanceKey> instanceKeys) {
+    AnalysisSession.current().put(INSTANCE_KEYS, instanceKeys);
+  }
 
   private PointerKey pointerKey;
 
@@ -115,6 +142,7 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
     if (cha.isAssignableFrom(cha.lookupClass(TypeReference.JavaLangThrowable), type)) {
       return;
     }
+    final MutableMapping<InstanceKey> instanceKeys = getInstanceKeys();
     b.foreach(
         x -> {
           InstanceKey ik = instanceKeys.getMappedObject(x);
@@ -22,22 +22,41 @@ import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.ipa.callgraph.AnalysisOptions;
 import com.ibm.wala.ipa.callgraph.CGNode;
 import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener.Phase;
 import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
 import com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException;
+import com.ibm.wala.ipa.callgraph.CodeChange;
 import com.ibm.wala.ipa.callgraph.Context;
 import com.ibm.wala.ipa.callgraph.ContextSelector;
 import com.ibm.wala.ipa.callgraph.Entrypoint;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
+import com.ibm.wala.ipa.callgraph.PhaseTimer;
 import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
 import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.rta.RTAContextInterpreter;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.ISSABasicBlock;
 import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSAArrayReferenceInstruction;
+import com.ibm.wala.ssa.SSACFG.ExceptionHandlerBasicBlock;
+import com.ibm.wala.ssa.SSACheckCastInstruction;
+import com.ibm.wala.ssa.SSAFieldAccessInstruction;
+import com.ibm.wala.ssa.SSAInstanceofInstruction;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.ssa.SSALoadMetadataInstruction;
+import com.ibm.wala.ssa.SSANewInstruction;
+import com.ibm.wala.ssa.SymbolTable;
+import com.ibm.wala.types.FieldReference;
+import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.AnalysisSession;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.CancelRuntimeException;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetAction;
@@ -45,6 +64,8 @@ import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableIntSet;
 import com.ibm.wala.util.warnings.Warning;
 import com.ibm.wala.util.warnings.Warnings;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -103,6 +124,9 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
   /** Set of calls (CallSiteReferences) that are created by entrypoints */
   protected final Set<CallSiteReference> entrypointCallSites = HashSetFactory.make();
 
+  /** The entrypoints whose calls have been added to the fake root method */
+  private final List<Entrypoint> entrypoints = new ArrayList<>();
+
   /** The system of constraints used to build this graph */
   protected PropagationSystem system;
 
@@ -113,6 +137,9 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
   /** Algorithm used to solve the system of constraints */
   private IPointsToSolver solver;
 
+  /** Receives measurements of the call graph construction under way, or null */
+  protected CallGraphBuildListener buildListener;
+
   /** The call graph under construction */
   protected final ExplicitCallGraph callGraph;
 
@@ -200,7 +227,21 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     if (options == null) {
       throw new IllegalArgumentException("options is null");
     }
+    AnalysisSession session =
+        options.getSession() == null ? AnalysisSession.current() : options.getSession();
+    AnalysisSession.Scope scope = session.enter();
+    try {
+      return makeCallGraphInSession(options, monitor);
+    } finally {
+      scope.exit();
+    }
+  }
+
+  /** Build the call graph in the session already entered for options. */
+  private CallGraph makeCallGraphInSession(AnalysisOptions options, IProgressMonitor monitor)
+      throws CallGraphBuilderCancelException {
     system = makeSystem(options);
+    buildListener = options.getBuildListener();
 
     if (DEBUG_GENERAL) {
       System.err.println("Enter makeCallGraph!");
@@ -213,23 +254,22 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     system.setMinEquationsForTopSort(options.getMinEquationsForTopSort());
     system.setTopologicalGrowthFactor(options.getTopologicalGrowthFactor());
     system.setMaxEvalBetweenTopo(options.getMaxEvalBetweenTopo());
+    system.setSolverThreads(options.getSolverThreads());
+    system.setHashConsing(options.getHashConsPointsToSets());
+    system.setCycleElimination(options.getCycleElimination());
+    system.setDifferencePropagation(options.getDifferencePropagation());
+    system.setBuildListener(buildListener);
 
     discoveredNodes = HashSetFactory.make();
     discoveredNodes.add(callGraph.getFakeRootNode());
 
+    if (options.getIncrementalUpdates()) {
+      system.recordDirectAdditions();
+    }
+
     // Set up the initially reachable methods and classes
     for (Entrypoint E : options.getEntrypoints()) {
-      if (DEBUG_ENTRYPOINTS) {
-        System.err.println("Entrypoint: " + E);
-      }
-      SSAAbstractInvokeInstruction call =
-          E.addCall((AbstractRootMethod) callGraph.getFakeRootNode().getMethod());
-
-      if (call == null) {
-        Warnings.add(EntrypointResolutionWarning.create(E));
-      } else {
-        entrypointCallSites.add(call.getCallSite());
-      }
+      addEntrypoint(E);
     }
 
     /*
@@ -247,6 +287,32 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     customInit();
 
     solver = makeSolver();
+    return solve(monitor);
+  }
+
+  /** Add a call to an entrypoint to the fake root method. */
+  void addEntrypoint(Entrypoint E) {
+    if (DEBUG_ENTRYPOINTS) {
+      System.err.println("Entrypoint: " + E);
+    }
+    SSAAbstractInvokeInstruction call =
+        E.addCall((AbstractRootMethod) callGraph.getFakeRootNode().getMethod());
+
+    if (call == null) {
+      Warnings.add(EntrypointResolutionWarning.create(E));
+    } else {
+      entrypointCallSites.add(call.getCallSite());
+      entrypoints.add(E);
+    }
+  }
+
+  /** @return the entrypoints whose calls have been added to the fake root method */
+  List<Entrypoint> getEntrypoints() {
+    return Collections.unmodifiableList(entrypoints);
+  }
+
+  /** Run the solver to a fixed point, and report on the result. */
+  CallGraph solve(IProgressMonitor monitor) throws CallGraphBuilderCancelException {
     try {
       solver.solve(monitor);
     } catch (CancelException | CancelRuntimeException e) {
@@ -254,11 +320,187 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
           CallGraphBuilderCancelException.createCallGraphBuilderCancelException(
               e, callGraph, system.extractPointerAnalysis(this));
       throw c;
+    } finally {
+      solveFinished();
     }
 
+    if (buildListener != null) {
+      buildListener.pointsToSetSizes(system.getPointsToSetSizeHistogram());
+    }
     return callGraph;
   }
 
+  /**
+   * Find the nodes of the call graph whose constraints may differ once a change is applied to the
+   * program. These are the nodes of methods declared by a changed or removed class, the nodes
+   * whose IR names a class that is added, changed or removed, or holds a string constant with the
+   * name of such a class, as reflection may look it up, and the nodes whose IR or entrypoint calls
+   * choose among the subtypes of a superclass or interface of such a class: the fake root, for the
+   * parameter types of entrypoints, and casts, which reflection modeling follows.
+   *
+   * <p>If no node is affected, a fresh build for the changed program yields the call graph of this
+   * builder. {@link SSAPropagationCallGraphBuilder#updateCallGraph} invalidates the affected nodes
+   * and what was derived from them, and solves again from there.
+   *
+   * @throws IllegalStateException if no call graph has been built yet
+   */
+  public Set<CGNode> getAffectedNodes(CodeChange change) {
+    if (change == null) {
+      throw new IllegalArgumentException("change is null");
+    }
+    if (system == null) {
+      throw new IllegalStateException("no call graph has been built yet");
+    }
+    Set<TypeReference> declaring = change.getChangedAndRemovedTypes();
+    Set<TypeReference> named = HashSetFactory.make(declaring);
+    Set<TypeReference> supertypes = HashSetFactory.make();
+    for (TypeReference t : declaring) {
+      IClass klass = cha.lookupClass(t);
+      if (klass != null) {
+        addSupertypes(klass, supertypes);
+      }
+    }
+    for (IClass klass : change.getAddedClasses()) {
+      named.add(klass.getReference());
+      addSupertypes(klass, supertypes);
+    }
+
+    Set<CGNode> result = HashSetFactory.make();
+    if (entrypointsAffected(named, supertypes)) {
+      result.add(callGraph.getFakeRootNode());
+    }
+    Set<String> names = getClassNames(named);
+    for (CGNode n : callGraph) {
+      if (declaring.contains(n.getMethod().getDeclaringClass().getReference())
+          || namesAffectedType(n, named, names, supertypes)) {
+        result.add(n);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return true iff the parameter types of some entrypoint are among the given types or their
+   *     supertypes
+   */
+  boolean entrypointsAffected(Set<TypeReference> named, Set<TypeReference> supertypes) {
+    for (Entrypoint E : entrypoints) {
+      IMethod m = E.getMethod();
+      for (int i = 0; i < m.getNumberOfParameters(); i++) {
+        TypeReference t = m.getParameterType(i).getInnermostElementType();
+        if (named.contains(t) || supertypes.contains(t)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  static void addSupertypes(IClass klass, Set<TypeReference> result) {
+    for (IClass s = klass.getSuperclass(); s != null; s = s.getSuperclass()) {
+      result.add(s.getReference());
+    }
+    for (IClass i : klass.getAllImplementedInterfaces()) {
+      result.add(i.getReference());
+    }
+  }
+
+  /** @return the names by which {@link Class#forName(String)} finds the given types */
+  static Set<String> getClassNames(Set<TypeReference> types) {
+    Set<String> result = HashSetFactory.make();
+    for (TypeReference t : types) {
+      if (t.isClassType()) {
+        result.add(t.getName().toString().substring(1).replace('/', '.'));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return true iff the IR of n names one of the given types, holds a string constant that is one
+   *     of the given class names, or casts to one of the given supertypes
+   */
+  boolean namesAffectedType(
+      CGNode n, Set<TypeReference> named, Set<String> names, Set<TypeReference> supertypes) {
+    IMethod m = n.getMethod();
+    for (int i = 0; i < m.getNumberOfParameters(); i++) {
+      if (named.contains(m.getParameterType(i).getInnermostElementType())) {
+        return true;
+      }
+    }
+    if (named.contains(m.getReturnType().getInnermostElementType())) {
+      return true;
+    }
+    IR ir = contextInterpreter.getIR(n);
+    if (ir == null) {
+      return false;
+    }
+    SymbolTable symbolTable = ir.getSymbolTable();
+    for (int vn = 1; vn <= symbolTable.getMaxValueNumber(); vn++) {
+      if (symbolTable.isStringConstant(vn) && names.contains(symbolTable.getStringValue(vn))) {
+        return true;
+      }
+    }
+    for (ISSABasicBlock bb : ir.getControlFlowGraph()) {
+      if (bb instanceof ExceptionHandlerBasicBlock) {
+        ExceptionHandlerBasicBlock handler = (ExceptionHandlerBasicBlock) bb;
+        for (TypeReference t : Iterator2Iterable.make(handler.getCaughtExceptionTypes())) {
+          if (named.contains(t)) {
+            return true;
+          }
+        }
+      }
+    }
+    for (SSAInstruction s : Iterator2Iterable.make(ir.iterateAllInstructions())) {
+      if (s instanceof SSACheckCastInstruction) {
+        for (TypeReference t : ((SSACheckCastInstruction) s).getDeclaredResultTypes()) {
+          t = t.getInnermostElementType();
+          if (named.contains(t) || supertypes.contains(t)) {
+            return true;
+          }
+        }
+      } else if (s instanceof SSANewInstruction) {
+        if (named.contains(((SSANewInstruction) s).getConcreteType().getInnermostElementType())) {
+          return true;
+        }
+      } else if (s instanceof SSAAbstractInvokeInstruction) {
+        MethodReference target = ((SSAAbstractInvokeInstruction) s).getDeclaredTarget();
+        if (named.contains(target.getDeclaringClass())
+            || named.contains(target.getReturnType().getInnermostElementType())) {
+          return true;
+        }
+        for (int i = 0; i < target.getNumberOfParameters(); i++) {
+          if (named.contains(target.getParameterType(i).getInnermostElementType())) {
+            return true;
+          }
+        }
+      } else if (s instanceof SSAFieldAccessInstruction) {
+        FieldReference f = ((SSAFieldAccessInstruction) s).getDeclaredField();
+        if (named.contains(f.getDeclaringClass())
+            || named.contains(f.getFieldType().getInnermostElementType())) {
+          return true;
+        }
+      } else if (s instanceof SSAInstanceofInstruction) {
+        if (named.contains(
+            ((SSAInstanceofInstruction) s).getCheckedType().getInnermostElementType())) {
+          return true;
+        }
+      } else if (s instanceof SSALoadMetadataInstruction) {
+        Object token = ((SSALoadMetadataInstruction) s).getToken();
+        if (token instanceof TypeReference
+            && named.contains(((TypeReference) token).getInnermostElementType())) {
+          return true;
+        }
+      } else if (s instanceof SSAArrayReferenceInstruction) {
+        if (named.contains(
+            ((SSAArrayReferenceInstruction) s).getElementType().getInnermostElementType())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   protected PropagationSystem makeSystem(@SuppressWarnings("unused") AnalysisOptions options) {
     return new PropagationSystem(callGraph, pointerKeyFactory, instanceKeyFactory);
   }
@@ -287,6 +529,12 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
 
   protected void customInit() {}
 
+  /**
+   * Hook for subclasses to release resources held while the solver runs. Called after each run of
+   * the solver, whether or not it reached a fixed point.
+   */
+  protected void solveFinished() {}
+
   /**
    * Add constraints for a node.
    *
@@ -308,7 +556,13 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
       discoveredNodes = HashSetFactory.make();
       while (it.hasNext()) {
         CGNode n = it.next();
-        result |= addConstraintsFromNode(n, monitor);
+        if (buildListener == null || haveAlreadyVisited(n)) {
+          result |= addConstraintsFromNode(n, monitor);
+        } else {
+          PhaseTimer t = PhaseTimer.start(buildListener, Phase.CONSTRAINT_GENERATION);
+          result |= addConstraintsFromNode(n, monitor);
+          buildListener.nodeProcessed(n, t.stop());
+        }
       }
     }
     return result;
@@ -768,6 +1022,20 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     discoveredNodes.add(node);
   }
 
+  /**
+   * @return true iff the sources of constraints are recorded, so that the call graph can be updated
+   *     for a change to the program
+   */
+  boolean isRecordingUpdates() {
+    return system != null && system.getDirectAdditions() != null;
+  }
+
+  /** Forget that a node has been discovered and traversed for constraints. */
+  void forgetNode(CGNode node) {
+    alreadyVisited.remove(node);
+    discoveredNodes.remove(node);
+  }
+
   protected void markChanged(CGNode node) {
     alreadyVisited.remove(node);
     discoveredNodes.add(node);
@@ -1202,6 +1470,14 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
       this.instance = instance;
     }
 
+    IField getField() {
+      return field;
+    }
+
+    InstanceKey getInstance() {
+      return instance;
+    }
+
     /** Simply add the instance to each relevant points-to set. */
     @Override
     public byte evaluate(PointsToSetVariable dummyLHS, PointsToSetVariable var) {
@@ -1209,7 +1485,15 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
       if (ref.size() == 0) {
         return NOT_CHANGED;
       }
-      IntSet value = ref.getValue();
+      Object source = system.setConstraintSource(this);
+      try {
+        return evaluate(ref.getValue());
+      } finally {
+        system.setConstraintSource(source);
+      }
+    }
+
+    private byte evaluate(IntSet value) {
       final MutableBoolean sideEffect = new MutableBoolean();
       IntSetAction action =
           i -> {
@@ -1271,6 +1555,10 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
       this.instance = instance;
     }
 
+    InstanceKey getInstance() {
+      return instance;
+    }
+
     /** Simply add the instance to each relevant points-to set. */
     @Override
     public byte evaluate(PointsToSetVariable dummyLHS, PointsToSetVariable var) {
@@ -1278,7 +1566,15 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
       if (arrayref.size() == 0) {
         return NOT_CHANGED;
       }
-      IntSet value = arrayref.getValue();
+      Object source = system.setConstraintSource(this);
+      try {
+        return evaluate(arrayref.getValue());
+      } finally {
+        system.setConstraintSource(source);
+      }
+    }
+
+    private byte evaluate(IntSet value) {
       final MutableBoolean sideEffect = new MutableBoolean();
       IntSetAction action =
           i -> {
@@ -21,32 +21,53 @@ import com.ibm.wala.fixpoint.IVariable;
 import com.ibm.wala.fixpoint.UnaryOperator;
 import com.ibm.wala.fixpoint.UnaryStatement;
 import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener.Phase;
+import com.ibm.wala.ipa.callgraph.PhaseTimer;
 import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.FilterOperator;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.AnalysisSession;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.MapUtil;
+import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.VerboseAction;
 import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.INodeWithNumber;
 import com.ibm.wala.util.graph.NumberedGraph;
 import com.ibm.wala.util.heapTrace.HeapTracer;
+import com.ibm.wala.util.intset.BitVector;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableIntSet;
 import com.ibm.wala.util.intset.MutableMapping;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
 import com.ibm.wala.util.ref.ReferenceCleanser;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 /** System of constraints that define propagation for call graph construction */
 public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariable> {
@@ -98,6 +119,66 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
 
   private int periodicMaintainInterval = DEFAULT_PERIODIC_MAINTENANCE_INTERVAL;
 
+  /**
+   * A tuning parameter: the maximum number of statements taken from the work list for one wave of
+   * concurrent evaluation.
+   */
+  private static final int MAX_WAVE_SIZE = 4096;
+
+  /** A tuning parameter: waves with fewer statements than this are evaluated on the caller. */
+  private static final int MIN_PARALLEL_WAVE_SIZE = 64;
+
+  /** number of threads used to evaluate independent statements; 1 means sequential solving */
+  private int solverThreads = 1;
+
+  /** receives measurements of solving, or null */
+  private CallGraphBuildListener buildListener;
+
+  /** if true, equal points-to sets share one representation after each solver pass */
+  private boolean hashConsing;
+
+  /**
+   * if true, the sequential solver propagates only the elements added to a points-to set since it
+   * was last propagated through assignments and filters
+   */
+  private boolean differencePropagation;
+
+  /**
+   * variables whose added elements have not been propagated yet, in topological order, so that a
+   * variable tends to receive all its additions before it is propagated in turn
+   */
+  private final PriorityQueue<PointsToSetVariable> changedVariables =
+      new PriorityQueue<>(Comparator.comparingInt(PointsToSetVariable::getOrderNumber));
+
+  /** the variables in {@link #changedVariables} */
+  private final Set<PointsToSetVariable> queuedVariables = HashSetFactory.make();
+
+  /** if true, cycles of assignments are collapsed after each solver pass */
+  private boolean cycleElimination;
+
+  /** the assignments (lhs, rhs) added since cycles were last looked for */
+  private final List<Pair<PointerKey, PointerKey>> newAssignments = new ArrayList<>();
+
+  /** number of non-empty points-to sets seen by the last {@link #hashConsPointsToSets()} */
+  private int hashConsedSets;
+
+  /**
+   * number of distinct non-empty points-to sets seen by the last {@link #hashConsPointsToSets()}
+   */
+  private int distinctHashConsedSets;
+
+  /**
+   * for each constraint source, the instance keys it added directly to each points-to set, or null
+   * if direct additions are not recorded. See {@link #setConstraintSource(Object)}.
+   */
+  private Map<Object, Map<PointerKey, MutableIntSet>> directAdditions;
+
+  /** the object on whose behalf instance keys are currently added directly to points-to sets */
+  private Object constraintSource;
+
+  /** the session this system was created in; concurrent evaluation runs in it too */
+  protected final AnalysisSession session = AnalysisSession.current();
+
   public PropagationSystem(
       CallGraph cg, PointerKeyFactory pointerKeyFactory, InstanceKeyFactory instanceKeyFactory) {
     if (cg == null) {
@@ -110,10 +191,17 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     // about the instance key
     // mapping
     if (PointsToSetVariable.PARANOID) {
-      PointsToSetVariable.instanceKeys = instanceKeys;
+      session.put(PointsToSetVariable.INSTANCE_KEYS, instanceKeys);
+      setDeprecatedInstanceKeys();
     }
   }
 
+  /** keep the deprecated global mapping set for clients that still read it */
+  @SuppressWarnings("deprecation")
+  private void setDeprecatedInstanceKeys() {
+    PointsToSetVariable.instanceKeys = instanceKeys;
+  }
+
   /** @return an object which encapsulates the pointer analysis result */
   public PointerAnalysis<InstanceKey> makePointerAnalysis(PropagationCallGraphBuilder builder) {
     return new PointerAnalysisImpl(
@@ -145,7 +233,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     assert klass.getReference() != TypeReference.JavaLangObject;
     MutableIntSet result = class2InstanceKey.get(klass);
     if (result == null) {
-      result = IntSetUtil.getDefaultIntSetFactory().make();
+      result = session.getIntSetFactory().make();
       class2InstanceKey.put(klass, result);
     }
     return result;
@@ -159,10 +247,10 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     assert klass.getReference() != TypeReference.JavaLangObject;
     MutableIntSet set = class2InstanceKey.get(klass);
     if (set == null) {
-      return IntSetUtil.getDefaultIntSetFactory().make();
+      return session.getIntSetFactory().make();
     } else {
       // return a copy.
-      return IntSetUtil.getDefaultIntSetFactory().makeCopy(set);
+      return session.getIntSetFactory().makeCopy(set);
     }
   }
 
@@ -250,6 +338,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     PointsToSetVariable result = pointsToMap.getPointsToSet(key);
     if (result == null) {
       result = new PointsToSetVariable(key);
+      result.setRecordingDifferences(isPropagatingDifferences());
       pointsToMap.put(key, result);
     } else {
       // check that the filter for this variable remains unique
@@ -316,6 +405,14 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     }
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     PointsToSetVariable R = findOrCreatePointsToSet(rhs);
+    if (cycleElimination && op instanceof AssignOperator) {
+      if (newStatement(L, op, R, true, true)) {
+        newAssignments.add(Pair.make(lhs, rhs));
+        return true;
+      } else {
+        return false;
+      }
+    }
     if (op instanceof FilterOperator) {
       // we do not want to revert the lhs to pre-transitive form;
       // we instead want to check in the outer loop of the pre-transitive
@@ -407,6 +504,14 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     // This works since the solver is monotonic with TOP = {}
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     int index = findOrCreateIndexForInstanceKey(value);
+    if (directAdditions != null) {
+      Map<PointerKey, MutableIntSet> m = directAdditions.get(constraintSource);
+      if (m == null) {
+        m = HashMapFactory.make();
+        directAdditions.put(constraintSource, m);
+      }
+      MapUtil.findOrCreateMutableIntSet(m, lhs).add(index);
+    }
     if (!L.add(index)) {
       // a no-op
       return false;
@@ -424,6 +529,9 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
       // variable.
       if (L.getGraphNodeId() > -1) {
         changedVariable(L);
+      } else {
+        // statements that use L later start from its whole value
+        L.takeDifference();
       }
       return true;
     }
@@ -575,6 +683,707 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     addAllStatementsToWorkList();
   }
 
+  /**
+   * When more than one solver thread is configured, statements are taken from the work list in
+   * waves of up to {@link #MAX_WAVE_SIZE} statements. The simple assignment and filter statements
+   * of a wave are partitioned into groups that share no variables; each group is evaluated in work
+   * list order by one worker, so no two workers ever touch the same points-to set. Afterwards, the
+   * statements that may create new constraints are evaluated one at a time on the calling thread.
+   * All work list updates happen on the calling thread.
+   */
+  @Override
+  public boolean solve(IProgressMonitor monitor) throws CancelException {
+    boolean result;
+    if (buildListener == null) {
+      result = solvePass(monitor);
+    } else {
+      int workListSize = workList.size();
+      int evaluations = getNumberOfEvaluations();
+      PhaseTimer t = PhaseTimer.start(buildListener, Phase.SOLVING);
+      try {
+        result = solvePass(monitor);
+      } finally {
+        t.stop();
+        buildListener.solverPassCompleted(workListSize, getNumberOfEvaluations() - evaluations);
+      }
+    }
+    if (cycleElimination) {
+      collapseCycles();
+    }
+    if (hashConsing) {
+      hashConsPointsToSets();
+    }
+    return result;
+  }
+
+  private boolean solvePass(IProgressMonitor monitor) throws CancelException {
+    if (isPropagatingDifferences()) {
+      return solvePassWithDifferences(monitor);
+    }
+    if (solverThreads <= 1) {
+      return super.solve(monitor);
+    }
+
+    boolean globalChange = false;
+
+    if (isFirstSolve()) {
+      initForFirstSolve();
+    }
+
+    List<AbstractStatement<?, ?>> simple = new ArrayList<>();
+    List<AbstractStatement<?, ?>> complex = new ArrayList<>();
+    ForkJoinPool pool = null;
+    try {
+      while (!workList.isEmpty()) {
+        MonitorUtil.throwExceptionIfCanceled(monitor);
+        orderStatements();
+
+        simple.clear();
+        complex.clear();
+        while (!workList.isEmpty() && simple.size() + complex.size() < MAX_WAVE_SIZE) {
+          AbstractStatement<?, ?> s = workList.takeStatement();
+          if (isConcurrentlyEvaluable(s)) {
+            simple.add(s);
+          } else {
+            complex.add(s);
+          }
+        }
+
+        byte[] codes = new byte[simple.size()];
+        if (simple.size() < MIN_PARALLEL_WAVE_SIZE) {
+          for (int i = 0; i < codes.length; i++) {
+            codes[i] = simple.get(i).evaluate();
+          }
+        } else {
+          if (pool == null) {
+            pool = new ForkJoinPool(solverThreads);
+          }
+          evaluateConcurrently(pool, simple, codes);
+        }
+        for (int i = 0; i < codes.length; i++) {
+          globalChange |= incorporateEvaluation(simple.get(i), codes[i]);
+        }
+
+        for (AbstractStatement<?, ?> s : complex) {
+          globalChange |= incorporateEvaluation(s, s.evaluate());
+        }
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+    return globalChange;
+  }
+
+  /**
+   * Difference propagation: a changed variable is queued instead of the statements that use it.
+   * When it is dequeued, the elements added to it since it was last dequeued are pushed through
+   * each assignment and filter that uses it, and the other statements that use it go on the work
+   * list. Statements taken from the work list see whole points-to sets.
+   */
+  private boolean solvePassWithDifferences(IProgressMonitor monitor) throws CancelException {
+    boolean globalChange = false;
+
+    if (isFirstSolve()) {
+      initForFirstSolve();
+    }
+
+    while (!workList.isEmpty() || !changedVariables.isEmpty()) {
+      MonitorUtil.throwExceptionIfCanceled(monitor);
+      if (!changedVariables.isEmpty()) {
+        PointsToSetVariable v = changedVariables.poll();
+        queuedVariables.remove(v);
+        globalChange |= propagateDifference(v);
+      } else {
+        orderStatements();
+        AbstractStatement<?, ?> s = workList.takeStatement();
+        globalChange |= incorporateEvaluation(s, s.evaluate());
+      }
+    }
+    return globalChange;
+  }
+
+  /**
+   * Push the elements added to v through the assignments and filters that use v, and put the other
+   * statements that use v on the work list.
+   *
+   * @return true iff the value of some variable changed
+   */
+  @SuppressWarnings("unchecked")
+  private boolean propagateDifference(PointsToSetVariable v) {
+    MutableIntSet added = v.takeDifference();
+    if (v.getGraphNodeId() < 0) {
+      // nothing uses v
+      return false;
+    }
+    if (added == null) {
+      if (!v.isRecordingDifferences()) {
+        super.changedVariable(v);
+      }
+      return false;
+    }
+    PointsToSetVariable difference = new PointsToSetVariable(v.getPointerKey());
+    difference.shareValue(added);
+    boolean changed = false;
+    for (INodeWithNumber nwn : Iterator2Iterable.make(flowGraph.getStatementsThatUse(v))) {
+      AbstractStatement<?, ?> s = (AbstractStatement<?, ?>) nwn;
+      if (isDifferencePropagated(s)) {
+        PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+        countEvaluation();
+        byte code =
+            ((UnaryOperator<PointsToSetVariable>) s.getOperator()).evaluate(lhs, difference);
+        if (isChanged(code)) {
+          changedVariable(lhs);
+          changed = true;
+        }
+      } else {
+        addToWorkList(s);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Can s be evaluated on the elements added to its right-hand side alone? This holds for
+   * assignments and filters, which distribute over union.
+   */
+  private static boolean isDifferencePropagated(AbstractStatement<?, ?> s) {
+    if (!(s instanceof UnaryStatement) || s.getLHS() == null) {
+      return false;
+    }
+    Object op = s.getOperator();
+    return op instanceof AssignOperator || op instanceof FilterOperator;
+  }
+
+  @Override
+  public void changedVariable(PointsToSetVariable v) {
+    if (isPropagatingDifferences()) {
+      if (queuedVariables.add(v)) {
+        changedVariables.add(v);
+      }
+    } else {
+      super.changedVariable(v);
+    }
+  }
+
+  @Override
+  public boolean emptyWorkList() {
+    return super.emptyWorkList() && changedVariables.isEmpty();
+  }
+
+  /**
+   * Update the work list after a statement has been evaluated.
+   *
+   * @return true iff the evaluation changed the value of some variable
+   */
+  @SuppressWarnings("unchecked")
+  private boolean incorporateEvaluation(AbstractStatement<?, ?> s, byte code) {
+    countEvaluation();
+    boolean changed = isChanged(code);
+    if (changed && s.getLHS() != null) {
+      changedVariable((PointsToSetVariable) s.getLHS());
+    }
+    if (isFixed(code)) {
+      removeStatement((AbstractStatement<PointsToSetVariable, ?>) s);
+    }
+    return changed;
+  }
+
+  /**
+   * Count an evaluation, running the verbose action and periodic maintenance at their intervals as
+   * the sequential solver does.
+   */
+  private void countEvaluation() {
+    incNumberOfEvaluations();
+    if (verbose) {
+      int nEvaluated = getNumberOfEvaluations();
+      if (nEvaluated % getVerboseInterval() == 0) {
+        performVerboseAction();
+      }
+      if (nEvaluated % getPeriodicMaintainInterval() == 0) {
+        periodicMaintenance();
+      }
+    }
+  }
+
+  /**
+   * Is it safe to evaluate s on a worker thread? This holds for statements whose evaluation only
+   * reads the right-hand side and writes the left-hand side, without consulting or updating the
+   * instance key numbering or adding new constraints.
+   */
+  private static boolean isConcurrentlyEvaluable(AbstractStatement<?, ?> s) {
+    if (!(s instanceof UnaryStatement) || s.getLHS() == null) {
+      return false;
+    }
+    Object op = s.getOperator();
+    if (op instanceof AssignOperator) {
+      return true;
+    }
+    if (op instanceof FilterOperator) {
+      PointerKey pk = ((PointsToSetVariable) s.getLHS()).getPointerKey();
+      if (pk instanceof FilteredPointerKey) {
+        FilteredPointerKey.TypeFilter filter = ((FilteredPointerKey) pk).getTypeFilter();
+        return filter instanceof FilteredPointerKey.SingleClassFilter
+            || filter instanceof FilteredPointerKey.MultipleClassesFilter;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Evaluate a wave of concurrently evaluable statements on the workers of pool.
+   *
+   * @param wave statements in work list order
+   * @param codes on return, holds the result code of evaluating each statement of the wave
+   */
+  private void evaluateConcurrently(
+      ForkJoinPool pool, final List<AbstractStatement<?, ?>> wave, final byte[] codes)
+      throws CancelException {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (final int[] group : partition(wave)) {
+      tasks.add(
+          session.bind(
+              () -> {
+                for (int i : group) {
+                  codes[i] = wave.get(i).evaluate();
+                }
+                return null;
+              }));
+    }
+    try {
+      for (Future<Void> f : pool.invokeAll(tasks)) {
+        f.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw CancelException.make("interrupted during concurrent evaluation");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+
+  /**
+   * Partition a wave into groups of statements such that no two groups share a variable.
+   *
+   * @return for each group, the indices of its statements in increasing order
+   */
+  private static List<int[]> partition(List<AbstractStatement<?, ?>> wave) {
+    int[] parent = new int[wave.size()];
+    Map<PointsToSetVariable, Integer> owner = HashMapFactory.make(2 * wave.size());
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = i;
+      @SuppressWarnings("unchecked")
+      UnaryStatement<PointsToSetVariable> s = (UnaryStatement<PointsToSetVariable>) wave.get(i);
+      claim(parent, owner, i, s.getLHS());
+      claim(parent, owner, i, s.getRightHandSide());
+    }
+
+    int[] groupIndex = new int[parent.length];
+    int[] groupSize = new int[parent.length];
+    int nGroups = 0;
+    for (int i = 0; i < parent.length; i++) {
+      int r = find(parent, i);
+      groupIndex[i] = (r == i) ? nGroups++ : groupIndex[r];
+      groupSize[groupIndex[i]]++;
+    }
+    List<int[]> result = new ArrayList<>(nGroups);
+    for (int g = 0; g < nGroups; g++) {
+      result.add(new int[groupSize[g]]);
+      groupSize[g] = 0;
+    }
+    for (int i = 0; i < parent.length; i++) {
+      int g = groupIndex[i];
+      result.get(g)[groupSize[g]++] = i;
+    }
+    return result;
+  }
+
+  /** record that statement i touches v, merging its group with any earlier statement touching v */
+  private static void claim(
+      int[] parent, Map<PointsToSetVariable, Integer> owner, int i, PointsToSetVariable v) {
+    Integer j = owner.get(v);
+    if (j == null) {
+      owner.put(v, i);
+    } else {
+      int ri = find(parent, i);
+      int rj = find(parent, j);
+      // keep the earliest statement as the representative
+      parent[Math.max(ri, rj)] = Math.min(ri, rj);
+    }
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  public int getSolverThreads() {
+    return solverThreads;
+  }
+
+  /**
+   * @param n number of threads used to evaluate independent statements; 1 selects sequential
+   *     solving
+   */
+  public void setSolverThreads(int n) {
+    if (n < 1) {
+      throw new IllegalArgumentException("invalid number of solver threads: " + n);
+    }
+    solverThreads = n;
+    updateDifferenceRecording();
+  }
+
+  /**
+   * @return true iff difference propagation was requested; see {@link #isPropagatingDifferences()}
+   */
+  public boolean isDifferencePropagation() {
+    return differencePropagation;
+  }
+
+  /**
+   * @param differencePropagation if true, the sequential solver propagates only the elements added
+   *     to a points-to set since it was last propagated through the assignments and filters that
+   *     use it, instead of the whole set
+   */
+  public void setDifferencePropagation(boolean differencePropagation) {
+    this.differencePropagation = differencePropagation;
+    updateDifferenceRecording();
+  }
+
+  /**
+   * @return true iff the solver propagates differences; this requires the sequential solver, so
+   *     difference propagation is ignored with more than one solver thread
+   */
+  public boolean isPropagatingDifferences() {
+    return differencePropagation && solverThreads <= 1;
+  }
+
+  private void updateDifferenceRecording() {
+    boolean record = isPropagatingDifferences();
+    for (PointerKey key : Iterator2Iterable.make(pointsToMap.iterateKeys())) {
+      if (!pointsToMap.isImplicit(key)) {
+        PointsToSetVariable v = pointsToMap.getPointsToSet(key);
+        if (v != null) {
+          v.setRecordingDifferences(record);
+        }
+      }
+    }
+    if (!record) {
+      for (PointsToSetVariable v : changedVariables) {
+        super.changedVariable(v);
+      }
+      changedVariables.clear();
+      queuedVariables.clear();
+    }
+  }
+
+  /** @return the listener receiving measurements of solving, or null */
+  public CallGraphBuildListener getBuildListener() {
+    return buildListener;
+  }
+
+  /** @param buildListener the listener to receive measurements of solving; may be null */
+  public void setBuildListener(CallGraphBuildListener buildListener) {
+    this.buildListener = buildListener;
+  }
+
+  /** @return true iff cycles of assignments are collapsed after each solver pass */
+  public boolean isCycleElimination() {
+    return cycleElimination;
+  }
+
+  /**
+   * @param cycleElimination if true, cycles of assignments are collapsed after each pass of the
+   *     solver; see {@link #collapseCycles()}
+   */
+  public void setCycleElimination(boolean cycleElimination) {
+    this.cycleElimination = cycleElimination;
+    newAssignments.clear();
+  }
+
+  /**
+   * Unify the points-to sets of each cycle of assignments through an assignment added since the
+   * last call, so that later passes propagate around each cycle once. As in lazy cycle detection,
+   * only an assignment whose sides have equal points-to sets is looked at; at a fixed point, every
+   * assignment on a cycle satisfies this. Call this only when the work list is empty.
+   *
+   * <p>Variables that may yet be given a type filter are left out of the cycles, since the filter
+   * would then apply to the whole unified set.
+   *
+   * @return the number of cycles collapsed
+   */
+  public int collapseCycles() {
+    if (newAssignments.isEmpty()) {
+      return 0;
+    }
+    PhaseTimer t = PhaseTimer.start(buildListener, Phase.CYCLE_DETECTION);
+    CycleFinder finder = new CycleFinder(flowGraph.getAssignmentGraph());
+    for (Pair<PointerKey, PointerKey> a : newAssignments) {
+      PointsToSetVariable L = pointsToMap.getPointsToSet(a.fst);
+      PointsToSetVariable R = pointsToMap.getPointsToSet(a.snd);
+      if (L != R
+          && L != null
+          && R != null
+          && L.getGraphNodeId() > -1
+          && mayCollapse(L)
+          && mayCollapse(R)
+          && L.sameValue(R)) {
+        finder.search(L);
+      }
+    }
+    newAssignments.clear();
+    t.stop();
+    int variables = 0;
+    for (List<PointsToSetVariable> cycle : finder.cycles) {
+      MutableIntSet s = MutableSparseIntSet.makeEmpty();
+      for (PointsToSetVariable v : cycle) {
+        s.add(pointsToMap.getIndex(v.getPointerKey()));
+      }
+      unify(s);
+      variables += cycle.size();
+    }
+    if (buildListener != null && !finder.cycles.isEmpty()) {
+      buildListener.cyclesCollapsed(finder.cycles.size(), variables);
+    }
+    return finder.cycles.size();
+  }
+
+  /**
+   * Formal parameters and return values may be given a type filter when new callers or callees are
+   * found, so they are never unified with other variables.
+   */
+  private static boolean mayCollapse(PointsToSetVariable v) {
+    PointerKey k = v.getPointerKey();
+    if (k instanceof FilteredPointerKey || k instanceof ReturnValueKey) {
+      return false;
+    }
+    if (k instanceof LocalPointerKey) {
+      LocalPointerKey l = (LocalPointerKey) k;
+      return l.getValueNumber() > l.getNode().getMethod().getNumberOfParameters();
+    }
+    return true;
+  }
+
+  /**
+   * Tarjan's algorithm over the assignments between variables that {@link #mayCollapse}, started
+   * from any number of roots.
+   */
+  private static final class CycleFinder {
+    private final NumberedGraph<PointsToSetVariable> assignments;
+
+    /** for each variable visited: its DFS number, its low link, and 1 iff it is on the stack */
+    private final Map<PointsToSetVariable, int[]> numbers = HashMapFactory.make();
+
+    private final ArrayList<PointsToSetVariable> stack = new ArrayList<>();
+
+    private final ArrayList<PointsToSetVariable> path = new ArrayList<>();
+
+    private final ArrayList<Iterator<PointsToSetVariable>> successors = new ArrayList<>();
+
+    /** the strongly connected components of more than one variable found so far */
+    final List<List<PointsToSetVariable>> cycles = new ArrayList<>();
+
+    private int next;
+
+    CycleFinder(NumberedGraph<PointsToSetVariable> assignments) {
+      this.assignments = assignments;
+    }
+
+    void search(PointsToSetVariable root) {
+      if (numbers.containsKey(root)) {
+        return;
+      }
+      visit(root);
+      while (!path.isEmpty()) {
+        PointsToSetVariable v = path.get(path.size() - 1);
+        Iterator<PointsToSetVariable> it = successors.get(successors.size() - 1);
+        if (it.hasNext()) {
+          PointsToSetVariable w = it.next();
+          if (mayCollapse(w)) {
+            int[] wn = numbers.get(w);
+            if (wn == null) {
+              visit(w);
+            } else if (wn[2] == 1) {
+              int[] vn = numbers.get(v);
+              vn[1] = Math.min(vn[1], wn[0]);
+            }
+          }
+        } else {
+          path.remove(path.size() - 1);
+          successors.remove(successors.size() - 1);
+          int[] vn = numbers.get(v);
+          if (!path.isEmpty()) {
+            int[] un = numbers.get(path.get(path.size() - 1));
+            un[1] = Math.min(un[1], vn[1]);
+          }
+          if (vn[1] == vn[0]) {
+            List<PointsToSetVariable> scc = new ArrayList<>();
+            PointsToSetVariable w;
+            do {
+              w = stack.remove(stack.size() - 1);
+              numbers.get(w)[2] = 0;
+              scc.add(w);
+            } while (w != v);
+            if (scc.size() > 1) {
+              cycles.add(scc);
+            }
+          }
+        }
+      }
+    }
+
+    private void visit(PointsToSetVariable v) {
+      numbers.put(v, new int[] {next, next, 1});
+      next++;
+      stack.add(v);
+      path.add(v);
+      successors.add(assignments.getSuccNodes(v));
+    }
+  }
+
+  /** @return true iff equal points-to sets are made to share one representation after each pass */
+  public boolean isHashConsing() {
+    return hashConsing;
+  }
+
+  /**
+   * @param hashConsing if true, equal points-to sets are made to share one representation after
+   *     each pass of the solver; see {@link #hashConsPointsToSets()}
+   */
+  public void setHashConsing(boolean hashConsing) {
+    this.hashConsing = hashConsing;
+  }
+
+  /**
+   * Make the points-to sets with equal contents share one representation. A variable copies its
+   * shared set before it changes, so this only saves space for sets that are stable, which most of
+   * them are late in solving. The table used to find equal sets is discarded afterwards.
+   *
+   * @return the number of distinct non-empty points-to sets
+   */
+  public int hashConsPointsToSets() {
+    PhaseTimer t = PhaseTimer.start(buildListener, Phase.HASH_CONSING);
+    // maps the contents of a set to the first variable found holding it
+    Map<ContentKey, PointsToSetVariable> canonical = HashMapFactory.make();
+    int sets = 0;
+    BitVector seen = new BitVector();
+    for (PointerKey key : Iterator2Iterable.make(pointsToMap.iterateKeys())) {
+      if (pointsToMap.isImplicit(key)) {
+        continue;
+      }
+      int rep = pointsToMap.getRepresentative(pointsToMap.getIndex(key));
+      if (seen.get(rep)) {
+        continue;
+      }
+      seen.set(rep);
+      PointsToSetVariable v = pointsToMap.getPointsToSet(rep);
+      MutableIntSet value = v.getValue();
+      if (value == null || value.isEmpty()) {
+        continue;
+      }
+      sets++;
+      PointsToSetVariable first = canonical.putIfAbsent(new ContentKey(value), v);
+      if (first != null) {
+        MutableIntSet shared = first.getValue();
+        if (!first.isValueShared()) {
+          first.shareValue(shared);
+        }
+        if (value != shared) {
+          v.shareValue(shared);
+        }
+      }
+    }
+    t.stop();
+    hashConsedSets = sets;
+    distinctHashConsedSets = canonical.size();
+    if (buildListener != null) {
+      buildListener.pointsToSetsHashConsed(sets, canonical.size());
+    }
+    return canonical.size();
+  }
+
+  /** @return number of non-empty points-to sets seen by the last {@link #hashConsPointsToSets()} */
+  public int getHashConsedSets() {
+    return hashConsedSets;
+  }
+
+  /**
+   * @return number of distinct non-empty points-to sets seen by the last {@link
+   *     #hashConsPointsToSets()}
+   */
+  public int getDistinctHashConsedSets() {
+    return distinctHashConsedSets;
+  }
+
+  /** Compares the contents of a set that does not change while the key is in use. */
+  private static final class ContentKey {
+    private final IntSet set;
+
+    private final int hash;
+
+    ContentKey(IntSet set) {
+      this.set = set;
+      int h = set.size();
+      for (IntIterator it = set.intIterator(); it.hasNext(); ) {
+        h = 31 * h + it.next();
+      }
+      this.hash = h;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ContentKey)) {
+        return false;
+      }
+      ContentKey other = (ContentKey) obj;
+      return hash == other.hash && (set == other.set || set.sameValue(other.set));
+    }
+  }
+
+  /**
+   * @return the histogram of the sizes of the current points-to sets, as described in {@link
+   *     CallGraphBuildListener#pointsToSetSizes(int[])}
+   */
+  public int[] getPointsToSetSizeHistogram() {
+    int[] result = new int[Integer.SIZE + 1];
+    int length = 1;
+    BitVector seen = new BitVector();
+    for (PointerKey key : Iterator2Iterable.make(pointsToMap.iterateKeys())) {
+      if (pointsToMap.isImplicit(key)) {
+        continue;
+      }
+      int rep = pointsToMap.getRepresentative(pointsToMap.getIndex(key));
+      if (seen.get(rep)) {
+        continue;
+      }
+      seen.set(rep);
+      PointsToSetVariable v = pointsToMap.getPointsToSet(rep);
+      int bucket = Integer.SIZE - Integer.numberOfLeadingZeros(v.size());
+      result[bucket]++;
+      length = Math.max(length, bucket + 1);
+    }
+    return Arrays.copyOf(result, length);
+  }
+
   /** @return an object that encapsulates the pointer analysis results */
   public PointerAnalysis<InstanceKey> extractPointerAnalysis(PropagationCallGraphBuilder builder) {
     if (pointerAnalysis == null) {
@@ -583,6 +1392,88 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     return pointerAnalysis;
   }
 
+  /**
+   * From now on, record for each constraint source the instance keys it adds directly to each
+   * points-to set, so that an incremental update can retract and re-add them.
+   */
+  void recordDirectAdditions() {
+    if (directAdditions == null) {
+      directAdditions = new IdentityHashMap<>();
+    }
+  }
+
+  /**
+   * @return for each constraint source, the instance keys it added directly to each points-to set,
+   *     or null if these are not recorded
+   */
+  Map<Object, Map<PointerKey, MutableIntSet>> getDirectAdditions() {
+    return directAdditions;
+  }
+
+  /**
+   * Set the object on whose behalf instance keys are added directly to points-to sets from now on:
+   * the call graph node whose constraints are generated, or the side effect that is evaluated.
+   *
+   * @return the previous source
+   */
+  Object setConstraintSource(Object source) {
+    Object result = constraintSource;
+    constraintSource = source;
+    return result;
+  }
+
+  /** @return the points-to set variable for key, or null if there is none or it is implicit */
+  PointsToSetVariable getPointsToSetIfPresent(PointerKey key) {
+    if (pointsToMap.isImplicit(key)) {
+      return null;
+    }
+    return pointsToMap.getPointsToSet(key);
+  }
+
+  /**
+   * Forget a pointer key and its points-to set. The statements that use or define the points-to set
+   * must have been removed already.
+   */
+  void removePointerKey(PointerKey key) {
+    PointsToSetVariable v = getPointsToSetIfPresent(key);
+    if (v != null) {
+      if (v.getGraphNodeId() > -1) {
+        flowGraph.removeVariable(v);
+      }
+      fixedSetMap.remove(v);
+    }
+    pointsToMap.remove(key);
+  }
+
+  /**
+   * Forget instance keys. They must have been removed from all points-to sets already. The filters
+   * for classes that match isStale are dropped too, since the classes are replaced.
+   */
+  void removeInstanceKeys(Collection<InstanceKey> keys, Predicate<IClass> isStale) {
+    MutableIntSet indices = IntSetUtil.make();
+    for (InstanceKey ik : keys) {
+      int i = instanceKeys.getMappedIndex(ik);
+      if (i != -1) {
+        indices.add(i);
+        instanceKeys.deleteMappedObject(ik);
+      }
+    }
+    for (Iterator<Map.Entry<IClass, MutableIntSet>> it = class2InstanceKey.entrySet().iterator();
+        it.hasNext(); ) {
+      Map.Entry<IClass, MutableIntSet> e = it.next();
+      if (isStale.test(e.getKey())) {
+        it.remove();
+      } else if (!indices.isEmpty()) {
+        MutableIntSet set = e.getValue();
+        indices.foreach(set::remove);
+        if (set.isEmpty()) {
+          it.remove();
+        }
+      }
+    }
+    pointerAnalysis = null;
+  }
+
   @Override
   public void performVerboseAction() {
     super.performVerboseAction();
@@ -696,6 +1587,13 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     return pointsToMap.isTransitiveRoot(key);
   }
 
+  @Override
+  protected void orderStatementsInternal() {
+    PhaseTimer t = PhaseTimer.start(buildListener, Phase.TOPOLOGICAL_REORDER);
+    super.orderStatementsInternal();
+    t.stop();
+  }
+
   @Override
   protected void periodicMaintenance() {
     super.periodicMaintenance();
@@ -731,6 +1629,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (s == null) {
       throw new IllegalArgumentException("s is null");
     }
+    PhaseTimer t = PhaseTimer.start(buildListener, Phase.UNIFICATION);
     // cache the variables represented
     HashSet<PointsToSetVariable> cache = HashSetFactory.make(s.size());
     for (IntIterator it = s.intIterator(); it.hasNext(); ) {
@@ -747,6 +1646,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
 
     // special logic to clean up side effects
     updateSideEffectsForUnification(cache, rep);
+    t.stop();
   }
 
   /**
@@ -15,6 +15,7 @@ import com.ibm.wala.cfg.ControlFlowGraph;
 import com.ibm.wala.cfg.IBasicBlock;
 import com.ibm.wala.classLoader.ArrayClass;
 import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IBytecodeMethod;
 import com.ibm.wala.classLoader.IClass;
 import com.ibm.wala.classLoader.IField;
 import com.ibm.wala.classLoader.IMethod;
@@ -23,26 +24,36 @@ import com.ibm.wala.classLoader.ProgramCounter;
 import com.ibm.wala.fixpoint.AbstractOperator;
 import com.ibm.wala.ipa.callgraph.AnalysisOptions;
 import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener.Phase;
+import com.ibm.wala.ipa.callgraph.CodeChange;
 import com.ibm.wala.ipa.callgraph.ContextKey;
 import com.ibm.wala.ipa.callgraph.ContextSelector;
 import com.ibm.wala.ipa.callgraph.Entrypoint;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
+import com.ibm.wala.ipa.callgraph.PhaseTimer;
 import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
 import com.ibm.wala.ipa.callgraph.impl.DefaultEntrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
 import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.ContextInsensitiveSSAInterpreter;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.DefaultSSAInterpreter;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.DelegatingSSAContextInterpreter;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.shrikeBT.ConditionalBranchInstruction;
 import com.ibm.wala.shrikeBT.IInvokeInstruction;
 import com.ibm.wala.ssa.DefUse;
+import com.ibm.wala.ssa.IR;
 import com.ibm.wala.ssa.IRView;
 import com.ibm.wala.ssa.ISSABasicBlock;
 import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
 import com.ibm.wala.ssa.SSAAbstractThrowInstruction;
 import com.ibm.wala.ssa.SSAArrayLoadInstruction;
 import com.ibm.wala.ssa.SSAArrayStoreInstruction;
-import com.ibm.wala.ssa.SSACFG;
 import com.ibm.wala.ssa.SSACFG.BasicBlock;
 import com.ibm.wala.ssa.SSACFG.ExceptionHandlerBasicBlock;
+import com.ibm.wala.ssa.SSACFG;
 import com.ibm.wala.ssa.SSACheckCastInstruction;
 import com.ibm.wala.ssa.SSAConditionalBranchInstruction;
 import com.ibm.wala.ssa.SSAGetCaughtExceptionInstruction;
@@ -62,13 +73,17 @@ import com.ibm.wala.types.FieldReference;
 import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.types.Selector;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.AnalysisSession;
 import com.ibm.wala.util.CancelException;
-import com.ibm.wala.util.MonitorUtil;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.collections.MapUtil;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.UnimplementedError;
+import com.ibm.wala.util.graph.traverse.DFS;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetAction;
@@ -84,7 +99,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 /**
@@ -142,12 +159,36 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
   private static final Selector cloneSelector = CloneInterpreter.CLONE.getSelector();
 
   /** set of class whose clinits have already been processed */
-  private final Set<IClass> clinitVisited = HashSetFactory.make();
+  final Set<IClass> clinitVisited = HashSetFactory.make();
+
+  final Set<IClass> finalizeVisited = HashSetFactory.make();
 
-  private final Set<IClass> finalizeVisited = HashSetFactory.make();
+  /**
+   * When call graph updates are enabled, for each class whose clinit has been processed, the nodes
+   * whose constraints needed it, and the invocation of the clinit added to the fake world clinit
+   * method. See {@link #updateCallGraph}.
+   */
+  final Map<IClass, Set<CGNode>> clinitOwners = HashMapFactory.make();
+
+  final Map<IClass, SSAAbstractInvokeInstruction> clinitCalls = HashMapFactory.make();
+
+  /**
+   * When call graph updates are enabled, for each class whose finalizer has been processed, the
+   * nodes that allocate the class, and the range of statements added to the fake root method to
+   * call the finalizer.
+   */
+  final Map<IClass, Set<CGNode>> finalizeOwners = HashMapFactory.make();
+
+  final Map<IClass, int[]> finalizeCalls = HashMapFactory.make();
 
   public IProgressMonitor monitor;
 
+  /**
+   * Threads prefetching the IR of discovered nodes ahead of constraint generation, or null if none
+   * have been started. See {@link AnalysisOptions#getIRPrefetchThreads()}.
+   */
+  private ForkJoinPool irPrefetchPool;
+
   protected SSAPropagationCallGraphBuilder(
       IMethod abstractRootMethod,
       AnalysisOptions options,
@@ -161,6 +202,164 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
     return (SSAContextInterpreter) getContextInterpreter();
   }
 
+  /**
+   * Update the call graph and pointer analysis built by this builder for a change to the program,
+   * without building them again. The class hierarchy of this builder is updated for the change.
+   * The nodes of methods of changed and removed classes are deleted, together with the nodes that
+   * may depend on the change (see {@link #getAffectedNodes(CodeChange)}), their call edges, their
+   * pointer keys and instance keys, and the constraints of their call sites. The instance keys that
+   * reached a points-to set only through something deleted are taken out of it; then the solver
+   * adds back, from the callers of deleted nodes and the fake root on, whatever the changed program
+   * still derives. The result is the call graph that a new build for the changed program yields.
+   *
+   * <p>This requires {@link AnalysisOptions#setIncrementalUpdates(boolean)} for the initial build,
+   * a {@link com.ibm.wala.ipa.cha.ClassHierarchy}, and neither cycle elimination, hash consing, nor
+   * a bounded number of flow-to-cast iterations. The following are not updated, and need a new
+   * build if the change reaches them: method summaries, the summaries of lambdas and method
+   * handles, and the parameter types that entrypoints compute from the class hierarchy. A class
+   * that declares an entrypoint, or is a parameter type of one, cannot be removed. Only the
+   * context items for the standard {@link ContextKey}s and call strings are inspected. Nodes that
+   * are deleted but still reachable are built again, so the cost of an update grows with what the
+   * deleted nodes reach, and a change to a widely used class may cost as much as a new build.
+   *
+   * @param change the change to the program, whose changed and added classes are loaded already
+   * @param addedEntrypoints entrypoints to add to the call graph
+   * @throws IllegalStateException if the call graph cannot be updated for the change; the builder
+   *     is unchanged then
+   */
+  public CallGraph updateCallGraph(
+      CodeChange change, Iterable<? extends Entrypoint> addedEntrypoints, IProgressMonitor monitor)
+      throws CallGraphBuilderCancelException {
+    if (change == null) {
+      throw new IllegalArgumentException("change is null");
+    }
+    if (addedEntrypoints == null) {
+      throw new IllegalArgumentException("addedEntrypoints is null");
+    }
+    if (!isRecordingUpdates()) {
+      throw new IllegalStateException(
+          "call graph was not built with AnalysisOptions.setIncrementalUpdates(true)");
+    }
+    AnalysisSession session =
+        options.getSession() == null ? AnalysisSession.current() : options.getSession();
+    AnalysisSession.Scope scope = session.enter();
+    try {
+      // nodes that are not reachable before the update are left alone
+      Set<CGNode> unreachable = getUnreachableNodes(Collections.emptySet());
+      new IncrementalUpdate(this, change, Collections.emptySet()).run();
+      for (Entrypoint E : addedEntrypoints) {
+        addEntrypoint(E);
+      }
+      markChanged(callGraph.getFakeRootNode());
+      solve(monitor);
+      // delete the nodes that only deleted nodes reached, and what they derived, until all
+      // remaining nodes are reachable
+      CodeChange none =
+          new CodeChange(Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+      for (Set<CGNode> garbage = getUnreachableNodes(unreachable);
+          !garbage.isEmpty();
+          garbage = getUnreachableNodes(unreachable)) {
+        new IncrementalUpdate(this, none, garbage).run();
+        solve(monitor);
+      }
+      return callGraph;
+    } finally {
+      scope.exit();
+    }
+  }
+
+  /** @return the nodes that the fake root does not reach, except the given ones */
+  private Set<CGNode> getUnreachableNodes(Set<CGNode> except) {
+    Set<CGNode> reachable =
+        DFS.getReachableNodes(callGraph, Collections.singleton(callGraph.getFakeRootNode()));
+    Set<CGNode> result = HashSetFactory.make();
+    for (CGNode n : callGraph) {
+      if (!reachable.contains(n) && !except.contains(n)) {
+        result.add(n);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * record that we've discovered a node, and if so configured, start building its IR on another
+   * thread, so that it is ready when constraints are generated for the node
+   */
+  @Override
+  public void markDiscovered(CGNode node) {
+    super.markDiscovered(node);
+    if (options.getIRPrefetchThreads() > 1) {
+      prefetchIR(node);
+    }
+  }
+
+  /**
+   * Build the IR and DefUse of a node's method on the IR prefetch threads, if the context
+   * interpreter will take them from an analysis cache; see {@link #getPrefetchCache(CGNode)}. The
+   * analysis cache builds each at most once, so the calling thread either finds them ready or waits
+   * for the build already in progress. Context interpreters are not assumed to be thread-safe, and
+   * are only ever called on the calling thread. Building a CFG looks up classes and resolves
+   * methods, so the state that class hierarchies, loaders and classes fill in lazily is safe to
+   * share.
+   */
+  private void prefetchIR(CGNode node) {
+    IMethod method = node.getMethod();
+    if (!(method instanceof IBytecodeMethod) || method.isNative() || method.isAbstract()) {
+      return;
+    }
+    IAnalysisCacheView cache = getPrefetchCache(node);
+    if (cache == null) {
+      return;
+    }
+    if (irPrefetchPool == null) {
+      irPrefetchPool = new ForkJoinPool(options.getIRPrefetchThreads());
+    }
+    irPrefetchPool.execute(
+        AnalysisSession.current()
+            .bind(
+                () -> {
+                  try {
+                    IR ir = cache.getIR(method, Everywhere.EVERYWHERE);
+                    if (ir != null) {
+                      cache.getDefUse(ir);
+                    }
+                  } catch (RuntimeException e) {
+                    // the calling thread builds the IR again, and reports the failure
+                  }
+                }));
+  }
+
+  /**
+   * @return the analysis cache from which the context interpreter will take the IR of node, built
+   *     for the {@link Everywhere} context with the SSA options of that cache, or null if it builds
+   *     the IR of node some other way. Only then is the IR worth prefetching. This holds when the
+   *     interpreter for node, after following {@link DelegatingSSAContextInterpreter}s and {@link
+   *     DefaultSSAInterpreter}s, is a plain {@link ContextInsensitiveSSAInterpreter}.
+   */
+  protected IAnalysisCacheView getPrefetchCache(CGNode node) {
+    SSAContextInterpreter interp = getCFAContextInterpreter();
+    while (true) {
+      if (interp instanceof DelegatingSSAContextInterpreter) {
+        interp = ((DelegatingSSAContextInterpreter) interp).getCFAInterpreter(node);
+      } else if (interp instanceof DefaultSSAInterpreter) {
+        interp = ((DefaultSSAInterpreter) interp).getCFAInterpreter(node);
+      } else if (interp != null && interp.getClass() == ContextInsensitiveSSAInterpreter.class) {
+        return ((ContextInsensitiveSSAInterpreter) interp).getAnalysisCache();
+      } else {
+        return null;
+      }
+    }
+  }
+
+  @Override
+  protected void solveFinished() {
+    if (irPrefetchPool != null) {
+      // every discovered node has been processed, so any IR still queued is not needed
+      irPrefetchPool.shutdownNow();
+      irPrefetchPool = null;
+    }
+  }
+
   /**
    * @return the instance key that represents the exception of type _type_ thrown by a particular
    *     PEI.
@@ -205,7 +404,9 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
     if (DEBUG) {
       System.err.println("\n\nAdd constraints from node " + node);
     }
+    PhaseTimer t = PhaseTimer.start(buildListener, Phase.IR_CONSTRUCTION);
     IRView ir = getCFAContextInterpreter().getIRView(node);
+    t.stop();
     if (DEBUG) {
       if (ir == null) {
         System.err.println("\n   No statements\n");
@@ -222,12 +423,17 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
       return false;
     }
 
-    addNodeInstructionConstraints(node, monitor);
+    Object source = system.setConstraintSource(node);
+    try {
+      addNodeInstructionConstraints(node, monitor);
 
-    addNodeValueConstraints(node, monitor);
+      addNodeValueConstraints(node, monitor);
 
-    DefUse du = getCFAContextInterpreter().getDU(node);
-    addNodePassthruExceptionConstraints(node, ir, du);
+      DefUse du = getCFAContextInterpreter().getDU(node);
+      addNodePassthruExceptionConstraints(node, ir, du);
+    } finally {
+      system.setConstraintSource(source);
+    }
     // conservatively assume something changed
     return true;
   }
@@ -1559,6 +1765,9 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
     }
 
     private void processFinalizeMethod(final IClass klass) {
+      if (getBuilder().isRecordingUpdates()) {
+        MapUtil.findOrCreateSet(getBuilder().finalizeOwners, klass).add(node);
+      }
       if (getBuilder().finalizeVisited.add(klass)) {
         IMethod finalizer = klass.getMethod(MethodReference.finalizeSelector);
         if (finalizer != null
@@ -1574,7 +1783,15 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
                   }
                 }
               };
-          ef.addCall((AbstractRootMethod) callGraph.getFakeRootNode().getMethod());
+          AbstractRootMethod fakeRootMethod =
+              (AbstractRootMethod) callGraph.getFakeRootNode().getMethod();
+          int first = fakeRootMethod.statements.size();
+          ef.addCall(fakeRootMethod);
+          if (getBuilder().isRecordingUpdates()) {
+            getBuilder()
+                .finalizeCalls
+                .put(klass, new int[] {first, fakeRootMethod.statements.size()});
+          }
           getBuilder().markChanged(callGraph.getFakeRootNode());
         }
       }
@@ -1593,6 +1810,9 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
         return;
       }
 
+      if (getBuilder().isRecordingUpdates()) {
+        MapUtil.findOrCreateSet(getBuilder().clinitOwners, klass).add(node);
+      }
       if (getBuilder().clinitVisited.contains(klass)) {
         return;
       }
@@ -1616,6 +1836,9 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
             AbstractRootMethod fakeWorldClinitMethod =
                 (AbstractRootMethod) callGraph.getFakeWorldClinitNode().getMethod();
             SSAAbstractInvokeInstruction s = fakeWorldClinitMethod.addInvocation(new int[0], site);
+            if (getBuilder().isRecordingUpdates()) {
+              getBuilder().clinitCalls.put(klass, s);
+            }
             PointerKey uniqueCatch =
                 getBuilder().getPointerKeyForExceptionalReturnValue(callGraph.getFakeRootNode());
             getBuilder()
@@ -1868,7 +2091,12 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
     public byte evaluate(PointsToSetVariable lhs, final PointsToSetVariable[] rhs) {
       assert dispatchIndices.length >= rhs.length : "bad operator at " + call;
 
-      return cpa(rhs);
+      Object source = system.setConstraintSource(node);
+      try {
+        return cpa(rhs);
+      } finally {
+        system.setConstraintSource(source);
+      }
 
       /*
       // did evaluating the dispatch operation add a new possible target
@@ -2038,6 +2266,36 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
       return true;
     }
 
+    CGNode getNode() {
+      return node;
+    }
+
+    CallSiteReference getCallSite() {
+      return call.getCallSite();
+    }
+
+    /** @return the instance keys of the constant parameters, or null if there are none */
+    InstanceKey[][] getConstParams() {
+      return constParams;
+    }
+
+    /** @return true iff the only right-hand side of this operator is the receiver */
+    boolean dispatchesOnReceiverOnly() {
+      return dispatchIndices.length == 1
+          && dispatchIndices[0] == 0
+          && (constParams == null || constParams[0] == null);
+    }
+
+    /** Forget that the given instance keys have been processed at right-hand side rhsIndex. */
+    void forget(int rhsIndex, IntSet instances) {
+      instances.foreach(previousPtrs[rhsIndex]::remove);
+    }
+
+    /** Forget all instance keys processed so far, so that all targets are found again. */
+    void reset() {
+      Arrays.setAll(previousPtrs, i -> IntSetUtil.getDefaultIntSetFactory().make());
+    }
+
     @Override
     public String toString() {
       return "Dispatch to " + call + " in node " + node;
@@ -40,7 +40,8 @@ public class DefaultSSAInterpreter extends DefaultRTAInterpreter implements SSAC
     defaultInterpreter = new ContextInsensitiveSSAInterpreter(options, cache);
   }
 
-  private SSAContextInterpreter getCFAInterpreter(CGNode node) {
+  /** @return the interpreter that this one delegates to for node */
+  public SSAContextInterpreter getCFAInterpreter(CGNode node) {
     if (cloneInterpreter.understands(node)) {
       return cloneInterpreter;
     } else {
@@ -79,6 +80,11 @@ public class DefaultSSAInterpreter extends DefaultRTAInterpreter implements SSAC
     return false;
   }
 
+  @Override
+  public void clearCaches() {
+    cloneInterpreter.clearCaches();
+  }
+
   @Override
   public ControlFlowGraph<SSAInstruction, ISSABasicBlock> getCFG(CGNode N) {
     return getCFAInterpreter(N).getCFG(N);
@@ -42,6 +42,11 @@ public class DelegatingSSAContextInterpreter extends DelegatingRTAContextInterpr
     }
   }
 
+  /** @return the interpreter that this one delegates to for node */
+  public SSAContextInterpreter getCFAInterpreter(CGNode node) {
+    return A.understands(node) ? A : B;
+  }
+
   @Override
   public IR getIR(CGNode node) {
     if (A != null) {
@@ -90,6 +95,14 @@ public class DelegatingSSAContextInterpreter extends DelegatingRTAContextInterpr
     return result;
   }
 
+  @Override
+  public void clearCaches() {
+    if (A != null) {
+      A.clearCaches();
+    }
+    B.clearCaches();
+  }
+
   @Override
   public ControlFlowGraph<SSAInstruction, ISSABasicBlock> getCFG(CGNode node) {
     if (A != null) {
@@ -113,6 +113,11 @@ public class FallbackContextInterpreter implements SSAContextInterpreter {
     return shrikeCI.recordFactoryType(node, klass);
   }
 
+  @Override
+  public void clearCaches() {
+    shrikeCI.clearCaches();
+  }
+
   /* (non-Javadoc)
    * @see com.ibm.wala.ipa.callgraph.cha.CHAContextInterpreter#understands(com.ibm.wala.ipa.callgraph.CGNode)
    */
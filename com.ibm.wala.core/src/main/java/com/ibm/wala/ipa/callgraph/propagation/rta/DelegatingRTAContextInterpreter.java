@@ -95,6 +95,14 @@ public class DelegatingRTAContextInterpreter implements RTAContextInterpreter {
     return result;
   }
 
+  @Override
+  public void clearCaches() {
+    if (A != null) {
+      A.clearCaches();
+    }
+    B.clearCaches();
+  }
+
   @Override
   public String toString() {
     return getClass().getName() + ": " + A + ", " + B;
@@ -41,4 +41,12 @@ public interface RTAContextInterpreter extends CHAContextInterpreter {
    * @return true iff a NEW type was recorded, false if the type was previously recorded.
    */
   public boolean recordFactoryType(CGNode node, IClass klass);
+
+  /**
+   * Forget everything cached for particular methods and contexts, including recorded factory
+   * types, since those methods may have been changed or removed.
+   *
+   * @see com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder#updateCallGraph
+   */
+  public default void clearCaches() {}
 }
@@ -13,6 +13,7 @@ package com.ibm.wala.ipa.cha;
 import com.ibm.wala.classLoader.ArrayClass;
 import com.ibm.wala.classLoader.BytecodeClass;
 import com.ibm.wala.classLoader.ClassLoaderFactory;
+import com.ibm.wala.classLoader.ClassLoaderImpl;
 import com.ibm.wala.classLoader.IClass;
 import com.ibm.wala.classLoader.IClassLoader;
 import com.ibm.wala.classLoader.IField;
@@ -42,13 +43,19 @@ import com.ibm.wala.util.ref.ReferenceCleanser;
 import com.ibm.wala.util.strings.Atom;
 import com.ibm.wala.util.warnings.Warning;
 import com.ibm.wala.util.warnings.Warnings;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -113,17 +120,22 @@ public class ClassHierarchy implements IClassHierarchy {
    */
   private final Map<IClass, Set<IClass>> implementors = HashMapFactory.make();
 
-  /** A temporary hack : TODO: do intelligent caching somehow */
-  private Collection<IClass> subclassesOfError;
+  /**
+   * A temporary hack : TODO: do intelligent caching somehow
+   *
+   * <p>This and the following caches are volatile, and only assigned once fully computed, as they
+   * are filled lazily by the threads that build IR too.
+   */
+  private volatile Collection<IClass> subclassesOfError;
 
   /** A temporary hack : TODO: do intelligent caching somehow */
-  private Collection<TypeReference> subTypeRefsOfError;
+  private volatile Collection<TypeReference> subTypeRefsOfError;
 
   /** A temporary hack : TODO: do intelligent caching somehow */
-  private Collection<IClass> runtimeExceptionClasses;
+  private volatile Collection<IClass> runtimeExceptionClasses;
 
   /** A temporary hack : TODO: do intelligent caching somehow */
-  private Collection<TypeReference> runtimeExceptionTypeRefs;
+  private volatile Collection<TypeReference> runtimeExceptionTypeRefs;
 
   /**
    * How should we handle missing superclasses? DEFAULT: no special handling, class will be excluded
@@ -211,6 +223,22 @@ public class ClassHierarchy implements IClassHierarchy {
       Map<TypeReference, Node> map,
       MissingSuperClassHandling superClassHandling)
       throws ClassHierarchyException, IllegalArgumentException {
+    this(scope, factory, languages, progressMonitor, map, superClassHandling, null);
+  }
+
+  /**
+   * @param snapshot if non-null, the nodes, numbering and implementors are read from here (see
+   *     {@link #writeSnapshot(DataOutput)}) instead of being computed from the loaded classes
+   */
+  ClassHierarchy(
+      AnalysisScope scope,
+      ClassLoaderFactory factory,
+      Collection<Language> languages,
+      IProgressMonitor progressMonitor,
+      Map<TypeReference, Node> map,
+      MissingSuperClassHandling superClassHandling,
+      DataInput snapshot)
+      throws ClassHierarchyException, IllegalArgumentException {
     // now is a good time to clear the warnings globally.
     // TODO: think of a better way to guard against warning leaks.
     Warnings.clear();
@@ -276,14 +304,16 @@ public class ClassHierarchy implements IClassHierarchy {
         }
       }
 
-      for (IClassLoader icl : loaders) {
-        if (progressMonitor != null) {
-          progressMonitor.subTask("From " + icl.getName().toString());
-        }
-        addAllClasses(icl, progressMonitor);
+      if (snapshot == null) {
+        for (IClassLoader icl : loaders) {
+          if (progressMonitor != null) {
+            progressMonitor.subTask("From " + icl.getName().toString());
+          }
+          addAllClasses(icl, progressMonitor);
 
-        if (progressMonitor != null) {
-          progressMonitor.worked(idx++);
+          if (progressMonitor != null) {
+            progressMonitor.worked(idx++);
+          }
         }
       }
 
@@ -295,13 +325,23 @@ public class ClassHierarchy implements IClassHierarchy {
       }
     }
 
+    if (snapshot != null) {
+      try {
+        restore(snapshot);
+      } catch (IOException e) {
+        throw new ClassHierarchyException("failed to read class hierarchy snapshot", e);
+      }
+    }
+
     if (root == null) {
       throw new ClassHierarchyException(
           "failed to load root " + rootTypeRef + " of class hierarchy");
     }
 
-    // perform numbering for subclass tests.
-    numberTree();
+    if (snapshot == null) {
+      // perform numbering for subclass tests.
+      numberTree();
+    }
     ReferenceCleanser.registerClassHierarchy(this);
   }
 
@@ -437,6 +477,148 @@ public class ClassHierarchy implements IClassHierarchy {
     return true;
   }
 
+  /**
+   * Update this class hierarchy for a code change: each of the given classes replaces the class of
+   * the same name, or is added if there is none, and the removed classes are dropped. The classes
+   * that extend or implement a replaced or removed class stay, but are re-added, so that they see
+   * their new supertypes; a class whose superclass was removed is dropped as well. Class loaders
+   * are updated to match.
+   *
+   * <p>Analyses that hold on to classes, methods, or fields of the replaced classes must drop them;
+   * see {@link
+   * com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder#updateCallGraph}.
+   *
+   * @param classes new versions of changed classes, and added classes
+   * @param removed classes to remove
+   * @throws IllegalArgumentException if a class is not loaded by a {@link ClassLoaderImpl}, if a
+   *     removed class is not in this hierarchy, or if the root class would change
+   */
+  public void updateClasses(
+      Collection<? extends IClass> classes, Collection<TypeReference> removed) {
+    if (classes == null) {
+      throw new IllegalArgumentException("classes is null");
+    }
+    if (removed == null) {
+      throw new IllegalArgumentException("removed is null");
+    }
+    Set<Node> stale = HashSetFactory.make();
+    for (IClass klass : classes) {
+      if (!(klass.getClassLoader() instanceof ClassLoaderImpl)) {
+        throw new IllegalArgumentException("cannot update class " + klass);
+      }
+      Node n = map.get(klass.getReference());
+      if (n != null) {
+        stale.add(n);
+      }
+    }
+    List<IClass> removedClasses = new ArrayList<>();
+    for (TypeReference t : removed) {
+      Node n = map.get(t);
+      if (n == null) {
+        throw new IllegalArgumentException("cannot remove " + t + ": not in class hierarchy");
+      }
+      stale.add(n);
+      removedClasses.add(n.klass);
+    }
+    for (Node n : stale) {
+      if (n == root) {
+        throw new IllegalArgumentException("cannot replace the root class " + n.klass);
+      }
+    }
+
+    // the subclasses and implementors of stale classes are re-added below
+    Set<Node> dependents = new LinkedHashSet<>();
+    ArrayDeque<Node> worklist = new ArrayDeque<>(stale);
+    while (!worklist.isEmpty()) {
+      Node n = worklist.poll();
+      for (Node child : n.children) {
+        if (!stale.contains(child) && dependents.add(child)) {
+          worklist.add(child);
+        }
+      }
+      Set<IClass> impls = implementors.get(n.klass);
+      if (impls != null) {
+        for (IClass impl : impls) {
+          Node child = map.get(impl.getReference());
+          if (child != null && !stale.contains(child) && dependents.add(child)) {
+            worklist.add(child);
+          }
+        }
+      }
+    }
+
+    Set<TypeReference> dropped = HashSetFactory.make();
+    for (Node n : stale) {
+      dropped.add(n.klass.getReference());
+    }
+    for (Node n : dependents) {
+      dropped.add(n.klass.getReference());
+    }
+    map.keySet().removeAll(dropped);
+    for (Node n : map.values()) {
+      n.children.removeIf(c -> dropped.contains(c.klass.getReference()));
+    }
+    implementors.keySet().removeIf(i -> dropped.contains(i.getReference()));
+    for (Set<IClass> impls : implementors.values()) {
+      impls.removeIf(c -> dropped.contains(c.getReference()));
+    }
+    targetCache.clear();
+    subclassesOfError = null;
+    subTypeRefsOfError = null;
+    runtimeExceptionClasses = null;
+    runtimeExceptionTypeRefs = null;
+
+    for (IClass klass : removedClasses) {
+      klass.getClassLoader().removeAll(Collections.singleton(klass));
+    }
+    for (IClass klass : classes) {
+      ((ClassLoaderImpl) klass.getClassLoader()).replaceClass(klass);
+      unresolved.remove(klass.getReference());
+    }
+    for (IClass klass : classes) {
+      if (klass instanceof BytecodeClass) {
+        ((BytecodeClass<?>) klass).clearSupertypeCaches();
+      }
+    }
+    for (Node n : dependents) {
+      if (n.klass instanceof BytecodeClass) {
+        ((BytecodeClass<?>) n.klass).clearSupertypeCaches();
+      }
+    }
+
+    List<IClass> failed = new ArrayList<>();
+    for (IClass klass : classes) {
+      if (!addClass(klass)) {
+        failed.add(klass);
+      }
+    }
+    for (Node n : dependents) {
+      if (!addClass(n.klass)) {
+        failed.add(n.klass);
+      }
+    }
+    List<TypeReference> orphans = new ArrayList<>();
+    for (IClass klass : failed) {
+      if (map.containsKey(klass.getReference())) {
+        // reached as the superclass of a class added after it; drop both below
+        orphans.add(klass.getReference());
+      } else {
+        klass.getClassLoader().removeAll(Collections.singleton(klass));
+      }
+    }
+    if (!orphans.isEmpty()) {
+      updateClasses(Collections.emptySet(), orphans);
+      return;
+    }
+
+    for (Node n : map.values()) {
+      n.left = -1;
+      n.right = -1;
+    }
+    nextNumber = 1;
+    numberTree();
+  }
+
   private IClass getPhantomSuperclass(BytecodeClass<?> klass) {
     ClassLoaderReference loader = klass.getReference().getClassLoader();
     TypeName superName = klass.getSuperName();
@@ -741,6 +923,154 @@ public class ClassHierarchy implements IClassHierarchy {
     N.right = nextNumber++;
   }
 
+  /**
+   * Write the nodes of this hierarchy, with their numbering, and the implementors of each
+   * interface, so that {@link #restore(DataInput)} can rebuild them without resolving any class
+   * again. Classes are named by their loader and type name, and otherwise referred to by their
+   * position in the output; parents come before their children.
+   *
+   * @throws IllegalArgumentException if an interface or implementor is not a node of this hierarchy
+   */
+  void writeSnapshot(DataOutput out) throws IOException {
+    List<Node> nodes = new ArrayList<>(map.size());
+    Map<IClass, Integer> index = HashMapFactory.make(map.size());
+    List<Integer> parents = new ArrayList<>(map.size());
+    collectForSnapshot(root, -1, nodes, index, parents);
+    for (Node n : map.values()) {
+      if (!index.containsKey(n.klass)) {
+        // not reachable from the root, e.g. a class whose superclass is null
+        collectForSnapshot(n, -1, nodes, index, parents);
+      }
+    }
+
+    out.writeInt(nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      Node n = nodes.get(i);
+      out.writeUTF(n.klass.getReference().getClassLoader().getName().toString());
+      out.writeUTF(n.klass.getName().toString());
+      out.writeBoolean(n.klass instanceof PhantomClass);
+      out.writeInt(parents.get(i));
+      out.writeInt(n.left);
+      out.writeInt(n.right);
+    }
+    out.writeInt(nextNumber);
+
+    out.writeInt(implementors.size());
+    for (Map.Entry<IClass, Set<IClass>> e : implementors.entrySet()) {
+      out.writeInt(snapshotIndex(index, e.getKey()));
+      out.writeInt(e.getValue().size());
+      for (IClass impl : e.getValue()) {
+        out.writeInt(snapshotIndex(index, impl));
+      }
+    }
+
+    out.writeInt(unresolved.size());
+    for (TypeReference t : unresolved) {
+      out.writeUTF(t.getClassLoader().getName().toString());
+      out.writeUTF(t.getName().toString());
+    }
+  }
+
+  private void collectForSnapshot(
+      Node n, int parent, List<Node> nodes, Map<IClass, Integer> index, List<Integer> parents) {
+    int i = nodes.size();
+    nodes.add(n);
+    index.put(n.klass, i);
+    parents.add(parent);
+    for (Node child : n.children) {
+      collectForSnapshot(child, i, nodes, index, parents);
+    }
+  }
+
+  private static int snapshotIndex(Map<IClass, Integer> index, IClass klass) {
+    Integer i = index.get(klass);
+    if (i == null) {
+      throw new IllegalArgumentException(klass + " is not in the class hierarchy");
+    }
+    return i;
+  }
+
+  /**
+   * Rebuild the nodes, numbering and implementors from the output of {@link
+   * #writeSnapshot(DataOutput)}, taking each class from the loader that defined it before. Classes
+   * of the loaders that are not in the snapshot were rejected when the snapshot was taken, so they
+   * are removed from their loaders again.
+   *
+   * @throws ClassHierarchyException if a class in the snapshot cannot be found
+   */
+  private void restore(DataInput in) throws IOException, ClassHierarchyException {
+    Node[] nodes = new Node[in.readInt()];
+    for (int i = 0; i < nodes.length; i++) {
+      ClassLoaderReference loaderRef = scope.getLoader(Atom.findOrCreateUnicodeAtom(in.readUTF()));
+      TypeName name = TypeName.string2TypeName(in.readUTF());
+      boolean phantom = in.readBoolean();
+      int parent = in.readInt();
+      if (loaderRef == null) {
+        throw new ClassHierarchyException("class hierarchy snapshot names an unknown loader");
+      }
+      IClass klass;
+      if (phantom) {
+        klass = new PhantomClass(TypeReference.findOrCreate(loaderRef, name), this);
+      } else {
+        klass = null;
+        for (IClassLoader loader : loaders) {
+          if (loader.getReference().equals(loaderRef)) {
+            klass = loader.lookupClass(name);
+          }
+        }
+      }
+      if (klass == null || !klass.getReference().getClassLoader().equals(loaderRef)) {
+        throw new ClassHierarchyException(
+            "class hierarchy snapshot does not match the scope: " + loaderRef + ' ' + name);
+      }
+      Node node = new Node(klass);
+      node.left = in.readInt();
+      node.right = in.readInt();
+      map.put(klass.getReference(), node);
+      if (parent >= 0) {
+        nodes[parent].addChild(node);
+      }
+      if (klass.getReference().equals(rootTypeRef)) {
+        root = node;
+      }
+      nodes[i] = node;
+    }
+    nextNumber = in.readInt();
+
+    for (int i = in.readInt(); i > 0; i--) {
+      IClass iface = nodes[in.readInt()].klass;
+      int n = in.readInt();
+      Set<IClass> impls = HashSetFactory.make(n);
+      for (int j = 0; j < n; j++) {
+        impls.add(nodes[in.readInt()].klass);
+      }
+      implementors.put(iface, impls);
+    }
+
+    for (int i = in.readInt(); i > 0; i--) {
+      ClassLoaderReference loaderRef = scope.getLoader(Atom.findOrCreateUnicodeAtom(in.readUTF()));
+      if (loaderRef == null) {
+        throw new ClassHierarchyException("class hierarchy snapshot names an unknown loader");
+      }
+      unresolved.add(TypeReference.findOrCreate(loaderRef, in.readUTF()));
+    }
+
+    for (IClassLoader loader : loaders) {
+      Collection<IClass> toRemove = HashSetFactory.make();
+      for (IClass klass : Iterator2Iterable.make(loader.iterateAllClasses())) {
+        if (!map.containsKey(klass.getReference())) {
+          toRemove.add(klass);
+        }
+      }
+      loader.removeAll(toRemove);
+    }
+  }
+
+  /** @return the languages whose classes this hierarchy holds, including derived languages */
+  Set<Language> getLanguages() {
+    return Collections.unmodifiableSet(languages);
+  }
+
   /** internal representation of a node in the class hiearachy, representing one java class. */
   static final class Node {
 
@@ -1057,15 +1387,17 @@ public class ClassHierarchy implements IClassHierarchy {
     }
     // a hack: TODO: work on better caching
     if (t.getReference().equals(TypeReference.JavaLangError)) {
-      if (subclassesOfError == null) {
-        subclassesOfError = computeSubClassesInternal(t);
+      Collection<IClass> result = subclassesOfError;
+      if (result == null) {
+        subclassesOfError = result = computeSubClassesInternal(t);
       }
-      return subclassesOfError;
+      return result;
     } else if (t.getReference().equals(TypeReference.JavaLangRuntimeException)) {
-      if (runtimeExceptionClasses == null) {
-        runtimeExceptionClasses = computeSubClassesInternal(t);
+      Collection<IClass> result = runtimeExceptionClasses;
+      if (result == null) {
+        runtimeExceptionClasses = result = computeSubClassesInternal(t);
       }
-      return runtimeExceptionClasses;
+      return result;
     } else {
       return computeSubClassesInternal(t);
     }
@@ -1079,14 +1411,16 @@ public class ClassHierarchy implements IClassHierarchy {
    */
   @Override
   public Collection<TypeReference> getJavaLangErrorTypes() {
-    if (subTypeRefsOfError == null) {
-      computeSubClasses(TypeReference.JavaLangError);
-      subTypeRefsOfError = HashSetFactory.make(subclassesOfError.size());
-      for (IClass klass : subclassesOfError) {
-        subTypeRefsOfError.add(klass.getReference());
+    Collection<TypeReference> result = subTypeRefsOfError;
+    if (result == null) {
+      Collection<IClass> subclasses = computeSubClasses(TypeReference.JavaLangError);
+      result = HashSetFactory.make(subclasses.size());
+      for (IClass klass : subclasses) {
+        result.add(klass.getReference());
       }
+      subTypeRefsOfError = result;
     }
-    return Collections.unmodifiableCollection(subTypeRefsOfError);
+    return Collections.unmodifiableCollection(result);
   }
 
   /**
@@ -1097,14 +1431,16 @@ public class ClassHierarchy implements IClassHierarchy {
    */
   @Override
   public Collection<TypeReference> getJavaLangRuntimeExceptionTypes() {
-    if (runtimeExceptionTypeRefs == null) {
-      computeSubClasses(TypeReference.JavaLangRuntimeException);
-      runtimeExceptionTypeRefs = HashSetFactory.make(runtimeExceptionClasses.size());
-      for (IClass klass : runtimeExceptionClasses) {
-        runtimeExceptionTypeRefs.add(klass.getReference());
+    Collection<TypeReference> result = runtimeExceptionTypeRefs;
+    if (result == null) {
+      Collection<IClass> subclasses = computeSubClasses(TypeReference.JavaLangRuntimeException);
+      result = HashSetFactory.make(subclasses.size());
+      for (IClass klass : subclasses) {
+        result.add(klass.getReference());
       }
+      runtimeExceptionTypeRefs = result;
     }
-    return Collections.unmodifiableCollection(runtimeExceptionTypeRefs);
+    return Collections.unmodifiableCollection(result);
   }
 
   /**
@@ -1308,7 +1644,8 @@ public class ClassHierarchy implements IClassHierarchy {
   }
 
   /* BEGIN Custom change: remember unresolved classes */
-  private final Set<TypeReference> unresolved = HashSetFactory.make();
+  /** concurrent, since classes are looked up by the threads that build IR too */
+  private final Set<TypeReference> unresolved = ConcurrentHashMap.newKeySet();
 
   @Override
   public final Set<TypeReference> getUnresolvedClasses() {
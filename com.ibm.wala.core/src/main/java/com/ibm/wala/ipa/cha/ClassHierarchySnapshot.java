@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ipa.cha;
+
+import com.ibm.wala.classLoader.ClassLoaderFactory;
+import com.ibm.wala.classLoader.ClassLoaderFactoryImpl;
+import com.ibm.wala.classLoader.ClassLoaderImpl;
+import com.ibm.wala.classLoader.DirectoryTreeModule;
+import com.ibm.wala.classLoader.FileModule;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.JarFileModule;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ShrikeClass;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchy.MissingSuperClassHandling;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.strings.Atom;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Saves a built {@link ClassHierarchy} to a binary file and builds it again from that file.
+ *
+ * <p>A snapshot holds the nodes of the hierarchy with their subclass numbering, the implementors of
+ * each interface and the unresolved classes, along with a fingerprint of the scope: the loaders,
+ * exclusions, languages, missing superclass handling, and the path, size and modification time of
+ * every jar file, class file and directory in the scope. A snapshot whose fingerprint does not
+ * match the scope is ignored.
+ *
+ * <p>A snapshot also holds the header of every class read from a class file: its name, modifiers,
+ * superclass and interfaces. When the hierarchy is restored with a {@link ClassLoaderFactoryImpl},
+ * the loaders create these classes from their headers, so a class file is only read once the fields
+ * or methods of its class are needed. Restoring also skips resolving the superclasses and
+ * interfaces of every class and numbering the tree.
+ *
+ * <p>Only scopes made of jar files, class or source files and directories can be fingerprinted; for
+ * other scopes, {@link #make} just builds the hierarchy.
+ */
+public final class ClassHierarchySnapshot {
+
+  private static final int MAGIC = 0x57434841;
+
+  private static final int VERSION = 1;
+
+  private ClassHierarchySnapshot() {}
+
+  /**
+   * Build a class hierarchy for scope, with no special handling of missing superclasses, from the
+   * snapshot in file if there is a matching one; otherwise build it as {@link
+   * ClassHierarchyFactory#make(AnalysisScope)} does and save a snapshot to file.
+   */
+  public static ClassHierarchy make(AnalysisScope scope, File file) throws ClassHierarchyException {
+    if (scope == null) {
+      throw new IllegalArgumentException("null scope");
+    }
+    return make(
+        scope,
+        new ClassLoaderFactoryImpl(scope.getExclusions()),
+        MissingSuperClassHandling.NONE,
+        file);
+  }
+
+  /**
+   * Build a class hierarchy from the snapshot in file if there is one that matches scope; otherwise
+   * build it from scratch and save a snapshot to file. Failing to save the snapshot is not an
+   * error.
+   *
+   * @throws ClassHierarchyException if the hierarchy cannot be built, or if the snapshot matches
+   *     the fingerprint of the scope but names a class the loaders do not define
+   */
+  public static ClassHierarchy make(
+      AnalysisScope scope,
+      ClassLoaderFactory factory,
+      MissingSuperClassHandling superClassHandling,
+      File file)
+      throws ClassHierarchyException {
+    ClassHierarchy cha = read(file, scope, factory, superClassHandling);
+    if (cha == null) {
+      cha = new ClassHierarchy(scope, factory, null, new ConcurrentHashMap<>(), superClassHandling);
+      try {
+        write(cha, file);
+      } catch (IOException | IllegalArgumentException e) {
+        // the snapshot is only an optimization
+      }
+    }
+    return cha;
+  }
+
+  /**
+   * Save a snapshot of cha to file, replacing any file that is there.
+   *
+   * @throws IllegalArgumentException if the scope of cha cannot be fingerprinted
+   */
+  public static void write(ClassHierarchy cha, File file) throws IOException {
+    if (cha == null) {
+      throw new IllegalArgumentException("null cha");
+    }
+    if (file == null) {
+      throw new IllegalArgumentException("null file");
+    }
+    byte[] fingerprint =
+        fingerprint(cha.getScope(), cha.getLanguages(), cha.getSuperClassHandling());
+    if (fingerprint == null) {
+      throw new IllegalArgumentException("cannot fingerprint the scope of " + cha.getScope());
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bytes))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeShort(fingerprint.length);
+      out.write(fingerprint);
+      writeHeaders(cha, out);
+      cha.writeSnapshot(out);
+    }
+
+    Path target = file.getAbsoluteFile().toPath();
+    Files.createDirectories(target.getParent());
+    Path temp = Files.createTempFile(target.getParent(), "cha", ".tmp");
+    try {
+      Files.write(temp, bytes.toByteArray());
+      try {
+        Files.move(
+            temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Build a class hierarchy for scope from the snapshot in file.
+   *
+   * @return the class hierarchy, or null if there is no snapshot in file or it does not match the
+   *     scope, languages and missing superclass handling; in that case, factory has not been used
+   * @throws ClassHierarchyException if the hierarchy cannot be built, or if the snapshot matches
+   *     the fingerprint of the scope but names a class the loaders do not define
+   */
+  public static ClassHierarchy read(
+      File file,
+      AnalysisScope scope,
+      ClassLoaderFactory factory,
+      MissingSuperClassHandling superClassHandling)
+      throws ClassHierarchyException {
+    if (file == null) {
+      throw new IllegalArgumentException("null file");
+    }
+    if (scope == null) {
+      throw new IllegalArgumentException("null scope");
+    }
+    if (factory == null) {
+      throw new IllegalArgumentException("null factory");
+    }
+    if (!file.isFile()) {
+      return null;
+    }
+    Collection<Language> languages = new ArrayList<>();
+    for (Language l : scope.getLanguages()) {
+      languages.add(l);
+      languages.addAll(l.getDerivedLanguages());
+    }
+    byte[] fingerprint = fingerprint(scope, languages, superClassHandling);
+    if (fingerprint == null) {
+      return null;
+    }
+
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return null;
+      }
+      byte[] stored = new byte[in.readUnsignedShort()];
+      in.readFully(stored);
+      if (!Arrays.equals(fingerprint, stored)) {
+        return null;
+      }
+      Map<ClassLoaderReference, Map<String, ShrikeClass.Header>> headers = readHeaders(scope, in);
+      if (factory instanceof ClassLoaderFactoryImpl) {
+        for (Map.Entry<ClassLoaderReference, Map<String, ShrikeClass.Header>> e :
+            headers.entrySet()) {
+          ((ClassLoaderFactoryImpl) factory).setClassHeaders(e.getKey(), e.getValue());
+        }
+      }
+      return new ClassHierarchy(
+          scope,
+          factory,
+          scope.getLanguages(),
+          null,
+          new ConcurrentHashMap<>(),
+          superClassHandling,
+          in);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /** Write the header of each class of cha read from a class file, grouped by loader. */
+  private static void writeHeaders(ClassHierarchy cha, DataOutput out) throws IOException {
+    Map<ClassLoaderReference, Map<String, ShrikeClass.Header>> headers = HashMapFactory.make();
+    for (IClass klass : cha) {
+      if (klass instanceof ShrikeClass) {
+        String key = ClassLoaderImpl.getEntryKey(((ShrikeClass) klass).getModuleEntry());
+        if (key != null) {
+          headers
+              .computeIfAbsent(klass.getClassLoader().getReference(), l -> HashMapFactory.make())
+              .put(key, ((ShrikeClass) klass).getHeader());
+        }
+      }
+    }
+    out.writeInt(headers.size());
+    for (Map.Entry<ClassLoaderReference, Map<String, ShrikeClass.Header>> e : headers.entrySet()) {
+      out.writeUTF(e.getKey().getName().toString());
+      out.writeInt(e.getValue().size());
+      for (Map.Entry<String, ShrikeClass.Header> h : e.getValue().entrySet()) {
+        out.writeUTF(h.getKey());
+        h.getValue().write(out);
+      }
+    }
+  }
+
+  /** Read the headers written by {@link #writeHeaders}. */
+  private static Map<ClassLoaderReference, Map<String, ShrikeClass.Header>> readHeaders(
+      AnalysisScope scope, DataInput in) throws IOException {
+    Map<ClassLoaderReference, Map<String, ShrikeClass.Header>> result = HashMapFactory.make();
+    for (int loaders = in.readInt(); loaders > 0; loaders--) {
+      ClassLoaderReference loader = scope.getLoader(Atom.findOrCreateUnicodeAtom(in.readUTF()));
+      if (loader == null) {
+        throw new IOException("unknown loader in class hierarchy snapshot");
+      }
+      int n = in.readInt();
+      Map<String, ShrikeClass.Header> headers = HashMapFactory.make(n);
+      for (int i = 0; i < n; i++) {
+        headers.put(in.readUTF(), ShrikeClass.Header.read(in));
+      }
+      result.put(loader, headers);
+    }
+    return result;
+  }
+
+  /**
+   * @return a digest of everything the hierarchy of scope depends on, or null if some module of
+   *     scope cannot be fingerprinted
+   */
+  private static byte[] fingerprint(
+      AnalysisScope scope,
+      Collection<Language> languages,
+      MissingSuperClassHandling superClassHandling) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(VERSION);
+      out.writeUTF(superClassHandling.name());
+      SortedSet<String> languageNames = new TreeSet<>();
+      for (Language l : languages) {
+        languageNames.add(l.getName().toString());
+      }
+      out.writeUTF(languageNames.toString());
+      out.writeUTF(String.valueOf(scope.getExclusions()));
+
+      List<ClassLoaderReference> loaders = new ArrayList<>(scope.getLoaders());
+      loaders.sort((a, b) -> a.getName().toString().compareTo(b.getName().toString()));
+      for (ClassLoaderReference loader : loaders) {
+        out.writeUTF(loader.toString());
+        out.writeUTF(String.valueOf(scope.getLoaderImpl(loader)));
+        for (Module m : scope.getModules(loader)) {
+          if (!fingerprint(m, out)) {
+            return null;
+          }
+        }
+      }
+    } catch (IOException e) {
+      // cannot happen when writing to memory
+      throw new IllegalStateException(e);
+    }
+    try {
+      return MessageDigest.getInstance("SHA-1").digest(bytes.toByteArray());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+  }
+
+  /** @return false if m cannot be fingerprinted */
+  private static boolean fingerprint(Module m, DataOutputStream out) throws IOException {
+    if (m instanceof JarFileModule) {
+      fingerprint(new File(((JarFileModule) m).getAbsolutePath()), out);
+      return true;
+    } else if (m instanceof FileModule) {
+      fingerprint(((FileModule) m).getFile(), out);
+      return true;
+    } else if (m instanceof DirectoryTreeModule) {
+      out.writeUTF(((DirectoryTreeModule) m).getPath());
+      SortedSet<String> files = new TreeSet<>();
+      for (FileModule f : Iterator2Iterable.make(((DirectoryTreeModule) m).getEntries())) {
+        File file = f.getFile();
+        files.add(file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified());
+      }
+      for (String f : files) {
+        out.writeUTF(f);
+      }
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  private static void fingerprint(File file, DataOutputStream out) throws IOException {
+    out.writeUTF(file.getAbsolutePath());
+    out.writeLong(file.length());
+    out.writeLong(file.lastModified());
+  }
+}
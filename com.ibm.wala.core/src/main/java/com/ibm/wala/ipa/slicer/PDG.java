@@ -185,7 +185,22 @@ public class PDG<T extends InstanceKey> implements NumberedGraph<Statement> {
       // ensure that we keep the single, canonical IR live throughout initialization, while the
       // instructionIndices map
       // is live.
-      IR ir = node.getIR();
+      populate(node.getIR());
+    }
+  }
+
+  /**
+   * Create the nodes and the scalar data and control dependence edges of this PDG from the IR of
+   * its call graph node, unless that has been done already. Heap data dependence edges are still
+   * computed as statements are traversed.
+   *
+   * <p>This touches neither the pointer analysis nor the context interpreters, so the PDGs of
+   * different call graph nodes may be populated concurrently.
+   *
+   * @see SDG#computePDGs(Collection, int)
+   */
+  void populate(IR ir) {
+    if (!isPopulated) {
       isPopulated = true;
 
       Map<SSAInstruction, Integer> instructionIndices = computeInstructionIndices(ir);
@@ -831,7 +846,7 @@ public class PDG<T extends InstanceKey> implements NumberedGraph<Statement> {
     return ssaInstruction2Statement(node, s, instructionIndices, ir);
   }
 
-  public static synchronized Statement ssaInstruction2Statement(
+  public static Statement ssaInstruction2Statement(
       CGNode node, SSAInstruction s, Map<SSAInstruction, Integer> instructionIndices, IR ir) {
     if (node == null) {
       throw new IllegalArgumentException("null node");
@@ -25,6 +25,8 @@ import com.ibm.wala.ssa.IR;
 import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
 import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.AnalysisSession;
+import com.ibm.wala.util.WalaRuntimeException;
 import com.ibm.wala.util.collections.CompoundIterator;
 import com.ibm.wala.util.collections.EmptyIterator;
 import com.ibm.wala.util.collections.HashMapFactory;
@@ -36,15 +38,24 @@ import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.graph.AbstractNumberedGraph;
 import com.ibm.wala.util.graph.NumberedEdgeManager;
 import com.ibm.wala.util.graph.NumberedNodeManager;
+import com.ibm.wala.util.graph.impl.GraphInverter;
 import com.ibm.wala.util.graph.impl.SlowNumberedNodeManager;
+import com.ibm.wala.util.graph.traverse.DFS;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.MutableSparseIntSet;
 import com.ibm.wala.util.intset.OrdinalSet;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * System dependence graph.
@@ -185,6 +196,91 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
     }
   }
 
+  /**
+   * Build the PDGs of the given call graph nodes, using the given number of threads. Their nodes
+   * and scalar dependences are computed concurrently; heap data dependences are still computed as
+   * the SDG is traversed, since they query the pointer analysis, which need not be thread-safe.
+   * Returns once all the PDGs are built.
+   *
+   * <p>The SDG must not be traversed by other threads while this runs.
+   *
+   * @throws IllegalArgumentException if threads &lt; 1
+   */
+  public void computePDGs(Collection<CGNode> nodes, int threads) {
+    if (nodes == null) {
+      throw new IllegalArgumentException("nodes is null");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("invalid number of threads: " + threads);
+    }
+    List<Callable<Void>> tasks = new ArrayList<>(nodes.size());
+    AnalysisSession session = AnalysisSession.current();
+    for (CGNode n : nodes) {
+      PDG<T> pdg = getPDG(n);
+      // context interpreters need not be thread-safe, so get each IR on this thread
+      IR ir = n.getIR();
+      if (threads == 1) {
+        pdg.populate(ir);
+      } else {
+        tasks.add(
+            session.bind(
+                () -> {
+                  pdg.populate(ir);
+                  return null;
+                }));
+      }
+    }
+    if (tasks.isEmpty()) {
+      return;
+    }
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      for (Future<Void> f : pool.invokeAll(tasks)) {
+        getComputed(f);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Build, using the given number of threads, the PDGs that slices from the given statements may
+   * visit: those of the transitive callers of the statements' call graph nodes, and of all
+   * transitive callees of these. A slice only leaves a callee for the caller it came from, so this
+   * bounds both backward and forward slices.
+   *
+   * @see #computePDGs(Collection, int)
+   */
+  public void prefetchPDGs(Collection<? extends Statement> criteria, int threads) {
+    if (criteria == null) {
+      throw new IllegalArgumentException("criteria is null");
+    }
+    Set<CGNode> nodes = HashSetFactory.make();
+    for (Statement s : criteria) {
+      nodes.add(s.getNode());
+    }
+    Set<CGNode> callers = DFS.getReachableNodes(GraphInverter.invert(cg), nodes);
+    computePDGs(DFS.getReachableNodes(cg, callers), threads);
+  }
+
+  private static void getComputed(Future<Void> f) {
+    try {
+      f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WalaRuntimeException("interrupted while building PDGs", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new WalaRuntimeException("failed to build PDG", cause);
+      }
+    }
+  }
+
   /**
    * iterate over the nodes <b>without</b> constructing any new ones. Use with extreme care. May
    * break graph traversals that lazily add more nodes.
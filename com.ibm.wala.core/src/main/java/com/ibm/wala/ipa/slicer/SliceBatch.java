@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ipa.slicer;
+
+import com.ibm.wala.dataflow.IFDS.IFlowFunction;
+import com.ibm.wala.dataflow.IFDS.IPartiallyBalancedFlowFunctions;
+import com.ibm.wala.dataflow.IFDS.ISupergraph;
+import com.ibm.wala.dataflow.IFDS.IUnaryFlowFunction;
+import com.ibm.wala.dataflow.IFDS.LocalPathEdges;
+import com.ibm.wala.dataflow.IFDS.PathEdge;
+import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.dataflow.IFDS.TabulationSolver;
+import com.ibm.wala.ipa.slicer.Slicer.SliceProblem;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.debug.Assertions;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes backward slices for many independent criteria over one SDG, sharing a single
+ * tabulation between them.
+ *
+ * <p>A backward slice may return from the procedure of its criterion to any caller without a
+ * matching call, but whatever it reaches through a call in this way must be left through the same
+ * call. What is reached from a callee entry is therefore the same for every criterion. It is
+ * tabulated once, by a solver shared by all criteria, and its summary edges are reused wherever a
+ * slice reaches a call of the same callee. Only the statements outside of such balanced calls are
+ * traversed separately for each criterion.
+ *
+ * <p>The result for each criterion is the same as that of {@link Slicer#slice(SDG, Collection,
+ * boolean)} for the criterion alone.
+ */
+class SliceBatch {
+
+  private final ISupergraph<Statement, PDG<?>> supergraph;
+
+  private final IPartiallyBalancedFlowFunctions<Statement> functions;
+
+  /** tabulates the statements reached from callee entries, with fact 0 only */
+  private final TabulationSolver<Statement, PDG<?>, Object> solver;
+
+  /** the result of {@link #solver}, which reflects seeds added since it was computed */
+  private TabulationResult<Statement, PDG<?>, Object> tabulation;
+
+  /** callee entries that were added as seeds to {@link #solver} */
+  private final Set<Statement> seeded = HashSetFactory.make();
+
+  /** callee entry -&gt; the statements reached from it in {@link #solver} */
+  private final Map<Statement, Collection<Statement>> reached = HashMapFactory.make();
+
+  /** callee entry -&gt; the callee entries entered from statements reached from it */
+  private final Map<Statement, Collection<Statement>> entered = HashMapFactory.make();
+
+  private final IProgressMonitor monitor;
+
+  /** @param problem a backward slice problem without roots */
+  SliceBatch(SliceProblem problem, IProgressMonitor monitor) {
+    this.supergraph = problem.getSupergraph();
+    this.functions = problem.getFunctionMap();
+    this.solver = TabulationSolver.make(problem);
+    this.monitor = monitor;
+  }
+
+  /** @return the backward slice of criterion */
+  Collection<Statement> slice(Statement criterion) throws CancelException {
+    // statements reached without entering a call
+    Set<Statement> outer = HashSetFactory.make();
+    // callee entries entered from those statements
+    Set<Statement> entries = HashSetFactory.make();
+    ArrayList<Statement> worklist = new ArrayList<>();
+    reach(criterion, outer, worklist);
+    while (!worklist.isEmpty()) {
+      MonitorUtil.throwExceptionIfCanceled(monitor);
+      Statement n = worklist.remove(worklist.size() - 1);
+      if (supergraph.isCall(n)) {
+        processCall(n, outer, entries, worklist);
+      } else if (!supergraph.isExit(n)) {
+        for (Statement m : Iterator2Iterable.make(supergraph.getSuccNodes(n))) {
+          if (reaches(functions.getNormalFlowFunction(n, m))) {
+            reach(m, outer, worklist);
+          }
+        }
+      }
+    }
+
+    Collection<Statement> result = HashSetFactory.make(outer);
+    Set<Statement> visited = HashSetFactory.make(entries);
+    ArrayList<Statement> pending = new ArrayList<>(entries);
+    while (!pending.isEmpty()) {
+      Statement entry = pending.remove(pending.size() - 1);
+      result.addAll(getReached(entry));
+      for (Statement callee : entered.get(entry)) {
+        if (visited.add(callee)) {
+          pending.add(callee);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Add n to the statements reached by the slice. Since the slice started in the procedure of its
+   * criterion, each exit it reaches returns to any caller.
+   */
+  private void reach(Statement n, Set<Statement> outer, Collection<Statement> worklist) {
+    if (outer.add(n)) {
+      worklist.add(n);
+      if (supergraph.isExit(n)) {
+        for (Statement ret : Iterator2Iterable.make(supergraph.getSuccNodes(n))) {
+          if (reaches(functions.getUnbalancedReturnFlowFunction(n, ret))) {
+            reach(ret, outer, worklist);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Reach the return sites of call n. Each return site is reached through the summary edges of the
+   * callees, by the normal successors of n, or around n if it has no callees.
+   */
+  private void processCall(
+      Statement n, Set<Statement> outer, Set<Statement> entries, Collection<Statement> worklist)
+      throws CancelException {
+    Collection<Statement> returnSites =
+        Iterator2Collection.toSet(supergraph.getReturnSites(n, null));
+    boolean hasCallee = false;
+    for (Statement callee : Iterator2Iterable.make(supergraph.getCalledNodes(n))) {
+      hasCallee = true;
+      PDG<?> proc = supergraph.getProcOf(callee);
+      Collection<Statement> calleeReturnSites =
+          Iterator2Collection.toSet(supergraph.getReturnSites(n, proc));
+      returnSites.addAll(calleeReturnSites);
+      if (enters(n, callee, calleeReturnSites)) {
+        entries.add(callee);
+        tabulate(callee);
+        for (Statement exit : supergraph.getExitsForProcedure(proc)) {
+          IntSet summary = tabulation.getSummaryTargets(callee, 0, exit);
+          if (summary != null && summary.contains(0)) {
+            for (Statement ret : calleeReturnSites) {
+              if (supergraph.hasEdge(exit, ret)
+                  && reaches(functions.getReturnFlowFunction(n, exit, ret))) {
+                reach(ret, outer, worklist);
+              }
+            }
+          }
+        }
+      }
+    }
+    for (Statement m : Iterator2Iterable.make(supergraph.getNormalSuccessors(n))) {
+      if (reaches(functions.getNormalFlowFunction(n, m))) {
+        reach(m, outer, worklist);
+      }
+    }
+    for (Statement ret : returnSites) {
+      IUnaryFlowFunction f =
+          hasCallee
+              ? functions.getCallToReturnFlowFunction(n, ret)
+              : functions.getCallNoneToReturnFlowFunction(n, ret);
+      if (reaches(f)) {
+        reach(ret, outer, worklist);
+      }
+    }
+  }
+
+  /** Does the slice enter callee from call? */
+  private boolean enters(Statement call, Statement callee, Collection<Statement> returnSites) {
+    if (reaches(functions.getCallFlowFunction(call, callee, null))) {
+      return true;
+    }
+    for (Statement ret : returnSites) {
+      if (reaches(functions.getCallFlowFunction(call, callee, ret))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Tabulate the statements reached from callee entry, unless this was done before. */
+  private void tabulate(Statement entry) throws CancelException {
+    if (seeded.add(entry)) {
+      solver.addSeed(PathEdge.createPathEdge(entry, 0, entry, 0));
+      tabulation = solver.solve();
+    }
+  }
+
+  /**
+   * @return the statements reached from callee entry, which must have been tabulated, and record
+   *     the callee entries entered from them
+   */
+  private Collection<Statement> getReached(Statement entry) {
+    Collection<Statement> result = reached.get(entry);
+    if (result == null) {
+      result = HashSetFactory.make();
+      Collection<Statement> callees = HashSetFactory.make();
+      LocalPathEdges paths = solver.getLocalPathEdges(entry);
+      PDG<?> proc = supergraph.getProcOf(entry);
+      for (IntIterator it = paths.getReachedNodeNumbers().intIterator(); it.hasNext(); ) {
+        Statement n = supergraph.getLocalBlock(proc, it.next());
+        result.add(n);
+        if (supergraph.isCall(n)) {
+          for (Statement callee : Iterator2Iterable.make(supergraph.getCalledNodes(n))) {
+            Collection<Statement> returnSites =
+                Iterator2Collection.toSet(
+                    supergraph.getReturnSites(n, supergraph.getProcOf(callee)));
+            if (enters(n, callee, returnSites)) {
+              callees.add(callee);
+            }
+          }
+        }
+      }
+      reached.put(entry, Collections.unmodifiableCollection(result));
+      entered.put(entry, callees);
+    }
+    return result;
+  }
+
+  /** @return true iff f maps the reachability fact 0 to itself */
+  private static boolean reaches(IFlowFunction f) {
+    if (f instanceof IUnaryFlowFunction) {
+      IntSet targets = ((IUnaryFlowFunction) f).getTargets(0);
+      return targets != null && targets.contains(0);
+    } else {
+      Assertions.UNREACHABLE("Batch slicing not supported for binary return flow functions");
+      return false;
+    }
+  }
+}
@@ -26,9 +26,11 @@ import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
 import com.ibm.wala.ipa.modref.ModRef;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 
 /**
  * A demand-driven context-sensitive slicer.
@@ -217,6 +219,19 @@ public class Slicer {
     return computeSlice(sdg, ss, true);
   }
 
+  /**
+   * Use the passed-in SDG to compute the backward slice of each of many statements. This is
+   * cheaper than slicing from each statement in turn, since what is reached through a call is
+   * tabulated only once for all of them.
+   *
+   * @param criteria statements of interest, each sliced from on its own
+   * @return a map from each of the criteria to its backward slice
+   */
+  public static Map<Statement, Collection<Statement>> computeBackwardSlices(
+      SDG<?> sdg, Collection<Statement> criteria) throws IllegalArgumentException, CancelException {
+    return new Slicer().backwardSlices(sdg, criteria, null);
+  }
+
   /** @param ss a collection of statements of interest */
   protected static Collection<Statement> computeSlice(
       SDG<?> sdg, Collection<Statement> ss, boolean backward) throws CancelException {
@@ -270,6 +285,33 @@ public class Slicer {
     return slice;
   }
 
+  /**
+   * Compute the backward slice of each of many roots, sharing one tabulation between them.
+   *
+   * @param sdg governing system dependence graph
+   * @param roots statements to slice from, each on its own
+   * @param monitor to cancel analysis if needed
+   * @return a map from each of the roots to the {@link Statement}s found by the slicer for it
+   */
+  public Map<Statement, Collection<Statement>> backwardSlices(
+      SDG<?> sdg, Collection<Statement> roots, IProgressMonitor monitor) throws CancelException {
+    if (sdg == null) {
+      throw new IllegalArgumentException("sdg cannot be null");
+    }
+    if (roots == null) {
+      throw new IllegalArgumentException("roots cannot be null");
+    }
+    SliceBatch batch =
+        new SliceBatch(makeSliceProblem(Collections.emptySet(), sdg, true), monitor);
+    Map<Statement, Collection<Statement>> result = HashMapFactory.make();
+    for (Statement root : roots) {
+      if (!result.containsKey(root)) {
+        result.put(root, batch.slice(root));
+      }
+    }
+    return result;
+  }
+
   /**
    * Return an object which encapsulates the tabulation logic for the slice problem. Subclasses can
    * override this method to implement special semantics.
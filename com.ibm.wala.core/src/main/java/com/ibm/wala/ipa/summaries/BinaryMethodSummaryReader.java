@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ipa.summaries;
+
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.TypeName;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.debug.Assertions;
+import com.ibm.wala.util.io.FileUtil;
+import com.ibm.wala.util.strings.Atom;
+import com.ibm.wala.util.warnings.Warning;
+import com.ibm.wala.util.warnings.Warnings;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads method summaries from a compiled form of an XML summary file, as written by {@link
+ * #compile(InputStream, OutputStream)}.
+ *
+ * <p>The compiled file holds the elements of each summarized class as a separate block. Ignored
+ * packages and allocatable classes are read up front, but the summaries of a class are only built
+ * when one of its methods is first looked up in {@link #getSummaries()}, so an analysis pays for
+ * the part of the modeled library it touches. Iterating over the summaries builds them all.
+ *
+ * <p>The compiled file records a digest of the XML file it was compiled from. {@link
+ * #read(String, InputStream, InputStream, AnalysisScope)} only uses it while the XML file is
+ * unchanged, and otherwise parses the XML file and warns that {@link #main(String[])} should be run
+ * again.
+ */
+public class BinaryMethodSummaryReader extends XMLMethodSummaryReader {
+
+  /** Suffix appended to the name of an XML summary file to name its compiled form */
+  public static final String SUFFIX = ".bin";
+
+  private static final int MAGIC = 0x57534d53;
+
+  private static final int VERSION = 2;
+
+  /** algorithm of the digest of the XML file that a compiled file records */
+  private static final String DIGEST = "SHA-256";
+
+  private static final byte START = 1;
+
+  private static final byte END = 2;
+
+  private static final String E_CLASSLOADER = "classloader";
+
+  private static final String E_PACKAGE = "package";
+
+  private static final String E_CLASS = "class";
+
+  private static final String A_NAME = "name";
+
+  private static final String A_IGNORE = "ignore";
+
+  private static final String A_ALLOCATABLE = "allocatable";
+
+  /** the strings the events refer to by index */
+  private final String[] strings;
+
+  /** the recorded elements of all classes */
+  private final byte[] events;
+
+  /**
+   * start offset and length in {@link #events} of each block of elements not yet replayed, indexed
+   * by loader name and class name
+   */
+  private final Map<String, List<int[]>> blocks = HashMapFactory.make();
+
+  /** receives the elements of the blocks being replayed */
+  private final DefaultHandler handler = newHandler();
+
+  private final Map<MethodReference, MethodSummary> summaries =
+      new LazySummaries(super.getSummaries());
+
+  public BinaryMethodSummaryReader(InputStream in, AnalysisScope scope) {
+    super(scope);
+    if (in == null) {
+      throw new IllegalArgumentException("null in");
+    }
+    try {
+      DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+      readHeader(data);
+      strings = new String[data.readInt()];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = data.readUTF();
+      }
+      for (int i = data.readInt(); i > 0; i--) {
+        getIgnoredPackages().add(Atom.findOrCreateUnicodeAtom(strings[data.readInt()]));
+      }
+      for (int i = data.readInt(); i > 0; i--) {
+        ClassLoaderReference loader =
+            scope.getLoader(Atom.findOrCreateUnicodeAtom(strings[data.readInt()]));
+        TypeName type = TypeName.string2TypeName(strings[data.readInt()]);
+        getAllocatableClasses().add(TypeReference.findOrCreate(loader, type));
+      }
+      for (int i = data.readInt(); i > 0; i--) {
+        String key = key(strings[data.readInt()], strings[data.readInt()]);
+        int[] block = new int[] {data.readInt(), data.readInt()};
+        blocks.computeIfAbsent(key, k -> new ArrayList<>(1)).add(block);
+      }
+      events = new byte[data.readInt()];
+      data.readFully(events);
+    } catch (IOException e) {
+      throw new Error("bad compiled summary file", e);
+    }
+  }
+
+  /**
+   * Read the summaries of an XML summary file, from its compiled form if that was compiled from the
+   * current contents of the XML file. Otherwise a {@link StaleCompiledSummaryWarning} is added, and
+   * the XML file is parsed.
+   *
+   * @param name name of the XML file
+   * @param xml contents of the XML file, or null if only its compiled form is available
+   * @param compiled contents of the compiled form, or null if there is none
+   */
+  public static XMLMethodSummaryReader read(
+      String name, InputStream xml, InputStream compiled, AnalysisScope scope) throws IOException {
+    if (compiled == null) {
+      return new XMLMethodSummaryReader(xml, scope);
+    } else if (xml == null) {
+      return new BinaryMethodSummaryReader(compiled, scope);
+    }
+    byte[] source = FileUtil.readBytes(xml);
+    byte[] data = FileUtil.readBytes(compiled);
+    if (isCompiledFrom(data, source)) {
+      return new BinaryMethodSummaryReader(new ByteArrayInputStream(data), scope);
+    } else {
+      Warnings.add(StaleCompiledSummaryWarning.create(name));
+      return new XMLMethodSummaryReader(new ByteArrayInputStream(source), scope);
+    }
+  }
+
+  /**
+   * @return true iff compiled is a compiled summary file of the current version, compiled from xml
+   */
+  public static boolean isCompiledFrom(byte[] compiled, byte[] xml) {
+    try {
+      byte[] recorded = readHeader(new DataInputStream(new ByteArrayInputStream(compiled)));
+      return MessageDigest.isEqual(recorded, digest(xml));
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Read the header of a compiled summary file.
+   *
+   * @return the digest of the XML file it was compiled from
+   * @throws IOException if data is not a compiled summary file of the current version
+   */
+  private static byte[] readHeader(DataInputStream data) throws IOException {
+    if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+      throw new IOException("not a compiled method summary file");
+    }
+    byte[] digest = new byte[data.readInt()];
+    data.readFully(digest);
+    return digest;
+  }
+
+  private static byte[] digest(byte[] xml) {
+    try {
+      return MessageDigest.getInstance(DIGEST).digest(xml);
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform implements SHA-256
+      Assertions.UNREACHABLE(e);
+      return null;
+    }
+  }
+
+  /** A compiled summary file that was not compiled from the current version of its XML file. */
+  public static class StaleCompiledSummaryWarning extends Warning {
+
+    final String name;
+
+    StaleCompiledSummaryWarning(String name) {
+      super(Warning.MODERATE);
+      this.name = name;
+    }
+
+    @Override
+    public String getMsg() {
+      return getClass().toString() + " : " + name + SUFFIX + " is out of date, using " + name;
+    }
+
+    public static StaleCompiledSummaryWarning create(String name) {
+      return new StaleCompiledSummaryWarning(name);
+    }
+  }
+
+  private static String key(String loader, String type) {
+    return loader + ' ' + type;
+  }
+
+  /**
+   * @return Method summaries collected for methods. Summaries of a class are built the first time
+   *     any of its methods is looked up.
+   */
+  @Override
+  public Map<MethodReference, MethodSummary> getSummaries() {
+    return summaries;
+  }
+
+  /** Build the summaries of the class declaring m, if that has not happened yet. */
+  private void load(MethodReference m) {
+    TypeReference klass = m.getDeclaringClass();
+    List<int[]> classBlocks =
+        blocks.remove(key(klass.getClassLoader().getName().toString(), klass.getName().toString()));
+    if (classBlocks != null) {
+      for (int[] block : classBlocks) {
+        replay(block[0], block[1]);
+      }
+    }
+  }
+
+  private void loadAll() {
+    for (List<int[]> classBlocks : blocks.values()) {
+      for (int[] block : classBlocks) {
+        replay(block[0], block[1]);
+      }
+    }
+    blocks.clear();
+  }
+
+  /** Feed the recorded elements in events[offset, offset + length) to the handler. */
+  private void replay(int offset, int length) {
+    try {
+      DataInputStream data = new DataInputStream(new ByteArrayInputStream(events, offset, length));
+      while (data.available() > 0) {
+        byte kind = data.readByte();
+        String element = strings[data.readInt()];
+        if (kind == START) {
+          AttributesImpl atts = new AttributesImpl();
+          for (int i = data.readInt(); i > 0; i--) {
+            String name = strings[data.readInt()];
+            atts.addAttribute("", name, name, "CDATA", strings[data.readInt()]);
+          }
+          handler.startElement("", element, element, atts);
+        } else {
+          handler.endElement("", element, element);
+        }
+      }
+    } catch (IOException | SAXException e) {
+      throw new Error("bad compiled summary file", e);
+    }
+  }
+
+  /** A summary map that builds the summaries of a class on first lookup. */
+  private final class LazySummaries extends AbstractMap<MethodReference, MethodSummary> {
+
+    /** the summaries built so far */
+    private final Map<MethodReference, MethodSummary> built;
+
+    LazySummaries(Map<MethodReference, MethodSummary> built) {
+      this.built = built;
+    }
+
+    @Override
+    public synchronized MethodSummary get(Object key) {
+      if (key instanceof MethodReference) {
+        load((MethodReference) key);
+      }
+      return built.get(key);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+      if (key instanceof MethodReference) {
+        load((MethodReference) key);
+      }
+      return built.containsKey(key);
+    }
+
+    @Override
+    public synchronized MethodSummary put(MethodReference key, MethodSummary value) {
+      load(key);
+      return built.put(key, value);
+    }
+
+    @Override
+    public synchronized Set<Entry<MethodReference, MethodSummary>> entrySet() {
+      loadAll();
+      return built.entrySet();
+    }
+  }
+
+  /**
+   * Compile an XML summary file.
+   *
+   * @param xml the XML summary file
+   * @param out receives the compiled form
+   */
+  public static void compile(InputStream xml, OutputStream out)
+      throws IOException, SAXException, ParserConfigurationException {
+    if (xml == null) {
+      throw new IllegalArgumentException("null xml");
+    }
+    if (out == null) {
+      throw new IllegalArgumentException("null out");
+    }
+    byte[] source = FileUtil.readBytes(xml);
+    Recorder recorder = new Recorder();
+    SAXParserFactory.newInstance()
+        .newSAXParser()
+        .parse(new InputSource(new ByteArrayInputStream(source)), recorder);
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    byte[] digest = digest(source);
+    data.writeInt(digest.length);
+    data.write(digest);
+    data.writeInt(recorder.strings.size());
+    for (String s : recorder.strings) {
+      data.writeUTF(s);
+    }
+    writeInts(data, recorder.ignoredPackages, 1);
+    writeInts(data, recorder.allocatable, 2);
+    writeInts(data, recorder.classes, 4);
+    data.writeInt(recorder.events.size());
+    recorder.events.writeTo(data);
+    data.flush();
+  }
+
+  private static void writeInts(DataOutputStream data, List<Integer> ints, int tupleSize)
+      throws IOException {
+    data.writeInt(ints.size() / tupleSize);
+    for (int i : ints) {
+      data.writeInt(i);
+    }
+  }
+
+  /** Records the SAX events of an XML summary file, one block per class element. */
+  private static final class Recorder extends DefaultHandler {
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final Map<String, Integer> stringIndex = HashMapFactory.make();
+
+    /** indices of ignored package names */
+    private final List<Integer> ignoredPackages = new ArrayList<>();
+
+    /** pairs of indices of loader name and class name */
+    private final List<Integer> allocatable = new ArrayList<>();
+
+    /** for each class block, indices of loader name and class name, then its offset and length */
+    private final List<Integer> classes = new ArrayList<>();
+
+    private final ByteArrayOutputStream events = new ByteArrayOutputStream();
+
+    private final DataOutputStream out = new DataOutputStream(events);
+
+    /** the enclosing classloader and package elements, replayed around each class */
+    private final List<String[]> context = new ArrayList<>();
+
+    private String loaderName;
+
+    private String packageName;
+
+    /** offset of the class block being recorded, or -1 if not inside a class element */
+    private int classStart = -1;
+
+    private int index(String s) {
+      return stringIndex.computeIfAbsent(
+          s,
+          k -> {
+            strings.add(k);
+            return strings.size() - 1;
+          });
+    }
+
+    private static String[] element(String qName, Attributes atts) {
+      String[] result = new String[1 + 2 * atts.getLength()];
+      result[0] = qName;
+      for (int i = 0; i < atts.getLength(); i++) {
+        result[1 + 2 * i] = atts.getQName(i);
+        result[2 + 2 * i] = atts.getValue(i);
+      }
+      return result;
+    }
+
+    private void writeStart(String[] element) {
+      try {
+        out.writeByte(START);
+        out.writeInt(index(element[0]));
+        out.writeInt(element.length / 2);
+        for (int i = 1; i < element.length; i++) {
+          out.writeInt(index(element[i]));
+        }
+      } catch (IOException e) {
+        Assertions.UNREACHABLE(e);
+      }
+    }
+
+    private void writeEnd(String qName) {
+      try {
+        out.writeByte(END);
+        out.writeInt(index(qName));
+      } catch (IOException e) {
+        Assertions.UNREACHABLE(e);
+      }
+    }
+
+    @Override
+    public void startElement(String uri, String name, String qName, Attributes atts) {
+      if (classStart >= 0) {
+        writeStart(element(qName, atts));
+        return;
+      }
+      switch (qName) {
+        case E_CLASSLOADER:
+          loaderName = atts.getValue(A_NAME);
+          context.add(element(qName, atts));
+          break;
+        case E_PACKAGE:
+          packageName = atts.getValue(A_NAME);
+          if ("true".equals(atts.getValue(A_IGNORE))) {
+            ignoredPackages.add(index(packageName));
+          }
+          context.add(element(qName, atts));
+          break;
+        case E_CLASS:
+          {
+            String cname = atts.getValue(A_NAME);
+            String className =
+                packageName == null ? 'L' + cname : "L" + packageName + '/' + cname;
+            String allocString = atts.getValue(A_ALLOCATABLE);
+            if (allocString != null) {
+              Assertions.productionAssertion(allocString.equals("true"));
+              allocatable.add(index(loaderName));
+              allocatable.add(index(className));
+            }
+            classes.add(index(loaderName));
+            classes.add(index(className));
+            classStart = events.size();
+            for (String[] e : context) {
+              writeStart(e);
+            }
+            writeStart(element(qName, atts));
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String name, String qName) {
+      if (classStart >= 0) {
+        writeEnd(qName);
+        if (qName.equals(E_CLASS)) {
+          for (int i = context.size() - 1; i >= 0; i--) {
+            writeEnd(context.get(i)[0]);
+          }
+          classes.add(classStart);
+          classes.add(events.size() - classStart);
+          classStart = -1;
+        }
+        return;
+      }
+      switch (qName) {
+        case E_CLASSLOADER:
+          loaderName = null;
+          context.remove(context.size() - 1);
+          break;
+        case E_PACKAGE:
+          packageName = null;
+          context.remove(context.size() - 1);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /**
+   * Compile an XML summary file.
+   *
+   * <p>Usage: BinaryMethodSummaryReader &lt;xml file&gt; [&lt;output file&gt;]. The output file
+   * defaults to the name of the XML file followed by {@link #SUFFIX}.
+   */
+  public static void main(String[] args)
+      throws IOException, SAXException, ParserConfigurationException {
+    if (args.length < 1 || args.length > 2) {
+      System.err.println("Usage: BinaryMethodSummaryReader <xml file> [<output file>]");
+      System.exit(1);
+    }
+    String output = args.length == 2 ? args[1] : args[0] + SUFFIX;
+    try (InputStream xml = new BufferedInputStream(new FileInputStream(args[0]));
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+      compile(xml, out);
+    }
+  }
+}
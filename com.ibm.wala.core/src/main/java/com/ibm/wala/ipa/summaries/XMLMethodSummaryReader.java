@@ -194,6 +194,22 @@ public class XMLMethodSummaryReader implements BytecodeConstants {
     }
   }
 
+  /** For subclasses that read summaries in another format, and feed them to {@link #newHandler()}. */
+  protected XMLMethodSummaryReader(AnalysisScope scope) {
+    if (scope == null) {
+      throw new IllegalArgumentException("null scope");
+    }
+    this.scope = scope;
+  }
+
+  /**
+   * @return a handler that adds the summaries described by the SAX events it receives to this
+   *     reader
+   */
+  DefaultHandler newHandler() {
+    return new SAXHandler();
+  }
+
   private void readXML(InputStream xml)
       throws SAXException, IOException, ParserConfigurationException {
     SAXHandler handler = new SAXHandler();
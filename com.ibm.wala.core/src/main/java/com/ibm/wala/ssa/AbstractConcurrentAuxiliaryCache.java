@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.util.collections.Pair;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shared logic for auxiliary caches that may be used by several threads at once. Subclasses decide
+ * how entries are stored and when they are dropped; this class makes sure {@link #findOrCreate}
+ * computes each entry at most once at a time: a thread that asks for an entry that another thread
+ * is building waits for that result instead of building it again, while entries for different keys
+ * are built in parallel.
+ *
+ * <p>{@link #find} and {@link #cache} must be safe to call from several threads.
+ */
+public abstract class AbstractConcurrentAuxiliaryCache implements IAuxiliaryCache {
+
+  /** stands in for null options, which {@link ConcurrentHashMap} cannot hold */
+  private static final Object NO_OPTIONS = new Object();
+
+  /** computations in progress, keyed by ((IMethod,Context),SSAOptions) */
+  private final ConcurrentHashMap<Pair<Pair<IMethod, Context>, Object>, CompletableFuture<Object>>
+      pending = new ConcurrentHashMap<>();
+
+  /** @return a non-null key standing for options */
+  protected static Object key(SSAOptions options) {
+    return options == null ? NO_OPTIONS : options;
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#findOrCreate(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions, java.util.function.Supplier)
+   */
+  @Override
+  public Object findOrCreate(IMethod m, Context c, SSAOptions options, Supplier<?> creator) {
+    Object result = find(m, c, options);
+    if (result != null) {
+      return result;
+    }
+
+    Pair<Pair<IMethod, Context>, Object> k = Pair.make(Pair.make(m, c), key(options));
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> prior = pending.putIfAbsent(k, future);
+    if (prior != null) {
+      try {
+        return prior.join();
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw (RuntimeException) cause;
+      }
+    }
+
+    try {
+      // another thread may have finished between our lookup and our claim
+      result = find(m, c, options);
+      if (result == null) {
+        result = creator.get();
+        cache(m, c, options, result);
+      }
+      future.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      pending.remove(k, future);
+    }
+  }
+}
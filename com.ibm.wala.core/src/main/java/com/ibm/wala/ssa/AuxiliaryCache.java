@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 
 /**
  * A cache for auxiliary information based on an SSA representation
@@ -112,6 +113,20 @@ public class AuxiliaryCache implements IAuxiliaryCache {
     methodMap.put(options, ref);
   }
 
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#findOrCreate(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions, java.util.function.Supplier)
+   */
+  @Override
+  public synchronized Object findOrCreate(
+      IMethod m, Context c, SSAOptions options, Supplier<?> creator) {
+    Object result = find(m, c, options);
+    if (result == null) {
+      result = creator.get();
+      cache(m, c, options, result);
+    }
+    return result;
+  }
+
   /*
    * @see com.ibm.wala.ssa.IAuxiliaryCache#invalidate(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context)
    */
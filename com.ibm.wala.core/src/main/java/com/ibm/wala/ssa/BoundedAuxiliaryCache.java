@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.util.collections.Pair;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache for auxiliary information based on an SSA representation, holding its entries strongly
+ * and evicting the least recently used ones once their total weight exceeds a fixed bound.
+ *
+ * <p>The weight of an entry is given by a weigher; {@link #withMaxEntries(long)} counts every entry
+ * as 1, while {@link #withMaxBytes(long)} uses the rough footprint computed by {@link
+ * #estimateBytes(Object)}. Unlike the soft caches, this cache ignores {@link #onMemoryPressure()},
+ * so its memory use and the number of entries rebuilt depend only on the bound and the access
+ * pattern.
+ *
+ * <p>The hit, miss and eviction counts are meant to help choose a bound for a given heap.
+ */
+public class BoundedAuxiliaryCache extends AbstractConcurrentAuxiliaryCache {
+
+  /** rough per-object costs used by {@link #estimateBytes(Object)} */
+  private static final int BYTES_PER_INSTRUCTION = 64;
+
+  private static final int BYTES_PER_VALUE = 32;
+
+  private static final int BYTES_PER_BLOCK = 128;
+
+  private static final int BYTES_PER_USE = 24;
+
+  private static final int BYTES_PER_ENTRY = 64;
+
+  private static final class Entry {
+    final Object value;
+
+    final long weight;
+
+    Entry(Object value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /** the most that {@link #weight} may reach */
+  private final long maxWeight;
+
+  private final ToLongFunction<Object> weigher;
+
+  /** ((IMethod,Context),SSAOptions) -&gt; Entry, in access order; guarded by this */
+  private final LinkedHashMap<Pair<Pair<IMethod, Context>, Object>, Entry> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /** sum of the weights of all entries; guarded by this */
+  private long weight = 0;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * @param maxWeight the largest total weight of entries kept at once
+   * @param weigher computes the (non-negative) weight of an entry
+   * @throws IllegalArgumentException if maxWeight is negative or weigher is null
+   */
+  public BoundedAuxiliaryCache(long maxWeight, ToLongFunction<Object> weigher) {
+    if (maxWeight < 0) {
+      throw new IllegalArgumentException("illegal maxWeight: " + maxWeight);
+    }
+    if (weigher == null) {
+      throw new IllegalArgumentException("null weigher");
+    }
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /** @return a cache holding at most maxEntries entries */
+  public static BoundedAuxiliaryCache withMaxEntries(long maxEntries) {
+    return new BoundedAuxiliaryCache(maxEntries, aux -> 1);
+  }
+
+  /** @return a cache whose entries are estimated to occupy at most maxBytes bytes */
+  public static BoundedAuxiliaryCache withMaxBytes(long maxBytes) {
+    return new BoundedAuxiliaryCache(maxBytes, BoundedAuxiliaryCache::estimateBytes);
+  }
+
+  /**
+   * A rough estimate of the memory held by an {@link IR} or a {@link DefUse}, counting its
+   * instructions, values and basic blocks. Other objects are counted as a single small entry.
+   */
+  public static long estimateBytes(Object aux) {
+    if (aux instanceof IR) {
+      IR ir = (IR) aux;
+      return BYTES_PER_ENTRY
+          + (long) BYTES_PER_INSTRUCTION * ir.getInstructions().length
+          + (long) BYTES_PER_VALUE * ir.getSymbolTable().getMaxValueNumber()
+          + (long) BYTES_PER_BLOCK * ir.getControlFlowGraph().getNumberOfNodes();
+    } else if (aux instanceof DefUse) {
+      DefUse du = (DefUse) aux;
+      return BYTES_PER_ENTRY + (long) BYTES_PER_USE * du.allInstructions.size();
+    } else {
+      return BYTES_PER_ENTRY;
+    }
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#wipe()
+   */
+  @Override
+  public synchronized void wipe() {
+    entries.clear();
+    weight = 0;
+  }
+
+  /** The bound already governs how much is held, so there is nothing to do. */
+  @Override
+  public void onMemoryPressure() {}
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#find(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions)
+   */
+  @Override
+  public Object find(IMethod m, Context c, SSAOptions options) {
+    Entry e;
+    synchronized (this) {
+      e = entries.get(Pair.make(Pair.make(m, c), key(options)));
+    }
+    if (e == null) {
+      return null;
+    }
+    hits.incrementAndGet();
+    return e.value;
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#cache(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions, java.lang.Object)
+   */
+  @Override
+  public void cache(IMethod m, Context c, SSAOptions options, Object aux) {
+    Entry e = new Entry(aux, weigher.applyAsLong(aux));
+    synchronized (this) {
+      Entry old = entries.put(Pair.make(Pair.make(m, c), key(options)), e);
+      if (old != null) {
+        weight -= old.weight;
+      }
+      weight += e.weight;
+      for (Iterator<Entry> it = entries.values().iterator(); weight > maxWeight && it.hasNext(); ) {
+        Entry eldest = it.next();
+        it.remove();
+        weight -= eldest.weight;
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#findOrCreate(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions, java.util.function.Supplier)
+   */
+  @Override
+  public Object findOrCreate(IMethod m, Context c, SSAOptions options, Supplier<?> creator) {
+    return super.findOrCreate(
+        m,
+        c,
+        options,
+        () -> {
+          misses.incrementAndGet();
+          return creator.get();
+        });
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#invalidate(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context)
+   */
+  @Override
+  public synchronized void invalidate(IMethod method, Context c) {
+    Pair<IMethod, Context> mc = Pair.make(method, c);
+    for (Iterator<Map.Entry<Pair<Pair<IMethod, Context>, Object>, Entry>> it =
+            entries.entrySet().iterator();
+        it.hasNext(); ) {
+      Map.Entry<Pair<Pair<IMethod, Context>, Object>, Entry> e = it.next();
+      if (e.getKey().fst.equals(mc)) {
+        it.remove();
+        weight -= e.getValue().weight;
+      }
+    }
+  }
+
+  /** @return the number of lookups answered from this cache */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /** @return the number of entries that {@link #findOrCreate} had to compute */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** @return the number of entries dropped to stay within the bound */
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  /** @return the number of entries currently held */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** @return the total weight of the entries currently held */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  /** @return the largest total weight this cache will hold */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  @Override
+  public String toString() {
+    return "BoundedAuxiliaryCache: "
+        + size()
+        + " entries, weight "
+        + getWeight()
+        + "/"
+        + maxWeight
+        + ", "
+        + getHitCount()
+        + " hits, "
+        + getMissCount()
+        + " misses, "
+        + getEvictionCount()
+        + " evictions";
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.util.collections.Pair;
+import com.ibm.wala.util.ref.CacheReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache for auxiliary information based on an SSA representation, which may be used by several
+ * threads at once.
+ *
+ * <p>A mapping from (IMethod,Context) -&gt; SSAOptions -&gt; SoftReference -&gt; something
+ *
+ * <p>Lookups do not lock, and entries are dropped only when the garbage collector clears them. See
+ * {@link BoundedAuxiliaryCache} for a cache with an explicit bound.
+ */
+public class ConcurrentAuxiliaryCache extends AbstractConcurrentAuxiliaryCache {
+
+  /**
+   * Help out the garbage collector: purge collected entries when the number of items is &gt;
+   * RESET_THRESHOLD
+   */
+  private static final int RESET_THRESHOLD = 2000;
+
+  /** A mapping from IMethod -&gt; SSAOptions -&gt; SoftReference -&gt; IR */
+  private final ConcurrentHashMap<Pair<IMethod, Context>, Map<Object, Object>> dictionary =
+      new ConcurrentHashMap<>();
+
+  /** number of items cached here since the last purge. */
+  private final AtomicInteger nItems = new AtomicInteger();
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#wipe()
+   */
+  @Override
+  public void wipe() {
+    dictionary.clear();
+    nItems.set(0);
+  }
+
+  /** clear out entries whose referents have been collected */
+  private void purge() {
+    nItems.set(0);
+    for (Map<Object, Object> m : dictionary.values()) {
+      m.values().removeIf(ref -> CacheReference.get(ref) == null);
+    }
+    dictionary.values().removeIf(Map::isEmpty);
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#find(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions)
+   */
+  @Override
+  public Object find(IMethod m, Context c, SSAOptions options) {
+    Map<Object, Object> methodMap = dictionary.get(Pair.make(m, c));
+    if (methodMap == null) {
+      return null;
+    }
+    return CacheReference.get(methodMap.get(key(options)));
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#cache(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context, com.ibm.wala.ssa.SSAOptions, java.lang.Object)
+   */
+  @Override
+  public void cache(IMethod m, Context c, SSAOptions options, Object aux) {
+    if (nItems.incrementAndGet() > RESET_THRESHOLD) {
+      purge();
+    }
+    Map<Object, Object> methodMap =
+        dictionary.computeIfAbsent(Pair.make(m, c), k -> new ConcurrentHashMap<>());
+    methodMap.put(key(options), CacheReference.make(aux));
+  }
+
+  /*
+   * @see com.ibm.wala.ssa.IAuxiliaryCache#invalidate(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context)
+   */
+  @Override
+  public void invalidate(IMethod method, Context c) {
+    dictionary.remove(Pair.make(method, c));
+  }
+}
@@ -25,6 +25,7 @@ import com.ibm.wala.util.debug.Assertions;
  * Default implementation of {@link IRFactory}.
  *
  * <p>This creates {@link IR} objects from Shrike methods, and directly from synthetic methods.
+ * Optionally, IRs of Shrike methods are saved to and loaded from a {@link PersistentIRCache}.
  */
 public class DefaultIRFactory implements IRFactory<IMethod> {
 
@@ -32,6 +33,21 @@ public class DefaultIRFactory implements IRFactory<IMethod> {
 
   private final SyntheticIRFactory syntheticFactory = new SyntheticIRFactory();
 
+  /** if non-null, a store of IRs shared between runs */
+  private final PersistentIRCache persistentCache;
+
+  public DefaultIRFactory() {
+    this(null);
+  }
+
+  /**
+   * @param persistentCache if non-null, IRs of bytecode methods are loaded from this cache when
+   *     present, and saved to it when built
+   */
+  public DefaultIRFactory(PersistentIRCache persistentCache) {
+    this.persistentCache = persistentCache;
+  }
+
   /*
    * @see com.ibm.wala.ssa.IRFactory#makeCFG(com.ibm.wala.classLoader.IMethod, com.ibm.wala.ipa.callgraph.Context,
    * com.ibm.wala.ipa.cha.IClassHierarchy, com.ibm.wala.util.warnings.WarningSet)
@@ -67,6 +83,14 @@ public class DefaultIRFactory implements IRFactory<IMethod> {
     } else if (method instanceof IBytecodeMethod) {
       @SuppressWarnings("unchecked")
       final IBytecodeMethod<IInstruction> castMethod = (IBytecodeMethod<IInstruction>) method;
+      if (persistentCache != null && PersistentIRCache.isPersistable(method, options)) {
+        IR ir = persistentCache.find(method, options);
+        if (ir == null) {
+          ir = shrikeFactory.makeIR(castMethod, c, options);
+          persistentCache.store(ir);
+        }
+        return ir;
+      }
       return shrikeFactory.makeIR(castMethod, c, options);
     } else {
       Assertions.UNREACHABLE();
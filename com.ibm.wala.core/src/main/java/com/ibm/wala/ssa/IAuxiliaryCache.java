@@ -12,12 +12,26 @@ package com.ibm.wala.ssa;
 
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.Context;
+import java.util.function.Supplier;
 
-interface IAuxiliaryCache {
+/**
+ * A cache for auxiliary information, such as IRs or {@link DefUse}s, keyed by a method, a context
+ * and the options governing ssa construction. Implementations decide how much is kept; see {@link
+ * ConcurrentAuxiliaryCache} and {@link BoundedAuxiliaryCache}.
+ */
+public interface IAuxiliaryCache {
 
   /** The existence of this is unfortunate. */
   void wipe();
 
+  /**
+   * called when the heap is close to full. By default this wipes the cache; caches that enforce an
+   * explicit bound may choose to keep their contents.
+   */
+  default void onMemoryPressure() {
+    wipe();
+  }
+
   /**
    * @param m a method
    * @param options options governing ssa construction
@@ -33,6 +47,17 @@ interface IAuxiliaryCache {
    */
   void cache(IMethod m, Context c, SSAOptions options, Object aux);
 
+  /**
+   * find the information cached for an &lt;m,options&gt; pair, computing and caching it if none is
+   * found. Implementations must not run creator more than once concurrently for the same key.
+   *
+   * @param m a method
+   * @param options options governing ssa construction
+   * @param creator computes the information when it is not cached
+   * @return the object cached for m
+   */
+  Object findOrCreate(IMethod m, Context c, SSAOptions options, Supplier<?> creator);
+
   /** invalidate all cached information about a method */
   void invalidate(IMethod method, Context c);
 }
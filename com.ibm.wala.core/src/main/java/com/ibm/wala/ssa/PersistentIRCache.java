@@ -0,0 +1,1171 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.cfg.ShrikeCFG;
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IBytecodeMethod;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.JavaLanguage;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.NewSiteReference;
+import com.ibm.wala.classLoader.ShrikeCTMethod;
+import com.ibm.wala.classLoader.ShrikeClass;
+import com.ibm.wala.classLoader.ShrikeIRFactory;
+import com.ibm.wala.shrikeBT.IBinaryOpInstruction;
+import com.ibm.wala.shrikeBT.IComparisonInstruction;
+import com.ibm.wala.shrikeBT.IConditionalBranchInstruction;
+import com.ibm.wala.shrikeBT.IInstruction;
+import com.ibm.wala.shrikeBT.IInvokeInstruction;
+import com.ibm.wala.shrikeBT.IShiftInstruction;
+import com.ibm.wala.shrikeBT.IUnaryOpInstruction;
+import com.ibm.wala.ssa.SSACFG.BasicBlock;
+import com.ibm.wala.ssa.SSACFG.ExceptionHandlerBasicBlock;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.FieldReference;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.Selector;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.intset.IntPair;
+import com.ibm.wala.util.strings.Atom;
+import com.ibm.wala.util.warnings.Warning;
+import com.ibm.wala.util.warnings.Warnings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An on-disk store of IRs for Java bytecode methods, meant to be shared between runs so that the
+ * IRs of unchanged library methods need not be rebuilt by {@link SSABuilder} every time.
+ *
+ * <p>Each IR lives in a file of its own under a cache directory, named by a hash of the declaring
+ * class file's contents, the defining loader and the method's selector; a changed class file thus
+ * simply misses. Files are written to a temporary name and then renamed, so several analyses may
+ * share a directory. Only SSA construction is saved: loading an IR still decodes the method's
+ * bytecode to rebuild the control-flow graph.
+ *
+ * <p>The options an IR was built with are not part of its key, so only IRs built with default
+ * {@link SSAOptions} (no pi nodes, no default values) are stored, and only when every instruction is
+ * one this class knows how to write; {@code invokedynamic} is not supported yet. Anything else is
+ * left to be rebuilt. {@link DefUse} is cheap to derive from an IR and is not stored.
+ *
+ * <p>A file that cannot be read or written is reported as a {@link CacheFailure} warning and
+ * counted by {@link #getFailureCount()}; the IR is then simply built as usual.
+ *
+ * @see DefaultIRFactory#DefaultIRFactory(PersistentIRCache)
+ */
+public class PersistentIRCache {
+
+  /** bump whenever the format below changes */
+  private static final int VERSION = 1;
+
+  private static final int MAGIC = 0x57414c41;
+
+  private static final String SUFFIX = ".ir";
+
+  // instruction tags
+
+  private static final byte NONE = 0;
+
+  private static final byte ARRAY_LENGTH = 1;
+
+  private static final byte ARRAY_LOAD = 2;
+
+  private static final byte ARRAY_STORE = 3;
+
+  private static final byte BINARY_OP = 4;
+
+  private static final byte SHIFT_OP = 5;
+
+  private static final byte UNARY_OP = 6;
+
+  private static final byte CONVERSION = 7;
+
+  private static final byte COMPARISON = 8;
+
+  private static final byte CONDITIONAL_BRANCH = 9;
+
+  private static final byte SWITCH = 10;
+
+  private static final byte RETURN = 11;
+
+  private static final byte GET = 12;
+
+  private static final byte PUT = 13;
+
+  private static final byte INVOKE = 14;
+
+  private static final byte NEW = 15;
+
+  private static final byte THROW = 16;
+
+  private static final byte MONITOR = 17;
+
+  private static final byte CHECK_CAST = 18;
+
+  private static final byte INSTANCEOF = 19;
+
+  private static final byte GOTO = 20;
+
+  private static final byte LOAD_METADATA = 21;
+
+  // value and constant tags
+
+  private static final byte SYMBOL = 0;
+
+  private static final byte CONSTANT = 1;
+
+  private static final byte PHI = 2;
+
+  private static final byte NULL = 0;
+
+  private static final byte INT = 1;
+
+  private static final byte LONG = 2;
+
+  private static final byte FLOAT = 3;
+
+  private static final byte DOUBLE = 4;
+
+  private static final byte STRING = 5;
+
+  private static final byte BOOLEAN = 6;
+
+  private static final byte TYPE = 7;
+
+  private static final byte METHOD = 8;
+
+  /** thrown while writing an IR that this class cannot represent */
+  private static class UnsupportedIRException extends Exception {
+    private static final long serialVersionUID = 5735011370562127460L;
+
+    UnsupportedIRException(String message) {
+      super(message);
+    }
+  }
+
+  private final File directory;
+
+  /**
+   * class -&gt; digest of its class file. Two versions of a class are equal, so each digest remembers
+   * which version it was computed for.
+   */
+  private final Map<IClass, ClassDigest> classDigests =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private static final class ClassDigest {
+    final WeakReference<IClass> klass;
+
+    final byte[] digest;
+
+    ClassDigest(IClass klass, byte[] digest) {
+      this.klass = new WeakReference<>(klass);
+      this.digest = digest;
+    }
+  }
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong stores = new AtomicLong();
+
+  private final AtomicLong failures = new AtomicLong();
+
+  /**
+   * @param directory where IRs are kept; created if it does not exist
+   * @throws IllegalArgumentException if directory is null or cannot be used as a directory
+   */
+  public PersistentIRCache(File directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("null directory");
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException("cannot create directory " + directory);
+    }
+    this.directory = directory;
+  }
+
+  /** @return true if IRs for method built with options may be kept in a persistent cache */
+  public static boolean isPersistable(IMethod method, SSAOptions options) {
+    return method instanceof ShrikeCTMethod
+        && method.getDeclaringClass() instanceof ShrikeClass
+        && method.getDeclaringClass().getClassLoader().getLanguage() == Language.JAVA
+        && options != null
+        && options.getPiNodePolicy() == null
+        && options.getDefaultValues() == null;
+  }
+
+  /**
+   * @return the stored IR for method, or null if none is stored or it cannot be read
+   * @throws IllegalArgumentException if the IR for method may not be persisted
+   */
+  public IR find(IMethod method, SSAOptions options) {
+    if (!isPersistable(method, options)) {
+      throw new IllegalArgumentException("cannot persist IR for " + method);
+    }
+    File file = fileFor(method);
+    if (file.exists()) {
+      try {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        @SuppressWarnings("unchecked")
+        IBytecodeMethod<IInstruction> m = (IBytecodeMethod<IInstruction>) method;
+        IR result = read(m, options, new DataInputStream(new ByteArrayInputStream(bytes)));
+        hits.incrementAndGet();
+        return result;
+      } catch (IOException | RuntimeException e) {
+        // it will be rebuilt and overwritten
+        failed(method, e);
+      }
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Save ir for later runs. IRs this cache cannot represent are ignored; failures to write are
+   * reported as {@link CacheFailure} warnings.
+   */
+  public void store(IR ir) {
+    if (ir == null) {
+      throw new IllegalArgumentException("null ir");
+    }
+    if (!isPersistable(ir.getMethod(), ir.getOptions())) {
+      return;
+    }
+    byte[] bytes;
+    try {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      write(ir, new DataOutputStream(buffer));
+      bytes = buffer.toByteArray();
+    } catch (UnsupportedIRException | IOException e) {
+      return;
+    }
+
+    Path target = fileFor(ir.getMethod()).toPath();
+    Path temp = null;
+    try {
+      Files.createDirectories(target.getParent());
+      temp = Files.createTempFile(target.getParent(), "ir", ".tmp");
+      Files.write(temp, bytes);
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+      stores.incrementAndGet();
+    } catch (IOException e) {
+      failed(ir.getMethod(), e);
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /** @return the number of IRs loaded from disk */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /** @return the number of lookups that found no usable IR */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /** @return the number of IRs written to disk */
+  public long getStoreCount() {
+    return stores.get();
+  }
+
+  /** @return the number of IR files that could not be read or written */
+  public long getFailureCount() {
+    return failures.get();
+  }
+
+  private void failed(IMethod method, Exception e) {
+    failures.incrementAndGet();
+    Warnings.add(CacheFailure.create(method, e));
+  }
+
+  /** A warning for an IR file that could not be read or written */
+  public static class CacheFailure extends Warning {
+
+    final IMethod method;
+
+    final Exception cause;
+
+    CacheFailure(IMethod method, Exception cause) {
+      super(Warning.MILD);
+      this.method = method;
+      this.cause = cause;
+    }
+
+    @Override
+    public String getMsg() {
+      return getClass().toString() + " : " + method.getSignature() + " : " + cause;
+    }
+
+    public static CacheFailure create(IMethod method, Exception cause) {
+      return new CacheFailure(method, cause);
+    }
+  }
+
+  private File fileFor(IMethod method) {
+    MessageDigest digest = sha1();
+    digest.update(classDigest(method.getDeclaringClass()));
+    String loader = method.getDeclaringClass().getClassLoader().getReference().getName().toString();
+    String key = VERSION + ":" + loader + ":" + method.getSelector();
+    String name = toHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+    return new File(new File(directory, name.substring(0, 2)), name.substring(2) + SUFFIX);
+  }
+
+  private byte[] classDigest(IClass klass) {
+    ClassDigest result = classDigests.get(klass);
+    if (result == null || result.klass.get() != klass) {
+      result = new ClassDigest(klass, sha1().digest(((ShrikeClass) klass).getReader().getBytes()));
+      // an equal key is not replaced by put, so drop the entry of an older version first
+      classDigests.remove(klass);
+      classDigests.put(klass, result);
+    }
+    return result.digest;
+  }
+
+  private static MessageDigest sha1() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder result = new StringBuilder(2 * bytes.length);
+    for (byte b : bytes) {
+      result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return result.toString();
+  }
+
+  /*
+   * Format: header, the value table, the normal instructions, then for each basic block its phis,
+   * pis and catch instruction, and finally the local variable map.
+   */
+
+  private static void write(IR ir, DataOutputStream out)
+      throws UnsupportedIRException, IOException {
+    SSAIndirectionData<?> indirections = ir.getIndirectionData();
+    if (indirections != null && !indirections.getNames().isEmpty()) {
+      throw new UnsupportedIRException("indirect local accesses");
+    }
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+
+    SymbolTable symbolTable = ir.getSymbolTable();
+    int nParams = symbolTable.getNumberOfParameters();
+    out.writeInt(nParams);
+    out.writeInt(symbolTable.getMaxValueNumber());
+    for (int vn = nParams + 1; vn <= symbolTable.getMaxValueNumber(); vn++) {
+      Value v = symbolTable.getValue(vn);
+      if (v == null) {
+        out.writeByte(SYMBOL);
+      } else if (v instanceof ConstantValue) {
+        out.writeByte(CONSTANT);
+        writeConstant(((ConstantValue) v).getValue(), out);
+      } else if (v instanceof PhiValue) {
+        out.writeByte(PHI);
+        writeUses(((PhiValue) v).getPhiInstruction(), out);
+      } else {
+        throw new UnsupportedIRException("value " + v);
+      }
+    }
+
+    SSAInstruction[] instructions = ir.getInstructions();
+    out.writeInt(instructions.length);
+    for (SSAInstruction s : instructions) {
+      writeInstruction(s, out);
+    }
+
+    SSACFG cfg = ir.getControlFlowGraph();
+    out.writeInt(cfg.getNumberOfNodes());
+    for (int b = 0; b <= cfg.getMaxNumber(); b++) {
+      BasicBlock bb = cfg.getNode(b);
+      List<SSAPhiInstruction> phis = new ArrayList<>();
+      for (SSAPhiInstruction phi : Iterator2Iterable.make(bb.iteratePhis())) {
+        if (phi != null) {
+          phis.add(phi);
+        }
+      }
+      out.writeInt(phis.size());
+      for (SSAPhiInstruction phi : phis) {
+        if (!(symbolTable.getValue(phi.getDef()) instanceof PhiValue)
+            || symbolTable.getPhiValue(phi.getDef()).getPhiInstruction() != phi) {
+          throw new UnsupportedIRException("phi without a value " + phi);
+        }
+        out.writeInt(phi.getDef());
+      }
+
+      List<SSAPiInstruction> pis = new ArrayList<>();
+      bb.iteratePis().forEachRemaining(pis::add);
+      out.writeInt(pis.size());
+      for (SSAPiInstruction pi : pis) {
+        SSAInstruction cause = pi.getCause();
+        if (cause == null
+            || cause.iIndex() < 0
+            || cause.iIndex() >= instructions.length
+            || instructions[cause.iIndex()] != cause) {
+          throw new UnsupportedIRException("pi with unknown cause " + pi);
+        }
+        out.writeInt(pi.iIndex());
+        out.writeInt(pi.getDef());
+        out.writeInt(pi.getVal());
+        out.writeInt(pi.getPiBlock());
+        out.writeInt(pi.getSuccessor());
+        out.writeInt(cause.iIndex());
+      }
+
+      SSAGetCaughtExceptionInstruction c =
+          bb instanceof ExceptionHandlerBasicBlock
+              ? ((ExceptionHandlerBasicBlock) bb).getCatchInstruction()
+              : null;
+      out.writeBoolean(c != null);
+      if (c != null) {
+        out.writeInt(c.iIndex());
+        out.writeInt(c.getException());
+      }
+    }
+
+    IR.SSA2LocalMap localMap = ir.getLocalMap();
+    if (localMap == null) {
+      out.writeBoolean(false);
+    } else if (localMap instanceof SSABuilder.SSA2LocalMap) {
+      out.writeBoolean(true);
+      SSABuilder.SSA2LocalMap m = (SSABuilder.SSA2LocalMap) localMap;
+      IntPair[] stores = m.getLocalStoreMap();
+      out.writeInt(stores.length);
+      for (IntPair p : stores) {
+        out.writeBoolean(p != null);
+        if (p != null) {
+          out.writeInt(p.getX());
+          out.writeInt(p.getY());
+        }
+      }
+      int[][] states = m.getBlock2LocalState();
+      out.writeInt(states.length);
+      for (int[] state : states) {
+        writeInts(state, out);
+      }
+    } else {
+      throw new UnsupportedIRException("local map " + localMap);
+    }
+  }
+
+  private static void writeInstruction(SSAInstruction s, DataOutputStream out)
+      throws UnsupportedIRException, IOException {
+    if (s == null) {
+      out.writeByte(NONE);
+      return;
+    }
+    if (s instanceof SSAArrayLengthInstruction) {
+      SSAArrayLengthInstruction x = (SSAArrayLengthInstruction) s;
+      out.writeByte(ARRAY_LENGTH);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getArrayRef());
+    } else if (s instanceof SSAArrayLoadInstruction) {
+      SSAArrayLoadInstruction x = (SSAArrayLoadInstruction) s;
+      out.writeByte(ARRAY_LOAD);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getArrayRef());
+      out.writeInt(x.getIndex());
+      writeType(x.getElementType(), out);
+    } else if (s instanceof SSAArrayStoreInstruction) {
+      SSAArrayStoreInstruction x = (SSAArrayStoreInstruction) s;
+      out.writeByte(ARRAY_STORE);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getArrayRef());
+      out.writeInt(x.getIndex());
+      out.writeInt(x.getValue());
+      writeType(x.getElementType(), out);
+    } else if (s instanceof SSABinaryOpInstruction) {
+      SSABinaryOpInstruction x = (SSABinaryOpInstruction) s;
+      IBinaryOpInstruction.IOperator op = x.getOperator();
+      if (op instanceof IBinaryOpInstruction.Operator) {
+        out.writeByte(BINARY_OP);
+        out.writeByte(((IBinaryOpInstruction.Operator) op).ordinal());
+      } else if (op instanceof IShiftInstruction.Operator) {
+        out.writeByte(SHIFT_OP);
+        out.writeByte(((IShiftInstruction.Operator) op).ordinal());
+      } else {
+        throw new UnsupportedIRException("operator " + op);
+      }
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getUse(0));
+      out.writeInt(x.getUse(1));
+      out.writeBoolean(x.mayBeIntegerOp());
+    } else if (s instanceof SSAUnaryOpInstruction) {
+      SSAUnaryOpInstruction x = (SSAUnaryOpInstruction) s;
+      if (!(x.getOpcode() instanceof IUnaryOpInstruction.Operator)) {
+        throw new UnsupportedIRException("operator " + x.getOpcode());
+      }
+      out.writeByte(UNARY_OP);
+      out.writeByte(((IUnaryOpInstruction.Operator) x.getOpcode()).ordinal());
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getUse(0));
+    } else if (s instanceof SSAConversionInstruction) {
+      SSAConversionInstruction x = (SSAConversionInstruction) s;
+      out.writeByte(CONVERSION);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getUse(0));
+      writeType(x.getFromType(), out);
+      writeType(x.getToType(), out);
+    } else if (s instanceof SSAComparisonInstruction) {
+      SSAComparisonInstruction x = (SSAComparisonInstruction) s;
+      out.writeByte(COMPARISON);
+      out.writeByte(x.getOperator().ordinal());
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getUse(0));
+      out.writeInt(x.getUse(1));
+    } else if (s instanceof SSAConditionalBranchInstruction) {
+      SSAConditionalBranchInstruction x = (SSAConditionalBranchInstruction) s;
+      if (!(x.getOperator() instanceof IConditionalBranchInstruction.Operator)) {
+        throw new UnsupportedIRException("operator " + x.getOperator());
+      }
+      out.writeByte(CONDITIONAL_BRANCH);
+      out.writeByte(((IConditionalBranchInstruction.Operator) x.getOperator()).ordinal());
+      out.writeInt(x.iIndex());
+      writeType(x.getType(), out);
+      out.writeInt(x.getUse(0));
+      out.writeInt(x.getUse(1));
+      out.writeInt(x.getTarget());
+    } else if (s instanceof SSASwitchInstruction) {
+      SSASwitchInstruction x = (SSASwitchInstruction) s;
+      out.writeByte(SWITCH);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getUse(0));
+      out.writeInt(x.getDefault());
+      writeInts(x.getCasesAndLabels(), out);
+    } else if (s instanceof SSAReturnInstruction) {
+      SSAReturnInstruction x = (SSAReturnInstruction) s;
+      out.writeByte(RETURN);
+      out.writeInt(x.iIndex());
+      out.writeBoolean(x.returnsVoid());
+      if (!x.returnsVoid()) {
+        out.writeInt(x.getResult());
+        out.writeBoolean(x.returnsPrimitiveType());
+      }
+    } else if (s instanceof SSAGetInstruction) {
+      SSAGetInstruction x = (SSAGetInstruction) s;
+      out.writeByte(GET);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeBoolean(x.isStatic());
+      if (!x.isStatic()) {
+        out.writeInt(x.getRef());
+      }
+      writeField(x.getDeclaredField(), out);
+    } else if (s instanceof SSAPutInstruction) {
+      SSAPutInstruction x = (SSAPutInstruction) s;
+      out.writeByte(PUT);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getVal());
+      out.writeBoolean(x.isStatic());
+      if (!x.isStatic()) {
+        out.writeInt(x.getRef());
+      }
+      writeField(x.getDeclaredField(), out);
+    } else if (s instanceof SSAInvokeInstruction && !(s instanceof SSAInvokeDynamicInstruction)) {
+      SSAInvokeInstruction x = (SSAInvokeInstruction) s;
+      if (!(x.getInvocationCode() instanceof IInvokeInstruction.Dispatch)
+          || x.getNumberOfReturnValues() > 1) {
+        throw new UnsupportedIRException("invoke " + x);
+      }
+      out.writeByte(INVOKE);
+      out.writeInt(x.iIndex());
+      out.writeBoolean(x.getNumberOfReturnValues() > 0);
+      if (x.getNumberOfReturnValues() > 0) {
+        out.writeInt(x.getReturnValue(0));
+      }
+      int[] params = new int[x.getNumberOfUses()];
+      for (int i = 0; i < params.length; i++) {
+        params[i] = x.getUse(i);
+      }
+      writeInts(params, out);
+      out.writeInt(x.getException());
+      out.writeInt(x.getProgramCounter());
+      writeMethod(x.getDeclaredTarget(), out);
+      out.writeByte(((IInvokeInstruction.Dispatch) x.getInvocationCode()).ordinal());
+    } else if (s instanceof SSANewInstruction) {
+      SSANewInstruction x = (SSANewInstruction) s;
+      out.writeByte(NEW);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getNewSite().getProgramCounter());
+      writeType(x.getNewSite().getDeclaredType(), out);
+      boolean isArray = x.getConcreteType().isArrayType();
+      out.writeBoolean(isArray);
+      if (isArray) {
+        int[] params = new int[x.getNumberOfUses()];
+        for (int i = 0; i < params.length; i++) {
+          params[i] = x.getUse(i);
+        }
+        writeInts(params, out);
+        out.writeBoolean(x.getExceptionTypes() == JavaLanguage.getNewSafeArrayExceptions());
+      }
+    } else if (s instanceof SSAThrowInstruction) {
+      SSAThrowInstruction x = (SSAThrowInstruction) s;
+      out.writeByte(THROW);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getException());
+    } else if (s instanceof SSAMonitorInstruction) {
+      SSAMonitorInstruction x = (SSAMonitorInstruction) s;
+      out.writeByte(MONITOR);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getRef());
+      out.writeBoolean(x.isMonitorEnter());
+    } else if (s instanceof SSACheckCastInstruction) {
+      SSACheckCastInstruction x = (SSACheckCastInstruction) s;
+      out.writeByte(CHECK_CAST);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getResult());
+      out.writeInt(x.getVal());
+      TypeReference[] types = x.getDeclaredResultTypes();
+      out.writeInt(types.length);
+      for (TypeReference t : types) {
+        writeType(t, out);
+      }
+      out.writeBoolean(x.isPEI());
+    } else if (s instanceof SSAInstanceofInstruction) {
+      SSAInstanceofInstruction x = (SSAInstanceofInstruction) s;
+      out.writeByte(INSTANCEOF);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      out.writeInt(x.getRef());
+      writeType(x.getCheckedType(), out);
+    } else if (s instanceof SSAGotoInstruction) {
+      SSAGotoInstruction x = (SSAGotoInstruction) s;
+      out.writeByte(GOTO);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getTarget());
+    } else if (s instanceof SSALoadMetadataInstruction) {
+      SSALoadMetadataInstruction x = (SSALoadMetadataInstruction) s;
+      out.writeByte(LOAD_METADATA);
+      out.writeInt(x.iIndex());
+      out.writeInt(x.getDef());
+      writeType(x.getType(), out);
+      writeConstant(x.getToken(), out);
+    } else {
+      throw new UnsupportedIRException("instruction " + s);
+    }
+  }
+
+  private static void writeConstant(Object o, DataOutputStream out)
+      throws UnsupportedIRException, IOException {
+    if (o == null) {
+      out.writeByte(NULL);
+    } else if (o instanceof Integer) {
+      out.writeByte(INT);
+      out.writeInt((Integer) o);
+    } else if (o instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) o);
+    } else if (o instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeInt(Float.floatToRawIntBits((Float) o));
+    } else if (o instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeLong(Double.doubleToRawLongBits((Double) o));
+    } else if (o instanceof String) {
+      out.writeByte(STRING);
+      out.writeUTF((String) o);
+    } else if (o instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) o);
+    } else if (o instanceof TypeReference) {
+      out.writeByte(TYPE);
+      writeType((TypeReference) o, out);
+    } else if (o instanceof MethodReference) {
+      out.writeByte(METHOD);
+      writeMethod((MethodReference) o, out);
+    } else {
+      throw new UnsupportedIRException("constant " + o);
+    }
+  }
+
+  private static void writeType(TypeReference t, DataOutputStream out) throws IOException {
+    out.writeUTF(t.getClassLoader().getName().toString());
+    out.writeUTF(t.getName().toString());
+  }
+
+  private static void writeField(FieldReference f, DataOutputStream out) throws IOException {
+    writeType(f.getDeclaringClass(), out);
+    out.writeUTF(f.getName().toString());
+    writeType(f.getFieldType(), out);
+  }
+
+  private static void writeMethod(MethodReference m, DataOutputStream out) throws IOException {
+    writeType(m.getDeclaringClass(), out);
+    out.writeUTF(m.getSelector().toString());
+  }
+
+  private static void writeUses(SSAInstruction s, DataOutputStream out) throws IOException {
+    out.writeInt(s.getNumberOfUses());
+    for (int i = 0; i < s.getNumberOfUses(); i++) {
+      out.writeInt(s.getUse(i));
+    }
+  }
+
+  private static void writeInts(int[] x, DataOutputStream out) throws IOException {
+    if (x == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(x.length);
+      for (int i : x) {
+        out.writeInt(i);
+      }
+    }
+  }
+
+  private static IR read(
+      IBytecodeMethod<IInstruction> method, SSAOptions options, DataInputStream in)
+      throws IOException {
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("not a stored IR");
+    }
+    Reader reader = new Reader(method, in);
+
+    int nParams = in.readInt();
+    if (nParams != method.getNumberOfParameters()) {
+      throw new IOException("wrong number of parameters");
+    }
+    SymbolTable symbolTable = new SymbolTable(nParams);
+    int maxValueNumber = in.readInt();
+    for (int vn = nParams + 1; vn <= maxValueNumber; vn++) {
+      int v;
+      switch (in.readByte()) {
+        case SYMBOL:
+          v = symbolTable.newSymbol();
+          break;
+        case CONSTANT:
+          v = symbolTable.findOrCreateConstant(reader.readConstant());
+          break;
+        case PHI:
+          v = symbolTable.newPhi(reader.readInts());
+          break;
+        default:
+          throw new IOException("bad value tag");
+      }
+      if (v != vn) {
+        throw new IOException("value numbers out of order");
+      }
+    }
+
+    SSAInstructionFactory insts =
+        method.getDeclaringClass().getClassLoader().getInstructionFactory();
+    SSAInstruction[] instructions = new SSAInstruction[in.readInt()];
+    for (int i = 0; i < instructions.length; i++) {
+      instructions[i] = reader.readInstruction(insts);
+    }
+
+    ShrikeCFG shrikeCFG = ShrikeCFG.make(method);
+    SSACFG cfg = new SSACFG(method, shrikeCFG, instructions);
+    if (in.readInt() != cfg.getNumberOfNodes()) {
+      throw new IOException("control-flow graph does not match");
+    }
+    for (int b = 0; b <= cfg.getMaxNumber(); b++) {
+      BasicBlock bb = cfg.getNode(b);
+      int nPhis = in.readInt();
+      for (int i = 0; i < nPhis; i++) {
+        bb.addPhiForLocal(i, symbolTable.getPhiValue(in.readInt()).getPhiInstruction());
+      }
+      int nPis = in.readInt();
+      for (int i = 0; i < nPis; i++) {
+        int iindex = in.readInt();
+        int def = in.readInt();
+        int val = in.readInt();
+        int piBlock = in.readInt();
+        int successor = in.readInt();
+        SSAInstruction cause = instructions[in.readInt()];
+        SSAPiInstruction pi = insts.PiInstruction(iindex, def, val, piBlock, successor, cause);
+        bb.addPiForRefAndPath(val, shrikeCFG.getNode(successor), pi);
+      }
+      if (in.readBoolean()) {
+        int iindex = in.readInt();
+        int def = in.readInt();
+        ((ExceptionHandlerBasicBlock) bb)
+            .setCatchInstruction(insts.GetCaughtExceptionInstruction(iindex, bb.getNumber(), def));
+      }
+    }
+
+    SSABuilder.SSA2LocalMap localMap = null;
+    if (in.readBoolean()) {
+      IntPair[] stores = new IntPair[in.readInt()];
+      for (int i = 0; i < stores.length; i++) {
+        if (in.readBoolean()) {
+          int x = in.readInt();
+          stores[i] = new IntPair(x, in.readInt());
+        }
+      }
+      int[][] states = new int[in.readInt()][];
+      for (int i = 0; i < states.length; i++) {
+        states[i] = reader.readInts();
+      }
+      localMap = new SSABuilder.SSA2LocalMap(shrikeCFG, stores, states);
+    }
+    if (in.read() != -1) {
+      throw new IOException("trailing data");
+    }
+
+    return new StoredIR(
+        method,
+        instructions,
+        symbolTable,
+        cfg,
+        options,
+        localMap);
+  }
+
+  /** decodes the parts of a stored IR that refer to types and members */
+  private static class Reader {
+    private final DataInputStream in;
+
+    /** the loaders that types in the IR may be defined by, by name */
+    private final Map<String, ClassLoaderReference> loaders = HashMapFactory.make();
+
+    Reader(IMethod method, DataInputStream in) {
+      this.in = in;
+      for (ClassLoaderReference l = method.getDeclaringClass().getClassLoader().getReference();
+          l != null;
+          l = l.getParent()) {
+        loaders.putIfAbsent(l.getName().toString(), l);
+      }
+      for (ClassLoaderReference l :
+          new ClassLoaderReference[] {
+            ClassLoaderReference.Application,
+            ClassLoaderReference.Extension,
+            ClassLoaderReference.Primordial
+          }) {
+        loaders.putIfAbsent(l.getName().toString(), l);
+      }
+    }
+
+    int[] readInts() throws IOException {
+      int n = in.readInt();
+      if (n < 0) {
+        return null;
+      }
+      int[] result = new int[n];
+      for (int i = 0; i < n; i++) {
+        result[i] = in.readInt();
+      }
+      return result;
+    }
+
+    TypeReference readType() throws IOException {
+      ClassLoaderReference loader = loaders.get(in.readUTF());
+      if (loader == null) {
+        throw new IOException("unknown class loader");
+      }
+      return TypeReference.findOrCreate(loader, in.readUTF());
+    }
+
+    FieldReference readField() throws IOException {
+      TypeReference declaringClass = readType();
+      Atom name = Atom.findOrCreateUnicodeAtom(in.readUTF());
+      return FieldReference.findOrCreate(declaringClass, name, readType());
+    }
+
+    MethodReference readMethod() throws IOException {
+      TypeReference declaringClass = readType();
+      return MethodReference.findOrCreate(
+          declaringClass, Selector.make(Language.JAVA, in.readUTF()));
+    }
+
+    Object readConstant() throws IOException {
+      switch (in.readByte()) {
+        case NULL:
+          return null;
+        case INT:
+          return in.readInt();
+        case LONG:
+          return in.readLong();
+        case FLOAT:
+          return Float.intBitsToFloat(in.readInt());
+        case DOUBLE:
+          return Double.longBitsToDouble(in.readLong());
+        case STRING:
+          return in.readUTF();
+        case BOOLEAN:
+          return in.readBoolean();
+        case TYPE:
+          return readType();
+        case METHOD:
+          return readMethod();
+        default:
+          throw new IOException("bad constant tag");
+      }
+    }
+
+    SSAInstruction readInstruction(SSAInstructionFactory insts) throws IOException {
+      byte tag = in.readByte();
+      switch (tag) {
+        case NONE:
+          return null;
+        case ARRAY_LENGTH:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            return insts.ArrayLengthInstruction(iindex, def, in.readInt());
+          }
+        case ARRAY_LOAD:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            int array = in.readInt();
+            int index = in.readInt();
+            return insts.ArrayLoadInstruction(iindex, def, array, index, readType());
+          }
+        case ARRAY_STORE:
+          {
+            int iindex = in.readInt();
+            int array = in.readInt();
+            int index = in.readInt();
+            int value = in.readInt();
+            return insts.ArrayStoreInstruction(iindex, array, index, value, readType());
+          }
+        case BINARY_OP:
+        case SHIFT_OP:
+          {
+            int ordinal = in.readByte();
+            IBinaryOpInstruction.IOperator op =
+                tag == BINARY_OP
+                    ? IBinaryOpInstruction.Operator.values()[ordinal]
+                    : IShiftInstruction.Operator.values()[ordinal];
+            int iindex = in.readInt();
+            int def = in.readInt();
+            int val1 = in.readInt();
+            int val2 = in.readInt();
+            return insts.BinaryOpInstruction(
+                iindex, op, false, false, def, val1, val2, in.readBoolean());
+          }
+        case UNARY_OP:
+          {
+            IUnaryOpInstruction.Operator op = IUnaryOpInstruction.Operator.values()[in.readByte()];
+            int iindex = in.readInt();
+            int def = in.readInt();
+            return insts.UnaryOpInstruction(iindex, op, def, in.readInt());
+          }
+        case CONVERSION:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            int val = in.readInt();
+            TypeReference from = readType();
+            return insts.ConversionInstruction(iindex, def, val, from, readType(), false);
+          }
+        case COMPARISON:
+          {
+            IComparisonInstruction.Operator op =
+                IComparisonInstruction.Operator.values()[in.readByte()];
+            int iindex = in.readInt();
+            int def = in.readInt();
+            int val1 = in.readInt();
+            return insts.ComparisonInstruction(iindex, op, def, val1, in.readInt());
+          }
+        case CONDITIONAL_BRANCH:
+          {
+            IConditionalBranchInstruction.Operator op =
+                IConditionalBranchInstruction.Operator.values()[in.readByte()];
+            int iindex = in.readInt();
+            TypeReference type = readType();
+            int val1 = in.readInt();
+            int val2 = in.readInt();
+            return insts.ConditionalBranchInstruction(iindex, op, type, val1, val2, in.readInt());
+          }
+        case SWITCH:
+          {
+            int iindex = in.readInt();
+            int val = in.readInt();
+            int defaultLabel = in.readInt();
+            return insts.SwitchInstruction(iindex, val, defaultLabel, readInts());
+          }
+        case RETURN:
+          {
+            int iindex = in.readInt();
+            if (in.readBoolean()) {
+              return insts.ReturnInstruction(iindex);
+            }
+            int result = in.readInt();
+            return insts.ReturnInstruction(iindex, result, in.readBoolean());
+          }
+        case GET:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            if (in.readBoolean()) {
+              return insts.GetInstruction(iindex, def, readField());
+            }
+            int ref = in.readInt();
+            return insts.GetInstruction(iindex, def, ref, readField());
+          }
+        case PUT:
+          {
+            int iindex = in.readInt();
+            int val = in.readInt();
+            if (in.readBoolean()) {
+              return insts.PutInstruction(iindex, val, readField());
+            }
+            int ref = in.readInt();
+            return insts.PutInstruction(iindex, ref, val, readField());
+          }
+        case INVOKE:
+          {
+            int iindex = in.readInt();
+            boolean hasResult = in.readBoolean();
+            int result = hasResult ? in.readInt() : -1;
+            int[] params = readInts();
+            int exception = in.readInt();
+            int pc = in.readInt();
+            MethodReference target = readMethod();
+            IInvokeInstruction.Dispatch code = IInvokeInstruction.Dispatch.values()[in.readByte()];
+            CallSiteReference site = CallSiteReference.make(pc, target, code);
+            if (hasResult) {
+              return insts.InvokeInstruction(iindex, result, params, exception, site, null);
+            } else {
+              return insts.InvokeInstruction(iindex, params, exception, site, null);
+            }
+          }
+        case NEW:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            int pc = in.readInt();
+            NewSiteReference site = NewSiteReference.make(pc, readType());
+            if (!in.readBoolean()) {
+              return insts.NewInstruction(iindex, def, site);
+            }
+            int[] params = readInts();
+            SSANewInstruction result = insts.NewInstruction(iindex, def, site, params);
+            return in.readBoolean() ? ShrikeIRFactory.makeSafeArrayNew(result, params) : result;
+          }
+        case THROW:
+          {
+            int iindex = in.readInt();
+            return insts.ThrowInstruction(iindex, in.readInt());
+          }
+        case MONITOR:
+          {
+            int iindex = in.readInt();
+            int ref = in.readInt();
+            return insts.MonitorInstruction(iindex, ref, in.readBoolean());
+          }
+        case CHECK_CAST:
+          {
+            int iindex = in.readInt();
+            int result = in.readInt();
+            int val = in.readInt();
+            TypeReference[] types = new TypeReference[in.readInt()];
+            for (int i = 0; i < types.length; i++) {
+              types[i] = readType();
+            }
+            return insts.CheckCastInstruction(iindex, result, val, types, in.readBoolean());
+          }
+        case INSTANCEOF:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            int ref = in.readInt();
+            return insts.InstanceofInstruction(iindex, def, ref, readType());
+          }
+        case GOTO:
+          {
+            int iindex = in.readInt();
+            return insts.GotoInstruction(iindex, in.readInt());
+          }
+        case LOAD_METADATA:
+          {
+            int iindex = in.readInt();
+            int def = in.readInt();
+            TypeReference type = readType();
+            return insts.LoadMetadataInstruction(iindex, def, type, readConstant());
+          }
+        default:
+          throw new IOException("bad instruction tag " + tag);
+      }
+    }
+  }
+
+  /** An IR read back from disk, equivalent to one built by {@link ShrikeIRFactory} */
+  private static class StoredIR extends IR {
+    private final IBytecodeMethod<IInstruction> method;
+
+    private final SSA2LocalMap localMap;
+
+    StoredIR(
+        IBytecodeMethod<IInstruction> method,
+        SSAInstruction[] instructions,
+        SymbolTable symbolTable,
+        SSACFG cfg,
+        SSAOptions options,
+        SSA2LocalMap localMap) {
+      super(method, instructions, symbolTable, cfg, options);
+      this.method = method;
+      this.localMap = localMap;
+      setupLocationMap();
+    }
+
+    @Override
+    protected String instructionPosition(int instructionIndex) {
+      return ShrikeIRFactory.instructionPosition(method, instructionIndex);
+    }
+
+    @Override
+    public SSA2LocalMap getLocalMap() {
+      return localMap;
+    }
+
+    /** only IRs without indirect local accesses are stored */
+    @Override
+    protected <T extends SSAIndirectionData.Name> SSAIndirectionData<T> getIndirectionData() {
+      return null;
+    }
+  }
+}
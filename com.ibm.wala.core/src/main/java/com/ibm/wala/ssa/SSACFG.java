@@ -510,8 +510,11 @@ public class SSACFG
       return result;
     }
 
-    /** rewrite the phi arrays so they have no null entries. */
-    private void compressPhis() {
+    /**
+     * rewrite the phi arrays so they have no null entries. Synchronized since this happens on
+     * reads, and an IR may be read by several threads.
+     */
+    private synchronized void compressPhis() {
       if (stackSlotPhis != null && stackSlotPhis[stackSlotPhis.length - 1] == null) {
         int size = countNonNull(stackSlotPhis);
         if (size == 0) {
@@ -11,11 +11,10 @@
 package com.ibm.wala.types;
 
 import com.ibm.wala.classLoader.Language;
-import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Interner;
 import com.ibm.wala.util.strings.ImmutableByteArray;
 import com.ibm.wala.util.strings.StringStuff;
 import com.ibm.wala.util.strings.UTF8Convert;
-import java.util.Map;
 
 /**
  * A method descriptor; something like: (Ljava/langString;)Ljava/lang/Class;
@@ -25,7 +24,7 @@ import java.util.Map;
 public final class Descriptor {
 
   /** A mapping from Key -&gt; Descriptor */
-  private static final Map<Key, Descriptor> map = HashMapFactory.make();
+  private static final Interner<Key, Descriptor> map = Interner.make();
 
   /** key holds the logical value of this descriptor */
   private final Key key;
@@ -42,13 +41,7 @@ public final class Descriptor {
     if (parameters != null && parameters.length == 0) {
       parameters = null;
     }
-    Key k = new Key(returnType, parameters);
-    Descriptor result = map.get(k);
-    if (result == null) {
-      result = new Descriptor(k);
-      map.put(k, result);
-    }
-    return result;
+    return map.intern(new Key(returnType, parameters), Descriptor::new);
   }
 
   /**
@@ -59,13 +52,7 @@ public final class Descriptor {
       throws IllegalArgumentException {
     TypeName returnType = StringStuff.parseForReturnTypeName(l, b);
     TypeName[] parameters = StringStuff.parseForParameterNames(l, b);
-    Key k = new Key(returnType, parameters);
-    Descriptor result = map.get(k);
-    if (result == null) {
-      result = new Descriptor(k);
-      map.put(k, result);
-    }
-    return result;
+    return map.intern(new Key(returnType, parameters), Descriptor::new);
   }
 
   public static Descriptor findOrCreate(ImmutableByteArray b) throws IllegalArgumentException {
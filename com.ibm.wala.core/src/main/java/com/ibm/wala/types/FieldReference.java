@@ -10,19 +10,18 @@
  */
 package com.ibm.wala.types;
 
-import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Interner;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.UnimplementedError;
 import com.ibm.wala.util.shrike.ShrikeUtil;
 import com.ibm.wala.util.strings.Atom;
-import java.util.HashMap;
 
 /** A class to represent the reference in a class file to a field. */
 public final class FieldReference extends MemberReference {
   private static final boolean DEBUG = false;
 
   /** Used to canonicalize MemberReferences a mapping from Key -&gt; MemberReference */
-  private static final HashMap<Key, FieldReference> dictionary = HashMapFactory.make();
+  private static final Interner<Key, FieldReference> dictionary = Interner.make();
 
   private final TypeReference fieldType;
 
@@ -36,22 +35,11 @@ public final class FieldReference extends MemberReference {
    *
    * @param mn the name of the member
    */
-  public static synchronized FieldReference findOrCreate(
-      TypeReference tref, Atom mn, TypeReference fieldType) {
+  public static FieldReference findOrCreate(TypeReference tref, Atom mn, TypeReference fieldType) {
     if (tref == null) {
       throw new IllegalArgumentException("null tref");
     }
-    Key key = new Key(tref, mn, fieldType);
-
-    FieldReference val = dictionary.get(key);
-    if (val != null) {
-      return val;
-    }
-
-    val = new FieldReference(key, fieldType);
-
-    dictionary.put(key, val);
-    return val;
+    return dictionary.intern(new Key(tref, mn, fieldType), k -> new FieldReference(k, fieldType));
   }
 
   /** Find or create the canonical MemberReference instance for the given tuple. */
@@ -11,15 +11,14 @@
 package com.ibm.wala.types;
 
 import com.ibm.wala.classLoader.Language;
-import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Interner;
 import com.ibm.wala.util.shrike.ShrikeUtil;
 import com.ibm.wala.util.strings.Atom;
-import java.util.HashMap;
 
 /** A class to represent the reference in a class file to a method. */
 public final class MethodReference extends MemberReference {
   /** Used to canonicalize MethodReferences a mapping from Key -&gt; MethodReference */
-  private static final HashMap<Key, MethodReference> dictionary = HashMapFactory.make();
+  private static final Interner<Key, MethodReference> dictionary = Interner.make();
 
   public static final Atom newInstanceAtom = Atom.findOrCreateUnicodeAtom("newInstance");
 
@@ -97,18 +96,11 @@ public final class MethodReference extends MemberReference {
    * @param mn the name of the member
    * @param md the descriptor of the member
    */
-  public static synchronized MethodReference findOrCreate(
-      TypeReference tref, Atom mn, Descriptor md) {
+  public static MethodReference findOrCreate(TypeReference tref, Atom mn, Descriptor md) {
     if (tref == null) {
       throw new IllegalArgumentException("null tref");
     }
-    Key key = new Key(tref, mn, md);
-
-    MethodReference val = dictionary.get(key);
-    if (val != null) return val;
-    val = new MethodReference(key);
-    dictionary.put(key, val);
-    return val;
+    return dictionary.intern(new Key(tref, mn, md), MethodReference::new);
   }
 
   /**
@@ -118,7 +110,7 @@ public final class MethodReference extends MemberReference {
    * @param selector the selector for the method
    * @throws IllegalArgumentException if selector is null
    */
-  public static synchronized MethodReference findOrCreate(TypeReference tref, Selector selector) {
+  public static MethodReference findOrCreate(TypeReference tref, Selector selector) {
     if (selector == null) {
       throw new IllegalArgumentException("selector is null");
     }
@@ -17,6 +17,7 @@ import com.ibm.wala.classLoader.ShrikeClass;
 import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.AnalysisSession;
 import java.lang.ref.WeakReference;
 
 /**
@@ -24,39 +25,42 @@ import java.lang.ref.WeakReference;
  * GC), leaving soft reference caches to clear themselves out doesn't work. Help it out.
  *
  * <p>It's unfortunate that this class exists.
+ *
+ * <p>The class hierarchy and cache are registered per {@link AnalysisSession}, so each analysis
+ * only clears its own.
  */
 public class ReferenceCleanser {
 
   private static final float OCCUPANCY_TRIGGER = 0.5f;
 
-  private static WeakReference<IClassHierarchy> cha;
+  /** the class hierarchy of the current session */
+  private static final AnalysisSession.Key<WeakReference<IClassHierarchy>> CHA =
+      new AnalysisSession.Key<>("ReferenceCleanser.cha");
 
-  private static WeakReference<AnalysisCacheImpl> cache;
+  /** the analysis cache of the current session */
+  private static final AnalysisSession.Key<WeakReference<AnalysisCacheImpl>> CACHE =
+      new AnalysisSession.Key<>("ReferenceCleanser.cache");
 
+  /** Register the class hierarchy whose soft caches are cleared in the current session. */
   public static void registerClassHierarchy(IClassHierarchy cha) {
-    ReferenceCleanser.cha = new WeakReference<>(cha);
+    AnalysisSession.current().put(CHA, new WeakReference<>(cha));
   }
 
   private static IClassHierarchy getClassHierarchy() {
-    IClassHierarchy result = null;
-    if (cha != null) {
-      result = cha.get();
-    }
-    return result;
+    WeakReference<IClassHierarchy> cha = AnalysisSession.current().get(CHA);
+    return cha == null ? null : cha.get();
   }
 
+  /** Register the analysis cache whose soft caches are cleared in the current session. */
   public static void registerCache(IAnalysisCacheView cache) {
     if (cache instanceof AnalysisCacheImpl) {
-      ReferenceCleanser.cache = new WeakReference<>((AnalysisCacheImpl) cache);
+      AnalysisSession.current().put(CACHE, new WeakReference<>((AnalysisCacheImpl) cache));
     }
   }
 
   private static AnalysisCacheImpl getAnalysisCache() {
-    AnalysisCacheImpl result = null;
-    if (cache != null) {
-      result = cache.get();
-    }
-    return result;
+    WeakReference<AnalysisCacheImpl> cache = AnalysisSession.current().get(CACHE);
+    return cache == null ? null : cache.get();
   }
 
   /** A debugging aid. TODO: move this elsewhere */
@@ -70,7 +74,7 @@ public class ReferenceCleanser {
     }
     AnalysisCacheImpl cache = getAnalysisCache();
     if (cache != null) {
-      cache.getSSACache().wipe();
+      cache.getSSACache().onMemoryPressure();
     }
     IClassHierarchy cha = getClassHierarchy();
     if (cha != null) {
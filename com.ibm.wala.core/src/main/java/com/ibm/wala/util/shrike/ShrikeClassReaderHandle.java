@@ -18,6 +18,7 @@ import com.ibm.wala.util.ref.CacheReference;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * A soft handle to a Shrike class reader
@@ -31,7 +32,8 @@ public class ShrikeClassReaderHandle {
   /** The module entry that defines the class file */
   private final ModuleEntry entry;
 
-  private Object reader;
+  /** The cached reader; volatile, since IRs may be built on several threads */
+  private volatile Object reader;
 
   /** The number of times we hydrate the reader */
   private int hydrateCount = 0;
@@ -61,21 +63,42 @@ public class ShrikeClassReaderHandle {
           }
         }
       }
-      ByteArrayOutputStream S = new ByteArrayOutputStream();
-      try {
-        InputStream s = entry.getInputStream();
-        readBytes(s, S);
-        s.close();
-      } catch (IOException e) {
-        e.printStackTrace();
-        Assertions.UNREACHABLE();
+      byte[] bytes;
+      ByteBuffer contents = entry.getByteBuffer();
+      if (contents != null) {
+        // read the entry directly, with no intermediate buffers
+        bytes = toArray(contents);
+      } else {
+        ByteArrayOutputStream S = new ByteArrayOutputStream();
+        try {
+          InputStream s = entry.getInputStream();
+          readBytes(s, S);
+          s.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+          Assertions.UNREACHABLE();
+        }
+        bytes = S.toByteArray();
       }
-      result = new ClassReader(S.toByteArray());
+      result = new ClassReader(bytes);
       reader = CacheReference.make(result);
     }
     return result;
   }
 
+  /** @return the bytes between the position and the limit of b, sharing its array if possible */
+  private static byte[] toArray(ByteBuffer b) {
+    if (b.hasArray()
+        && b.arrayOffset() == 0
+        && b.position() == 0
+        && b.remaining() == b.array().length) {
+      return b.array();
+    }
+    byte[] result = new byte[b.remaining()];
+    b.duplicate().get(result);
+    return result;
+  }
+
   /** Read is into bytes */
   private static void readBytes(InputStream is, ByteArrayOutputStream bytes) throws IOException {
     int n = 0;
@@ -10,10 +10,9 @@
  */
 package com.ibm.wala.util.strings;
 
-import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Interner;
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.HashMap;
 
 /**
  * An utf8-encoded byte string.
@@ -33,7 +32,7 @@ public final class Atom implements Serializable {
    * Used to canonicalize Atoms, a mapping from AtomKey -&gt; Atom. AtomKeys are not canonical, but
    * Atoms are.
    */
-  private static final HashMap<AtomKey, Atom> dictionary = HashMapFactory.make();
+  private static final Interner<AtomKey, Atom> dictionary = Interner.make();
 
   /** The utf8 value this atom represents */
   private final byte val[];
@@ -112,28 +111,21 @@ public final class Atom implements Serializable {
     return findOrCreate(val);
   }
 
-  public static synchronized Atom findOrCreate(byte[] bytes) {
+  public static Atom findOrCreate(byte[] bytes) {
     if (bytes == null) {
       throw new IllegalArgumentException("bytes is null");
     }
-    AtomKey key = new AtomKey(bytes);
-    Atom val = dictionary.get(key);
-    if (val != null) {
-      return val;
-    }
-    val = new Atom(key);
-    dictionary.put(key, val);
-    return val;
+    return dictionary.intern(new AtomKey(bytes), Atom::new);
   }
 
-  public static synchronized Atom findOrCreate(ImmutableByteArray b) {
+  public static Atom findOrCreate(ImmutableByteArray b) {
     if (b == null) {
       throw new IllegalArgumentException("b is null");
     }
     return findOrCreate(b.b);
   }
 
-  public static synchronized Atom findOrCreate(ImmutableByteArray b, int start, int length) {
+  public static Atom findOrCreate(ImmutableByteArray b, int start, int length) {
     if (b == null) {
       throw new IllegalArgumentException("b is null");
     }
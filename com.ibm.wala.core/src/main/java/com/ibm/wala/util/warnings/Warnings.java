@@ -10,26 +10,46 @@
  */
 package com.ibm.wala.util.warnings;
 
+import com.ibm.wala.util.AnalysisSession;
 import com.ibm.wala.util.collections.HashSetFactory;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.TreeSet;
 
-/** A global, static dictionary of warnings */
+/**
+ * A static dictionary of warnings. The warnings are kept in the current {@link AnalysisSession}, so
+ * analyses running concurrently in their own sessions do not see each other's warnings.
+ */
 public class Warnings {
 
-  private static final Collection<Warning> warnings = HashSetFactory.make();
+  private static final AnalysisSession.Key<Collection<Warning>> WARNINGS =
+      new AnalysisSession.Key<>("warnings");
 
-  public static synchronized boolean add(Warning w) {
-    return warnings.add(w);
+  /** @return the warnings of the current session; synchronize on them to use them */
+  private static Collection<Warning> warnings() {
+    return AnalysisSession.current().computeIfAbsent(WARNINGS, HashSetFactory::make);
   }
 
-  public static synchronized void clear() {
-    warnings.clear();
+  public static boolean add(Warning w) {
+    Collection<Warning> warnings = warnings();
+    synchronized (warnings) {
+      return warnings.add(w);
+    }
   }
 
-  public static synchronized String asString() {
-    TreeSet<Warning> T = new TreeSet<>(warnings);
+  public static void clear() {
+    Collection<Warning> warnings = warnings();
+    synchronized (warnings) {
+      warnings.clear();
+    }
+  }
+
+  public static String asString() {
+    TreeSet<Warning> T;
+    Collection<Warning> warnings = warnings();
+    synchronized (warnings) {
+      T = new TreeSet<>(warnings);
+    }
     Iterator<Warning> it = T.iterator();
     StringBuilder result = new StringBuilder();
     for (int i = 1; i <= T.size(); i++) {
@@ -40,7 +60,10 @@ public class Warnings {
     return result.toString();
   }
 
-  public static synchronized Iterator<Warning> iterator() {
-    return warnings.iterator();
+  public static Iterator<Warning> iterator() {
+    Collection<Warning> warnings = warnings();
+    synchronized (warnings) {
+      return warnings.iterator();
+    }
   }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.basic;
+
+import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.IteratorUtil;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.impl.CompactNumberedGraph;
+import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
+import com.ibm.wala.util.graph.traverse.SCCIterator;
+import com.ibm.wala.util.intset.IntSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactNumberedGraphTest {
+
+  private static NumberedGraph<String> makeGraph() {
+    NumberedGraph<String> g = SlowSparseNumberedGraph.make();
+    for (String n : new String[] {"A", "B", "C", "D", "E", "F", "G", "H"}) {
+      g.addNode(n);
+    }
+    g.addEdge("A", "B");
+    g.addEdge("B", "C");
+    g.addEdge("C", "B");
+    g.addEdge("A", "D");
+    g.addEdge("D", "E");
+    g.addEdge("A", "F");
+    g.addEdge("F", "G");
+    g.addEdge("C", "H");
+    g.addEdge("E", "H");
+    g.addEdge("G", "H");
+    g.addEdge("H", "H");
+    // leave a gap in the node numbers
+    g.removeNodeAndEdges("F");
+    return g;
+  }
+
+  /** @param expected the numbers of some nodes, or null if there are none */
+  private static void assertSameNumbers(IntSet expected, IntSet actual) {
+    if (expected == null) {
+      Assert.assertTrue(actual.isEmpty());
+    } else {
+      Assert.assertTrue(actual.sameValue(expected));
+    }
+  }
+
+  @Test
+  public void testFreeze() {
+    NumberedGraph<String> g = makeGraph();
+    NumberedGraph<String> frozen = CompactNumberedGraph.freeze(g);
+
+    Assert.assertEquals(g.getNumberOfNodes(), frozen.getNumberOfNodes());
+    Assert.assertEquals(g.getMaxNumber(), frozen.getMaxNumber());
+    Assert.assertFalse(frozen.containsNode("F"));
+    for (String n : g) {
+      Assert.assertTrue(frozen.containsNode(n));
+      Assert.assertEquals(g.getNumber(n), frozen.getNumber(n));
+      Assert.assertEquals(n, frozen.getNode(g.getNumber(n)));
+      Assert.assertEquals(
+          Iterator2Collection.toSet(g.getSuccNodes(n)),
+          Iterator2Collection.toSet(frozen.getSuccNodes(n)));
+      Assert.assertEquals(
+          Iterator2Collection.toSet(g.getPredNodes(n)),
+          Iterator2Collection.toSet(frozen.getPredNodes(n)));
+      Assert.assertEquals(g.getSuccNodeCount(n), frozen.getSuccNodeCount(n));
+      Assert.assertEquals(g.getPredNodeCount(n), frozen.getPredNodeCount(n));
+      assertSameNumbers(g.getSuccNodeNumbers(n), frozen.getSuccNodeNumbers(n));
+      assertSameNumbers(g.getPredNodeNumbers(n), frozen.getPredNodeNumbers(n));
+      for (String m : g) {
+        Assert.assertEquals(g.hasEdge(n, m), frozen.hasEdge(n, m));
+      }
+    }
+    Assert.assertEquals(
+        IteratorUtil.count(new SCCIterator<>(g)), IteratorUtil.count(new SCCIterator<>(frozen)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testImmutable() {
+    CompactNumberedGraph.freeze(makeGraph()).addEdge("A", "E");
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.basic;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.GraphReachability;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.ParallelGraphReachability;
+import com.ibm.wala.util.graph.impl.InvertedGraph;
+import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
+import com.ibm.wala.util.intset.OrdinalSet;
+import java.util.function.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelGraphReachabilityTest {
+
+  private static NumberedGraph<Integer> makeGraph() {
+    NumberedGraph<Integer> g = SlowSparseNumberedGraph.make();
+    for (int i = 0; i < 300; i++) {
+      g.addNode(i);
+    }
+    // many small cycles, chained together, with some shortcuts
+    for (int i = 0; i < 300; i++) {
+      g.addEdge(i, i % 3 == 2 ? i - 2 : i + 1);
+      if (i % 3 == 0 && i + 3 < 300) {
+        g.addEdge(i, i + 3);
+      }
+      if (i % 7 == 0 && i + 150 < 300) {
+        g.addEdge(i, i + 150);
+      }
+    }
+    // leave a gap in the node numbers
+    g.removeNodeAndEdges(100);
+    return g;
+  }
+
+  /**
+   * @return a wide graph: a sink cycle, 400 two-node cycles that each reach the sink, and 200 more
+   *     that each reach two of those, so that the levels of the condensed graph are large enough
+   *     to be visited concurrently
+   */
+  private static NumberedGraph<Integer> makeWideGraph() {
+    NumberedGraph<Integer> g = SlowSparseNumberedGraph.make();
+    int sink = 1200;
+    for (int i = 0; i <= sink + 1; i++) {
+      g.addNode(i);
+    }
+    g.addEdge(sink, sink + 1);
+    g.addEdge(sink + 1, sink);
+    for (int i = 0; i < sink; i += 2) {
+      g.addEdge(i, i + 1);
+      g.addEdge(i + 1, i);
+    }
+    for (int i = 0; i < 800; i += 2) {
+      g.addEdge(i + 1, sink);
+    }
+    for (int i = 800; i < sink; i += 2) {
+      g.addEdge(i, i - 800);
+      g.addEdge(i + 1, i - 400);
+    }
+    return g;
+  }
+
+  private static <T> void assertSameReachability(Graph<T> g, Predicate<T> filter, int threads)
+      throws CancelException {
+    GraphReachability<T, T> expected = new GraphReachability<>(g, filter);
+    GraphReachability<T, T> actual = new ParallelGraphReachability<>(g, filter, threads);
+    Assert.assertEquals(expected.solve(null), actual.solve(null));
+    for (T n : g) {
+      Assert.assertEquals(
+          OrdinalSet.toCollection(expected.getReachableSet(n)),
+          OrdinalSet.toCollection(actual.getReachableSet(n)));
+    }
+  }
+
+  @Test
+  public void testNumberedGraph() throws CancelException {
+    NumberedGraph<Integer> g = makeGraph();
+    assertSameReachability(g, n -> n % 5 == 0, 1);
+    assertSameReachability(g, n -> n % 5 == 0, 4);
+    assertSameReachability(g, n -> n > 290, 4);
+    assertSameReachability(g, n -> false, 4);
+  }
+
+  @Test
+  public void testGraph() throws CancelException {
+    Graph<Integer> g = new InvertedGraph<>(makeGraph());
+    assertSameReachability(g, n -> n % 5 == 0, 1);
+    assertSameReachability(g, n -> n % 5 == 0, 4);
+  }
+
+  @Test
+  public void testWideGraph() throws CancelException {
+    NumberedGraph<Integer> g = makeWideGraph();
+    assertSameReachability(g, n -> n % 3 == 0, 4);
+    assertSameReachability(g, n -> n > 1000, 4);
+    assertSameReachability(new InvertedGraph<>(g), n -> n % 3 == 0, 4);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnsolved() {
+    new ParallelGraphReachability<>(makeGraph(), n -> true, 2).getReachableSet(0);
+  }
+}
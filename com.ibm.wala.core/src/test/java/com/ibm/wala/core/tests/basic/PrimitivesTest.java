@@ -18,6 +18,7 @@ import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.SmallMap;
 import com.ibm.wala.util.graph.Graph;
 import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.dominators.DominanceFrontiers;
 import com.ibm.wala.util.graph.dominators.Dominators;
 import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
 import com.ibm.wala.util.graph.traverse.BFSPathFinder;
@@ -28,6 +29,7 @@ import com.ibm.wala.util.intset.BitVector;
 import com.ibm.wala.util.intset.BitVectorBase;
 import com.ibm.wala.util.intset.BitVectorIntSetFactory;
 import com.ibm.wala.util.intset.IBinaryNaturalRelation;
+import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntPair;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetUtil;
@@ -42,14 +44,18 @@ import com.ibm.wala.util.intset.MutableSharedBitVectorIntSetFactory;
 import com.ibm.wala.util.intset.MutableSparseIntSetFactory;
 import com.ibm.wala.util.intset.MutableSparseLongSetFactory;
 import com.ibm.wala.util.intset.OffsetBitVector;
+import com.ibm.wala.util.intset.RoaringMutableIntSet;
+import com.ibm.wala.util.intset.RoaringMutableIntSetFactory;
 import com.ibm.wala.util.intset.SemiSparseMutableIntSet;
 import com.ibm.wala.util.intset.SemiSparseMutableIntSetFactory;
 import com.ibm.wala.util.intset.SparseIntSet;
 import com.ibm.wala.util.intset.SparseLongSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -355,6 +361,101 @@ public class PrimitivesTest extends WalaTestCase {
     doMutableIntSet(new SemiSparseMutableIntSetFactory());
   }
 
+  /** Test the RoaringMutableIntSet implementation */
+  @Test
+  public void testRoaringMutableIntSet() {
+    doMutableIntSet(new RoaringMutableIntSetFactory());
+  }
+
+  /**
+   * Compare RoaringMutableIntSets with BitVectorIntSets on sets that are sparse, dense, and made of
+   * runs, so that every kind of container meets every other.
+   */
+  @Test
+  public void testRoaringMutableIntSetContainers() {
+    RoaringMutableIntSetFactory roaring = new RoaringMutableIntSetFactory();
+    BitVectorIntSetFactory bits = new BitVectorIntSetFactory();
+    Random random = new Random(42);
+    MutableIntSet[] r = new MutableIntSet[6];
+    MutableIntSet[] b = new MutableIntSet[r.length];
+    for (int k = 0; k < r.length; k++) {
+      r[k] = roaring.make();
+      b[k] = bits.make();
+    }
+    for (int i = 0; i < 300; i++) {
+      // spread elements: few per chunk
+      int x = random.nextInt(1 << 20);
+      r[0].add(x);
+      b[0].add(x);
+    }
+    for (int i = 0; i < 20000; i++) {
+      // dense elements: bitmaps
+      int x = 3 * (1 << 16) + random.nextInt(1 << 16);
+      r[1].add(x);
+      b[1].add(x);
+    }
+    for (int start = 0; start < 5 << 16; start += 1000 + random.nextInt(3000)) {
+      // runs
+      for (int x = start; x < start + random.nextInt(2000); x++) {
+        r[2].add(x);
+        b[2].add(x);
+      }
+    }
+    ((RoaringMutableIntSet) r[2]).runOptimize();
+    for (int x = 2 << 16; x < 4 << 16; x++) {
+      // full chunks
+      r[3].add(x);
+      b[3].add(x);
+    }
+    r[4].addAll(r[1]);
+    r[4].addAll(r[2]);
+    b[4].addAll(b[1]);
+    b[4].addAll(b[2]);
+    for (int i = 0; i < 5000; i++) {
+      int x = random.nextInt(5 << 16);
+      r[4].remove(x);
+      b[4].remove(x);
+      r[5].add(x);
+      b[5].add(x);
+    }
+
+    for (int i = 0; i < r.length; i++) {
+      assertSameValue(b[i], r[i]);
+      for (int j = 0; j < r.length; j++) {
+        Assert.assertEquals(b[i].containsAny(b[j]), r[i].containsAny(r[j]));
+        Assert.assertEquals(b[i].isSubset(b[j]), r[i].isSubset(r[j]));
+        assertSameValue(b[i].union(b[j]), r[i].union(r[j]));
+        assertSameValue(b[i].intersection(b[j]), r[i].intersection(r[j]));
+        assertSameValue(IntSetUtil.diff(b[i], b[j]), IntSetUtil.diff(r[i], r[j], roaring));
+
+        MutableIntSet rr = roaring.makeCopy(r[i]);
+        MutableIntSet bb = bits.makeCopy(b[i]);
+        Assert.assertEquals(
+            bb.addAllInIntersection(b[j], b[(j + 1) % r.length]),
+            rr.addAllInIntersection(r[j], r[(j + 1) % r.length]));
+        assertSameValue(bb, rr);
+
+        MutableIntSet excluded = bits.make();
+        r[i].foreachExcluding(r[j], excluded::add);
+        assertSameValue(IntSetUtil.diff(b[i], b[j]), excluded);
+      }
+    }
+  }
+
+  private static void assertSameValue(IntSet expected, IntSet actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    Assert.assertTrue(expected.isSubset(actual));
+    Assert.assertTrue(actual.sameValue(expected));
+    if (!expected.isEmpty()) {
+      Assert.assertEquals(expected.max(), actual.max());
+    }
+    IntIterator it = actual.intIterator();
+    for (IntIterator e = expected.intIterator(); e.hasNext(); ) {
+      Assert.assertEquals(e.next(), it.next());
+    }
+    Assert.assertFalse(it.hasNext());
+  }
+
   /** Test the MutableSparseIntSet implementation */
   private static void doMutableLongSet(MutableLongSetFactory factory) {
     MutableLongSet v = factory.parse("{9,17}");
@@ -803,6 +904,44 @@ public class PrimitivesTest extends WalaTestCase {
     Assert.assertTrue(D.dominatorTree().getSuccNodeCount(nodes[10]) == 5);
   }
 
+  @Test
+  public void testDominanceFrontiers() {
+    NumberedGraph<Integer> G = SlowSparseNumberedGraph.make();
+    for (int i = 0; i < 7; i++) G.addNode(i);
+
+    // a loop around a diamond, and an unreachable node 6
+    G.addEdge(0, 1);
+    G.addEdge(1, 2);
+    G.addEdge(1, 3);
+    G.addEdge(2, 4);
+    G.addEdge(3, 4);
+    G.addEdge(4, 1);
+    G.addEdge(4, 5);
+    G.addEdge(6, 5);
+
+    Dominators<Integer> D = Dominators.make(G, 0);
+    Integer[] idoms = new Integer[] {null, 0, 1, 1, 1, 4, null};
+    for (int i = 0; i < idoms.length; i++) Assert.assertEquals(idoms[i], D.getIdom(i));
+    Assert.assertTrue(D.isDominatedBy(5, 1));
+    Assert.assertFalse(D.isDominatedBy(4, 2));
+    Assert.assertEquals(Arrays.asList(5, 4, 1, 0), Iterator2Collection.toList(D.dominators(5)));
+    Assert.assertEquals(3, D.dominatorTree().getSuccNodeCount(1));
+
+    DominanceFrontiers<Integer> DF = new DominanceFrontiers<>(G, 0);
+    Integer[][] frontiers = new Integer[][] {{}, {1}, {4}, {4}, {1}, {}};
+    for (int i = 0; i < frontiers.length; i++) {
+      Assert.assertEquals(
+          new HashSet<>(Arrays.asList(frontiers[i])),
+          Iterator2Collection.toSet(DF.getDominanceFrontier(i)));
+    }
+    try {
+      DF.getDominanceFrontier(6);
+      Assert.fail("no frontier expected for an unreachable node");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
   @Test
   public void testBinaryIntegerRelation() {
     byte[] impl =
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.AnalysisSession;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.intset.BitVectorIntSetFactory;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.warnings.Warning;
+import com.ibm.wala.util.warnings.Warnings;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that analyses in different sessions do not share state. */
+public class AnalysisSessionTest extends WalaTestCase {
+
+  @Test
+  public void testSessionState() {
+    AnalysisSession session = new AnalysisSession();
+    Warning w =
+        new Warning() {
+          @Override
+          public String getMsg() {
+            return "session warning";
+          }
+        };
+    AnalysisSession.Scope scope = session.enter();
+    try {
+      Assert.assertSame(session, AnalysisSession.current());
+      IntSetUtil.setDefaultIntSetFactory(new BitVectorIntSetFactory());
+      Warnings.add(w);
+      Assert.assertTrue(Warnings.asString().contains("session warning"));
+    } finally {
+      scope.exit();
+    }
+    Assert.assertSame(AnalysisSession.global(), AnalysisSession.current());
+    Assert.assertFalse(IntSetUtil.getDefaultIntSetFactory() instanceof BitVectorIntSetFactory);
+    Assert.assertFalse(Warnings.asString().contains("session warning"));
+    Assert.assertTrue(session.getIntSetFactory() instanceof BitVectorIntSetFactory);
+  }
+
+  @Test
+  public void testConcurrentCallGraphs() throws Exception {
+    Set<String> expected = makeCallGraph(TestConstants.PI_TEST_MAIN, null);
+    ExecutorService threads = Executors.newFixedThreadPool(2);
+    try {
+      Future<Set<String>> first =
+          threads.submit(() -> makeCallGraph(TestConstants.PI_TEST_MAIN, new AnalysisSession()));
+      Future<Set<String>> second =
+          threads.submit(
+              () ->
+                  makeCallGraph(
+                      TestConstants.PI_TEST_MAIN,
+                      new AnalysisSession(new BitVectorIntSetFactory())));
+      Assert.assertEquals(expected, first.get());
+      Assert.assertEquals(expected, second.get());
+    } finally {
+      threads.shutdown();
+    }
+  }
+
+  private static Set<String> makeCallGraph(String mainClass, AnalysisSession session)
+      throws Exception {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(scope, cha, mainClass);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    options.setSession(session);
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg = builder.makeCallGraph(options, null);
+
+    Set<String> result = HashSetFactory.make();
+    for (CGNode n : cg) {
+      for (CGNode s : Iterator2Iterable.make(cg.getSuccNodes(n))) {
+        result.add(n + " -> " + s);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.summaries.BinaryMethodSummaryReader;
+import com.ibm.wala.ipa.summaries.MethodSummary;
+import com.ibm.wala.ipa.summaries.XMLMethodSummaryReader;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.util.io.FileUtil;
+import com.ibm.wala.util.warnings.Warnings;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import javax.xml.parsers.ParserConfigurationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+/**
+ * Check that compiled method summaries read back the same as the XML they were compiled from, and
+ * that they are not used once the XML changes.
+ */
+public class BinaryMethodSummaryReaderTest extends WalaTestCase {
+
+  private static final String NATIVES = "natives.xml";
+
+  private static InputStream natives() {
+    return BinaryMethodSummaryReaderTest.class.getClassLoader().getResourceAsStream(NATIVES);
+  }
+
+  private static String describe(MethodSummary summary) {
+    return Arrays.toString(summary.getStatements())
+        + summary.isStatic()
+        + summary.isFactory()
+        + summary.getNumberOfParameters()
+        + summary.getConstants();
+  }
+
+  @Test
+  public void testNatives() throws IOException, SAXException, ParserConfigurationException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    XMLMethodSummaryReader xml;
+    ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+    try (InputStream s = natives()) {
+      xml = new XMLMethodSummaryReader(s, scope);
+    }
+    try (InputStream s = natives()) {
+      BinaryMethodSummaryReader.compile(s, compiled);
+    }
+    BinaryMethodSummaryReader binary =
+        new BinaryMethodSummaryReader(new ByteArrayInputStream(compiled.toByteArray()), scope);
+
+    Assert.assertEquals(xml.getIgnoredPackages(), binary.getIgnoredPackages());
+    Assert.assertEquals(xml.getAllocatableClasses(), binary.getAllocatableClasses());
+
+    // look up each method before anything forces the whole file to be read
+    Map<MethodReference, MethodSummary> summaries = binary.getSummaries();
+    for (Map.Entry<MethodReference, MethodSummary> e : xml.getSummaries().entrySet()) {
+      MethodSummary s = summaries.get(e.getKey());
+      Assert.assertNotNull(e.getKey().toString(), s);
+      Assert.assertEquals(describe(e.getValue()), describe(s));
+    }
+    Assert.assertEquals(xml.getSummaries().keySet(), summaries.keySet());
+  }
+
+  @Test
+  public void testStale() throws IOException, SAXException, ParserConfigurationException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    byte[] xml;
+    try (InputStream s = natives()) {
+      xml = FileUtil.readBytes(s);
+    }
+    ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+    BinaryMethodSummaryReader.compile(new ByteArrayInputStream(xml), compiled);
+    Assert.assertTrue(BinaryMethodSummaryReader.isCompiledFrom(compiled.toByteArray(), xml));
+
+    Warnings.clear();
+    XMLMethodSummaryReader current =
+        BinaryMethodSummaryReader.read(
+            NATIVES,
+            new ByteArrayInputStream(xml),
+            new ByteArrayInputStream(compiled.toByteArray()),
+            scope);
+    Assert.assertTrue(current instanceof BinaryMethodSummaryReader);
+    Assert.assertFalse(Warnings.iterator().hasNext());
+
+    // an edited XML file no longer matches its compiled form
+    byte[] edited =
+        new String(xml, StandardCharsets.UTF_8)
+            .replaceFirst("<summary-spec>", "<summary-spec>\n")
+            .getBytes(StandardCharsets.UTF_8);
+    Assert.assertFalse(BinaryMethodSummaryReader.isCompiledFrom(compiled.toByteArray(), edited));
+    XMLMethodSummaryReader stale =
+        BinaryMethodSummaryReader.read(
+            NATIVES,
+            new ByteArrayInputStream(edited),
+            new ByteArrayInputStream(compiled.toByteArray()),
+            scope);
+    Assert.assertFalse(stale instanceof BinaryMethodSummaryReader);
+    Assert.assertTrue(Warnings.asString().contains(NATIVES + BinaryMethodSummaryReader.SUFFIX));
+    Assert.assertEquals(current.getSummaries().keySet(), stale.getSummaries().keySet());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener.Phase;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildMetrics;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.PhaseTimer;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check the measurements reported while building a call graph. */
+public class CallGraphBuildMetricsTest extends WalaTestCase {
+
+  @Test
+  public void testMetrics()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    CallGraphBuildMetrics metrics = new CallGraphBuildMetrics(5);
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    PhaseTimer t = PhaseTimer.start(metrics, Phase.CLASS_HIERARCHY);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    t.stop();
+    Iterable<Entrypoint> entrypoints =
+        Util.makeMainEntrypoints(scope, cha, TestConstants.PI_TEST_MAIN);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    options.setBuildListener(metrics);
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg = builder.makeCallGraph(options, null);
+
+    Assert.assertEquals(1, metrics.getRuns(Phase.CLASS_HIERARCHY));
+    Assert.assertTrue(metrics.getRuns(Phase.SOLVING) > 0);
+    Assert.assertEquals(metrics.getSolverPasses(), metrics.getRuns(Phase.SOLVING));
+    Assert.assertTrue(metrics.getEvaluations() > 0);
+    Assert.assertTrue(metrics.getMaxWorkListSize() > 0);
+
+    // constraints are generated at most once per node of the call graph
+    Assert.assertTrue(metrics.getNumberOfNodes() > 0);
+    Assert.assertTrue(metrics.getNumberOfNodes() <= cg.getNumberOfNodes());
+    Assert.assertEquals(metrics.getNumberOfNodes(), metrics.getRuns(Phase.CONSTRAINT_GENERATION));
+    Assert.assertTrue(metrics.getRuns(Phase.IR_CONSTRUCTION) > 0);
+    Assert.assertEquals(5, metrics.getSlowestNodes().size());
+    Assert.assertTrue(cg.containsNode(metrics.getSlowestNodes().get(0)));
+
+    int sets = 0;
+    for (int n : metrics.getPointsToSetSizes()) {
+      sets += n;
+    }
+    Assert.assertTrue(sets > 0);
+    Assert.assertTrue(metrics.toString().contains("SOLVING"));
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions.ReflectionOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildListener.Phase;
+import com.ibm.wala.ipa.callgraph.CallGraphBuildMetrics;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that sharing equal points-to sets does not change the result of pointer analysis. */
+public class HashConsedPointsToSetsTest extends WalaTestCase {
+
+  @Test
+  public void testZeroOneCFA()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = new AllApplicationEntrypoints(scope, cha);
+
+    AnalysisOptions plain = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    plain.setReflectionOptions(ReflectionOptions.NONE);
+    SSAPropagationCallGraphBuilder b1 =
+        Util.makeZeroOneCFABuilder(Language.JAVA, plain, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg1 = b1.makeCallGraph(plain, null);
+
+    CallGraphBuildMetrics metrics = new CallGraphBuildMetrics();
+    AnalysisOptions shared = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    shared.setReflectionOptions(ReflectionOptions.NONE);
+    shared.setHashConsPointsToSets(true);
+    shared.setBuildListener(metrics);
+    SSAPropagationCallGraphBuilder b2 =
+        Util.makeZeroOneCFABuilder(Language.JAVA, shared, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg2 = b2.makeCallGraph(shared, null);
+
+    Assert.assertEquals(cg1.getNumberOfNodes(), cg2.getNumberOfNodes());
+    Assert.assertEquals(ParallelSolverTest.describe(cg1), ParallelSolverTest.describe(cg2));
+    Assert.assertEquals(
+        ParallelSolverTest.describe(b1.getPointerAnalysis()),
+        ParallelSolverTest.describe(b2.getPointerAnalysis()));
+
+    Assert.assertEquals(metrics.getSolverPasses(), metrics.getRuns(Phase.HASH_CONSING));
+    Assert.assertTrue(metrics.getDistinctHashConsedSets() > 0);
+    Assert.assertTrue(metrics.getDistinctHashConsedSets() < metrics.getHashConsedSets());
+    Assert.assertTrue(metrics.toString().contains("dedup ratio"));
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.ShrikeClass;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions.ReflectionOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CodeChange;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.shrikeCT.InvalidClassFileException;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.shrike.ShrikeClassReaderHandle;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Check that updating a call graph for a change to the program yields the call graph of a fresh
+ * build for the changed program, and that the nodes affected by a change are found.
+ */
+public class IncrementalCallGraphTest extends WalaTestCase {
+
+  private static final String MAIN = "LdynamicCG/MainClass";
+
+  private static final String EXTRA = "LdynamicCG/ExtraClass";
+
+  private static final String CALLBACKS_MAIN = "LdynamicCG/CallbacksMainClass";
+
+  private static final Pattern LAMBDA = Pattern.compile("LambdaSummaryClass@[0-9a-f]+");
+
+  private static TypeReference type(String name) {
+    return TypeReference.findOrCreate(ClassLoaderReference.Application, name);
+  }
+
+  private static AnalysisScope makeScope() throws IOException {
+    return CallGraphTestUtil.makeJ2SEAnalysisScope(
+        TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+  }
+
+  /** @return a class hierarchy for scope, without the given classes */
+  private static ClassHierarchy makeClassHierarchy(
+      AnalysisScope scope, Collection<TypeReference> removed) throws ClassHierarchyException {
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    if (!removed.isEmpty()) {
+      cha.updateClasses(Collections.emptySet(), removed);
+    }
+    return cha;
+  }
+
+  private static SSAPropagationCallGraphBuilder build(
+      AnalysisScope scope, ClassHierarchy cha, ReflectionOptions reflection, String... mains)
+      throws CancelException {
+    List<Entrypoint> entrypoints = new ArrayList<>();
+    for (String main : mains) {
+      Util.makeMainEntrypoints(scope, cha, main).forEach(entrypoints::add);
+    }
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    options.setReflectionOptions(reflection);
+    options.setIncrementalUpdates(true);
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+    builder.makeCallGraph(options, null);
+    return builder;
+  }
+
+  /** @return a new version of the class of the given name, parsed again from its class file */
+  private static IClass reparse(ClassHierarchy from, ClassHierarchy to, String name)
+      throws InvalidClassFileException {
+    ShrikeClass klass = (ShrikeClass) from.lookupClass(type(name));
+    return new ShrikeClass(
+        new ShrikeClassReaderHandle(klass.getModuleEntry()),
+        to.getLoader(ClassLoaderReference.Application),
+        to);
+  }
+
+  private static void assertSameResult(
+      SSAPropagationCallGraphBuilder expected, SSAPropagationCallGraphBuilder actual) {
+    CallGraph cg = actual.getCallGraph();
+    for (CGNode n : cg) {
+      // no node is left for a method of a replaced class
+      IClass klass = n.getMethod().getDeclaringClass();
+      IClass current = actual.cha.lookupClass(klass.getReference());
+      Assert.assertTrue(n.toString(), current == null || current == klass);
+    }
+    assertSame(
+        ParallelSolverTest.describe(expected.getCallGraph()), ParallelSolverTest.describe(cg));
+    assertSame(
+        ParallelSolverTest.describe(expected.getPointerAnalysis()),
+        ParallelSolverTest.describe(actual.getPointerAnalysis()));
+  }
+
+  /**
+   * Compare large sets, and report only the differences. Separate builds make separate lambda
+   * summary classes, so these are compared without their identity.
+   */
+  private static void assertSame(Set<String> expected, Set<String> actual) {
+    Set<String> missing = normalize(expected);
+    missing.removeAll(normalize(actual));
+    Set<String> extra = normalize(actual);
+    extra.removeAll(normalize(expected));
+    Assert.assertTrue(
+        "missing " + first(missing) + ", extra " + first(extra),
+        missing.isEmpty() && extra.isEmpty());
+  }
+
+  private static Set<String> normalize(Set<String> s) {
+    return s.stream()
+        .map(x -> LAMBDA.matcher(x).replaceAll("LambdaSummaryClass"))
+        .collect(Collectors.toSet());
+  }
+
+  private static String first(Set<String> s) {
+    return s.size() + ": " + s.stream().sorted().limit(10).collect(Collectors.toList());
+  }
+
+  /** Update a call graph for changes to the given classes, which are parsed again. */
+  private static void checkChange(ReflectionOptions reflection, String main, String... changed)
+      throws ClassHierarchyException, CancelException, IOException, InvalidClassFileException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.emptySet());
+    SSAPropagationCallGraphBuilder builder = build(scope, cha, reflection, main);
+    List<IClass> classes = new ArrayList<>();
+    for (String name : changed) {
+      classes.add(reparse(cha, cha, name));
+    }
+    builder.updateCallGraph(
+        new CodeChange(Collections.emptySet(), classes, Collections.emptySet()),
+        Collections.emptySet(),
+        null);
+    for (IClass klass : classes) {
+      Assert.assertSame(klass, cha.lookupClass(klass.getReference()));
+    }
+
+    ClassHierarchy fresh = makeClassHierarchy(scope, Collections.emptySet());
+    assertSameResult(build(scope, fresh, reflection, main), builder);
+  }
+
+  @Test
+  public void testChangeClass()
+      throws ClassHierarchyException, CancelException, IOException, InvalidClassFileException {
+    checkChange(ReflectionOptions.NONE, MAIN, EXTRA);
+  }
+
+  @Test
+  public void testChangeEntrypointClass()
+      throws ClassHierarchyException, CancelException, IOException, InvalidClassFileException {
+    checkChange(ReflectionOptions.NONE, MAIN, MAIN);
+  }
+
+  @Test
+  public void testChangeReflectiveTarget()
+      throws ClassHierarchyException, CancelException, IOException, InvalidClassFileException {
+    checkChange(ReflectionOptions.FULL, TestConstants.REFLECT12_MAIN, "Lreflection/Helper");
+  }
+
+  @Test
+  public void testRemoveClass()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.emptySet());
+    SSAPropagationCallGraphBuilder builder = build(scope, cha, ReflectionOptions.NONE, MAIN);
+    Set<TypeReference> removed = Collections.singleton(type(EXTRA));
+    builder.updateCallGraph(
+        new CodeChange(Collections.emptySet(), Collections.emptySet(), removed),
+        Collections.emptySet(),
+        null);
+    Assert.assertNull(cha.lookupClass(type(EXTRA)));
+
+    ClassHierarchy fresh = makeClassHierarchy(scope, removed);
+    assertSameResult(build(scope, fresh, ReflectionOptions.NONE, MAIN), builder);
+  }
+
+  @Test
+  public void testAddClass()
+      throws ClassHierarchyException, CancelException, IOException, InvalidClassFileException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.singleton(type(EXTRA)));
+    SSAPropagationCallGraphBuilder builder = build(scope, cha, ReflectionOptions.NONE, MAIN);
+    ClassHierarchy fresh = makeClassHierarchy(scope, Collections.emptySet());
+    builder.updateCallGraph(
+        CodeChange.added(Collections.singleton(reparse(fresh, cha, EXTRA))),
+        Collections.emptySet(),
+        null);
+
+    assertSameResult(build(scope, fresh, ReflectionOptions.NONE, MAIN), builder);
+  }
+
+  @Test
+  public void testAddEntrypoint()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.emptySet());
+    SSAPropagationCallGraphBuilder builder = build(scope, cha, ReflectionOptions.NONE, MAIN);
+    builder.updateCallGraph(
+        new CodeChange(Collections.emptySet(), Collections.emptySet(), Collections.emptySet()),
+        Util.makeMainEntrypoints(scope, cha, CALLBACKS_MAIN),
+        null);
+
+    ClassHierarchy fresh = makeClassHierarchy(scope, Collections.emptySet());
+    assertSameResult(
+        build(scope, fresh, ReflectionOptions.NONE, MAIN, CALLBACKS_MAIN), builder);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRemoveEntrypointClass()
+      throws ClassHierarchyException, CancelException, IOException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.emptySet());
+    SSAPropagationCallGraphBuilder builder = build(scope, cha, ReflectionOptions.NONE, MAIN);
+    builder.updateCallGraph(
+        new CodeChange(
+            Collections.emptySet(), Collections.emptySet(), Collections.singleton(type(MAIN))),
+        Collections.emptySet(),
+        null);
+  }
+
+  @Test
+  public void testAffectedNodes()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.emptySet());
+    SSAPropagationCallGraphBuilder builder = build(scope, cha, ReflectionOptions.FULL, MAIN);
+    CallGraph cg = builder.getCallGraph();
+    int nodes = cg.getNumberOfNodes();
+
+    CodeChange change =
+        new CodeChange(
+            Collections.emptySet(), Collections.emptySet(), Collections.singleton(type(EXTRA)));
+    Set<CGNode> affected = builder.getAffectedNodes(change);
+    Assert.assertFalse(affected.isEmpty());
+    for (CGNode n : affected) {
+      Assert.assertTrue(cg.containsNode(n));
+    }
+    for (CGNode n : cg) {
+      if (n.getMethod().getDeclaringClass().getReference().equals(type(EXTRA))) {
+        Assert.assertTrue(affected.contains(n));
+      }
+    }
+
+    Assert.assertEquals(nodes, cg.getNumberOfNodes());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testBoundedFlowToCasts()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = makeScope();
+    ClassHierarchy cha = makeClassHierarchy(scope, Collections.emptySet());
+    SSAPropagationCallGraphBuilder builder =
+        build(scope, cha, ReflectionOptions.ONE_FLOW_TO_CASTS_NO_METHOD_INVOKE, MAIN);
+    builder.updateCallGraph(
+        new CodeChange(Collections.emptySet(), Collections.emptySet(), Collections.emptySet()),
+        Collections.emptySet(),
+        null);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions.ReflectionOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.AllApplicationEntrypoints;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.LocalPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.IOException;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that the multi-threaded modes of call graph construction compute the default result. */
+public class ParallelSolverTest extends WalaTestCase {
+
+  @Test
+  public void testZeroOneCFADeterminism()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = new AllApplicationEntrypoints(scope, cha);
+
+    AnalysisOptions sequential = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    sequential.setReflectionOptions(ReflectionOptions.NONE);
+    SSAPropagationCallGraphBuilder b1 =
+        Util.makeZeroOneCFABuilder(Language.JAVA, sequential, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg1 = b1.makeCallGraph(sequential, null);
+
+    AnalysisOptions parallel = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    parallel.setReflectionOptions(ReflectionOptions.NONE);
+    parallel.setSolverThreads(4);
+    SSAPropagationCallGraphBuilder b2 =
+        Util.makeZeroOneCFABuilder(Language.JAVA, parallel, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg2 = b2.makeCallGraph(parallel, null);
+
+    Assert.assertEquals(cg1.getNumberOfNodes(), cg2.getNumberOfNodes());
+    Assert.assertEquals(describe(cg1), describe(cg2));
+    Assert.assertEquals(describe(b1.getPointerAnalysis()), describe(b2.getPointerAnalysis()));
+  }
+
+  @Test
+  public void testIRPrefetchThreads()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = new AllApplicationEntrypoints(scope, cha);
+
+    AnalysisOptions sequential = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    SSAPropagationCallGraphBuilder b1 =
+        Util.makeZeroOneCFABuilder(Language.JAVA, sequential, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg1 = b1.makeCallGraph(sequential, null);
+
+    AnalysisOptions parallel = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    parallel.setIRPrefetchThreads(4);
+    SSAPropagationCallGraphBuilder b2 =
+        Util.makeZeroOneCFABuilder(Language.JAVA, parallel, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg2 = b2.makeCallGraph(parallel, null);
+
+    Assert.assertEquals(cg1.getNumberOfNodes(), cg2.getNumberOfNodes());
+    Assert.assertEquals(describe(cg1), describe(cg2));
+    Assert.assertEquals(describe(b1.getPointerAnalysis()), describe(b2.getPointerAnalysis()));
+  }
+
+  /*
+   * The fake root methods are populated in discovery order, so their value numbers and allocation
+   * sites may legitimately differ between solvers; compare everything else.
+   */
+
+  static Set<String> describe(CallGraph cg) {
+    Set<String> result = HashSetFactory.make();
+    for (CGNode n : cg) {
+      if (!(n.getMethod() instanceof AbstractRootMethod)) {
+        result.add(n.toString());
+        for (CGNode s : Iterator2Iterable.make(cg.getSuccNodes(n))) {
+          result.add(n + " -> " + s);
+        }
+      }
+    }
+    return result;
+  }
+
+  static Set<String> describe(PointerAnalysis<InstanceKey> pa) {
+    Set<String> result = HashSetFactory.make();
+    for (PointerKey k : pa.getPointerKeys()) {
+      if (k instanceof LocalPointerKey
+          && !(((LocalPointerKey) k).getNode().getMethod() instanceof AbstractRootMethod)) {
+        for (InstanceKey ik : pa.getPointsToSet(k)) {
+          result.add(k + " -> " + ik.getConcreteType());
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,107 @@
+package com.ibm.wala.core.tests.callGraph;
+
+import com.ibm.wala.classLoader.*;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.*;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions.ReflectionOptions;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.*;
+import com.ibm.wala.ipa.cha.*;
+import com.ibm.wala.types.*;
+import com.ibm.wala.util.shrike.ShrikeClassReaderHandle;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class ZzStress {
+  static final Pattern LAMBDA = Pattern.compile("LambdaSummaryClass@[0-9a-f]+");
+  static TypeReference type(String n) { return TypeReference.findOrCreate(ClassLoaderReference.Application, n); }
+
+  static SSAPropagationCallGraphBuilder build(AnalysisScope scope, ClassHierarchy cha, String kind, String main) throws Exception {
+    List<Entrypoint> eps = new ArrayList<>();
+    Util.makeMainEntrypoints(scope, cha, main).forEach(eps::add);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, eps);
+    options.setReflectionOptions(ReflectionOptions.FULL);
+    options.setIncrementalUpdates(true);
+    SSAPropagationCallGraphBuilder b;
+    switch (kind) {
+      case "0": b = Util.makeZeroCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope); break;
+      case "01": b = Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope); break;
+      case "2cfa": b = Util.makeNCFABuilder(2, options, new AnalysisCacheImpl(), cha, scope); break;
+      case "cont": b = Util.makeZeroOneContainerCFABuilder(options, new AnalysisCacheImpl(), cha, scope); break;
+      default: throw new IllegalArgumentException(kind);
+    }
+    b.makeCallGraph(options, null);
+    return b;
+  }
+
+  static Set<String> norm(Set<String> s) { return s.stream().map(x -> LAMBDA.matcher(x).replaceAll("L")).collect(Collectors.toSet()); }
+
+  static String cmp(SSAPropagationCallGraphBuilder e, SSAPropagationCallGraphBuilder a) {
+    StringBuilder sb = new StringBuilder();
+    for (int w = 0; w < 2; w++) {
+      Set<String> x = norm(w == 0 ? ParallelSolverTest.describe(e.getCallGraph()) : ParallelSolverTest.describe(e.getPointerAnalysis()));
+      Set<String> y = norm(w == 0 ? ParallelSolverTest.describe(a.getCallGraph()) : ParallelSolverTest.describe(a.getPointerAnalysis()));
+      Set<String> m = new HashSet<>(x); m.removeAll(y);
+      Set<String> ex = new HashSet<>(y); ex.removeAll(x);
+      if (!m.isEmpty() || !ex.isEmpty()) sb.append(w == 0 ? "CG" : "PA").append(" missing ").append(m.size()).append(m.stream().sorted().limit(5).collect(Collectors.toList())).append(" extra ").append(ex.size()).append(ex.stream().sorted().limit(5).collect(Collectors.toList()));
+    }
+    return sb.toString();
+  }
+
+  public static void main(String[] args) throws Exception {
+    String kind = args[0];
+    AnalysisScope scope = CallGraphTestUtil.makeJ2SEAnalysisScope(TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    int fails = 0;
+    for (int ai = 1; ai < args.length; ai++) {
+      String main = args[ai];
+      ClassHierarchy cha0 = ClassHierarchyFactory.make(scope);
+      SSAPropagationCallGraphBuilder b0 = build(scope, cha0, kind, main);
+      Set<TypeReference> app = new TreeSet<>(Comparator.comparing(Object::toString));
+      for (CGNode n : b0.getCallGraph()) {
+        IClass k = n.getMethod().getDeclaringClass();
+        if (k.getClassLoader().getReference().equals(ClassLoaderReference.Application) && k instanceof ShrikeClass) app.add(k.getReference());
+      }
+      // change all
+      long t0 = System.currentTimeMillis();
+      List<IClass> classes = new ArrayList<>();
+      for (TypeReference t : app) { ShrikeClass k = (ShrikeClass) cha0.lookupClass(t); classes.add(new ShrikeClass(new ShrikeClassReaderHandle(k.getModuleEntry()), k.getClassLoader(), cha0)); }
+      String r;
+      try {
+        b0.updateCallGraph(new CodeChange(Collections.emptySet(), classes, Collections.emptySet()), Collections.emptySet(), null);
+        long t1 = System.currentTimeMillis();
+        long t2 = System.currentTimeMillis();
+        SSAPropagationCallGraphBuilder fb = build(scope, ClassHierarchyFactory.make(scope), kind, main);
+        System.out.println("fresh build " + (System.currentTimeMillis() - t2) + "ms");
+        r = cmp(fb, b0);
+        System.out.println(main + " change-all " + app.size() + " upd=" + (t1 - t0) + "ms " + (r.isEmpty() ? "OK" : "FAIL " + r));
+      } catch (Throwable x) { System.out.println(main + " change-all EXC " + x); x.printStackTrace(System.out); r = "x"; }
+      if (!r.isEmpty()) fails++;
+      // remove each non-entrypoint app class
+      for (TypeReference t : app) {
+        if (t.getName().toString().equals(main)) continue;
+        ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+        SSAPropagationCallGraphBuilder b = build(scope, cha, kind, main);
+        try {
+          b.updateCallGraph(new CodeChange(Collections.emptySet(), Collections.emptySet(), Collections.singleton(t)), Collections.emptySet(), null);
+          ClassHierarchy fresh = ClassHierarchyFactory.make(scope);
+          fresh.updateClasses(Collections.emptySet(), Collections.singleton(t));
+          r = cmp(build(scope, fresh, kind, main), b);
+          System.out.println(main + " remove " + t + " " + (r.isEmpty() ? "OK" : "FAIL " + r));
+        } catch (IllegalStateException x) { System.out.println(main + " remove " + t + " ISE " + x.getMessage()); r = ""; }
+        catch (Throwable x) { System.out.println(main + " remove " + t + " EXC " + x); x.printStackTrace(System.out); r = "x"; }
+        if (!r.isEmpty()) fails++;
+        // re-add
+        ClassHierarchy full = ClassHierarchyFactory.make(scope);
+        ShrikeClass k = (ShrikeClass) full.lookupClass(t);
+        try {
+          b.updateCallGraph(CodeChange.added(Collections.singleton(new ShrikeClass(new ShrikeClassReaderHandle(k.getModuleEntry()), cha.getLoader(ClassLoaderReference.Application), cha))), Collections.emptySet(), null);
+          r = cmp(build(scope, full, kind, main), b);
+          System.out.println(main + " readd " + t + " " + (r.isEmpty() ? "OK" : "FAIL " + r));
+        } catch (Throwable x) { System.out.println(main + " readd " + t + " EXC " + x); x.printStackTrace(System.out); r = "x"; }
+        if (!r.isEmpty()) fails++;
+      }
+    }
+    System.out.println("FAILS " + fails);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.cha;
+
+import com.ibm.wala.classLoader.ClassLoaderFactoryImpl;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IClassLoader;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchy.MissingSuperClassHandling;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchySnapshot;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Check that a {@link ClassHierarchy} restored from a {@link ClassHierarchySnapshot} is the same.
+ */
+public class ClassHierarchySnapshotTest extends WalaTestCase {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private static AnalysisScope makeScope() throws IOException {
+    return CallGraphTestUtil.makeJ2SEAnalysisScope(
+        TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+  }
+
+  @Test
+  public void testRoundTrip() throws ClassHierarchyException, IOException {
+    File file = new File(folder.getRoot(), "cha.snapshot");
+    ClassHierarchy built = ClassHierarchySnapshot.make(makeScope(), file);
+    Assert.assertTrue(file.isFile());
+
+    AnalysisScope scope = makeScope();
+    ClassHierarchy restored =
+        ClassHierarchySnapshot.read(
+            file,
+            scope,
+            new ClassLoaderFactoryImpl(scope.getExclusions()),
+            MissingSuperClassHandling.NONE);
+    Assert.assertNotNull(restored);
+    Assert.assertEquals(built.getNumberOfClasses(), restored.getNumberOfClasses());
+    Assert.assertEquals(built.getUnresolvedClasses(), restored.getUnresolvedClasses());
+
+    for (IClass expected : built) {
+      IClass actual = restored.lookupClass(expected.getReference());
+      Assert.assertNotNull(expected.toString(), actual);
+      Assert.assertNotSame(expected, actual);
+      Assert.assertEquals(built.getNumber(expected), restored.getNumber(actual));
+      Assert.assertEquals(
+          references(built.getImmediateSubclasses(expected)),
+          references(restored.getImmediateSubclasses(actual)));
+      if (expected.isInterface()) {
+        Assert.assertEquals(
+            references(built.getImplementors(expected.getReference())),
+            references(restored.getImplementors(actual.getReference())));
+      }
+      Assert.assertEquals(expected.getModifiers(), actual.getModifiers());
+      Assert.assertEquals(
+          String.valueOf(expected.getDeclaredInstanceFields()),
+          String.valueOf(actual.getDeclaredInstanceFields()));
+      Assert.assertEquals(
+          String.valueOf(expected.getDeclaredStaticFields()),
+          String.valueOf(actual.getDeclaredStaticFields()));
+      Assert.assertEquals(expected.getDeclaredMethods().size(), actual.getDeclaredMethods().size());
+      IClass superclass = expected.getSuperclass();
+      if (superclass != null) {
+        Assert.assertTrue(
+            restored.isSubclassOf(actual, restored.lookupClass(superclass.getReference())));
+      }
+    }
+
+    // the loaders hold exactly the classes in the hierarchy
+    for (IClassLoader loader : restored.getLoaders()) {
+      Assert.assertEquals(
+          loader.getNumberOfClasses(), built.getLoader(loader.getReference()).getNumberOfClasses());
+      for (IClass klass : Iterator2Iterable.make(loader.iterateAllClasses())) {
+        Assert.assertSame(klass, restored.lookupClass(klass.getReference()));
+      }
+    }
+  }
+
+  @Test
+  public void testStale() throws ClassHierarchyException, IOException {
+    File file = new File(folder.getRoot(), "cha.snapshot");
+    ClassHierarchySnapshot.make(makeScope(), file);
+
+    // a different handling of missing superclasses may give a different hierarchy
+    AnalysisScope scope = makeScope();
+    Assert.assertNull(
+        ClassHierarchySnapshot.read(
+            file,
+            scope,
+            new ClassLoaderFactoryImpl(scope.getExclusions()),
+            MissingSuperClassHandling.ROOT));
+
+    // so may a different set of modules
+    scope = makeScope();
+    scope.addSourceFileToScope(scope.getApplicationLoader(), folder.newFile("A.java"), "A.java");
+    Assert.assertNull(
+        ClassHierarchySnapshot.read(
+            file,
+            scope,
+            new ClassLoaderFactoryImpl(scope.getExclusions()),
+            MissingSuperClassHandling.NONE));
+
+    // and garbage is ignored
+    File garbage = folder.newFile("garbage.snapshot");
+    scope = makeScope();
+    Assert.assertNull(
+        ClassHierarchySnapshot.read(
+            garbage,
+            scope,
+            new ClassLoaderFactoryImpl(scope.getExclusions()),
+            MissingSuperClassHandling.NONE));
+  }
+
+  private static Set<TypeReference> references(Iterable<IClass> classes) {
+    Set<TypeReference> result = HashSetFactory.make();
+    for (IClass klass : classes) {
+      result.add(klass.getReference());
+    }
+    return result;
+  }
+}
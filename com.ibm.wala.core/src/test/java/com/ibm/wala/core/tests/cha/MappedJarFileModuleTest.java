@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.cha;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.JarFileModule;
+import com.ibm.wala.classLoader.MappedJarFileEntry;
+import com.ibm.wala.classLoader.MappedJarFileModule;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.ModuleEntry;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.io.FileUtil;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Check that a {@link MappedJarFileModule} reads the same contents as a {@link JarFileModule}. */
+public class MappedJarFileModuleTest extends WalaTestCase {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSameClasses() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    AnalysisScope mapped = AnalysisScope.createJavaAnalysisScope();
+    mapped.setExclusions(scope.getExclusions());
+    int jars = 0;
+    for (ClassLoaderReference loader : scope.getLoaders()) {
+      for (Module m : scope.getModules(loader)) {
+        if (m instanceof JarFileModule) {
+          JarFile jar = ((JarFileModule) m).getJarFile();
+          mapped.addToScope(loader, new MappedJarFileModule(new JarFile(jar.getName(), false)));
+          jars++;
+        } else {
+          mapped.addToScope(loader, m);
+        }
+      }
+    }
+    Assert.assertTrue(jars > 0);
+
+    ClassHierarchy expected = ClassHierarchyFactory.make(scope);
+    ClassHierarchy actual = ClassHierarchyFactory.make(mapped);
+    Assert.assertEquals(names(expected), names(actual));
+  }
+
+  @Test
+  public void testStoredAndDeflated() throws IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    JarFileModule source = null;
+    for (Module m : scope.getModules(ClassLoaderReference.Application)) {
+      if (m instanceof JarFileModule) {
+        source = (JarFileModule) m;
+      }
+    }
+    Assert.assertNotNull(source);
+
+    // copy every class file twice, once compressed and once not
+    File copy = folder.newFile("copy.jar");
+    int entries = 0;
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(copy))) {
+      for (ModuleEntry e : Iterator2Iterable.make(source.getEntries())) {
+        if (e.isClassFile()) {
+          byte[] b = read(e.getInputStream());
+          out.putNextEntry(new JarEntry("deflated/" + e.getName()));
+          out.write(b);
+          JarEntry stored = new JarEntry("stored/" + e.getName());
+          stored.setMethod(ZipEntry.STORED);
+          stored.setSize(b.length);
+          CRC32 crc = new CRC32();
+          crc.update(b);
+          stored.setCrc(crc.getValue());
+          out.putNextEntry(stored);
+          out.write(b);
+          entries += 2;
+        }
+      }
+    }
+
+    JarFileModule plain = new JarFileModule(new JarFile(copy, false));
+    MappedJarFileModule mapped = new MappedJarFileModule(new JarFile(copy, false));
+    int count = 0;
+    for (ModuleEntry e : Iterator2Iterable.make(mapped.getEntries())) {
+      Assert.assertTrue(e instanceof MappedJarFileEntry);
+      ZipEntry z = plain.getJarFile().getEntry(e.getName());
+      byte[] b = plain.getContents(z);
+      Assert.assertArrayEquals(b, ((MappedJarFileEntry) e).getBytes());
+      Assert.assertArrayEquals(b, read(e.getInputStream()));
+      ByteBuffer buffer = e.getByteBuffer();
+      byte[] fromBuffer = new byte[buffer.remaining()];
+      buffer.get(fromBuffer);
+      Assert.assertArrayEquals(b, fromBuffer);
+      Assert.assertArrayEquals(b, mapped.getContents(z));
+      Assert.assertEquals(b.length, ((MappedJarFileEntry) e).getSize());
+      count++;
+    }
+    Assert.assertEquals(entries, count);
+  }
+
+  private static byte[] read(InputStream s) throws IOException {
+    try (InputStream in = s) {
+      return FileUtil.readBytes(in);
+    }
+  }
+
+  private static Set<String> names(ClassHierarchy cha) {
+    Set<String> result = HashSetFactory.make();
+    for (IClass klass : cha) {
+      result.add(klass.toString());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.cha;
+
+import com.ibm.wala.classLoader.ClassLoaderFactoryImpl;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IClassLoader;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.warnings.Warning;
+import com.ibm.wala.util.warnings.Warnings;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Check that loading class files on several threads yields the same classes as loading serially.
+ */
+public class ParallelClassLoadingTest extends WalaTestCase {
+
+  @Test
+  public void testSameClasses() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+
+    Warnings.clear();
+    ClassHierarchy sequential =
+        ClassHierarchyFactory.make(scope, new ClassLoaderFactoryImpl(scope.getExclusions()));
+    Set<String> sequentialWarnings = warnings();
+
+    Warnings.clear();
+    ClassLoaderFactoryImpl factory = new ClassLoaderFactoryImpl(scope.getExclusions());
+    factory.setLoadingThreads(4);
+    ClassHierarchy parallel = ClassHierarchyFactory.make(scope, factory);
+    Set<String> parallelWarnings = warnings();
+
+    Assert.assertEquals(sequential.getNumberOfClasses(), parallel.getNumberOfClasses());
+    Assert.assertEquals(sequentialWarnings, parallelWarnings);
+    for (IClassLoader loader : sequential.getLoaders()) {
+      Assert.assertEquals(describe(loader), describe(parallel.getLoader(loader.getReference())));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalThreads() {
+    new ClassLoaderFactoryImpl(null).setLoadingThreads(0);
+  }
+
+  private static Set<String> warnings() {
+    Set<String> result = HashSetFactory.make();
+    for (Warning w : Iterator2Iterable.make(Warnings.iterator())) {
+      result.add(w.getMsg());
+    }
+    return result;
+  }
+
+  /** @return a summary of each class of loader: its module, super class, interfaces and fields */
+  private static Map<String, String> describe(IClassLoader loader) {
+    Map<String, String> result = HashMapFactory.make();
+    for (IClass klass : Iterator2Iterable.make(loader.iterateAllClasses())) {
+      StringBuilder s = new StringBuilder();
+      s.append(klass.getSourceFileName()).append(' ').append(klass.getModifiers());
+      s.append(' ').append(klass.getSuperclass());
+      for (IClass i : klass.getDirectInterfaces()) {
+        s.append(' ').append(i);
+      }
+      for (IField f : klass.getDeclaredInstanceFields()) {
+        s.append(' ').append(f);
+      }
+      for (IField f : klass.getDeclaredStaticFields()) {
+        s.append(' ').append(f);
+      }
+      result.put(klass.getName().toString(), s.toString());
+    }
+    return result;
+  }
+}
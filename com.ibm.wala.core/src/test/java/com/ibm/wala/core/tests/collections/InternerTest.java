@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.collections;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.Interner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests {@link Interner} and the canonical tables built on it. */
+public class InternerTest extends WalaTestCase {
+
+  public static void main(String[] args) {
+    justThisTest(InternerTest.class);
+  }
+
+  @Test
+  public void testStrong() {
+    Interner<String, Object> interner = new Interner<>(false);
+    Object a = interner.intern("a", k -> new Object());
+    Assert.assertSame(a, interner.intern("a", k -> new Object()));
+    Assert.assertSame(a, interner.find("a"));
+    Assert.assertNull(interner.find("b"));
+    Assert.assertEquals(1, interner.size());
+  }
+
+  @Test
+  public void testWeak() throws InterruptedException {
+    Interner<String, Object> interner = new Interner<>(true);
+    Object a = interner.intern("a", k -> new Object());
+    Assert.assertSame(a, interner.intern("a", k -> new Object()));
+
+    interner.intern("b", k -> new Object());
+    for (int i = 0; i < 100 && interner.find("b") != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertNull(interner.find("b"));
+    Assert.assertNotNull(interner.intern("b", k -> new Object()));
+    Assert.assertSame(a, interner.find("a"));
+    Assert.assertEquals(2, interner.size());
+  }
+
+  /** Threads interning the same names at once all get the same canonical objects. */
+  @Test
+  public void testConcurrentTypeReferences() throws InterruptedException, ExecutionException {
+    int threads = 8;
+    int names = 2000;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<TypeReference[]>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        tasks.add(
+            () -> {
+              TypeReference[] result = new TypeReference[names];
+              for (int i = 0; i < names; i++) {
+                result[i] =
+                    TypeReference.findOrCreate(
+                        ClassLoaderReference.Application, "Linterner/test/C" + i);
+              }
+              return result;
+            });
+      }
+      TypeReference[] first = null;
+      for (Future<TypeReference[]> f : pool.invokeAll(tasks)) {
+        if (first == null) {
+          first = f.get();
+        } else {
+          Assert.assertArrayEquals(first, f.get());
+          for (int i = 0; i < names; i++) {
+            Assert.assertSame(first[i], f.get()[i]);
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.collections;
+
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.FieldReference;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.TypeName;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Interner;
+import com.ibm.wala.util.strings.Atom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Measures the throughput of looking up canonical {@link TypeReference}s, {@link MethodReference}s
+ * and {@link FieldReference}s from several threads at once, against a table guarded by a single
+ * lock as the tables were before {@link Interner}.
+ *
+ * <p>Each iteration of the first run looks up a type, a method and a field reference; the other two
+ * compare an {@link Interner} with the single lock on the same keys. Run with {@code
+ * -Dcom.ibm.wala.weakInterning=true} to measure the weak tables. Arguments: the largest number of
+ * threads (default: the number of processors) and the number of lookups per thread (default
+ * 2000000).
+ */
+public class InterningBenchmark {
+
+  private static final int NAMES = 4096;
+
+  /** A table guarded by a single lock */
+  private static final class LockedTable<K, V> {
+    private final Map<K, V> map = HashMapFactory.make();
+
+    synchronized V intern(K key, Function<? super K, ? extends V> make) {
+      V v = map.get(key);
+      if (v == null) {
+        v = make.apply(key);
+        map.put(key, v);
+      }
+      return v;
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException, ExecutionException {
+    int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : availableProcessors();
+    int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+
+    TypeName[] typeNames = new TypeName[NAMES];
+    for (int i = 0; i < NAMES; i++) {
+      typeNames[i] = TypeName.string2TypeName("Lbenchmark/pkg" + (i % 64) + "/C" + i);
+    }
+    Atom name = Atom.findOrCreateUnicodeAtom("m");
+    Interner<TypeName, Object> interner = Interner.make();
+    LockedTable<TypeName, Object> locked = new LockedTable<>();
+
+    System.out.println("weak interning: " + Boolean.getBoolean(Interner.WEAK_PROPERTY));
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      double references =
+          run(
+              threads,
+              lookups,
+              i -> {
+                TypeReference t =
+                    TypeReference.findOrCreate(
+                        ClassLoaderReference.Application, typeNames[i % NAMES]);
+                MethodReference.findOrCreate(t, name, MethodReference.defaultInitDesc);
+                FieldReference.findOrCreate(t, name, TypeReference.Int);
+              });
+      double interned = run(threads, lookups, i -> interner.intern(typeNames[i % NAMES], Box::new));
+      double single = run(threads, lookups, i -> locked.intern(typeNames[i % NAMES], Box::new));
+      System.out.printf(
+          "%2d threads: %7.1f M references/s, %7.1f M lookups/s interner, %7.1f M lookups/s single"
+              + " lock%n",
+          threads, references * 3, interned, single);
+    }
+  }
+
+  /** A canonical object for the table benchmarks */
+  private static final class Box {
+    @SuppressWarnings("unused")
+    private final TypeName name;
+
+    Box(TypeName name) {
+      this.name = name;
+    }
+  }
+
+  private static int availableProcessors() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  private interface Lookup {
+    void apply(int i);
+  }
+
+  /** @return millions of lookups per second over all threads */
+  private static double run(int threads, int lookups, Lookup lookup)
+      throws InterruptedException, ExecutionException {
+    // warm up
+    for (int i = 0; i < lookups; i++) {
+      lookup.apply(i);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t * 7919;
+        tasks.add(
+            () -> {
+              for (int i = 0; i < lookups; i++) {
+                lookup.apply(offset + i);
+              }
+              return null;
+            });
+      }
+      long start = System.nanoTime();
+      for (Future<Void> f : pool.invokeAll(tasks)) {
+        f.get();
+      }
+      long elapsed = System.nanoTime() - start;
+      return (double) threads * lookups * 1000 / elapsed;
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.ir;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ssa.BoundedAuxiliaryCache;
+import com.ibm.wala.ssa.ConcurrentAuxiliaryCache;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.types.TypeReference;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Check the bookkeeping of {@link BoundedAuxiliaryCache}. */
+public class BoundedIRCacheTest extends WalaTestCase {
+
+  private static final int BOUND = 10;
+
+  private static final List<IMethod> methods = new ArrayList<>();
+
+  @BeforeClass
+  public static void beforeClass() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClass string = ClassHierarchyFactory.make(scope).lookupClass(TypeReference.JavaLangString);
+    for (IMethod m : string.getDeclaredMethods()) {
+      if (!m.isAbstract() && !m.isNative()) {
+        methods.add(m);
+      }
+    }
+    Assert.assertTrue(methods.size() > BOUND);
+  }
+
+  @Test
+  public void testEntryBound() {
+    BoundedAuxiliaryCache irs = BoundedAuxiliaryCache.withMaxEntries(BOUND);
+    AnalysisCacheImpl cache =
+        new AnalysisCacheImpl(
+            new DefaultIRFactory(),
+            new AnalysisOptions().getSSAOptions(),
+            irs,
+            new ConcurrentAuxiliaryCache());
+
+    for (IMethod m : methods) {
+      cache.getIR(m);
+    }
+    Assert.assertEquals(BOUND, irs.size());
+    Assert.assertEquals(methods.size(), irs.getMissCount());
+    Assert.assertEquals(methods.size() - BOUND, irs.getEvictionCount());
+    Assert.assertEquals(0, irs.getHitCount());
+
+    // the most recent entries are still there
+    IMethod last = methods.get(methods.size() - 1);
+    Assert.assertSame(cache.getIR(last), cache.getIR(last));
+    Assert.assertEquals(2, irs.getHitCount());
+
+    // the oldest one was evicted and must be rebuilt
+    cache.getIR(methods.get(0));
+    Assert.assertEquals(methods.size() + 1, irs.getMissCount());
+    Assert.assertEquals(BOUND, irs.size());
+
+    // memory pressure does not defeat the bound
+    cache.getSSACache().onMemoryPressure();
+    Assert.assertEquals(BOUND, irs.size());
+  }
+
+  @Test
+  public void testByteBound() {
+    long max = 0;
+    for (IMethod m : methods.subList(0, BOUND)) {
+      max += BoundedAuxiliaryCache.estimateBytes(new AnalysisCacheImpl().getIR(m));
+    }
+    BoundedAuxiliaryCache irs = BoundedAuxiliaryCache.withMaxBytes(max);
+    BoundedAuxiliaryCache dus = BoundedAuxiliaryCache.withMaxBytes(max);
+    AnalysisCacheImpl cache =
+        new AnalysisCacheImpl(
+            new DefaultIRFactory(), new AnalysisOptions().getSSAOptions(), irs, dus);
+
+    for (IMethod m : methods) {
+      IR ir = cache.getIR(m);
+      Assert.assertNotNull(cache.getDefUse(ir));
+      Assert.assertTrue(irs.getWeight() <= max);
+      Assert.assertTrue(dus.getWeight() <= max);
+    }
+    Assert.assertTrue(irs.getEvictionCount() > 0);
+
+    cache.getSSACache().wipe();
+    Assert.assertEquals(0, irs.size());
+    Assert.assertEquals(0, irs.getWeight());
+  }
+}
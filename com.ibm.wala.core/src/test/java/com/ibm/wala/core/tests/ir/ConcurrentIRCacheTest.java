@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.core.tests.ir;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ssa.DefUse;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.types.TypeReference;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Check that the default IR cache may be shared by several threads without duplicating work. */
+public class ConcurrentIRCacheTest extends WalaTestCase {
+
+  private static final int THREADS = 8;
+
+  @Test
+  public void testComputeOnce()
+      throws ClassHierarchyException, IOException, InterruptedException, ExecutionException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    ClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    IClass string = cha.lookupClass(TypeReference.JavaLangString);
+    final List<IMethod> methods = new ArrayList<>();
+    for (IMethod m : string.getDeclaredMethods()) {
+      if (!m.isAbstract() && !m.isNative()) {
+        methods.add(m);
+      }
+    }
+
+    final AtomicInteger built = new AtomicInteger();
+    final AnalysisCacheImpl cache =
+        new AnalysisCacheImpl(
+            new DefaultIRFactory() {
+              @Override
+              public IR makeIR(IMethod method, Context c, SSAOptions options) {
+                built.incrementAndGet();
+                return super.makeIR(method, c, options);
+              }
+            });
+
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<List<Object>>> results = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        results.add(
+            pool.submit(
+                () -> {
+                  List<Object> result = new ArrayList<>();
+                  for (IMethod m : methods) {
+                    IR ir = cache.getIR(m);
+                    DefUse du = cache.getDefUse(ir);
+                    result.add(ir);
+                    result.add(du);
+                  }
+                  return result;
+                }));
+      }
+
+      List<Object> first = results.get(0).get();
+      for (Future<List<Object>> f : results) {
+        List<Object> other = f.get();
+        for (int i = 0; i < first.size(); i++) {
+          Assert.assertSame(first.get(i), other.get(i));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    Assert.assertEquals(methods.size(), built.get());
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.core.tests.ir;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchy;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ssa.DefUse;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.PersistentIRCache;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.types.Selector;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.WalaRuntimeException;
+import com.ibm.wala.util.warnings.Warnings;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Check that IRs read back from a {@link PersistentIRCache} match freshly built ones. */
+public class PersistentIRCacheTest extends WalaTestCase {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private static ClassHierarchy makeClassHierarchy() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    return ClassHierarchyFactory.make(scope);
+  }
+
+  @Test
+  public void testRoundTrip() throws ClassHierarchyException, IOException {
+    ClassHierarchy cha = makeClassHierarchy();
+    List<IMethod> methods = new ArrayList<>();
+    for (IClass klass : cha) {
+      if (klass.getClassLoader().getReference().equals(ClassLoaderReference.Application)
+          || klass.getReference().equals(TypeReference.JavaLangString)) {
+        for (IMethod m : klass.getDeclaredMethods()) {
+          if (!m.isAbstract() && !m.isNative()) {
+            methods.add(m);
+          }
+        }
+      }
+    }
+    SSAOptions options = new AnalysisOptions().getSSAOptions();
+
+    PersistentIRCache writer = new PersistentIRCache(folder.getRoot());
+    DefaultIRFactory building = new DefaultIRFactory(writer);
+    List<IR> built = new ArrayList<>();
+    int failed = 0;
+    for (Iterator<IMethod> it = methods.iterator(); it.hasNext(); ) {
+      try {
+        built.add(building.makeIR(it.next(), Everywhere.EVERYWHERE, options));
+      } catch (WalaRuntimeException e) {
+        // the test data contains deliberately broken methods
+        it.remove();
+        failed++;
+      }
+    }
+    Assert.assertEquals(0, writer.getHitCount());
+    Assert.assertEquals(methods.size() + failed, writer.getMissCount());
+    Assert.assertTrue(writer.getStoreCount() > methods.size() / 2);
+    Assert.assertEquals(0, writer.getFailureCount());
+
+    PersistentIRCache reader = new PersistentIRCache(folder.getRoot());
+    DefaultIRFactory loading = new DefaultIRFactory(reader);
+    for (int i = 0; i < methods.size(); i++) {
+      IR expected = built.get(i);
+      IR actual = loading.makeIR(methods.get(i), Everywhere.EVERYWHERE, options);
+      Assert.assertNotSame(expected, actual);
+      Assert.assertEquals(expected.toString(), actual.toString());
+      checkLocalNames(expected, actual);
+      checkUses(expected, actual);
+    }
+    Assert.assertEquals(writer.getStoreCount(), reader.getHitCount());
+    Assert.assertEquals(0, reader.getFailureCount());
+  }
+
+  @Test
+  public void testTruncatedFile() throws ClassHierarchyException, IOException {
+    ClassHierarchy cha = makeClassHierarchy();
+    IMethod method =
+        cha.lookupClass(TypeReference.JavaLangString)
+            .getMethod(Selector.make("hashCode()I"));
+    SSAOptions options = new AnalysisOptions().getSSAOptions();
+
+    PersistentIRCache cache = new PersistentIRCache(folder.getRoot());
+    new DefaultIRFactory(cache).makeIR(method, Everywhere.EVERYWHERE, options);
+    Assert.assertEquals(1, cache.getStoreCount());
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(folder.getRoot().toPath())) {
+      files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    Assert.assertEquals(1, files.size());
+    Files.write(files.get(0), Arrays.copyOf(Files.readAllBytes(files.get(0)), 16));
+
+    Warnings.clear();
+    Assert.assertNull(cache.find(method, options));
+    Assert.assertEquals(1, cache.getFailureCount());
+    Assert.assertEquals(2, cache.getMissCount());
+    Assert.assertTrue(Warnings.asString().contains(PersistentIRCache.CacheFailure.class.getName()));
+  }
+
+  private static void checkLocalNames(IR expected, IR actual) {
+    SSAInstruction[] instructions = expected.getInstructions();
+    for (int i = 0; i < instructions.length; i++) {
+      if (instructions[i] != null) {
+        for (int vn = 1; vn <= expected.getSymbolTable().getMaxValueNumber(); vn++) {
+          Assert.assertArrayEquals(expected.getLocalNames(i, vn), actual.getLocalNames(i, vn));
+        }
+      }
+    }
+  }
+
+  private static void checkUses(IR expected, IR actual) {
+    DefUse du1 = new DefUse(expected);
+    DefUse du2 = new DefUse(actual);
+    for (int vn = 1; vn <= expected.getSymbolTable().getMaxValueNumber(); vn++) {
+      Assert.assertEquals(du1.getNumberOfUses(vn), du2.getNumberOfUses(vn));
+      Assert.assertEquals(String.valueOf(du1.getDef(vn)), String.valueOf(du2.getDef(vn)));
+    }
+    for (int i = 0; i < expected.getInstructions().length; i++) {
+      SSAInstruction s = expected.getInstructions()[i];
+      if (s != null) {
+        SSAInstruction t = actual.getInstructions()[i];
+        Assert.assertEquals(
+            Arrays.asList(s.getClass().getSuperclass(), s.isPEI(), s.getExceptionTypes()),
+            Arrays.asList(t.getClass().getSuperclass(), t.isPEI(), t.getExceptionTypes()));
+      }
+    }
+  }
+}
@@ -44,9 +44,11 @@ import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
 import com.ibm.wala.ipa.slicer.SlicerUtil;
 import com.ibm.wala.ipa.slicer.Statement;
 import com.ibm.wala.ipa.slicer.thin.ThinSlicer;
+import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.types.ClassLoaderReference;
 import com.ibm.wala.types.Descriptor;
 import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.config.AnalysisScopeReader;
 import com.ibm.wala.util.config.FileOfClasses;
 import com.ibm.wala.util.graph.GraphIntegrity;
@@ -54,8 +56,11 @@ import com.ibm.wala.util.graph.GraphIntegrity.UnsoundGraphException;
 import com.ibm.wala.util.strings.Atom;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Test;
@@ -181,6 +186,78 @@ public class SlicerTest {
     Assert.assertEquals(slice.toString(), 9, SlicerUtil.countNormals(slice));
   }
 
+  @Test
+  public void testPrefetchPDGs()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = findOrCreateAnalysisScope();
+    IClassHierarchy cha = findOrCreateCHA(scope);
+    Iterable<Entrypoint> entrypoints =
+        com.ibm.wala.ipa.callgraph.impl.Util.makeMainEntrypoints(
+            scope, cha, TestConstants.SLICE2_MAIN);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg = builder.makeCallGraph(options, null);
+
+    CGNode main = CallGraphSearchUtil.findMethod(cg, "baz");
+
+    Statement s = SlicerUtil.findCallTo(main, "println");
+    final PointerAnalysis<InstanceKey> pointerAnalysis = builder.getPointerAnalysis();
+    SDG<InstanceKey> lazy =
+        new SDG<>(cg, pointerAnalysis, DataDependenceOptions.FULL, ControlDependenceOptions.FULL);
+    SDG<InstanceKey> prefetched =
+        new SDG<>(cg, pointerAnalysis, DataDependenceOptions.FULL, ControlDependenceOptions.FULL);
+    prefetched.prefetchPDGs(Collections.singleton(s), 4);
+
+    Assert.assertEquals(
+        HashSetFactory.make(Slicer.computeBackwardSlice(lazy, s)),
+        HashSetFactory.make(Slicer.computeBackwardSlice(prefetched, s)));
+    Assert.assertEquals(
+        HashSetFactory.make(Slicer.computeForwardSlice(lazy, s)),
+        HashSetFactory.make(Slicer.computeForwardSlice(prefetched, s)));
+  }
+
+  @Test
+  public void testBackwardSlices()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = findOrCreateAnalysisScope();
+    IClassHierarchy cha = findOrCreateCHA(scope);
+    Iterable<Entrypoint> entrypoints =
+        com.ibm.wala.ipa.callgraph.impl.Util.makeMainEntrypoints(
+            scope, cha, TestConstants.SLICE2_MAIN);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg = builder.makeCallGraph(options, null);
+
+    List<Statement> criteria = new ArrayList<>();
+    for (String method : new String[] {"main", "baz"}) {
+      CGNode n = CallGraphSearchUtil.findMethod(cg, method);
+      SSAInstruction[] instructions = n.getIR().getInstructions();
+      for (int i = 0; i < instructions.length; i++) {
+        if (instructions[i] != null) {
+          criteria.add(new NormalStatement(n, i));
+        }
+      }
+    }
+    SDG<InstanceKey> sdg =
+        new SDG<>(
+            cg,
+            builder.getPointerAnalysis(),
+            DataDependenceOptions.FULL,
+            ControlDependenceOptions.FULL);
+    Map<Statement, Collection<Statement>> slices = Slicer.computeBackwardSlices(sdg, criteria);
+
+    Assert.assertEquals(criteria.size(), slices.size());
+    for (Statement s : criteria) {
+      Assert.assertEquals(
+          HashSetFactory.make(Slicer.computeBackwardSlice(sdg, s)),
+          HashSetFactory.make(slices.get(s)));
+    }
+  }
+
   @Test
   public void testSlice3()
       throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
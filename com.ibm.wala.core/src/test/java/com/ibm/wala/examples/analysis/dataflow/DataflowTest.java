@@ -10,13 +10,26 @@
  */
 package com.ibm.wala.examples.analysis.dataflow;
 
+import com.ibm.wala.classLoader.IField;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.classLoader.Language;
 import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
 import com.ibm.wala.core.tests.util.TestConstants;
 import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.dataflow.IFDS.ICFGSupergraph;
+import com.ibm.wala.dataflow.IFDS.IFlowFunction;
+import com.ibm.wala.dataflow.IFDS.IFlowFunctionMap;
+import com.ibm.wala.dataflow.IFDS.IMergeFunction;
 import com.ibm.wala.dataflow.IFDS.ISupergraph;
+import com.ibm.wala.dataflow.IFDS.IUnaryFlowFunction;
+import com.ibm.wala.dataflow.IFDS.IdentityFlowFunction;
+import com.ibm.wala.dataflow.IFDS.ParallelTabulationSolver;
+import com.ibm.wala.dataflow.IFDS.PathEdge;
+import com.ibm.wala.dataflow.IFDS.TabulationDomain;
+import com.ibm.wala.dataflow.IFDS.TabulationProblem;
 import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.dataflow.IFDS.TabulationSolver;
+import com.ibm.wala.dataflow.IFDS.UnorderedDomain;
 import com.ibm.wala.dataflow.graph.BitVectorSolver;
 import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
 import com.ibm.wala.ipa.callgraph.AnalysisOptions;
@@ -36,20 +49,28 @@ import com.ibm.wala.ipa.cha.ClassHierarchyException;
 import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.SSAInstruction;
 import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.ssa.SSAPutInstruction;
 import com.ibm.wala.ssa.analysis.ExplodedControlFlowGraph;
 import com.ibm.wala.ssa.analysis.IExplodedBasicBlock;
 import com.ibm.wala.types.ClassLoaderReference;
 import com.ibm.wala.types.MethodReference;
 import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.config.AnalysisScopeReader;
 import com.ibm.wala.util.config.FileOfClasses;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.SparseIntSet;
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -226,4 +247,173 @@ public class DataflowTest extends WalaTestCase {
       }
     }
   }
+
+  @Test
+  public void testParallelTabulation() throws IllegalArgumentException, CancelException {
+    Iterable<Entrypoint> entrypoints =
+        com.ibm.wala.ipa.callgraph.impl.Util.makeMainEntrypoints(
+            scope, cha, "LmessageFormatTest/MessageFormatBench");
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha, scope);
+    CallGraph cg = builder.makeCallGraph(options, null);
+    StaticFieldDefsProblem problem = new StaticFieldDefsProblem(cg);
+    TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Object> expected =
+        TabulationSolver.make(problem).solve();
+    TabulationSolver<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Object> solver =
+        TabulationSolver.make(problem, 4);
+    Assert.assertTrue(solver instanceof ParallelTabulationSolver);
+    TabulationResult<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Object> actual =
+        solver.solve();
+
+    Assert.assertEquals(expected.getSupergraphNodesReached(), actual.getSupergraphNodesReached());
+    ISupergraph<BasicBlockInContext<IExplodedBasicBlock>, CGNode> supergraph =
+        problem.getSupergraph();
+    boolean reachingDefs = false;
+    Set<CGNode> procedures = HashSetFactory.make();
+    for (BasicBlockInContext<IExplodedBasicBlock> bb : supergraph) {
+      IntSet e = expected.getResult(bb);
+      Assert.assertTrue(bb.toString(), e.sameValue(actual.getResult(bb)));
+      reachingDefs |= e.size() > 1;
+      procedures.add(supergraph.getProcOf(bb));
+    }
+    Assert.assertTrue(reachingDefs);
+    for (CGNode n : procedures) {
+      for (BasicBlockInContext<IExplodedBasicBlock> entry : supergraph.getEntriesForProcedure(n)) {
+        for (BasicBlockInContext<IExplodedBasicBlock> exit : supergraph.getExitsForProcedure(n)) {
+          for (int d1 = 0; d1 < problem.getDomain().getSize(); d1++) {
+            IntSet e = expected.getSummaryTargets(entry, d1, exit);
+            IntSet a = actual.getSummaryTargets(entry, d1, exit);
+            Assert.assertTrue(e == null ? a == null : e.sameValue(a));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * A balanced version of {@link ContextSensitiveReachingDefs}: fact 0 holds everywhere, and each
+   * putstatic generates its own fact from it. Everything the flow functions need is computed up
+   * front, so that they can be used from several threads at once.
+   */
+  private static class StaticFieldDefsProblem
+      implements TabulationProblem<BasicBlockInContext<IExplodedBasicBlock>, CGNode, Object> {
+
+    private final ICFGSupergraph supergraph;
+
+    private final UnorderedDomain<Object, BasicBlockInContext<IExplodedBasicBlock>> domain =
+        new UnorderedDomain<>();
+
+    /** fact -&gt; the static field defined by its putstatic */
+    private final Map<Integer, IField> fields = HashMapFactory.make();
+
+    private final Collection<PathEdge<BasicBlockInContext<IExplodedBasicBlock>>> seeds =
+        HashSetFactory.make();
+
+    StaticFieldDefsProblem(CallGraph cg) {
+      this.supergraph = ICFGSupergraph.make(cg);
+      domain.add("0");
+      for (BasicBlockInContext<IExplodedBasicBlock> bb : supergraph) {
+        SSAInstruction instruction = bb.getDelegate().getInstruction();
+        if (instruction instanceof SSAPutInstruction
+            && ((SSAPutInstruction) instruction).isStatic()) {
+          int fact = domain.add(Pair.make(bb.getNode(), bb.getFirstInstructionIndex()));
+          fields.put(
+              fact,
+              cg.getClassHierarchy()
+                  .resolveField(((SSAPutInstruction) instruction).getDeclaredField()));
+        }
+      }
+      for (CGNode n : cg.getEntrypointNodes()) {
+        for (BasicBlockInContext<IExplodedBasicBlock> entry :
+            supergraph.getEntriesForProcedure(n)) {
+          seeds.add(PathEdge.createPathEdge(entry, 0, entry, 0));
+        }
+      }
+    }
+
+    private final IFlowFunctionMap<BasicBlockInContext<IExplodedBasicBlock>> flowFunctions =
+        new IFlowFunctionMap<BasicBlockInContext<IExplodedBasicBlock>>() {
+
+          @Override
+          public IUnaryFlowFunction getNormalFlowFunction(
+              BasicBlockInContext<IExplodedBasicBlock> src,
+              BasicBlockInContext<IExplodedBasicBlock> dest) {
+            SSAInstruction instruction = src.getDelegate().getInstruction();
+            if (!(instruction instanceof SSAPutInstruction)
+                || !((SSAPutInstruction) instruction).isStatic()) {
+              return IdentityFlowFunction.identity();
+            }
+            int gen =
+                domain.getMappedIndex(Pair.make(src.getNode(), src.getFirstInstructionIndex()));
+            IField field = fields.get(gen);
+            return d1 -> {
+              if (d1 == 0) {
+                return SparseIntSet.pair(0, gen);
+              } else if (field != null && field.equals(fields.get(d1))) {
+                return null;
+              } else {
+                return SparseIntSet.singleton(d1);
+              }
+            };
+          }
+
+          @Override
+          public IUnaryFlowFunction getCallFlowFunction(
+              BasicBlockInContext<IExplodedBasicBlock> src,
+              BasicBlockInContext<IExplodedBasicBlock> dest,
+              BasicBlockInContext<IExplodedBasicBlock> ret) {
+            return IdentityFlowFunction.identity();
+          }
+
+          @Override
+          public IFlowFunction getReturnFlowFunction(
+              BasicBlockInContext<IExplodedBasicBlock> call,
+              BasicBlockInContext<IExplodedBasicBlock> src,
+              BasicBlockInContext<IExplodedBasicBlock> dest) {
+            return IdentityFlowFunction.identity();
+          }
+
+          @Override
+          public IUnaryFlowFunction getCallToReturnFlowFunction(
+              BasicBlockInContext<IExplodedBasicBlock> src,
+              BasicBlockInContext<IExplodedBasicBlock> dest) {
+            // the definitions reach the return site through the callees
+            return d1 -> d1 == 0 ? SparseIntSet.singleton(0) : null;
+          }
+
+          @Override
+          public IUnaryFlowFunction getCallNoneToReturnFlowFunction(
+              BasicBlockInContext<IExplodedBasicBlock> src,
+              BasicBlockInContext<IExplodedBasicBlock> dest) {
+            return IdentityFlowFunction.identity();
+          }
+        };
+
+    @Override
+    public ISupergraph<BasicBlockInContext<IExplodedBasicBlock>, CGNode> getSupergraph() {
+      return supergraph;
+    }
+
+    @Override
+    public TabulationDomain<Object, BasicBlockInContext<IExplodedBasicBlock>> getDomain() {
+      return domain;
+    }
+
+    @Override
+    public IFlowFunctionMap<BasicBlockInContext<IExplodedBasicBlock>> getFunctionMap() {
+      return flowFunctions;
+    }
+
+    @Override
+    public Collection<PathEdge<BasicBlockInContext<IExplodedBasicBlock>>> initialSeeds() {
+      return seeds;
+    }
+
+    @Override
+    public IMergeFunction getMergeFunction() {
+      return null;
+    }
+  }
 }
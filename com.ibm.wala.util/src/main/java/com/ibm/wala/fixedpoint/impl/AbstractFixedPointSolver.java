@@ -103,6 +103,11 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
     firstSolve = false;
   }
 
+  /** @return true iff {@link #initForFirstSolve()} has not yet been performed */
+  protected boolean isFirstSolve() {
+    return firstSolve;
+  }
+
   /** @return true iff work list is empty */
   public boolean emptyWorkList() {
     return workList.isEmpty();
@@ -452,7 +457,7 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
   }
 
   /** Number the graph in topological order. */
-  private void orderStatementsInternal() {
+  protected void orderStatementsInternal() {
     if (verbose) {
       if (nEvaluated > 0) {
         System.err.println("Reorder " + nEvaluated + ' ' + nCreated);
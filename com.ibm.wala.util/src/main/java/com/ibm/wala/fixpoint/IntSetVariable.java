@@ -13,6 +13,7 @@ package com.ibm.wala.fixpoint;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
 
 /**
  * A variable for dataflow analysis, representing a set of integers.
@@ -24,20 +25,118 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
 
   MutableIntSet V;
 
+  /** if true, V may be the value of other variables too, and is copied before this one changes */
+  private boolean shared;
+
+  /** if true, the integers added to this variable are recorded in {@link #added} */
+  private boolean recordingDifferences;
+
+  /** the integers added since the last {@link #takeDifference()}; null if none */
+  private MutableIntSet added;
+
   @Override
   public void copyState(T other) {
     if (V == null) {
       if (other.V != null) {
         V = IntSetUtil.getDefaultIntSetFactory().makeCopy(other.V);
+        recordAdded(V);
       }
       return;
     } else {
       if (other.V != null) {
-        V.copySet(other.V);
+        if (shared) {
+          V = IntSetUtil.getDefaultIntSetFactory().makeCopy(other.V);
+          shared = false;
+        } else {
+          V.copySet(other.V);
+        }
+        // the new value need not contain the old one; report all of it
+        recordAdded(V);
       }
     }
   }
 
+  /**
+   * @param record if true, this variable records the integers added to it until they are taken by
+   *     {@link #takeDifference()}
+   */
+  public void setRecordingDifferences(boolean record) {
+    recordingDifferences = record;
+    if (!record) {
+      added = null;
+    }
+  }
+
+  /** @return true iff this variable records the integers added to it */
+  public boolean isRecordingDifferences() {
+    return recordingDifferences;
+  }
+
+  /**
+   * Take the integers added to this variable since the last call. If the value changed other than
+   * by growing, all of it counts as added.
+   *
+   * @return the integers added, or null if there are none or differences are not recorded. The
+   *     caller may change the result.
+   */
+  public MutableIntSet takeDifference() {
+    MutableIntSet result = added;
+    added = null;
+    return result;
+  }
+
+  private void recordAdded(IntSet s) {
+    if (recordingDifferences && !s.isEmpty()) {
+      if (added == null) {
+        added = MutableSparseIntSet.make(s);
+      } else {
+        added.addAll(s);
+      }
+    }
+  }
+
+  /**
+   * @param filter if not null, only integers in filter count
+   * @return the integers of s that are not in V; differences are usually small, so this is sparse
+   */
+  private MutableSparseIntSet missing(IntSet s, IntSet filter) {
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    s.foreach(
+        x -> {
+          if ((filter == null || filter.contains(x)) && !V.contains(x)) {
+            result.add(x);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Make value the value of this variable, possibly shared with other variables. value must not be
+   * changed any more by its owner; this variable copies it before changing.
+   *
+   * @throws IllegalArgumentException if value is null
+   */
+  public void shareValue(MutableIntSet value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null value");
+    }
+    V = value;
+    shared = true;
+  }
+
+  /** @return true iff the value of this variable may be shared with other variables */
+  public boolean isValueShared() {
+    return shared;
+  }
+
+  /** Give this variable a private copy of its value, if the value is shared. */
+  private void unshare() {
+    if (shared) {
+      V = IntSetUtil.getDefaultIntSetFactory().makeCopy(V);
+      shared = false;
+    }
+  }
+
   /**
    * Add all integers from the set B
    *
@@ -46,8 +145,27 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
   public boolean addAll(IntSet B) {
     if (V == null) {
       V = IntSetUtil.getDefaultIntSetFactory().makeCopy(B);
+      recordAdded(B);
       return (B.size() > 0);
     } else {
+      if (shared) {
+        if (B.isSubset(V)) {
+          return false;
+        }
+        unshare();
+      }
+      if (recordingDifferences) {
+        if (B.isSubset(V)) {
+          return false;
+        }
+        IntSet d = missing(B, null);
+        if (d.isEmpty()) {
+          return false;
+        }
+        V.addAll(d);
+        recordAdded(d);
+        return true;
+      }
       boolean result = V.addAll(B);
       return result;
     }
@@ -100,8 +218,23 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
   public boolean add(int b) {
     if (V == null) {
       V = IntSetUtil.getDefaultIntSetFactory().make();
+    } else if (shared) {
+      if (V.contains(b)) {
+        return false;
+      }
+      unshare();
+    }
+    if (V.add(b)) {
+      if (recordingDifferences) {
+        if (added == null) {
+          added = MutableSparseIntSet.makeEmpty();
+        }
+        added.add(b);
+      }
+      return true;
+    } else {
+      return false;
     }
-    return V.add(b);
   }
 
   /**
@@ -124,7 +257,20 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
 
   public void remove(int i) {
     if (V != null) {
+      if (shared) {
+        if (!V.contains(i)) {
+          return;
+        }
+        unshare();
+      }
       V.remove(i);
+      if (added != null) {
+        added.remove(i);
+      }
+      if (V.isEmpty()) {
+        V = null;
+        added = null;
+      }
     }
   }
 
@@ -144,6 +290,11 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
         if (V.isEmpty()) {
           V = null;
         }
+        // V was empty, so the intersection is exactly what was added
+        added = null;
+        if (V != null) {
+          recordAdded(V);
+        }
       }
       return (V != null);
     } else {
@@ -162,9 +313,22 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
       V.intersectWith(filter);
       if (V.isEmpty()) {
         V = null;
+      } else {
+        recordAdded(V);
       }
       return (V != null);
     } else {
+      if (recordingDifferences) {
+        IntSet d = missing(other, filter);
+        if (d.isEmpty()) {
+          return false;
+        }
+        unshare();
+        V.addAll(d);
+        recordAdded(d);
+        return true;
+      }
+      unshare();
       boolean result = V.addAllInIntersection(other, filter);
       return result;
     }
@@ -172,5 +336,7 @@ public abstract class IntSetVariable<T extends IntSetVariable<T>> extends Abstra
 
   public void removeAll() {
     V = null;
+    shared = false;
+    added = null;
   }
 }
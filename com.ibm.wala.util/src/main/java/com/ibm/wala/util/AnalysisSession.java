@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026 WALA contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     WALA contributors - initial API and implementation
+ */
+package com.ibm.wala.util;
+
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSetFactory;
+import com.ibm.wala.util.intset.MutableSharedBitVectorIntSetFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The state that would otherwise be shared by every analysis running in this JVM: the default
+ * {@link IntSetUtil#getDefaultIntSetFactory() int set factory}, and anything kept under a {@link
+ * Key}, such as the warnings of the analysis or the class hierarchy whose soft caches are cleared
+ * under memory pressure.
+ *
+ * <p>Each thread works in one session at a time: the one it last {@link #enter() entered}, or else
+ * the {@link #global() global session}, which keeps the behavior of a single analysis per JVM. To
+ * run independent analyses concurrently, run each on its own thread inside its own session, and
+ * {@link #bind(Callable) bind} any tasks it hands to other threads to the session too. Call graph
+ * builders enter the session of their {@code AnalysisOptions} while building.
+ */
+public final class AnalysisSession {
+
+  /** A typed name for a value kept in a session; T is the type of the value */
+  @SuppressWarnings("unused")
+  public static final class Key<T> {
+
+    private final String name;
+
+    public Key(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /** The session entered by {@link #enter()}, until it is exited */
+  public final class Scope {
+
+    private final AnalysisSession previous;
+
+    private Scope(AnalysisSession previous) {
+      this.previous = previous;
+    }
+
+    /** Return the current thread to the session it was in before. */
+    public void exit() {
+      if (previous == null) {
+        currentSession.remove();
+      } else {
+        currentSession.set(previous);
+      }
+    }
+  }
+
+  private static final AnalysisSession GLOBAL = new AnalysisSession(makeConfiguredIntSetFactory());
+
+  private static final ThreadLocal<AnalysisSession> currentSession = new ThreadLocal<>();
+
+  private volatile MutableIntSetFactory<?> intSetFactory;
+
+  private final ConcurrentHashMap<Key<?>, Object> values = new ConcurrentHashMap<>();
+
+  /** A session using the int set factory of the global session at the time it is created */
+  public AnalysisSession() {
+    this(GLOBAL.getIntSetFactory());
+  }
+
+  /** @throws IllegalArgumentException if intSetFactory is null */
+  public AnalysisSession(MutableIntSetFactory<?> intSetFactory) {
+    setIntSetFactory(intSetFactory);
+  }
+
+  /**
+   * @return the int set factory named by the system property {@link
+   *     IntSetUtil#INT_SET_FACTORY_CONFIG_PROPERTY_NAME}, or else a {@link
+   *     MutableSharedBitVectorIntSetFactory}
+   */
+  private static MutableIntSetFactory<?> makeConfiguredIntSetFactory() {
+    String name = System.getProperty(IntSetUtil.INT_SET_FACTORY_CONFIG_PROPERTY_NAME);
+    if (name != null) {
+      try {
+        @SuppressWarnings("unchecked")
+        Class<? extends MutableIntSetFactory<?>> intSetFactoryClass =
+            (Class<? extends MutableIntSetFactory<?>>) Class.forName(name);
+        return intSetFactoryClass.getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | ClassCastException e) {
+        System.err.println("Cannot use int set factory " + name);
+      }
+    }
+    return new MutableSharedBitVectorIntSetFactory();
+  }
+
+  /** @return the session shared by all threads that have not entered another one */
+  public static AnalysisSession global() {
+    return GLOBAL;
+  }
+
+  /** @return the session of the current thread */
+  public static AnalysisSession current() {
+    AnalysisSession result = currentSession.get();
+    return result == null ? GLOBAL : result;
+  }
+
+  /**
+   * Make this the session of the current thread until the returned scope is exited, as in {@code
+   * Scope scope = session.enter(); try { ... } finally { scope.exit(); }}.
+   */
+  public Scope enter() {
+    Scope result = new Scope(currentSession.get());
+    currentSession.set(this);
+    return result;
+  }
+
+  /** @return a task that runs task in this session, on whatever thread it is called */
+  public <V> Callable<V> bind(Callable<V> task) {
+    if (task == null) {
+      throw new IllegalArgumentException("null task");
+    }
+    return () -> {
+      Scope scope = enter();
+      try {
+        return task.call();
+      } finally {
+        scope.exit();
+      }
+    };
+  }
+
+  /** @return a runnable that runs r in this session, on whatever thread it is called */
+  public Runnable bind(Runnable r) {
+    if (r == null) {
+      throw new IllegalArgumentException("null r");
+    }
+    return () -> {
+      Scope scope = enter();
+      try {
+        r.run();
+      } finally {
+        scope.exit();
+      }
+    };
+  }
+
+  public MutableIntSetFactory<?> getIntSetFactory() {
+    return intSetFactory;
+  }
+
+  /** @throws IllegalArgumentException if intSetFactory is null */
+  public void setIntSetFactory(MutableIntSetFactory<?> intSetFactory) {
+    if (intSetFactory == null) {
+      throw new IllegalArgumentException("null intSetFactory");
+    }
+    this.intSetFactory = intSetFactory;
+  }
+
+  /** @return the value kept under key in this session, or null if there is none */
+  @SuppressWarnings("unchecked")
+  public <T> T get(Key<T> key) {
+    return (T) values.get(key);
+  }
+
+  /**
+   * @return the value kept under key in this session, first keeping a value made by make if there
+   *     is none
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T computeIfAbsent(Key<T> key, Supplier<? extends T> make) {
+    if (make == null) {
+      throw new IllegalArgumentException("null make");
+    }
+    return (T) values.computeIfAbsent(key, k -> make.get());
+  }
+
+  /** Keep value under key in this session; a null value removes the key. */
+  public <T> void put(Key<T> key, T value) {
+    if (key == null) {
+      throw new IllegalArgumentException("null key");
+    }
+    if (value == null) {
+      values.remove(key);
+    } else {
+      values.put(key, value);
+    }
+  }
+}
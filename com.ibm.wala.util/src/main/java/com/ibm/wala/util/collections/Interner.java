@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.util.collections;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A table of canonical objects, one for each key, safe for concurrent use without locking.
+ *
+ * <p>A strong interner keeps every canonical object forever. A weak interner holds its canonical
+ * objects through weak references, so an object nobody else refers to any more can be garbage
+ * collected; if its key is interned again later, a new canonical object is created. Either way, two
+ * live canonical objects for equal keys never exist at once, so they may be compared with "==".
+ *
+ * <p>Canonical objects may be created more than once when several threads intern the same new key
+ * at the same time; only one of them is kept and returned to every caller, so creating them must
+ * have no side effects beyond interning other objects.
+ */
+public final class Interner<K, V> {
+
+  /**
+   * System property selecting weak interning for the tables made by {@link #make()}, so that the
+   * names and references of analyses that are finished can be reclaimed.
+   */
+  public static final String WEAK_PROPERTY = "com.ibm.wala.weakInterning";
+
+  /** A weak reference to a canonical object that remembers its key */
+  private static final class Ref<K, V> extends WeakReference<V> {
+    private final K key;
+
+    Ref(K key, V value, ReferenceQueue<V> queue) {
+      super(value, queue);
+      this.key = key;
+    }
+  }
+
+  /** key -&gt; canonical object; null if this interner is weak */
+  private final ConcurrentHashMap<K, V> strong;
+
+  /** key -&gt; reference to the canonical object; null if this interner is strong */
+  private final ConcurrentHashMap<K, Ref<K, V>> weak;
+
+  /** references to collected canonical objects whose entries are still in {@link #weak} */
+  private final ReferenceQueue<V> queue;
+
+  /** @param weak whether canonical objects are held through weak references */
+  public Interner(boolean weak) {
+    if (weak) {
+      this.strong = null;
+      this.weak = new ConcurrentHashMap<>();
+      this.queue = new ReferenceQueue<>();
+    } else {
+      this.strong = new ConcurrentHashMap<>();
+      this.weak = null;
+      this.queue = null;
+    }
+  }
+
+  /** @return an interner that is weak iff the system property {@link #WEAK_PROPERTY} is true */
+  public static <K, V> Interner<K, V> make() {
+    return new Interner<>(Boolean.getBoolean(WEAK_PROPERTY));
+  }
+
+  public boolean isWeak() {
+    return weak != null;
+  }
+
+  /**
+   * @return the canonical object for key, or null if there is none
+   * @throws IllegalArgumentException if key is null
+   */
+  public V find(K key) {
+    if (key == null) {
+      throw new IllegalArgumentException("null key");
+    }
+    if (strong != null) {
+      return strong.get(key);
+    } else {
+      Ref<K, V> r = weak.get(key);
+      return r == null ? null : r.get();
+    }
+  }
+
+  /**
+   * @return the canonical object for key, created with make if there is none
+   * @throws IllegalArgumentException if key or make is null
+   */
+  public V intern(K key, Function<? super K, ? extends V> make) {
+    if (make == null) {
+      throw new IllegalArgumentException("null make");
+    }
+    V result = find(key);
+    if (result != null) {
+      return result;
+    }
+    V fresh = make.apply(key);
+    if (strong != null) {
+      result = strong.putIfAbsent(key, fresh);
+      return result == null ? fresh : result;
+    }
+
+    expungeStaleEntries();
+    Ref<K, V> ref = new Ref<>(key, fresh, queue);
+    Ref<K, V> old = weak.putIfAbsent(key, ref);
+    while (old != null) {
+      result = old.get();
+      if (result != null) {
+        return result;
+      }
+      // the canonical object was collected; replace its entry
+      if (weak.replace(key, old, ref)) {
+        break;
+      }
+      old = weak.putIfAbsent(key, ref);
+    }
+    return fresh;
+  }
+
+  /** @return the number of keys with a canonical object, including any not yet noticed collected */
+  public int size() {
+    if (strong != null) {
+      return strong.size();
+    } else {
+      expungeStaleEntries();
+      return weak.size();
+    }
+  }
+
+  /** Remove the entries of canonical objects that have been collected. */
+  private void expungeStaleEntries() {
+    for (Object r; (r = queue.poll()) != null; ) {
+      Ref<?, ?> ref = (Ref<?, ?>) r;
+      weak.remove(ref.key, ref);
+    }
+  }
+}
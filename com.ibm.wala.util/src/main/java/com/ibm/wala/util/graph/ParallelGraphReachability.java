@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.util.graph;
+
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.WalaRuntimeException;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.OrdinalSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * A {@link GraphReachability} that computes the reachable sets directly, instead of with a
+ * dataflow solver.
+ *
+ * <p>All nodes of a strongly connected component reach the same set: the interesting nodes of the
+ * component, and whatever its successor components reach. So the components are found first, and
+ * each gets one bit vector, the union of its own nodes and the bit vectors of its successors. The
+ * components are visited in reverse topological order, by height in the condensed graph.
+ * Components of the same height do not depend on each other and are visited concurrently.
+ */
+public class ParallelGraphReachability<T, S> extends GraphReachability<T, S> {
+
+  /** levels with fewer components than this are visited on the calling thread */
+  private static final int MIN_PARALLEL_LEVEL_SIZE = 64;
+
+  private final Graph<T> g;
+
+  private final int threads;
+
+  /** node -&gt; index, or null if the nodes of {@link #g} are numbered */
+  private Map<Object, Integer> indices;
+
+  /** index of a node -&gt; its strongly connected component, or -1 if there is no such node */
+  private int[] components;
+
+  /** component -&gt; the numbers of the interesting nodes it reaches */
+  private BitVectorIntSet[] reached;
+
+  /**
+   * @param g graph to analyze
+   * @param filter "interesting" node definition
+   * @param threads number of threads visiting the strongly connected components of g
+   * @throws IllegalArgumentException if g is null or threads is not positive
+   */
+  public ParallelGraphReachability(Graph<T> g, Predicate<? super T> filter, int threads) {
+    super(g, filter);
+    if (threads < 1) {
+      throw new IllegalArgumentException("invalid threads: " + threads);
+    }
+    this.g = g;
+    this.threads = threads;
+  }
+
+  /** @return the set of interesting nodes reachable from n */
+  @Override
+  public OrdinalSet<S> getReachableSet(Object n) throws IllegalStateException {
+    if (reached == null) {
+      throw new IllegalStateException("must call solve() before calling getReachableSet()");
+    }
+    int i = getIndex(n);
+    if (i < 0 || i >= components.length || components[i] == -1) {
+      throw new IllegalArgumentException("node not in graph: " + n);
+    }
+    BitVectorIntSet s = reached[components[i]];
+    if (s.isEmpty()) {
+      return OrdinalSet.empty();
+    } else {
+      return new OrdinalSet<>(s, domain);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private int getIndex(Object n) {
+    if (indices == null) {
+      return ((NumberedGraph<T>) g).getNumber((T) n);
+    } else {
+      Integer i = indices.get(n);
+      return i == null ? -1 : i;
+    }
+  }
+
+  /** @return true iff some node reaches an interesting node */
+  @Override
+  public boolean solve(IProgressMonitor monitor) throws CancelException {
+    // number the nodes, and copy the edges into compressed sparse row form
+    int size;
+    if (g instanceof NumberedGraph) {
+      indices = null;
+      size = ((NumberedGraph<T>) g).getMaxNumber() + 1;
+    } else {
+      indices = HashMapFactory.make(g.getNumberOfNodes());
+      for (T n : g) {
+        indices.put(n, indices.size());
+      }
+      size = indices.size();
+    }
+    boolean[] exists = new boolean[size];
+    int[] interesting = new int[size];
+    int[] offsets = new int[size + 1];
+    int[] succs = new int[size];
+    List<T> nodes = new ArrayList<>(g.getNumberOfNodes());
+    g.forEach(nodes::add);
+    nodes.sort((a, b) -> Integer.compare(getIndex(a), getIndex(b)));
+    int edges = 0;
+    int next = 0;
+    for (T n : nodes) {
+      int i = getIndex(n);
+      while (next <= i) {
+        offsets[next++] = edges;
+      }
+      exists[i] = true;
+      interesting[i] = domain.getMappedIndex(n);
+      for (Iterator<? extends T> it = g.getSuccNodes(n); it.hasNext(); ) {
+        if (edges == succs.length) {
+          succs = Arrays.copyOf(succs, 2 * succs.length + 1);
+        }
+        succs[edges++] = getIndex(it.next());
+      }
+    }
+    while (next <= size) {
+      offsets[next++] = edges;
+    }
+
+    components = findComponents(exists, offsets, succs);
+    int count = 0;
+    for (int c : components) {
+      count = Math.max(count, c + 1);
+    }
+
+    // the nodes of each component
+    int[] memberOffsets = new int[count + 1];
+    for (int c : components) {
+      if (c != -1) {
+        memberOffsets[c + 1]++;
+      }
+    }
+    for (int c = 0; c < count; c++) {
+      memberOffsets[c + 1] += memberOffsets[c];
+    }
+    int[] members = new int[memberOffsets[count]];
+    int[] fill = Arrays.copyOf(memberOffsets, count);
+    for (int i = 0; i < size; i++) {
+      if (components[i] != -1) {
+        members[fill[components[i]]++] = i;
+      }
+    }
+
+    // components are numbered in reverse topological order, so successors come first
+    int[] heights = new int[count];
+    int levels = 0;
+    for (int c = 0; c < count; c++) {
+      for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+        int v = members[m];
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          int d = components[succs[e]];
+          if (d != c) {
+            heights[c] = Math.max(heights[c], heights[d] + 1);
+          }
+        }
+      }
+      levels = Math.max(levels, heights[c] + 1);
+    }
+    int[] levelOffsets = new int[levels + 1];
+    for (int h : heights) {
+      levelOffsets[h + 1]++;
+    }
+    for (int l = 0; l < levels; l++) {
+      levelOffsets[l + 1] += levelOffsets[l];
+    }
+    int[] byLevel = new int[count];
+    fill = Arrays.copyOf(levelOffsets, levels);
+    for (int c = 0; c < count; c++) {
+      byLevel[fill[heights[c]]++] = c;
+    }
+
+    reached = new BitVectorIntSet[count];
+    Level level = new Level(interesting, offsets, succs, memberOffsets, members);
+    ForkJoinPool pool = null;
+    try {
+      for (int l = 0; l < levels; l++) {
+        MonitorUtil.throwExceptionIfCanceled(monitor);
+        int from = levelOffsets[l];
+        int to = levelOffsets[l + 1];
+        if (threads == 1 || to - from < MIN_PARALLEL_LEVEL_SIZE) {
+          level.visit(byLevel, from, to);
+        } else {
+          if (pool == null) {
+            pool = new ForkJoinPool(threads);
+          }
+          List<Callable<Void>> tasks = new ArrayList<>();
+          int chunk = (to - from + 4 * threads - 1) / (4 * threads);
+          for (int start = from; start < to; start += chunk) {
+            final int s = start;
+            final int e = Math.min(start + chunk, to);
+            tasks.add(
+                () -> {
+                  level.visit(byLevel, s, e);
+                  return null;
+                });
+          }
+          for (Future<Void> f : pool.invokeAll(tasks)) {
+            getComputed(f);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw CancelException.make("interrupted while computing reachability");
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+
+    for (BitVectorIntSet s : reached) {
+      if (!s.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void getComputed(Future<Void> f) throws InterruptedException {
+    try {
+      f.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new WalaRuntimeException("failed to compute reachability", cause);
+      }
+    }
+  }
+
+  /** Computes the reachable sets of the components of one height. */
+  private class Level {
+
+    private final int[] interesting;
+
+    private final int[] offsets;
+
+    private final int[] succs;
+
+    private final int[] memberOffsets;
+
+    private final int[] members;
+
+    Level(int[] interesting, int[] offsets, int[] succs, int[] memberOffsets, int[] members) {
+      this.interesting = interesting;
+      this.offsets = offsets;
+      this.succs = succs;
+      this.memberOffsets = memberOffsets;
+      this.members = members;
+    }
+
+    void visit(int[] byLevel, int from, int to) {
+      for (int i = from; i < to; i++) {
+        visit(byLevel[i]);
+      }
+    }
+
+    /**
+     * Compute the set of component c, whose successors have been computed. A component without
+     * interesting nodes and with a single successor shares the set of that successor.
+     */
+    private void visit(int c) {
+      boolean own = false;
+      int single = -1;
+      boolean several = false;
+      for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+        int v = members[m];
+        own |= interesting[v] != -1;
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          int d = components[succs[e]];
+          if (d != c) {
+            if (single == -1) {
+              single = d;
+            } else if (single != d) {
+              several = true;
+            }
+          }
+        }
+      }
+      if (!own && !several && single != -1) {
+        reached[c] = reached[single];
+        return;
+      }
+      BitVectorIntSet s = new BitVectorIntSet();
+      for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+        int v = members[m];
+        if (interesting[v] != -1) {
+          s.add(interesting[v]);
+        }
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          int d = components[succs[e]];
+          if (d != c) {
+            s.addAll(reached[d]);
+          }
+        }
+      }
+      reached[c] = s;
+    }
+  }
+
+  /**
+   * Find the strongly connected components with an iterative version of Tarjan's algorithm.
+   *
+   * @return index of a node -&gt; its component, or -1 if there is no such node. A component is
+   *     numbered after all components reachable from it.
+   */
+  private static int[] findComponents(boolean[] exists, int[] offsets, int[] succs) {
+    int size = exists.length;
+    int[] result = new int[size];
+    Arrays.fill(result, -1);
+    int[] order = new int[size];
+    Arrays.fill(order, -1);
+    int[] low = new int[size];
+    boolean[] onStack = new boolean[size];
+    int[] stack = new int[size];
+    int sp = 0;
+    int[] callNodes = new int[size];
+    int[] callEdges = new int[size];
+    int counter = 0;
+    int components = 0;
+    for (int root = 0; root < size; root++) {
+      if (!exists[root] || order[root] != -1) {
+        continue;
+      }
+      order[root] = low[root] = counter++;
+      stack[sp++] = root;
+      onStack[root] = true;
+      callNodes[0] = root;
+      callEdges[0] = offsets[root];
+      int csp = 1;
+      while (csp > 0) {
+        int v = callNodes[csp - 1];
+        int e = callEdges[csp - 1];
+        if (e < offsets[v + 1]) {
+          callEdges[csp - 1]++;
+          int w = succs[e];
+          if (order[w] == -1) {
+            order[w] = low[w] = counter++;
+            stack[sp++] = w;
+            onStack[w] = true;
+            callNodes[csp] = w;
+            callEdges[csp] = offsets[w];
+            csp++;
+          } else if (onStack[w]) {
+            low[v] = Math.min(low[v], order[w]);
+          }
+        } else {
+          csp--;
+          if (csp > 0) {
+            int u = callNodes[csp - 1];
+            low[u] = Math.min(low[u], low[v]);
+          }
+          if (low[v] == order[v]) {
+            int w;
+            do {
+              w = stack[--sp];
+              onStack[w] = false;
+              result[w] = components;
+            } while (w != v);
+            components++;
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -10,12 +10,15 @@
  */
 package com.ibm.wala.util.graph.dominators;
 
+import com.ibm.wala.util.collections.EmptyIterator;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.NonNullSingletonIterator;
 import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.NumberedGraph;
 import com.ibm.wala.util.graph.traverse.DFS;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -25,6 +28,12 @@ public class DominanceFrontiers<T> {
 
   private final Map<T, Set<T>> DF = HashMapFactory.make();
 
+  /**
+   * for a numbered graph, node number -&gt; numbers of the nodes in its dominance frontier, or null
+   * if it is empty
+   */
+  private MutableSparseIntSet[] numberedDF;
+
   private final Dominators<T> dom;
 
   private final Graph<T> G;
@@ -39,10 +48,25 @@ public class DominanceFrontiers<T> {
     this.root = root;
     this.G = G;
     this.dom = Dominators.make(G, root);
-    analyze();
+    if (dom instanceof NumberedDominators) {
+      analyzeNumbered((NumberedGraph<T>) G, (NumberedDominators<T>) dom);
+    } else {
+      analyze();
+    }
   }
 
   public Iterator<T> getDominanceFrontier(T n) {
+    if (numberedDF != null) {
+      NumberedGraph<T> g = (NumberedGraph<T>) G;
+      int number = g.getNumber(n);
+      if (number < 0
+          || number >= numberedDF.length
+          || !((NumberedDominators<T>) dom).isReachable(number)) {
+        throw new IllegalArgumentException("no dominance frontier for node " + n);
+      }
+      MutableSparseIntSet frontier = numberedDF[number];
+      return frontier == null ? EmptyIterator.instance() : g.iterateNodes(frontier);
+    }
     Set<T> frontier = DF.get(n);
     if (frontier == null) {
       throw new IllegalArgumentException("no dominance frontier for node " + n);
@@ -86,4 +110,31 @@ public class DominanceFrontiers<T> {
       }
     }
   }
+
+  /**
+   * Compute the dominance frontiers of a numbered graph from its edges, as in Cooper, Harvey and
+   * Kennedy's "A Simple, Fast Dominance Algorithm": the target of an edge is in the frontier of
+   * the source and of each of its dominators, up to the immediate dominator of the target.
+   */
+  private void analyzeNumbered(NumberedGraph<T> g, NumberedDominators<T> dom) {
+    numberedDF = new MutableSparseIntSet[g.getMaxNumber() + 1];
+    for (T X : g) {
+      int x = g.getNumber(X);
+      if (dom.isReachable(x)) {
+        for (T Y : Iterator2Iterable.make(g.getSuccNodes(X))) {
+          int y = g.getNumber(Y);
+          int idom = dom.getIdomNumber(y);
+          for (int runner = x; runner != idom && runner != -1; runner = dom.getIdomNumber(runner)) {
+            if (numberedDF[runner] == null) {
+              numberedDF[runner] = MutableSparseIntSet.makeEmpty();
+            }
+            // the dominators of runner up to idom already have y if runner does
+            if (!numberedDF[runner].add(y)) {
+              break;
+            }
+          }
+        }
+      }
+    }
+  }
 }
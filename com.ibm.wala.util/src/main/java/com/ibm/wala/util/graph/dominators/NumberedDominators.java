@@ -10,37 +10,291 @@
  */
 package com.ibm.wala.util.graph.dominators;
 
+import com.ibm.wala.util.collections.EmptyIterator;
+import com.ibm.wala.util.collections.NonNullSingletonIterator;
+import com.ibm.wala.util.debug.Assertions;
+import com.ibm.wala.util.graph.AbstractGraph;
+import com.ibm.wala.util.graph.EdgeManager;
+import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.NodeManager;
 import com.ibm.wala.util.graph.NumberedGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
- * Calculate dominators using Langauer and Tarjan's fastest algorithm. TOPLAS 1(1), July 1979. This
- * implementation uses path compression and results in a O(e * alpha(e,n)) complexity, where e is
- * the number of edges in the CFG and n is the number of nodes.
+ * Calculate dominators with the Semi-NCA algorithm of Georgiadis, Tarjan and Werneck (Finding
+ * Dominators in Practice, JGAA 10(1), 2006). Semidominators are computed as in Lengauer and
+ * Tarjan's algorithm, with simple path compression, and each immediate dominator is then found as
+ * the nearest common ancestor of the node's parent and semidominator in the partially built
+ * dominator tree.
  *
- * <p>Sources: TOPLAS article, Muchnick book
+ * <p>All per-node state is kept in int arrays indexed by node number or by depth-first number, so
+ * no objects are allocated per node.
  */
 public class NumberedDominators<T> extends Dominators<T> {
 
+  /** the graph, as a {@link NumberedGraph} */
+  private final NumberedGraph<T> numbered;
+
+  /** node number -&gt; number of its immediate dominator, or -1 for the root and unreachable nodes */
+  private final int[] idoms;
+
+  /** node number -&gt; its depth-first number, or 0 if it is not reachable from the root */
+  private final int[] preorder;
+
   public NumberedDominators(NumberedGraph<T> G, T root) throws IllegalArgumentException {
     super(G, root);
+    this.numbered = G;
+
+    int size = G.getMaxNumber() + 1;
+    this.idoms = new int[size];
+    Arrays.fill(idoms, -1);
+    this.preorder = new int[size];
+
+    analyzeNumbered();
+  }
+
+  /**
+   * Compute the immediate dominators. The state of the algorithm is indexed by depth-first number;
+   * the root has number 1, and 0 stands for no node.
+   */
+  private void analyzeNumbered() {
+    int n = numbered.getNumberOfNodes();
+    int[] vertex = new int[n + 1];
+    int[] parent = new int[n + 1];
+    reachableNodeCount = depthFirstSearch(vertex, parent);
+    n = reachableNodeCount;
+
+    int[] semi = new int[n + 1];
+    int[] label = new int[n + 1];
+    int[] ancestor = new int[n + 1];
+    int[] stack = new int[n + 1];
+    for (int i = 1; i <= n; i++) {
+      semi[i] = i;
+      label[i] = i;
+    }
+
+    // semidominators, visiting nodes in reverse depth-first order
+    for (int w = n; w > 1; w--) {
+      for (Iterator<? extends T> it = numbered.getPredNodes(numbered.getNode(vertex[w]));
+          it.hasNext(); ) {
+        int v = preorder[numbered.getNumber(it.next())];
+        if (v != 0) {
+          int u = eval(v, ancestor, label, semi, stack);
+          if (semi[u] < semi[w]) {
+            semi[w] = semi[u];
+          }
+        }
+      }
+      ancestor[w] = parent[w];
+    }
 
-    this.infoMap = new Object[G.getMaxNumber() + 1];
-    for (T n : G) {
-      infoMap[G.getNumber(n)] = new DominatorInfo(n);
+    // immediate dominators, visiting nodes in depth-first order; the parent of each node is
+    // replaced by its immediate dominator once it has been read
+    int[] idom = parent;
+    for (int w = 2; w <= n; w++) {
+      int d = parent[w];
+      while (d > semi[w]) {
+        d = idom[d];
+      }
+      idom[w] = d;
+      idoms[vertex[w]] = vertex[d];
     }
+  }
 
-    analyze();
+  /**
+   * Number the nodes reachable from the root in depth-first order.
+   *
+   * @param vertex filled with depth-first number -&gt; node number
+   * @param parent filled with depth-first number -&gt; depth-first number of its parent in the
+   *     depth-first tree
+   * @return the number of nodes reachable from the root
+   */
+  private int depthFirstSearch(int[] vertex, int[] parent) {
+    // the successors still to visit of each node on the depth-first path, in path order
+    ArrayList<Iterator<? extends T>> succs = new ArrayList<>();
+    int[] path = new int[vertex.length];
+    int sp = 0;
+    int count = 0;
+    int r = numbered.getNumber(root);
+    preorder[r] = ++count;
+    vertex[count] = r;
+    path[sp++] = count;
+    succs.add(numbered.getSuccNodes(root));
+    while (sp > 0) {
+      int v = path[sp - 1];
+      Iterator<? extends T> it = succs.get(sp - 1);
+      if (it.hasNext()) {
+        int w = numbered.getNumber(it.next());
+        if (preorder[w] == 0) {
+          preorder[w] = ++count;
+          vertex[count] = w;
+          parent[count] = v;
+          path[sp++] = count;
+          succs.add(numbered.getSuccNodes(numbered.getNode(w)));
+        }
+      } else {
+        succs.remove(--sp);
+      }
+    }
+    return count;
   }
 
-  /*
-   * Look-aside table for DominatorInfo objects
+  /**
+   * @return v if it is the root of a tree in the forest, and otherwise the node with the smallest
+   *     semidominator on the path to the root of its tree, excluding that root
    */
-  private final Object[] infoMap;
+  private static int eval(int v, int[] ancestor, int[] label, int[] semi, int[] stack) {
+    if (ancestor[v] == 0) {
+      return v;
+    }
+    // path compression, without recursion
+    int sp = 0;
+    for (int u = v; ancestor[ancestor[u]] != 0; u = ancestor[u]) {
+      stack[sp++] = u;
+    }
+    while (sp > 0) {
+      int u = stack[--sp];
+      int a = ancestor[u];
+      if (semi[label[a]] < semi[label[u]]) {
+        label[u] = label[a];
+      }
+      ancestor[u] = ancestor[a];
+    }
+    return label[v];
+  }
+
+  /** @return the number of the immediate dominator of node number n, or -1 if there is none */
+  int getIdomNumber(int n) {
+    return idoms[n];
+  }
+
+  /** @return true iff node number n is reachable from the root */
+  boolean isReachable(int n) {
+    return preorder[n] != 0;
+  }
 
-  @SuppressWarnings("unchecked")
   @Override
-  protected final DominatorInfo getInfo(T node) {
-    assert node != null;
-    return (DominatorInfo) infoMap[((NumberedGraph<T>) G).getNumber(node)];
+  public T getIdom(T node) {
+    int d = idoms[numbered.getNumber(node)];
+    return d == -1 ? null : numbered.getNode(d);
+  }
+
+  @Override
+  public boolean isDominatedBy(T node, T master) {
+    for (int d = numbered.getNumber(node); d != -1; d = idoms[d]) {
+      // use equals() since sometimes the CFGs get reconstructed
+      if (numbered.getNode(d).equals(master)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** return the dominator tree, which has an edge from n to n' if n dominates n' */
+  @Override
+  public Graph<T> dominatorTree() {
+    // children of each node, in compressed sparse row form
+    int[] offsets = new int[idoms.length + 1];
+    for (int d : idoms) {
+      if (d != -1) {
+        offsets[d + 1]++;
+      }
+    }
+    for (int i = 0; i < idoms.length; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] children = new int[offsets[idoms.length]];
+    int[] fill = Arrays.copyOf(offsets, idoms.length);
+    for (int i = 0; i < idoms.length; i++) {
+      if (idoms[i] != -1) {
+        children[fill[idoms[i]]++] = i;
+      }
+    }
+
+    return new AbstractGraph<T>() {
+      @Override
+      protected NodeManager<T> getNodeManager() {
+        return numbered;
+      }
+
+      @Override
+      protected EdgeManager<T> getEdgeManager() {
+        return edges;
+      }
+
+      private final EdgeManager<T> edges =
+          new EdgeManager<T>() {
+            @Override
+            public Iterator<T> getPredNodes(T N) {
+              T d = getIdom(N);
+              if (d == null) return EmptyIterator.instance();
+              else return new NonNullSingletonIterator<>(d);
+            }
+
+            @Override
+            public int getPredNodeCount(T N) {
+              return getIdom(N) == null ? 0 : 1;
+            }
+
+            @Override
+            public Iterator<T> getSuccNodes(T N) {
+              int i = numbered.getNumber(N);
+              return new Iterator<T>() {
+                private int next = offsets[i];
+
+                @Override
+                public boolean hasNext() {
+                  return next < offsets[i + 1];
+                }
+
+                @Override
+                public T next() {
+                  if (!hasNext()) throw new NoSuchElementException();
+                  return numbered.getNode(children[next++]);
+                }
+              };
+            }
+
+            @Override
+            public int getSuccNodeCount(T N) {
+              int i = numbered.getNumber(N);
+              return offsets[i + 1] - offsets[i];
+            }
+
+            @Override
+            public void addEdge(T src, T dst) {
+              Assertions.UNREACHABLE();
+            }
+
+            @Override
+            public void removeEdge(T src, T dst) {
+              Assertions.UNREACHABLE();
+            }
+
+            @Override
+            public void removeAllIncidentEdges(T node) {
+              Assertions.UNREACHABLE();
+            }
+
+            @Override
+            public void removeIncomingEdges(T node) {
+              Assertions.UNREACHABLE();
+            }
+
+            @Override
+            public void removeOutgoingEdges(T node) {
+              Assertions.UNREACHABLE();
+            }
+
+            @Override
+            public boolean hasEdge(T src, T dst) {
+              int d = idoms[numbered.getNumber(dst)];
+              return d != -1 && d == numbered.getNumber(src);
+            }
+          };
+    };
   }
 }
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.util.graph.impl;
+
+import com.ibm.wala.util.graph.AbstractNumberedGraph;
+import com.ibm.wala.util.graph.INodeWithNumber;
+import com.ibm.wala.util.graph.NumberedEdgeManager;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.NumberedNodeManager;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.SparseIntSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * An immutable copy of a {@link NumberedGraph}, for graphs that are only queried once they are
+ * built.
+ *
+ * <p>Edges are kept in compressed sparse row form: the numbers of the successors of all nodes are
+ * stored in one int array, sorted by source and then by number, and the successors of node i are
+ * those between the i-th and (i+1)-th entry of an array of offsets. Predecessors are kept the same
+ * way. Nodes keep the numbers they have in the graph they were copied from.
+ */
+public class CompactNumberedGraph<T> extends AbstractNumberedGraph<T> {
+
+  private final Nodes nodeManager;
+
+  private final Edges edgeManager;
+
+  /**
+   * Copy the nodes and edges of g.
+   *
+   * @throws IllegalArgumentException if g is null
+   */
+  public static <T> CompactNumberedGraph<T> freeze(NumberedGraph<T> g) {
+    if (g == null) {
+      throw new IllegalArgumentException("g is null");
+    }
+    return new CompactNumberedGraph<>(g);
+  }
+
+  protected CompactNumberedGraph(NumberedGraph<T> g) {
+    int max = g.getMaxNumber();
+    Object[] nodes = new Object[max + 1];
+    int count = 0;
+    for (T n : g) {
+      nodes[g.getNumber(n)] = n;
+      count++;
+    }
+    nodeManager = new Nodes(nodes, count);
+
+    int[] succOffsets = new int[max + 2];
+    int[] succs = copyEdges(nodes, g::getSuccNodeNumbers, succOffsets);
+    int[] predOffsets = new int[max + 2];
+    int[] preds = copyEdges(nodes, g::getPredNodeNumbers, predOffsets);
+    edgeManager = new Edges(succOffsets, succs, predOffsets, preds);
+  }
+
+  /**
+   * Copy the edges of the nodes in compressed sparse row form. The edges are read from the graph
+   * rather than inverted, since some graphs do not keep their successors and predecessors in
+   * exact correspondence.
+   *
+   * @param nodes the nodes indexed by number
+   * @param edges the numbers of the nodes adjacent to a node, or null if there are none
+   * @param offsets filled with the offsets of the edges of each node
+   * @return the numbers of the nodes adjacent to each node, sorted
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> int[] copyEdges(Object[] nodes, Function<T, IntSet> edges, int[] offsets) {
+    int[] result = new int[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      int start = offsets[i];
+      int end = start;
+      if (nodes[i] != null) {
+        IntSet s = edges.apply((T) nodes[i]);
+        if (s != null && !s.isEmpty()) {
+          if (start + s.size() > result.length) {
+            result = Arrays.copyOf(result, Math.max(2 * result.length, start + s.size()));
+          }
+          for (IntIterator it = s.intIterator(); it.hasNext(); ) {
+            result[end++] = it.next();
+          }
+          Arrays.sort(result, start, end);
+        }
+      }
+      offsets[i + 1] = end;
+    }
+    return Arrays.copyOf(result, offsets[nodes.length]);
+  }
+
+  @Override
+  protected NumberedNodeManager<T> getNodeManager() {
+    return nodeManager;
+  }
+
+  @Override
+  protected NumberedEdgeManager<T> getEdgeManager() {
+    return edgeManager;
+  }
+
+  /**
+   * Nodes indexed by number. Nodes that carry their own number in the graph they were copied from
+   * are looked up by it. Otherwise, numbers are found with an open addressing hash table of the
+   * nodes, which avoids an object per node.
+   */
+  private class Nodes implements NumberedNodeManager<T> {
+
+    private final Object[] nodes;
+
+    private final int count;
+
+    /** the nodes, at positions given by their hash codes, or null if all nodes carry numbers */
+    private final Object[] keys;
+
+    /** the number of the node at the same position in {@link #keys} */
+    private final int[] numbers;
+
+    Nodes(Object[] nodes, int count) {
+      this.nodes = nodes;
+      this.count = count;
+      boolean numbered = true;
+      for (int i = 0; i < nodes.length && numbered; i++) {
+        numbered =
+            nodes[i] == null
+                || (nodes[i] instanceof INodeWithNumber
+                    && ((INodeWithNumber) nodes[i]).getGraphNodeId() == i);
+      }
+      if (numbered) {
+        keys = null;
+        numbers = null;
+      } else {
+        int capacity = Integer.highestOneBit(Math.max(2, 2 * count - 1)) << 1;
+        keys = new Object[capacity];
+        numbers = new int[capacity];
+        for (int i = 0; i < nodes.length; i++) {
+          if (nodes[i] != null) {
+            int h = slot(nodes[i]);
+            while (keys[h] != null) {
+              h = (h + 1) & (keys.length - 1);
+            }
+            keys[h] = nodes[i];
+            numbers[h] = i;
+          }
+        }
+      }
+    }
+
+    private int slot(Object n) {
+      int h = n.hashCode();
+      return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    @Override
+    public int getNumber(T n) {
+      if (n == null) {
+        throw new IllegalArgumentException("n is null");
+      }
+      if (keys == null) {
+        if (n instanceof INodeWithNumber) {
+          int i = ((INodeWithNumber) n).getGraphNodeId();
+          if (i >= 0 && i < nodes.length && (n == nodes[i] || n.equals(nodes[i]))) {
+            return i;
+          }
+        }
+        return -1;
+      }
+      for (int h = slot(n); keys[h] != null; h = (h + 1) & (keys.length - 1)) {
+        if (keys[h].equals(n)) {
+          return numbers[h];
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T getNode(int number) {
+      return number >= 0 && number < nodes.length ? (T) nodes[number] : null;
+    }
+
+    @Override
+    public int getMaxNumber() {
+      return nodes.length - 1;
+    }
+
+    @Override
+    public Iterator<T> iterateNodes(IntSet s) {
+      return new NumberedNodeIterator<>(s, this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<T> stream() {
+      return Arrays.stream(nodes).filter(Objects::nonNull).map(n -> (T) n);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+      return count;
+    }
+
+    @Override
+    public void addNode(T n) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeNode(T n) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsNode(T n) {
+      return n != null && getNumber(n) != -1;
+    }
+  }
+
+  /** Successors and predecessors in compressed sparse row form. */
+  private class Edges implements NumberedEdgeManager<T> {
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    Edges(int[] succOffsets, int[] succs, int[] predOffsets, int[] preds) {
+      this.succOffsets = succOffsets;
+      this.succs = succs;
+      this.predOffsets = predOffsets;
+      this.preds = preds;
+    }
+
+    private int number(T n) {
+      int number = nodeManager.getNumber(n);
+      if (number == -1) {
+        throw new IllegalArgumentException("node not in graph: " + n);
+      }
+      return number;
+    }
+
+    @Override
+    public Iterator<T> getPredNodes(T n) {
+      int i = number(n);
+      return new NodeIterator(preds, predOffsets[i], predOffsets[i + 1]);
+    }
+
+    @Override
+    public int getPredNodeCount(T n) {
+      int i = number(n);
+      return predOffsets[i + 1] - predOffsets[i];
+    }
+
+    @Override
+    public Iterator<T> getSuccNodes(T n) {
+      int i = number(n);
+      return new NodeIterator(succs, succOffsets[i], succOffsets[i + 1]);
+    }
+
+    @Override
+    public int getSuccNodeCount(T n) {
+      int i = number(n);
+      return succOffsets[i + 1] - succOffsets[i];
+    }
+
+    @Override
+    public IntSet getSuccNodeNumbers(T node) {
+      int i = number(node);
+      return new Numbers(succs, succOffsets[i], succOffsets[i + 1]);
+    }
+
+    @Override
+    public IntSet getPredNodeNumbers(T node) {
+      int i = number(node);
+      return new Numbers(preds, predOffsets[i], predOffsets[i + 1]);
+    }
+
+    @Override
+    public boolean hasEdge(T src, T dst) {
+      int i = nodeManager.getNumber(src);
+      int j = nodeManager.getNumber(dst);
+      return i != -1
+          && j != -1
+          && Arrays.binarySearch(succs, succOffsets[i], succOffsets[i + 1], j) >= 0;
+    }
+
+    @Override
+    public void addEdge(T src, T dst) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeEdge(T src, T dst) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeAllIncidentEdges(T node) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeIncomingEdges(T node) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void removeOutgoingEdges(T node) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** The nodes whose numbers are in a range of an edge array */
+  private class NodeIterator implements Iterator<T> {
+
+    private final int[] numbers;
+
+    private final int end;
+
+    private int next;
+
+    NodeIterator(int[] numbers, int start, int end) {
+      this.numbers = numbers;
+      this.next = start;
+      this.end = end;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < end;
+    }
+
+    @Override
+    public T next() {
+      if (next >= end) {
+        throw new NoSuchElementException();
+      }
+      return nodeManager.getNode(numbers[next++]);
+    }
+  }
+
+  /**
+   * A copy of a range of an edge array. A {@link SparseIntSet}, rather than a view of the array,
+   * so that other {@link IntSet} implementations can combine it with theirs.
+   */
+  private static final class Numbers extends SparseIntSet {
+
+    private static final long serialVersionUID = -3146580214815651720L;
+
+    Numbers(int[] numbers, int start, int end) {
+      super(Arrays.copyOfRange(numbers, start, end));
+    }
+  }
+}
@@ -10,6 +10,7 @@
  */
 package com.ibm.wala.util.intset;
 
+import com.ibm.wala.util.AnalysisSession;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.UnimplementedError;
 import java.util.Set;
@@ -20,36 +21,12 @@ public class IntSetUtil {
   public static final String INT_SET_FACTORY_CONFIG_PROPERTY_NAME =
       "com.ibm.wala.mutableIntSetFactory";
 
-  private static MutableIntSetFactory<?> defaultIntSetFactory;
-
-  static {
-    MutableIntSetFactory<?> defaultFactory = new MutableSharedBitVectorIntSetFactory();
-    if (System.getProperty(INT_SET_FACTORY_CONFIG_PROPERTY_NAME) != null) {
-      try {
-        @SuppressWarnings("unchecked")
-        Class<? extends MutableIntSetFactory<?>> intSetFactoryClass =
-            (Class<? extends MutableIntSetFactory<?>>)
-                Class.forName(System.getProperty(INT_SET_FACTORY_CONFIG_PROPERTY_NAME));
-        MutableIntSetFactory<?> intSetFactory = intSetFactoryClass.newInstance();
-        setDefaultIntSetFactory(intSetFactory);
-      } catch (Exception e) {
-        System.err.println(
-            ("Cannot use int set factory "
-                + System.getProperty(INT_SET_FACTORY_CONFIG_PROPERTY_NAME)));
-        setDefaultIntSetFactory(defaultFactory);
-      }
-    } else {
-      setDefaultIntSetFactory(defaultFactory);
-    }
-    assert defaultIntSetFactory != null;
-  }
-
   public static MutableIntSet make() {
-    return defaultIntSetFactory.make();
+    return getDefaultIntSetFactory().make();
   }
 
   public static MutableIntSet make(int[] initial) {
-    return defaultIntSetFactory.make(initial);
+    return getDefaultIntSetFactory().make(initial);
   }
 
   public static IntSet make(Set<Integer> x) {
@@ -84,6 +61,8 @@ public class IntSetUtil {
       return new MutableSharedBitVectorIntSet((MutableSharedBitVectorIntSet) set);
     } else if (set instanceof SemiSparseMutableIntSet) {
       return new SemiSparseMutableIntSet((SemiSparseMutableIntSet) set);
+    } else if (set instanceof RoaringMutableIntSet) {
+      return new RoaringMutableIntSet((RoaringMutableIntSet) set);
     } else if (set instanceof DebuggingMutableIntSet) {
       MutableIntSet pCopy = makeMutableCopy(((DebuggingMutableIntSet) set).primaryImpl);
       MutableIntSet sCopy = makeMutableCopy(((DebuggingMutableIntSet) set).secondaryImpl);
@@ -143,6 +122,8 @@ public class IntSetUtil {
       IntSet d =
           SemiSparseMutableIntSet.diff((SemiSparseMutableIntSet) A, (SemiSparseMutableIntSet) B);
       return d;
+    } else if (A instanceof RoaringMutableIntSet && B instanceof RoaringMutableIntSet) {
+      return RoaringMutableIntSet.diff((RoaringMutableIntSet) A, (RoaringMutableIntSet) B);
     } else {
       return defaultSlowDiff(A, B, factory);
     }
@@ -165,6 +146,8 @@ public class IntSetUtil {
         System.err.println("call SemiSparseMutableIntSet.removeAll");
       }
       return ((SemiSparseMutableIntSet) A).removeAll((SemiSparseMutableIntSet) B);
+    } else if (A instanceof RoaringMutableIntSet && B instanceof RoaringMutableIntSet) {
+      return ((RoaringMutableIntSet) A).removeAll((RoaringMutableIntSet) B);
     } else {
       for (IntIterator it = B.intIterator(); it.hasNext(); ) {
         int I = it.next();
@@ -210,17 +193,20 @@ public class IntSetUtil {
     }
   }
 
-  /** @return Returns the defaultIntSetFactory. */
+  /** @return Returns the defaultIntSetFactory of the current {@link AnalysisSession}. */
   public static MutableIntSetFactory<?> getDefaultIntSetFactory() {
-    return defaultIntSetFactory;
+    return AnalysisSession.current().getIntSetFactory();
   }
 
-  /** @param defaultIntSetFactory The defaultIntSetFactory to set. */
+  /**
+   * @param defaultIntSetFactory The defaultIntSetFactory to set for the current {@link
+   *     AnalysisSession}.
+   */
   public static void setDefaultIntSetFactory(MutableIntSetFactory<?> defaultIntSetFactory) {
     if (defaultIntSetFactory == null) {
       throw new IllegalArgumentException("null defaultIntSetFactory");
     }
-    IntSetUtil.defaultIntSetFactory = defaultIntSetFactory;
+    AnalysisSession.current().setIntSetFactory(defaultIntSetFactory);
   }
 
   /**
@@ -0,0 +1,1482 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.util.intset;
+
+import com.ibm.wala.util.collections.EmptyIntIterator;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of non-negative integers kept as a compressed bitmap, in the style of Roaring bitmaps.
+ *
+ * <p>The integers are split into chunks of 2<sup>16</sup> that share their high 16 bits. Each
+ * non-empty chunk keeps the low 16 bits of its elements in whichever container is smallest: a
+ * sorted array, a bitmap, or a list of runs of consecutive integers. Memory use therefore follows
+ * the number and clustering of the elements, not the magnitude of the largest one, which suits
+ * points-to sets when instance keys are numbered across a large range.
+ */
+public class RoaringMutableIntSet implements MutableIntSet {
+
+  private static final long serialVersionUID = -4318205714127380942L;
+
+  /** containers with more elements than this are never arrays */
+  static final int MAX_ARRAY_SIZE = 4096;
+
+  /** number of integers in a chunk */
+  private static final int CHUNK_SIZE = 1 << 16;
+
+  /** number of words in a bitmap container */
+  private static final int BITMAP_WORDS = CHUNK_SIZE / Long.SIZE;
+
+  /** size in bytes of a bitmap container */
+  private static final int BITMAP_BYTES = CHUNK_SIZE / Byte.SIZE;
+
+  private static final int INITIAL_CHUNKS = 4;
+
+  /** high 16 bits of the non-empty chunks, in increasing order */
+  private char[] keys = new char[INITIAL_CHUNKS];
+
+  /** containers[i] holds the low 16 bits of the elements of chunk keys[i] */
+  private Container[] containers = new Container[INITIAL_CHUNKS];
+
+  /** number of non-empty chunks */
+  private int chunks;
+
+  public RoaringMutableIntSet() {}
+
+  /** @throws IllegalArgumentException if set is null */
+  public RoaringMutableIntSet(RoaringMutableIntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set == null");
+    }
+    copySet(set);
+  }
+
+  private int indexOf(char key) {
+    return Arrays.binarySearch(keys, 0, chunks, key);
+  }
+
+  private void insertChunk(int index, char key, Container c) {
+    if (chunks == keys.length) {
+      keys = Arrays.copyOf(keys, 2 * chunks);
+      containers = Arrays.copyOf(containers, 2 * chunks);
+    }
+    System.arraycopy(keys, index, keys, index + 1, chunks - index);
+    System.arraycopy(containers, index, containers, index + 1, chunks - index);
+    keys[index] = key;
+    containers[index] = c;
+    chunks++;
+  }
+
+  private void removeChunk(int index) {
+    System.arraycopy(keys, index + 1, keys, index, chunks - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, chunks - index - 1);
+    chunks--;
+    containers[chunks] = null;
+  }
+
+  /** Keep c for the chunk at index, dropping the chunk if c is empty. */
+  private void setChunk(int index, Container c) {
+    if (c.cardinality() == 0) {
+      removeChunk(index);
+    } else {
+      containers[index] = c;
+    }
+  }
+
+  @Override
+  public boolean contains(int i) {
+    if (i < 0) {
+      return false;
+    }
+    int index = indexOf((char) (i >>> 16));
+    return index >= 0 && containers[index].contains((char) i);
+  }
+
+  /** @throws IllegalArgumentException if i is negative */
+  @Override
+  public boolean add(int i) {
+    if (i < 0) {
+      throw new IllegalArgumentException("negative element: " + i);
+    }
+    char key = (char) (i >>> 16);
+    int index = indexOf(key);
+    if (index < 0) {
+      ArrayContainer c = new ArrayContainer(1);
+      c.add((char) i);
+      insertChunk(-index - 1, key, c);
+      return true;
+    }
+    Container c = containers[index];
+    int before = c.cardinality();
+    c = c.add((char) i);
+    containers[index] = c;
+    return c.cardinality() != before;
+  }
+
+  @Override
+  public boolean remove(int i) {
+    if (i < 0) {
+      return false;
+    }
+    int index = indexOf((char) (i >>> 16));
+    if (index < 0) {
+      return false;
+    }
+    Container c = containers[index];
+    int before = c.cardinality();
+    c = c.remove((char) i);
+    setChunk(index, c);
+    return c.cardinality() != before;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(containers, 0, chunks, null);
+    chunks = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return chunks == 0;
+  }
+
+  @Override
+  public int size() {
+    int result = 0;
+    for (int i = 0; i < chunks; i++) {
+      result += containers[i].cardinality();
+    }
+    return result;
+  }
+
+  /** @throws IllegalStateException if this set is empty */
+  @Override
+  public int max() throws IllegalStateException {
+    if (chunks == 0) {
+      throw new IllegalStateException("Illegal to ask max() on an empty int set");
+    }
+    return (keys[chunks - 1] << 16) | containers[chunks - 1].last();
+  }
+
+  @Override
+  public void copySet(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set == null");
+    }
+    if (set == this) {
+      return;
+    }
+    if (set instanceof RoaringMutableIntSet) {
+      RoaringMutableIntSet that = (RoaringMutableIntSet) set;
+      int capacity = Math.max(INITIAL_CHUNKS, that.chunks);
+      keys = Arrays.copyOf(that.keys, capacity);
+      containers = new Container[capacity];
+      for (int i = 0; i < that.chunks; i++) {
+        containers[i] = that.containers[i].copy();
+      }
+      chunks = that.chunks;
+    } else {
+      clear();
+      addAll(set);
+    }
+  }
+
+  @Override
+  public boolean addAll(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set == null");
+    }
+    if (set instanceof RoaringMutableIntSet) {
+      return addAll((RoaringMutableIntSet) set);
+    }
+    boolean change = false;
+    for (IntIterator it = set.intIterator(); it.hasNext(); ) {
+      change |= add(it.next());
+    }
+    return change;
+  }
+
+  private boolean addAll(RoaringMutableIntSet that) {
+    if (that == this) {
+      return false;
+    }
+    boolean change = false;
+    int i = 0;
+    for (int j = 0; j < that.chunks; j++) {
+      char key = that.keys[j];
+      while (i < chunks && keys[i] < key) {
+        i++;
+      }
+      if (i < chunks && keys[i] == key) {
+        change |= orInto(i, that.containers[j]);
+      } else {
+        insertChunk(i, key, that.containers[j].copy());
+        change = true;
+      }
+      i++;
+    }
+    return change;
+  }
+
+  /**
+   * Add the elements of c to the chunk at index.
+   *
+   * @return true iff the chunk changed
+   */
+  private boolean orInto(int index, Container c) {
+    Container old = containers[index];
+    int before = old.cardinality();
+    Container result = old.or(c);
+    containers[index] = result;
+    return result.cardinality() != before;
+  }
+
+  @Override
+  public void intersectWith(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set == null");
+    }
+    if (set == this) {
+      return;
+    }
+    if (set instanceof RoaringMutableIntSet) {
+      RoaringMutableIntSet that = (RoaringMutableIntSet) set;
+      int kept = 0;
+      int j = 0;
+      for (int i = 0; i < chunks; i++) {
+        while (j < that.chunks && that.keys[j] < keys[i]) {
+          j++;
+        }
+        if (j < that.chunks && that.keys[j] == keys[i]) {
+          Container c = containers[i].and(that.containers[j]);
+          if (c.cardinality() > 0) {
+            keys[kept] = keys[i];
+            containers[kept++] = c;
+          }
+        }
+      }
+      Arrays.fill(containers, kept, chunks, null);
+      chunks = kept;
+    } else {
+      RoaringMutableIntSet result = new RoaringMutableIntSet();
+      foreach(
+          x -> {
+            if (set.contains(x)) {
+              result.add(x);
+            }
+          });
+      keys = result.keys;
+      containers = result.containers;
+      chunks = result.chunks;
+    }
+  }
+
+  @Override
+  public boolean addAllInIntersection(IntSet other, IntSet filter) {
+    if (other == null) {
+      throw new IllegalArgumentException("other == null");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("filter == null");
+    }
+    if (!(other instanceof RoaringMutableIntSet) || !(filter instanceof RoaringMutableIntSet)) {
+      boolean change = false;
+      for (IntIterator it = other.intIterator(); it.hasNext(); ) {
+        int x = it.next();
+        if (filter.contains(x)) {
+          change |= add(x);
+        }
+      }
+      return change;
+    }
+    RoaringMutableIntSet o = (RoaringMutableIntSet) other;
+    RoaringMutableIntSet f = (RoaringMutableIntSet) filter;
+    boolean change = false;
+    int j = 0;
+    for (int i = 0; i < o.chunks; i++) {
+      char key = o.keys[i];
+      while (j < f.chunks && f.keys[j] < key) {
+        j++;
+      }
+      if (j < f.chunks && f.keys[j] == key) {
+        Container c = o.containers[i].and(f.containers[j]);
+        if (c.cardinality() > 0) {
+          int index = indexOf(key);
+          if (index >= 0) {
+            change |= orInto(index, c);
+          } else {
+            insertChunk(-index - 1, key, c);
+            change = true;
+          }
+        }
+      }
+    }
+    return change;
+  }
+
+  /**
+   * Remove the elements of B from this set.
+   *
+   * @return this
+   * @throws IllegalArgumentException if B is null
+   */
+  public RoaringMutableIntSet removeAll(RoaringMutableIntSet B) {
+    if (B == null) {
+      throw new IllegalArgumentException("B null");
+    }
+    if (B == this) {
+      clear();
+      return this;
+    }
+    int j = 0;
+    for (int i = 0; i < chunks; ) {
+      while (j < B.chunks && B.keys[j] < keys[i]) {
+        j++;
+      }
+      if (j < B.chunks && B.keys[j] == keys[i]) {
+        int before = chunks;
+        setChunk(i, containers[i].andNot(B.containers[j]));
+        if (chunks == before) {
+          i++;
+        }
+      } else {
+        i++;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return a new set holding the elements of A that are not in B
+   * @throws IllegalArgumentException if A or B is null
+   */
+  public static RoaringMutableIntSet diff(RoaringMutableIntSet A, RoaringMutableIntSet B) {
+    if (A == null) {
+      throw new IllegalArgumentException("A is null");
+    }
+    if (B == null) {
+      throw new IllegalArgumentException("B is null");
+    }
+    return new RoaringMutableIntSet(A).removeAll(B);
+  }
+
+  /**
+   * Store every chunk in its smallest container, turning arrays and bitmaps into lists of runs
+   * where that saves space. Additions keep the container of a chunk unless it overflows, so call
+   * this once a set has been built.
+   */
+  public void runOptimize() {
+    for (int i = 0; i < chunks; i++) {
+      containers[i] = containers[i].optimize();
+    }
+  }
+
+  @Override
+  public boolean containsAny(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set == null");
+    }
+    if (set instanceof RoaringMutableIntSet) {
+      RoaringMutableIntSet that = (RoaringMutableIntSet) set;
+      int j = 0;
+      for (int i = 0; i < chunks; i++) {
+        while (j < that.chunks && that.keys[j] < keys[i]) {
+          j++;
+        }
+        if (j < that.chunks
+            && that.keys[j] == keys[i]
+            && containers[i].intersects(that.containers[j])) {
+          return true;
+        }
+      }
+      return false;
+    }
+    for (IntIterator it = set.intIterator(); it.hasNext(); ) {
+      if (contains(it.next())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public IntSet intersection(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("that == null");
+    }
+    RoaringMutableIntSet result = new RoaringMutableIntSet(this);
+    result.intersectWith(that);
+    return result;
+  }
+
+  @Override
+  public IntSet union(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("that == null");
+    }
+    RoaringMutableIntSet result = new RoaringMutableIntSet(this);
+    result.addAll(that);
+    return result;
+  }
+
+  @Override
+  public boolean sameValue(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("that == null");
+    }
+    if (that instanceof RoaringMutableIntSet) {
+      RoaringMutableIntSet s = (RoaringMutableIntSet) that;
+      if (chunks != s.chunks) {
+        return false;
+      }
+      for (int i = 0; i < chunks; i++) {
+        if (keys[i] != s.keys[i]
+            || containers[i].cardinality() != s.containers[i].cardinality()
+            || !containers[i].isSubset(s.containers[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return size() == that.size() && isSubset(that);
+  }
+
+  @Override
+  public boolean isSubset(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("that == null");
+    }
+    if (that instanceof RoaringMutableIntSet) {
+      RoaringMutableIntSet s = (RoaringMutableIntSet) that;
+      int j = 0;
+      for (int i = 0; i < chunks; i++) {
+        while (j < s.chunks && s.keys[j] < keys[i]) {
+          j++;
+        }
+        if (j == s.chunks || s.keys[j] != keys[i] || !containers[i].isSubset(s.containers[j])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (IntIterator it = intIterator(); it.hasNext(); ) {
+      if (!that.contains(it.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public IntIterator intIterator() {
+    return new IntIterator() {
+      private int chunk = -1;
+
+      private IntIterator current = EmptyIntIterator.instance();
+
+      private int high;
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext()) {
+          if (chunk + 1 >= chunks) {
+            return false;
+          }
+          chunk++;
+          current = containers[chunk].iterator();
+          high = keys[chunk] << 16;
+        }
+        return true;
+      }
+
+      @Override
+      public int next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return high | current.next();
+      }
+    };
+  }
+
+  @Override
+  public void foreach(IntSetAction action) {
+    if (action == null) {
+      throw new IllegalArgumentException("null action");
+    }
+    for (int i = 0; i < chunks; i++) {
+      containers[i].foreach(keys[i] << 16, action);
+    }
+  }
+
+  @Override
+  public void foreachExcluding(IntSet X, IntSetAction action) {
+    if (X == null) {
+      throw new IllegalArgumentException("null X");
+    }
+    if (action == null) {
+      throw new IllegalArgumentException("null action");
+    }
+    if (!(X instanceof RoaringMutableIntSet)) {
+      foreach(
+          x -> {
+            if (!X.contains(x)) {
+              action.act(x);
+            }
+          });
+      return;
+    }
+    RoaringMutableIntSet that = (RoaringMutableIntSet) X;
+    int j = 0;
+    for (int i = 0; i < chunks; i++) {
+      while (j < that.chunks && that.keys[j] < keys[i]) {
+        j++;
+      }
+      int high = keys[i] << 16;
+      if (j < that.chunks && that.keys[j] == keys[i]) {
+        Container excluded = that.containers[j];
+        containers[i].foreach(
+            high,
+            x -> {
+              if (!excluded.contains((char) x)) {
+                action.act(x);
+              }
+            });
+      } else {
+        containers[i].foreach(high, action);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{ ");
+    foreach(x -> sb.append(x).append(' '));
+    sb.append('}');
+    return sb.toString();
+  }
+
+  /** size in bytes of a run container with the given number of runs */
+  private static int runBytes(int runs) {
+    return 2 + 4 * runs;
+  }
+
+  /** Set the bits start..end, inclusive, of a bitmap. */
+  private static void setRange(long[] words, int start, int end) {
+    int first = start >>> 6;
+    int last = end >>> 6;
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> (63 - (end & 63));
+    if (first == last) {
+      words[first] |= firstMask & lastMask;
+    } else {
+      words[first] |= firstMask;
+      Arrays.fill(words, first + 1, last, -1L);
+      words[last] |= lastMask;
+    }
+  }
+
+  /** @return true iff any of the bits start..end, inclusive, of a bitmap is set */
+  private static boolean anyInRange(long[] words, int start, int end) {
+    int first = start >>> 6;
+    int last = end >>> 6;
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> (63 - (end & 63));
+    if (first == last) {
+      return (words[first] & firstMask & lastMask) != 0;
+    }
+    if ((words[first] & firstMask) != 0 || (words[last] & lastMask) != 0) {
+      return true;
+    }
+    for (int k = first + 1; k < last; k++) {
+      if (words[k] != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The low 16 bits of the elements of one chunk */
+  private abstract static class Container implements Serializable {
+
+    private static final long serialVersionUID = 2839471105367012436L;
+
+    abstract int cardinality();
+
+    abstract boolean contains(char x);
+
+    /** @return this or a replacement, holding x as well */
+    abstract Container add(char x);
+
+    /** @return this or a replacement, without x */
+    abstract Container remove(char x);
+
+    /** @return this or a replacement, holding the elements of other as well; other is unchanged */
+    abstract Container or(Container other);
+
+    /** @return a new container of the elements in both this and other */
+    abstract Container and(Container other);
+
+    /** @return this or a replacement, without the elements of other; other is unchanged */
+    abstract Container andNot(Container other);
+
+    abstract boolean intersects(Container other);
+
+    /** Set the bits of the elements of this in a bitmap. */
+    abstract void setBitsIn(long[] words);
+
+    /** @return the largest element */
+    abstract int last();
+
+    abstract Container copy();
+
+    /** @return this or a smaller container holding the same elements */
+    abstract Container optimize();
+
+    /** Apply action to each element, with high as its high bits. */
+    abstract void foreach(int high, IntSetAction action);
+
+    abstract IntIterator iterator();
+
+    boolean isSubset(Container other) {
+      if (cardinality() > other.cardinality()) {
+        return false;
+      }
+      for (IntIterator it = iterator(); it.hasNext(); ) {
+        if (!other.contains((char) it.next())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** @return a bitmap container holding the elements of this */
+    BitmapContainer toBitmap() {
+      BitmapContainer result = new BitmapContainer();
+      setBitsIn(result.words);
+      result.cardinality = cardinality();
+      return result;
+    }
+  }
+
+  /** A container that is a sorted array of at most {@link #MAX_ARRAY_SIZE} elements */
+  private static final class ArrayContainer extends Container {
+
+    private static final long serialVersionUID = -2150462307542193657L;
+
+    private char[] values;
+
+    private int size;
+
+    ArrayContainer(int capacity) {
+      values = new char[capacity];
+    }
+
+    ArrayContainer(char[] values, int size) {
+      this.values = values;
+      this.size = size;
+    }
+
+    @Override
+    int cardinality() {
+      return size;
+    }
+
+    @Override
+    boolean contains(char x) {
+      return Arrays.binarySearch(values, 0, size, x) >= 0;
+    }
+
+    @Override
+    Container add(char x) {
+      int index = Arrays.binarySearch(values, 0, size, x);
+      if (index >= 0) {
+        return this;
+      }
+      if (size == MAX_ARRAY_SIZE) {
+        return toBitmap().add(x);
+      }
+      index = -index - 1;
+      if (size == values.length) {
+        values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, 2 * size)));
+      }
+      System.arraycopy(values, index, values, index + 1, size - index);
+      values[index] = x;
+      size++;
+      return this;
+    }
+
+    @Override
+    Container remove(char x) {
+      int index = Arrays.binarySearch(values, 0, size, x);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+      }
+      return this;
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof ArrayContainer) {
+        ArrayContainer that = (ArrayContainer) other;
+        if (size + that.size > MAX_ARRAY_SIZE) {
+          BitmapContainer result = toBitmap();
+          return result.or(that).optimize();
+        }
+        char[] merged = new char[size + that.size];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < that.size) {
+          char a = values[i];
+          char b = that.values[j];
+          if (a < b) {
+            merged[n++] = a;
+            i++;
+          } else if (a > b) {
+            merged[n++] = b;
+            j++;
+          } else {
+            merged[n++] = a;
+            i++;
+            j++;
+          }
+        }
+        while (i < size) {
+          merged[n++] = values[i++];
+        }
+        while (j < that.size) {
+          merged[n++] = that.values[j++];
+        }
+        if (n == size) {
+          return this;
+        }
+        values = merged;
+        size = n;
+        return optimize();
+      } else if (other instanceof RunContainer) {
+        Container result = other.or(this);
+        return result == other ? other.copy() : result;
+      } else {
+        BitmapContainer result = (BitmapContainer) other.copy();
+        return result.or(this);
+      }
+    }
+
+    @Override
+    Container and(Container other) {
+      char[] kept = new char[size];
+      int n = 0;
+      for (int i = 0; i < size; i++) {
+        if (other.contains(values[i])) {
+          kept[n++] = values[i];
+        }
+      }
+      return new ArrayContainer(Arrays.copyOf(kept, n), n);
+    }
+
+    @Override
+    Container andNot(Container other) {
+      int n = 0;
+      for (int i = 0; i < size; i++) {
+        if (!other.contains(values[i])) {
+          values[n++] = values[i];
+        }
+      }
+      size = n;
+      return this;
+    }
+
+    @Override
+    boolean intersects(Container other) {
+      for (int i = 0; i < size; i++) {
+        if (other.contains(values[i])) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    void setBitsIn(long[] words) {
+      for (int i = 0; i < size; i++) {
+        char x = values[i];
+        words[x >>> 6] |= 1L << x;
+      }
+    }
+
+    @Override
+    int last() {
+      return values[size - 1];
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, size), size);
+    }
+
+    private int numberOfRuns() {
+      int runs = size == 0 ? 0 : 1;
+      for (int i = 1; i < size; i++) {
+        if (values[i] != values[i - 1] + 1) {
+          runs++;
+        }
+      }
+      return runs;
+    }
+
+    @Override
+    Container optimize() {
+      int runs = numberOfRuns();
+      if (runBytes(runs) < 2 * size) {
+        RunBuilder result = new RunBuilder(runs);
+        for (int i = 0; i < size; i++) {
+          result.append(values[i], values[i]);
+        }
+        return result.build();
+      }
+      return this;
+    }
+
+    @Override
+    void foreach(int high, IntSetAction action) {
+      for (int i = 0; i < size; i++) {
+        action.act(high | values[i]);
+      }
+    }
+
+    @Override
+    IntIterator iterator() {
+      return new IntIterator() {
+        private int i = 0;
+
+        @Override
+        public boolean hasNext() {
+          return i < size;
+        }
+
+        @Override
+        public int next() {
+          if (i >= size) {
+            throw new NoSuchElementException();
+          }
+          return values[i++];
+        }
+      };
+    }
+  }
+
+  /** A container that is a bitmap of more than {@link #MAX_ARRAY_SIZE} elements */
+  private static final class BitmapContainer extends Container {
+
+    private static final long serialVersionUID = 6524072316547829315L;
+
+    private final long[] words;
+
+    private int cardinality;
+
+    BitmapContainer() {
+      words = new long[BITMAP_WORDS];
+    }
+
+    private BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    private void recount() {
+      int c = 0;
+      for (long w : words) {
+        c += Long.bitCount(w);
+      }
+      cardinality = c;
+    }
+
+    @Override
+    boolean contains(char x) {
+      return (words[x >>> 6] & (1L << x)) != 0;
+    }
+
+    @Override
+    Container add(char x) {
+      long w = words[x >>> 6];
+      long bit = 1L << x;
+      if ((w & bit) == 0) {
+        words[x >>> 6] = w | bit;
+        cardinality++;
+        if (cardinality == CHUNK_SIZE) {
+          return RunContainer.full();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    Container remove(char x) {
+      long w = words[x >>> 6];
+      long bit = 1L << x;
+      if ((w & bit) != 0) {
+        words[x >>> 6] = w & ~bit;
+        cardinality--;
+        if (cardinality <= MAX_ARRAY_SIZE) {
+          return toArray();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof BitmapContainer) {
+        long[] that = ((BitmapContainer) other).words;
+        int c = 0;
+        for (int k = 0; k < BITMAP_WORDS; k++) {
+          long w = words[k] | that[k];
+          words[k] = w;
+          c += Long.bitCount(w);
+        }
+        if (c == cardinality) {
+          return this;
+        }
+        cardinality = c;
+        return optimize();
+      } else if (other instanceof ArrayContainer) {
+        ArrayContainer that = (ArrayContainer) other;
+        for (int i = 0; i < that.size; i++) {
+          char x = that.values[i];
+          long w = words[x >>> 6];
+          long bit = 1L << x;
+          if ((w & bit) == 0) {
+            words[x >>> 6] = w | bit;
+            cardinality++;
+          }
+        }
+        return cardinality == CHUNK_SIZE ? RunContainer.full() : this;
+      } else {
+        int before = cardinality;
+        other.setBitsIn(words);
+        recount();
+        return cardinality == before ? this : optimize();
+      }
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof BitmapContainer) {
+        long[] that = ((BitmapContainer) other).words;
+        long[] result = new long[BITMAP_WORDS];
+        int c = 0;
+        for (int k = 0; k < BITMAP_WORDS; k++) {
+          long w = words[k] & that[k];
+          result[k] = w;
+          c += Long.bitCount(w);
+        }
+        return new BitmapContainer(result, c).optimize();
+      } else {
+        return other.and(this);
+      }
+    }
+
+    @Override
+    Container andNot(Container other) {
+      if (other instanceof BitmapContainer) {
+        long[] that = ((BitmapContainer) other).words;
+        for (int k = 0; k < BITMAP_WORDS; k++) {
+          words[k] &= ~that[k];
+        }
+      } else {
+        long[] that = new long[BITMAP_WORDS];
+        other.setBitsIn(that);
+        for (int k = 0; k < BITMAP_WORDS; k++) {
+          words[k] &= ~that[k];
+        }
+      }
+      recount();
+      return cardinality <= MAX_ARRAY_SIZE ? toArray() : this;
+    }
+
+    @Override
+    boolean intersects(Container other) {
+      if (other instanceof BitmapContainer) {
+        long[] that = ((BitmapContainer) other).words;
+        for (int k = 0; k < BITMAP_WORDS; k++) {
+          if ((words[k] & that[k]) != 0) {
+            return true;
+          }
+        }
+        return false;
+      } else {
+        return other.intersects(this);
+      }
+    }
+
+    @Override
+    void setBitsIn(long[] that) {
+      for (int k = 0; k < BITMAP_WORDS; k++) {
+        that[k] |= words[k];
+      }
+    }
+
+    @Override
+    int last() {
+      for (int k = BITMAP_WORDS - 1; ; k--) {
+        if (words[k] != 0) {
+          return k * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(words[k]);
+        }
+      }
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    /** @return the smallest element at least from, or -1 if there is none */
+    private int nextSetBit(int from) {
+      if (from >= CHUNK_SIZE) {
+        return -1;
+      }
+      int k = from >>> 6;
+      long w = words[k] & (-1L << from);
+      while (w == 0) {
+        if (++k == BITMAP_WORDS) {
+          return -1;
+        }
+        w = words[k];
+      }
+      return k * Long.SIZE + Long.numberOfTrailingZeros(w);
+    }
+
+    /** @return the smallest non-element at least from, or {@link #CHUNK_SIZE} if there is none */
+    private int nextClearBit(int from) {
+      int k = from >>> 6;
+      long w = ~words[k] & (-1L << from);
+      while (w == 0) {
+        if (++k == BITMAP_WORDS) {
+          return CHUNK_SIZE;
+        }
+        w = ~words[k];
+      }
+      return k * Long.SIZE + Long.numberOfTrailingZeros(w);
+    }
+
+    private int numberOfRuns() {
+      int runs = 0;
+      long carry = 0;
+      for (long w : words) {
+        runs += Long.bitCount(w & ~((w << 1) | carry));
+        carry = w >>> 63;
+      }
+      return runs;
+    }
+
+    private ArrayContainer toArray() {
+      char[] values = new char[cardinality];
+      int n = 0;
+      for (int x = nextSetBit(0); x >= 0; x = nextSetBit(x + 1)) {
+        values[n++] = (char) x;
+      }
+      return new ArrayContainer(values, n);
+    }
+
+    @Override
+    Container optimize() {
+      if (cardinality <= MAX_ARRAY_SIZE) {
+        return toArray().optimize();
+      }
+      int runs = numberOfRuns();
+      if (runBytes(runs) < BITMAP_BYTES) {
+        RunBuilder result = new RunBuilder(runs);
+        for (int start = nextSetBit(0); start >= 0; ) {
+          int end = nextClearBit(start) - 1;
+          result.append(start, end);
+          start = nextSetBit(end + 1);
+        }
+        return result.build();
+      }
+      return this;
+    }
+
+    @Override
+    void foreach(int high, IntSetAction action) {
+      for (int k = 0; k < BITMAP_WORDS; k++) {
+        long w = words[k];
+        while (w != 0) {
+          action.act(high | (k * Long.SIZE + Long.numberOfTrailingZeros(w)));
+          w &= w - 1;
+        }
+      }
+    }
+
+    @Override
+    IntIterator iterator() {
+      return new IntIterator() {
+        private int next = nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public int next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          int result = next;
+          next = nextSetBit(next + 1);
+          return result;
+        }
+      };
+    }
+  }
+
+  /** A container that is a sorted list of runs of consecutive elements */
+  private static final class RunContainer extends Container {
+
+    private static final long serialVersionUID = -7960482210934576641L;
+
+    /** runs[2k] is the first element of run k and runs[2k+1] its length minus one */
+    private char[] runs;
+
+    private int count;
+
+    private int cardinality;
+
+    RunContainer(char[] runs, int count, int cardinality) {
+      this.runs = runs;
+      this.count = count;
+      this.cardinality = cardinality;
+    }
+
+    static RunContainer full() {
+      return new RunContainer(new char[] {0, (char) (CHUNK_SIZE - 1)}, 1, CHUNK_SIZE);
+    }
+
+    private int start(int k) {
+      return runs[2 * k];
+    }
+
+    private int end(int k) {
+      return runs[2 * k] + runs[2 * k + 1];
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    /** @return the last run starting at or before x, or -1 if there is none */
+    private int runAtOrBefore(int x) {
+      int low = 0;
+      int high = count - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (start(mid) <= x) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return high;
+    }
+
+    @Override
+    boolean contains(char x) {
+      int k = runAtOrBefore(x);
+      return k >= 0 && x <= end(k);
+    }
+
+    private void insertRun(int k, int start, int end) {
+      if (2 * count == runs.length) {
+        runs = Arrays.copyOf(runs, Math.max(4, 4 * count));
+      }
+      System.arraycopy(runs, 2 * k, runs, 2 * k + 2, 2 * (count - k));
+      runs[2 * k] = (char) start;
+      runs[2 * k + 1] = (char) (end - start);
+      count++;
+    }
+
+    private void removeRun(int k) {
+      System.arraycopy(runs, 2 * k + 2, runs, 2 * k, 2 * (count - k - 1));
+      count--;
+    }
+
+    @Override
+    Container add(char x) {
+      int k = runAtOrBefore(x);
+      if (k >= 0 && x <= end(k)) {
+        return this;
+      }
+      boolean extendsPrevious = k >= 0 && end(k) + 1 == x;
+      boolean extendsNext = k + 1 < count && start(k + 1) == x + 1;
+      if (extendsPrevious && extendsNext) {
+        runs[2 * k + 1] = (char) (end(k + 1) - start(k));
+        removeRun(k + 1);
+      } else if (extendsPrevious) {
+        runs[2 * k + 1]++;
+      } else if (extendsNext) {
+        runs[2 * k + 2] = x;
+        runs[2 * k + 3]++;
+      } else {
+        insertRun(k + 1, x, x);
+      }
+      cardinality++;
+      return optimize();
+    }
+
+    @Override
+    Container remove(char x) {
+      int k = runAtOrBefore(x);
+      if (k < 0 || x > end(k)) {
+        return this;
+      }
+      int start = start(k);
+      int end = end(k);
+      if (start == end) {
+        removeRun(k);
+      } else if (x == start) {
+        runs[2 * k] = (char) (x + 1);
+        runs[2 * k + 1]--;
+      } else if (x == end) {
+        runs[2 * k + 1]--;
+      } else {
+        runs[2 * k + 1] = (char) (x - 1 - start);
+        insertRun(k + 1, x + 1, end);
+      }
+      cardinality--;
+      return optimize();
+    }
+
+    @Override
+    Container or(Container other) {
+      if (cardinality == CHUNK_SIZE) {
+        return this;
+      }
+      RunContainer that;
+      if (other instanceof RunContainer) {
+        that = (RunContainer) other;
+      } else if (other instanceof ArrayContainer) {
+        ArrayContainer a = (ArrayContainer) other;
+        RunBuilder b = new RunBuilder(a.size);
+        for (int i = 0; i < a.size; i++) {
+          b.append(a.values[i], a.values[i]);
+        }
+        that = b.build();
+      } else {
+        BitmapContainer result = (BitmapContainer) other.copy();
+        return result.or(this);
+      }
+      RunBuilder result = new RunBuilder(count + that.count);
+      int i = 0;
+      int j = 0;
+      while (i < count || j < that.count) {
+        if (j == that.count || (i < count && start(i) <= that.start(j))) {
+          result.append(start(i), end(i));
+          i++;
+        } else {
+          result.append(that.start(j), that.end(j));
+          j++;
+        }
+      }
+      if (result.cardinality == cardinality) {
+        return this;
+      }
+      return result.build().optimize();
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.and(this);
+      } else if (other instanceof RunContainer) {
+        RunContainer that = (RunContainer) other;
+        RunBuilder result = new RunBuilder(count + that.count);
+        int i = 0;
+        int j = 0;
+        while (i < count && j < that.count) {
+          int start = Math.max(start(i), that.start(j));
+          int end = Math.min(end(i), that.end(j));
+          if (start <= end) {
+            result.append(start, end);
+          }
+          if (end(i) < that.end(j)) {
+            i++;
+          } else {
+            j++;
+          }
+        }
+        return result.build().optimize();
+      } else {
+        BitmapContainer result = toBitmap();
+        long[] that = ((BitmapContainer) other).words;
+        for (int k = 0; k < BITMAP_WORDS; k++) {
+          result.words[k] &= that[k];
+        }
+        result.recount();
+        return result.optimize();
+      }
+    }
+
+    @Override
+    Container andNot(Container other) {
+      Container result = cardinality <= MAX_ARRAY_SIZE ? toBitmap().toArray() : toBitmap();
+      return result.andNot(other).optimize();
+    }
+
+    @Override
+    boolean intersects(Container other) {
+      if (other instanceof ArrayContainer) {
+        return other.intersects(this);
+      } else if (other instanceof RunContainer) {
+        RunContainer that = (RunContainer) other;
+        int i = 0;
+        int j = 0;
+        while (i < count && j < that.count) {
+          if (Math.max(start(i), that.start(j)) <= Math.min(end(i), that.end(j))) {
+            return true;
+          }
+          if (end(i) < that.end(j)) {
+            i++;
+          } else {
+            j++;
+          }
+        }
+        return false;
+      } else {
+        long[] that = ((BitmapContainer) other).words;
+        for (int k = 0; k < count; k++) {
+          if (anyInRange(that, start(k), end(k))) {
+            return true;
+          }
+        }
+        return false;
+      }
+    }
+
+    @Override
+    void setBitsIn(long[] words) {
+      for (int k = 0; k < count; k++) {
+        setRange(words, start(k), end(k));
+      }
+    }
+
+    @Override
+    int last() {
+      return end(count - 1);
+    }
+
+    @Override
+    Container copy() {
+      return new RunContainer(Arrays.copyOf(runs, 2 * count), count, cardinality);
+    }
+
+    @Override
+    Container optimize() {
+      int bytes = runBytes(count);
+      if (cardinality <= MAX_ARRAY_SIZE) {
+        if (2 * cardinality < bytes) {
+          return toBitmap().toArray();
+        }
+      } else if (BITMAP_BYTES < bytes) {
+        return toBitmap();
+      }
+      return this;
+    }
+
+    @Override
+    void foreach(int high, IntSetAction action) {
+      for (int k = 0; k < count; k++) {
+        for (int x = start(k), end = end(k); x <= end; x++) {
+          action.act(high | x);
+        }
+      }
+    }
+
+    @Override
+    IntIterator iterator() {
+      return new IntIterator() {
+        private int run = 0;
+
+        private int next = count == 0 ? -1 : start(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public int next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          int result = next;
+          if (next < end(run)) {
+            next++;
+          } else if (++run < count) {
+            next = start(run);
+          } else {
+            next = -1;
+          }
+          return result;
+        }
+      };
+    }
+  }
+
+  /** Builds a {@link RunContainer} from runs given in increasing order of their starts */
+  private static final class RunBuilder {
+
+    private char[] runs;
+
+    private int count;
+
+    private int cardinality;
+
+    RunBuilder(int capacity) {
+      runs = new char[2 * Math.max(1, capacity)];
+    }
+
+    /** Add start..end, inclusive, merging it with the last run if they overlap or touch. */
+    void append(int start, int end) {
+      if (count > 0) {
+        int lastStart = runs[2 * count - 2];
+        int lastEnd = lastStart + runs[2 * count - 1];
+        if (start <= lastEnd + 1) {
+          if (end > lastEnd) {
+            runs[2 * count - 1] = (char) (end - lastStart);
+            cardinality += end - lastEnd;
+          }
+          return;
+        }
+      }
+      if (2 * count == runs.length) {
+        runs = Arrays.copyOf(runs, 2 * runs.length);
+      }
+      runs[2 * count] = (char) start;
+      runs[2 * count + 1] = (char) (end - start);
+      count++;
+      cardinality += end - start + 1;
+    }
+
+    RunContainer build() {
+      return new RunContainer(runs, count, cardinality);
+    }
+  }
+}
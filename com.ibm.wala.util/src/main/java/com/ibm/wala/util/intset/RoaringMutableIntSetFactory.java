@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2002 - 2006 IBM Corporation.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ */
+package com.ibm.wala.util.intset;
+
+/**
+ * A factory for {@link RoaringMutableIntSet}s. To keep points-to sets in compressed bitmaps, name
+ * this class in the system property {@link IntSetUtil#INT_SET_FACTORY_CONFIG_PROPERTY_NAME}, or
+ * install an instance with {@link IntSetUtil#setDefaultIntSetFactory(MutableIntSetFactory)}.
+ */
+public class RoaringMutableIntSetFactory implements MutableIntSetFactory<RoaringMutableIntSet> {
+
+  /** @throws IllegalArgumentException if set is null */
+  @Override
+  public RoaringMutableIntSet make(int[] set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set is null");
+    }
+    RoaringMutableIntSet result = new RoaringMutableIntSet();
+    for (int element : set) {
+      result.add(element);
+    }
+    return result;
+  }
+
+  @Override
+  public RoaringMutableIntSet parse(String string) throws NumberFormatException {
+    return make(SparseIntSet.parseIntArray(string));
+  }
+
+  /*
+   * @see com.ibm.wala.util.intset.MutableIntSetFactory#make(com.ibm.wala.util.intset.IntSet)
+   */
+  @Override
+  public RoaringMutableIntSet makeCopy(IntSet x) {
+    if (x == null) {
+      throw new IllegalArgumentException("x is null");
+    }
+    RoaringMutableIntSet y = new RoaringMutableIntSet();
+    y.copySet(x);
+    return y;
+  }
+
+  /*
+   * @see com.ibm.wala.util.intset.MutableIntSetFactory#make()
+   */
+  @Override
+  public RoaringMutableIntSet make() {
+    return new RoaringMutableIntSet();
+  }
+}